@@ -0,0 +1,96 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pac4j.core.profile.AccessRequirement;
+import org.pac4j.core.profile.UserProfile;
+
+/**
+ * This class compares the access checks by role strings ({@link UserProfile#hasAccess(String, String)}) to the
+ * compiled ones ({@link UserProfile#hasAccess(AccessRequirement)}), for profiles with a growing number of roles. The
+ * required roles are the last ones of the profile (worst case of a linear scan).
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessCheckBenchmark {
+
+    @Param({ "5", "50" })
+    public int roles;
+
+    private UserProfile profile;
+
+    private String requireAnyRole;
+
+    private String requireAllRoles;
+
+    private AccessRequirement anyRoleRequirement;
+
+    private AccessRequirement allRolesRequirement;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.profile = new UserProfile();
+        for (int i = 0; i < this.roles; i++) {
+            this.profile.addRole("ROLE_" + i);
+        }
+        // the last role is missing: all the required ones are checked
+        this.requireAnyRole = "ROLE_MISSING1,ROLE_MISSING2,ROLE_" + (this.roles - 1);
+        this.requireAllRoles = "ROLE_" + (this.roles - 3) + ",ROLE_" + (this.roles - 2) + ",ROLE_" + (this.roles - 1);
+        this.anyRoleRequirement = AccessRequirement.compile(this.requireAnyRole, null);
+        this.allRolesRequirement = AccessRequirement.compile(null, this.requireAllRoles);
+    }
+
+    @Benchmark
+    public boolean anyRoleString() {
+        return this.profile.hasAccess(this.requireAnyRole, null);
+    }
+
+    @Benchmark
+    public boolean anyRoleCompiled() {
+        return this.profile.hasAccess(this.anyRoleRequirement);
+    }
+
+    @Benchmark
+    public boolean allRolesString() {
+        return this.profile.hasAccess(null, this.requireAllRoles);
+    }
+
+    @Benchmark
+    public boolean allRolesCompiled() {
+        return this.profile.hasAccess(this.allRolesRequirement);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * This class is the entry point of the benchmarks jar: it accepts the usual JMH command line options and always adds
+ * the GC profiler, so that the allocation rate is reported next to the throughput.
+ * <p>Usage: <code>java -jar pac4j-benchmarks/target/benchmarks.jar [JMH options] [benchmark regexp]</code></p>
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final Options options = new OptionsBuilder().parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
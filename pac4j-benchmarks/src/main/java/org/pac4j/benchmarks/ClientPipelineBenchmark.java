@@ -0,0 +1,99 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pac4j.core.client.RedirectAction;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.exception.RequiresHttpAction;
+import org.pac4j.core.profile.CommonProfile;
+
+/**
+ * This class benchmarks the three phases of the {@link org.pac4j.core.client.BaseClient} pipeline (redirection,
+ * credentials retrieval and user profile retrieval) and a full login for the main clients, against in-process
+ * providers.
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientPipelineBenchmark {
+
+    @Param({ "form", "basicauth", "cas", "saml", "oidc", "oauth20" })
+    public String client;
+
+    private LocalProviderServer server;
+
+    private ClientScenario scenario;
+
+    private Credentials credentials;
+
+    @Setup(Level.Trial)
+    public void setUp() throws RequiresHttpAction {
+        this.server = new LocalProviderServer().start();
+        this.scenario = ClientScenario.create(this.client, this.server);
+        this.credentials = this.scenario.getClient().getCredentials(this.scenario.newCallbackContext());
+    }
+
+    @Setup(Level.Iteration)
+    public void refresh() {
+        this.scenario.refresh();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.server.stop();
+    }
+
+    @Benchmark
+    public RedirectAction redirect() throws RequiresHttpAction {
+        return this.scenario.getClient().getRedirectAction(this.scenario.newRedirectContext(), true, false);
+    }
+
+    @Benchmark
+    public Credentials credentials() throws RequiresHttpAction {
+        return this.scenario.getClient().getCredentials(this.scenario.newCallbackContext());
+    }
+
+    @Benchmark
+    public CommonProfile profile() {
+        return this.scenario.getClient().getUserProfile(this.credentials, this.scenario.newCallbackContext());
+    }
+
+    @Benchmark
+    public CommonProfile login() throws RequiresHttpAction {
+        return this.scenario.login();
+    }
+}
@@ -0,0 +1,248 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.benchmarks;
+
+import org.apache.commons.codec.binary.Base64;
+import org.pac4j.cas.client.CasClient;
+import org.pac4j.core.client.BaseClient;
+import org.pac4j.core.context.HttpConstants;
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.context.Pac4jSession;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.exception.RequiresHttpAction;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.http.client.BasicAuthClient;
+import org.pac4j.http.client.FormClient;
+import org.pac4j.http.credentials.SimpleTestUsernamePasswordAuthenticator;
+import org.pac4j.http.profile.UsernameProfileCreator;
+import org.pac4j.oauth.client.CasOAuthWrapperClient;
+import org.pac4j.oidc.client.OidcClient;
+import org.pac4j.saml.client.Saml2Client;
+
+import com.nimbusds.oauth2.sdk.id.State;
+
+/**
+ * This class is a benchmark scenario: a fully initialized client wired to the in-process providers and the web contexts
+ * simulating the requests of a login (redirection to the provider and callback).
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public abstract class ClientScenario {
+
+    public final static String CALLBACK_URL = "http://localhost:8080/callback";
+
+    public final static String[] NAMES = new String[] { "form", "basicauth", "cas", "saml", "oidc", "oauth20" };
+
+    protected BaseClient<Credentials, CommonProfile> client;
+
+    /**
+     * Build the scenario for the given name.
+     *
+     * @param name one of {@link #NAMES}
+     * @param server the in-process provider server (started)
+     * @return the initialized scenario
+     */
+    public static ClientScenario create(final String name, final LocalProviderServer server) {
+        final ClientScenario scenario;
+        if ("form".equals(name)) {
+            scenario = new FormScenario();
+        } else if ("basicauth".equals(name)) {
+            scenario = new BasicAuthScenario();
+        } else if ("cas".equals(name)) {
+            scenario = new CasScenario(server);
+        } else if ("saml".equals(name)) {
+            scenario = new SamlScenario();
+        } else if ("oidc".equals(name)) {
+            scenario = new OidcScenario(server);
+        } else if ("oauth20".equals(name)) {
+            scenario = new OAuth20Scenario(server);
+        } else {
+            throw new TechnicalException("Unknown scenario: " + name);
+        }
+        scenario.client.setCallbackUrl(CALLBACK_URL);
+        scenario.client.init();
+        scenario.refresh();
+        return scenario;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected ClientScenario(final BaseClient<? extends Credentials, ? extends CommonProfile> client) {
+        this.client = (BaseClient<Credentials, CommonProfile>) client;
+    }
+
+    public BaseClient<Credentials, CommonProfile> getClient() {
+        return this.client;
+    }
+
+    /**
+     * Refresh the time-bound data of the scenario (like a SAML response). Called before each measurement iteration.
+     */
+    public void refresh() {
+    }
+
+    public MockWebContext newRedirectContext() {
+        return MockWebContext.create();
+    }
+
+    public abstract MockWebContext newCallbackContext();
+
+    /**
+     * Run a full login: redirection to the provider, then credentials and user profile retrieval on callback.
+     *
+     * @return the user profile
+     * @throws RequiresHttpAction requires an extra HTTP action
+     */
+    public CommonProfile login() throws RequiresHttpAction {
+        this.client.getRedirectAction(newRedirectContext(), true, false);
+        final MockWebContext context = newCallbackContext();
+        return this.client.getUserProfile(this.client.getCredentials(context), context);
+    }
+
+    private static final class FormScenario extends ClientScenario {
+
+        private FormScenario() {
+            super(new FormClient("http://localhost:8080/login", new SimpleTestUsernamePasswordAuthenticator(),
+                                 new UsernameProfileCreator()));
+        }
+
+        @Override
+        public MockWebContext newCallbackContext() {
+            return MockWebContext.create().setRequestMethod("POST")
+                .addRequestParameter(FormClient.DEFAULT_USERNAME_PARAMETER, LocalProviderServer.USER)
+                .addRequestParameter(FormClient.DEFAULT_PASSWORD_PARAMETER, LocalProviderServer.USER);
+        }
+    }
+
+    private static final class BasicAuthScenario extends ClientScenario {
+
+        private final String header;
+
+        private BasicAuthScenario() {
+            super(new BasicAuthClient(new SimpleTestUsernamePasswordAuthenticator(), new UsernameProfileCreator()));
+            final String token = LocalProviderServer.USER + ":" + LocalProviderServer.USER;
+            this.header = "Basic " + Base64.encodeBase64String(token.getBytes());
+        }
+
+        @Override
+        public MockWebContext newCallbackContext() {
+            return MockWebContext.create().addRequestHeader(HttpConstants.AUTHORIZATION_HEADER, this.header);
+        }
+    }
+
+    private static final class CasScenario extends ClientScenario {
+
+        private CasScenario(final LocalProviderServer server) {
+            super(buildCasClient(server));
+        }
+
+        private static CasClient buildCasClient(final LocalProviderServer server) {
+            final CasClient casClient = new CasClient();
+            casClient.setCasPrefixUrl(server.getCasPrefixUrl());
+            casClient.setCasLoginUrl(server.getCasPrefixUrl() + "login");
+            return casClient;
+        }
+
+        @Override
+        public MockWebContext newCallbackContext() {
+            return MockWebContext.create().addRequestParameter("ticket", "ST-1-benchmark");
+        }
+    }
+
+    private static final class SamlScenario extends ClientScenario {
+
+        private final static String SP_ENTITY_ID = "urn:pac4j:benchmark:sp";
+
+        private final LocalIdentityProvider idp;
+
+        private volatile String samlResponse;
+
+        private SamlScenario() {
+            this(new LocalIdentityProvider());
+        }
+
+        private SamlScenario(final LocalIdentityProvider idp) {
+            super(buildSaml2Client(idp));
+            this.idp = idp;
+        }
+
+        private static Saml2Client buildSaml2Client(final LocalIdentityProvider idp) {
+            final Saml2Client saml2Client = new Saml2Client();
+            saml2Client.setKeystorePath(LocalIdentityProvider.KEYSTORE_PATH);
+            saml2Client.setKeystorePassword(LocalIdentityProvider.KEYSTORE_PASSWORD);
+            saml2Client.setPrivateKeyPassword(LocalIdentityProvider.KEYSTORE_PASSWORD);
+            saml2Client.setIdpMetadata(idp.getMetadata());
+            saml2Client.setSpEntityId(SP_ENTITY_ID);
+            return saml2Client;
+        }
+
+        @Override
+        public void refresh() {
+            // the SAML response is only valid for a few minutes
+            this.samlResponse = this.idp.buildEncodedResponse(CALLBACK_URL, SP_ENTITY_ID);
+        }
+
+        @Override
+        public MockWebContext newCallbackContext() {
+            final MockWebContext context = MockWebContext.create().setRequestMethod("POST")
+                .addRequestParameter("SAMLResponse", this.samlResponse);
+            context.setFullRequestURL(CALLBACK_URL);
+            return context;
+        }
+    }
+
+    private static final class OidcScenario extends ClientScenario {
+
+        private final static String STATE_ATTRIBUTE = "oidcStateAttribute";
+
+        private final State state = new State();
+
+        private OidcScenario(final LocalProviderServer server) {
+            super(buildOidcClient(server));
+        }
+
+        private static OidcClient buildOidcClient(final LocalProviderServer server) {
+            final OidcClient oidcClient = new OidcClient();
+            oidcClient.setClientID("clientId");
+            oidcClient.setSecret("secret");
+            oidcClient.setDiscoveryURI(server.getDiscoveryUri());
+            return oidcClient;
+        }
+
+        @Override
+        public MockWebContext newCallbackContext() {
+            final MockWebContext context = MockWebContext.create().addRequestParameter("code", "C-1-benchmark")
+                .addRequestParameter("state", this.state.getValue());
+            final Pac4jSession session = Pac4jSession.get(context);
+            session.set(STATE_ATTRIBUTE, this.state.getValue());
+            session.save(context);
+            return context;
+        }
+    }
+
+    private static final class OAuth20Scenario extends ClientScenario {
+
+        private OAuth20Scenario(final LocalProviderServer server) {
+            super(new CasOAuthWrapperClient("key", "secret", server.getCasOAuthUrl()));
+        }
+
+        @Override
+        public MockWebContext newCallbackContext() {
+            return MockWebContext.create().addRequestParameter("code", "C-1-benchmark");
+        }
+    }
+}
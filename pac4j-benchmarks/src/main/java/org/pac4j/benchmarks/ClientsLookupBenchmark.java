@@ -0,0 +1,94 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pac4j.core.client.Client;
+import org.pac4j.core.client.Clients;
+import org.pac4j.core.client.FakeClient;
+import org.pac4j.core.client.MockBaseClient;
+import org.pac4j.core.context.MockWebContext;
+
+/**
+ * This class benchmarks the {@link Clients} finders with a growing number of clients. The searched client is the last
+ * one of the list (worst case of a linear scan).
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings("rawtypes")
+public class ClientsLookupBenchmark {
+
+    @Param({ "10", "100", "1000", "10000" })
+    public int size;
+
+    private Clients clients;
+
+    private String lastName;
+
+    private MockWebContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final List<Client> list = new ArrayList<Client>();
+        for (int i = 0; i < this.size - 1; i++) {
+            list.add(new MockBaseClient("TenantClient" + i));
+        }
+        final FakeClient last = new FakeClient();
+        list.add(last);
+        this.clients = new Clients(ClientScenario.CALLBACK_URL, list);
+        this.clients.init();
+        this.lastName = last.getName();
+        this.context = MockWebContext.create().addRequestParameter(Clients.DEFAULT_CLIENT_NAME_PARAMETER,
+                                                                    this.lastName);
+    }
+
+    @Benchmark
+    public Client findByName() {
+        return this.clients.findClient(this.lastName);
+    }
+
+    @Benchmark
+    public Client findByClass() {
+        return this.clients.findClient(FakeClient.class);
+    }
+
+    @Benchmark
+    public Client findFromContext() {
+        return this.clients.findClient(this.context);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pac4j.core.util.SecureIdGenerator;
+
+import com.nimbusds.oauth2.sdk.id.State;
+
+/**
+ * This class benchmarks the generation of random identifiers by several threads: the {@link SecureIdGenerator}
+ * against the previous generators (commons-lang and nimbus).
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    @Benchmark
+    public String secureIdGenerator() {
+        return SecureIdGenerator.generate();
+    }
+
+    @Benchmark
+    public String randomStringUtils() {
+        return RandomStringUtils.randomAlphanumeric(10);
+    }
+
+    @Benchmark
+    public String nimbusState() {
+        return new State().getValue();
+    }
+}
@@ -0,0 +1,215 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.benchmarks;
+
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.UUID;
+
+import javax.xml.namespace.QName;
+
+import org.apache.commons.codec.binary.Base64;
+import org.joda.time.DateTime;
+import org.opensaml.Configuration;
+import org.opensaml.DefaultBootstrap;
+import org.opensaml.common.SAMLVersion;
+import org.opensaml.saml2.core.Assertion;
+import org.opensaml.saml2.core.Attribute;
+import org.opensaml.saml2.core.AttributeStatement;
+import org.opensaml.saml2.core.AttributeValue;
+import org.opensaml.saml2.core.Audience;
+import org.opensaml.saml2.core.AudienceRestriction;
+import org.opensaml.saml2.core.AuthnStatement;
+import org.opensaml.saml2.core.Conditions;
+import org.opensaml.saml2.core.Issuer;
+import org.opensaml.saml2.core.NameID;
+import org.opensaml.saml2.core.Response;
+import org.opensaml.saml2.core.Status;
+import org.opensaml.saml2.core.StatusCode;
+import org.opensaml.saml2.core.Subject;
+import org.opensaml.saml2.core.SubjectConfirmation;
+import org.opensaml.saml2.core.SubjectConfirmationData;
+import org.opensaml.xml.XMLObject;
+import org.opensaml.xml.XMLObjectBuilderFactory;
+import org.opensaml.xml.schema.XSString;
+import org.opensaml.xml.security.x509.BasicX509Credential;
+import org.opensaml.xml.signature.Signature;
+import org.opensaml.xml.signature.SignatureConstants;
+import org.opensaml.xml.signature.Signer;
+import org.opensaml.xml.util.XMLHelper;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+import org.w3c.dom.Element;
+
+/**
+ * This class is an in-process SAML 2 identity provider: it publishes its metadata and issues signed responses for a
+ * given service provider, so that the SAML callback can be benchmarked without any remote IdP.
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class LocalIdentityProvider {
+
+    public final static String ENTITY_ID = "http://localhost/idp";
+
+    public final static String KEYSTORE_PATH = "resource:samlKeystore.jks";
+
+    public final static String KEYSTORE_PASSWORD = "pac4j-demo-passwd";
+
+    private final static String KEY_ALIAS = "pac4j-demo";
+
+    private final BasicX509Credential credential;
+
+    private final String metadata;
+
+    private final XMLObjectBuilderFactory builderFactory;
+
+    public LocalIdentityProvider() {
+        try {
+            DefaultBootstrap.bootstrap();
+            final KeyStore keyStore = KeyStore.getInstance("JKS");
+            final InputStream in = CommonHelper.getInputStreamFromName(KEYSTORE_PATH);
+            try {
+                keyStore.load(in, KEYSTORE_PASSWORD.toCharArray());
+            } finally {
+                in.close();
+            }
+            final X509Certificate certificate = (X509Certificate) keyStore.getCertificate(KEY_ALIAS);
+            this.credential = new BasicX509Credential();
+            this.credential.setEntityCertificate(certificate);
+            this.credential.setPrivateKey((PrivateKey) keyStore.getKey(KEY_ALIAS, KEYSTORE_PASSWORD.toCharArray()));
+            this.metadata = "<md:EntityDescriptor xmlns:md=\"urn:oasis:names:tc:SAML:2.0:metadata\" "
+                    + "xmlns:ds=\"http://www.w3.org/2000/09/xmldsig#\" entityID=\"" + ENTITY_ID + "\">"
+                    + "<md:IDPSSODescriptor protocolSupportEnumeration=\"urn:oasis:names:tc:SAML:2.0:protocol\">"
+                    + "<md:KeyDescriptor use=\"signing\"><ds:KeyInfo><ds:X509Data><ds:X509Certificate>"
+                    + Base64.encodeBase64String(certificate.getEncoded())
+                    + "</ds:X509Certificate></ds:X509Data></ds:KeyInfo></md:KeyDescriptor>"
+                    + "<md:SingleSignOnService Binding=\"urn:oasis:names:tc:SAML:2.0:bindings:HTTP-POST\" "
+                    + "Location=\"http://localhost/idp/profile/SAML2/POST/SSO\"/>"
+                    + "<md:SingleSignOnService Binding=\"urn:oasis:names:tc:SAML:2.0:bindings:HTTP-Redirect\" "
+                    + "Location=\"http://localhost/idp/profile/SAML2/Redirect/SSO\"/>"
+                    + "</md:IDPSSODescriptor></md:EntityDescriptor>";
+        } catch (final Exception e) {
+            throw new TechnicalException(e);
+        }
+        this.builderFactory = Configuration.getBuilderFactory();
+    }
+
+    public String getMetadata() {
+        return this.metadata;
+    }
+
+    /**
+     * Build a signed and base64 encoded SAML response, as posted back by the browser on the assertion consumer url.
+     *
+     * @param acsUrl the assertion consumer url (recipient and destination)
+     * @param spEntityId the audience
+     * @return the value of the <code>SAMLResponse</code> parameter
+     */
+    public String buildEncodedResponse(final String acsUrl, final String spEntityId) {
+        final DateTime now = new DateTime();
+
+        final Assertion assertion = build(Assertion.DEFAULT_ELEMENT_NAME);
+        assertion.setID("_" + UUID.randomUUID().toString());
+        assertion.setVersion(SAMLVersion.VERSION_20);
+        assertion.setIssueInstant(now);
+        assertion.setIssuer(buildIssuer());
+
+        final NameID nameId = build(NameID.DEFAULT_ELEMENT_NAME);
+        nameId.setValue(LocalProviderServer.USER);
+        final SubjectConfirmationData confirmationData = build(SubjectConfirmationData.DEFAULT_ELEMENT_NAME);
+        confirmationData.setNotOnOrAfter(now.plusMinutes(5));
+        confirmationData.setRecipient(acsUrl);
+        final SubjectConfirmation confirmation = build(SubjectConfirmation.DEFAULT_ELEMENT_NAME);
+        confirmation.setMethod(SubjectConfirmation.METHOD_BEARER);
+        confirmation.setSubjectConfirmationData(confirmationData);
+        final Subject subject = build(Subject.DEFAULT_ELEMENT_NAME);
+        subject.setNameID(nameId);
+        subject.getSubjectConfirmations().add(confirmation);
+        assertion.setSubject(subject);
+
+        final Audience audience = build(Audience.DEFAULT_ELEMENT_NAME);
+        audience.setAudienceURI(spEntityId);
+        final AudienceRestriction audienceRestriction = build(AudienceRestriction.DEFAULT_ELEMENT_NAME);
+        audienceRestriction.getAudiences().add(audience);
+        final Conditions conditions = build(Conditions.DEFAULT_ELEMENT_NAME);
+        conditions.setNotBefore(now.minusMinutes(1));
+        conditions.setNotOnOrAfter(now.plusMinutes(5));
+        conditions.getAudienceRestrictions().add(audienceRestriction);
+        assertion.setConditions(conditions);
+
+        final AuthnStatement authnStatement = build(AuthnStatement.DEFAULT_ELEMENT_NAME);
+        authnStatement.setAuthnInstant(now);
+        assertion.getAuthnStatements().add(authnStatement);
+
+        final AttributeStatement attributeStatement = build(AttributeStatement.DEFAULT_ELEMENT_NAME);
+        attributeStatement.getAttributes().add(buildAttribute("email", "jleleu@example.org"));
+        attributeStatement.getAttributes().add(buildAttribute("first_name", "Jerome"));
+        attributeStatement.getAttributes().add(buildAttribute("role", "ROLE_USER"));
+        assertion.getAttributeStatements().add(attributeStatement);
+
+        final StatusCode statusCode = build(StatusCode.DEFAULT_ELEMENT_NAME);
+        statusCode.setValue(StatusCode.SUCCESS_URI);
+        final Status status = build(Status.DEFAULT_ELEMENT_NAME);
+        status.setStatusCode(statusCode);
+
+        final Response response = build(Response.DEFAULT_ELEMENT_NAME);
+        response.setID("_" + UUID.randomUUID().toString());
+        response.setVersion(SAMLVersion.VERSION_20);
+        response.setIssueInstant(now);
+        response.setDestination(acsUrl);
+        response.setIssuer(buildIssuer());
+        response.setStatus(status);
+        response.getAssertions().add(assertion);
+
+        final Signature signature = build(Signature.DEFAULT_ELEMENT_NAME);
+        signature.setSigningCredential(this.credential);
+        signature.setSignatureAlgorithm(SignatureConstants.ALGO_ID_SIGNATURE_RSA_SHA1);
+        signature.setCanonicalizationAlgorithm(SignatureConstants.ALGO_ID_C14N_EXCL_OMIT_COMMENTS);
+        response.setSignature(signature);
+
+        try {
+            final Element element = Configuration.getMarshallerFactory().getMarshaller(response).marshall(response);
+            Signer.signObject(signature);
+            return Base64.encodeBase64String(XMLHelper.nodeToString(element).getBytes("UTF-8"));
+        } catch (final Exception e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    private Issuer buildIssuer() {
+        final Issuer issuer = build(Issuer.DEFAULT_ELEMENT_NAME);
+        issuer.setValue(ENTITY_ID);
+        return issuer;
+    }
+
+    private Attribute buildAttribute(final String name, final String value) {
+        final XSString attributeValue = (XSString) this.builderFactory.getBuilder(XSString.TYPE_NAME)
+                .buildObject(AttributeValue.DEFAULT_ELEMENT_NAME, XSString.TYPE_NAME);
+        attributeValue.setValue(value);
+        final Attribute attribute = build(Attribute.DEFAULT_ELEMENT_NAME);
+        attribute.setName(name);
+        attribute.getAttributeValues().add(attributeValue);
+        return attribute;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends XMLObject> T build(final QName name) {
+        return (T) this.builderFactory.getBuilder(name).buildObject(name);
+    }
+}
@@ -0,0 +1,183 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.pac4j.core.exception.TechnicalException;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * This class is an in-process stand-in for the identity providers called by the benchmarked clients: it listens on
+ * the loopback interface and answers the CAS ticket validation, the CAS OAuth wrapper and the OpenID Connect
+ * (discovery, JWKS, token, user info) endpoints with canned responses, so that the benchmarks run offline while still
+ * going through the real HTTP code of each client.
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class LocalProviderServer {
+
+    public final static String USER = "jleleu";
+
+    public final static String CAS_PATH = "/cas/";
+
+    public final static String OAUTH_PATH = "/cas/oauth2.0";
+
+    public final static String OIDC_PATH = "/oidc";
+
+    private final static String JSON = "application/json; charset=UTF-8";
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final String baseUrl;
+
+    public LocalProviderServer() {
+        // without TCP_NODELAY, small POST exchanges are delayed by ~40 ms (Nagle / delayed ACK)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0), 0);
+        } catch (final IOException e) {
+            throw new TechnicalException(e);
+        }
+        this.baseUrl = "http://127.0.0.1:" + this.server.getAddress().getPort();
+        this.executor = Executors.newCachedThreadPool();
+        this.server.setExecutor(this.executor);
+
+        final String oidcUrl = this.baseUrl + OIDC_PATH;
+        final String discovery = "{\"issuer\":\"" + oidcUrl + "\",\"authorization_endpoint\":\"" + oidcUrl + "/authorize\","
+                + "\"token_endpoint\":\"" + oidcUrl + "/token\",\"userinfo_endpoint\":\"" + oidcUrl + "/userinfo\","
+                + "\"jwks_uri\":\"" + oidcUrl + "/jwks\",\"response_types_supported\":[\"code\"],"
+                + "\"subject_types_supported\":[\"public\"],\"id_token_signing_alg_values_supported\":[\"RS256\"]}";
+        final String jwks;
+        final String oidcToken;
+        try {
+            final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            final KeyPair keyPair = generator.generateKeyPair();
+            final RSAKey key = new RSAKey((RSAPublicKey) keyPair.getPublic(), KeyUse.SIGNATURE, null,
+                                          JWSAlgorithm.RS256, "benchmark", null, null, null);
+            jwks = "{\"keys\":[" + key.toJSONObject().toJSONString() + "]}";
+
+            final JWTClaimsSet claims = new JWTClaimsSet();
+            claims.setIssuer(oidcUrl);
+            claims.setSubject(USER);
+            claims.setAudience(Arrays.asList("clientId"));
+            claims.setIssueTime(new Date());
+            claims.setExpirationTime(new Date(System.currentTimeMillis() + 24 * 3600 * 1000L));
+            final SignedJWT idToken = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), claims);
+            idToken.sign(new RSASSASigner((RSAPrivateKey) keyPair.getPrivate()));
+            oidcToken = "{\"access_token\":\"AT-1\",\"token_type\":\"Bearer\",\"expires_in\":3600,"
+                    + "\"id_token\":\"" + idToken.serialize() + "\"}";
+        } catch (final Exception e) {
+            throw new TechnicalException(e);
+        }
+
+        this.server.createContext(CAS_PATH + "serviceValidate", new CannedHandler("text/xml; charset=UTF-8",
+                "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess>"
+                        + "<cas:user>" + USER + "</cas:user><cas:attributes>"
+                        + "<cas:email>jleleu@example.org</cas:email><cas:first_name>Jerome</cas:first_name>"
+                        + "</cas:attributes></cas:authenticationSuccess></cas:serviceResponse>"));
+        this.server.createContext(OAUTH_PATH + "/accessToken", new CannedHandler("text/plain; charset=UTF-8",
+                "access_token=AT-1&expires=7200"));
+        this.server.createContext(OAUTH_PATH + "/profile", new CannedHandler(JSON, "{\"id\":\"" + USER
+                + "\",\"attributes\":[{\"email\":\"jleleu@example.org\"},{\"first_name\":\"Jerome\"}]}"));
+        this.server.createContext(OIDC_PATH + "/.well-known/openid-configuration", new CannedHandler(JSON, discovery));
+        this.server.createContext(OIDC_PATH + "/jwks", new CannedHandler(JSON, jwks));
+        this.server.createContext(OIDC_PATH + "/token", new CannedHandler(JSON, oidcToken));
+        this.server.createContext(OIDC_PATH + "/userinfo", new CannedHandler(JSON, "{\"sub\":\"" + USER
+                + "\",\"name\":\"Jerome Leleu\",\"email\":\"jleleu@example.org\"}"));
+    }
+
+    public LocalProviderServer start() {
+        this.server.start();
+        return this;
+    }
+
+    public void stop() {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    public String getCasPrefixUrl() {
+        return this.baseUrl + CAS_PATH;
+    }
+
+    public String getCasOAuthUrl() {
+        return this.baseUrl + OAUTH_PATH;
+    }
+
+    public String getDiscoveryUri() {
+        return this.baseUrl + OIDC_PATH + "/.well-known/openid-configuration";
+    }
+
+    /**
+     * Handler always answering the same content, after draining the request body.
+     */
+    private static final class CannedHandler implements HttpHandler {
+
+        private final String contentType;
+
+        private final byte[] content;
+
+        private CannedHandler(final String contentType, final String content) {
+            this.contentType = contentType;
+            try {
+                this.content = content.getBytes("UTF-8");
+            } catch (final IOException e) {
+                throw new TechnicalException(e);
+            }
+        }
+
+        public void handle(final HttpExchange exchange) throws IOException {
+            final InputStream in = exchange.getRequestBody();
+            final byte[] buffer = new byte[512];
+            while (in.read(buffer) >= 0) {
+                // drain the request so that the connection can be kept alive
+            }
+            in.close();
+            exchange.getResponseHeaders().set("Content-Type", this.contentType);
+            exchange.sendResponseHeaders(200, this.content.length);
+            final OutputStream out = exchange.getResponseBody();
+            out.write(this.content);
+            out.close();
+        }
+    }
+}
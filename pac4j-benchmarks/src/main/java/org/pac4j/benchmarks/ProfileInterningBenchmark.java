@@ -0,0 +1,114 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.profile.converter.Interner;
+import org.pac4j.oauth.profile.twitter.TwitterAttributesDefinition;
+import org.pac4j.oauth.profile.twitter.TwitterProfile;
+
+/**
+ * <p>This class reports the retained bytes per user profile for a synthetic population of Twitter profiles, with and
+ * without the interning of the values with few distinct values (see {@link Interner}): language, colors and time
+ * zone.</p>
+ * <p>Each profile is built from its own raw strings, like the ones parsed from the responses of the provider, so that
+ * the converted values are distinct instances unless they are interned.</p>
+ * <p>It is not a JMH benchmark: it measures the used heap after a full GC, for a large number of live profiles.</p>
+ * <p>Usage: <code>java -Xmx2g -cp pac4j-benchmarks/target/benchmarks.jar org.pac4j.benchmarks.ProfileInterningBenchmark
+ * [number of profiles]</code></p>
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class ProfileInterningBenchmark {
+
+    private final static String[] LANGS = new String[] { "en", "fr", "es", "de", "ja", "pt_BR", "it", "ru" };
+
+    private final static String[] COLORS = new String[] { "C0DEED", "0084B4", "333333", "DDEEF6", "FFFFFF", "000000" };
+
+    private final static String[] TIME_ZONES = new String[] { "Pacific Time (US & Canada)", "Paris", "London",
+        "Tokyo", "Berlin", "Madrid", "Brasilia", "Moscow" };
+
+    private final static String[] ROLES = new String[] { "ROLE_USER", "ROLE_ADMIN", "ROLE_EDITOR" };
+
+    private ProfileInterningBenchmark() {
+    }
+
+    public static void main(final String[] args) {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        System.out.println(String.format("%-12s %12s %12s", "profiles", "before (B)", "after (B)"));
+        Interner.setEnabled(false);
+        final long before = measure(count);
+        Interner.setEnabled(true);
+        final long after = measure(count);
+        System.out.println(String.format("%-12d %12d %12d", count, before, after));
+    }
+
+    /**
+     * Measure the retained bytes per profile.
+     *
+     * @param count the number of live profiles
+     * @return the bytes per profile
+     */
+    public static long measure(final int count) {
+        final long start = usedMemory();
+        final UserProfile[] profiles = new UserProfile[count];
+        for (int i = 0; i < count; i++) {
+            profiles[i] = newProfile(i);
+        }
+        final long end = usedMemory();
+        // keep everything reachable until the measure
+        if (profiles[count - 1] == null) {
+            throw new IllegalStateException();
+        }
+        return (end - start) / count;
+    }
+
+    private static UserProfile newProfile(final int i) {
+        final Map<String, Object> raw = new HashMap<String, Object>();
+        raw.put(TwitterAttributesDefinition.SCREEN_NAME, "user" + i);
+        raw.put(TwitterAttributesDefinition.LANG, fresh(LANGS[i % LANGS.length]));
+        raw.put(TwitterAttributesDefinition.PROFILE_BACKGROUND_COLOR, fresh(COLORS[i % COLORS.length]));
+        raw.put(TwitterAttributesDefinition.PROFILE_LINK_COLOR, fresh(COLORS[(i + 1) % COLORS.length]));
+        raw.put(TwitterAttributesDefinition.PROFILE_SIDEBAR_BORDER_COLOR, fresh(COLORS[(i + 2) % COLORS.length]));
+        raw.put(TwitterAttributesDefinition.PROFILE_SIDEBAR_FILL_COLOR, fresh(COLORS[(i + 3) % COLORS.length]));
+        raw.put(TwitterAttributesDefinition.PROFILE_TEXT_COLOR, fresh(COLORS[(i + 4) % COLORS.length]));
+        raw.put(TwitterAttributesDefinition.TIME_ZONE, fresh(TIME_ZONES[i % TIME_ZONES.length]));
+        final TwitterProfile profile = new TwitterProfile();
+        profile.build(String.valueOf(i), raw);
+        profile.addRole(fresh(ROLES[0]));
+        profile.addRole(fresh(ROLES[1 + i % 2]));
+        // convert the lazy attributes
+        profile.getAttributes().size();
+        return profile;
+    }
+
+    // a new instance, like a string parsed from a response
+    private static String fresh(final String s) {
+        return new String(s.toCharArray());
+    }
+
+    private static long usedMemory() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
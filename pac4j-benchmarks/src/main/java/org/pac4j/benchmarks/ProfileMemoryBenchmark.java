@@ -0,0 +1,173 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.benchmarks;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.AttributesDefinition;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.oauth.profile.OAuthAttributesDefinitions;
+import org.pac4j.oauth.profile.bitbucket.BitbucketProfile;
+import org.pac4j.oauth.profile.dropbox.DropBoxProfile;
+import org.pac4j.oauth.profile.facebook.FacebookProfile;
+import org.pac4j.oauth.profile.foursquare.FoursquareProfile;
+import org.pac4j.oauth.profile.github.GitHubProfile;
+import org.pac4j.oauth.profile.google2.Google2Profile;
+import org.pac4j.oauth.profile.linkedin2.LinkedIn2Profile;
+import org.pac4j.oauth.profile.orcid.OrcidProfile;
+import org.pac4j.oauth.profile.paypal.PayPalProfile;
+import org.pac4j.oauth.profile.strava.StravaProfile;
+import org.pac4j.oauth.profile.twitter.TwitterProfile;
+import org.pac4j.oauth.profile.vk.VkProfile;
+import org.pac4j.oauth.profile.windowslive.WindowsLiveProfile;
+import org.pac4j.oauth.profile.wordpress.WordPressProfile;
+import org.pac4j.oauth.profile.yahoo.YahooProfile;
+
+/**
+ * <p>This class reports the retained bytes per user profile for each provider profile, all the defined attributes being
+ * set. It compares the current array-backed storage ("after") to the former storage in a <code>HashMap</code>
+ * ("before"), estimated by replacing the cost of the attributes array by the cost of a map holding the same
+ * values.</p>
+ * <p>It is not a JMH benchmark: it measures the used heap after a full GC, for a large number of live profiles.</p>
+ * <p>Usage: <code>java -Xmx1g -cp pac4j-benchmarks/target/benchmarks.jar org.pac4j.benchmarks.ProfileMemoryBenchmark
+ * [number of profiles]</code></p>
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class ProfileMemoryBenchmark {
+
+    private final static String[] RAW_VALUES = new String[] { "42", "true", "2015-06-18T20:00:00+0000",
+        "{\"id\":\"1\",\"name\":\"value\"}", "[{\"id\":\"1\",\"name\":\"value\"}]", "value" };
+
+    private final static Map<Class<? extends UserProfile>, AttributesDefinition> PROFILES = new LinkedHashMap<Class<? extends UserProfile>, AttributesDefinition>();
+
+    static {
+        PROFILES.put(FacebookProfile.class, OAuthAttributesDefinitions.facebookDefinition);
+        PROFILES.put(GitHubProfile.class, OAuthAttributesDefinitions.githubDefinition);
+        PROFILES.put(Google2Profile.class, OAuthAttributesDefinitions.google2Definition);
+        PROFILES.put(LinkedIn2Profile.class, OAuthAttributesDefinitions.linkedin2Definition);
+        PROFILES.put(TwitterProfile.class, OAuthAttributesDefinitions.twitterDefinition);
+        PROFILES.put(YahooProfile.class, OAuthAttributesDefinitions.yahooDefinition);
+        PROFILES.put(WindowsLiveProfile.class, OAuthAttributesDefinitions.windowsLiveDefinition);
+        PROFILES.put(WordPressProfile.class, OAuthAttributesDefinitions.wordPressDefinition);
+        PROFILES.put(DropBoxProfile.class, OAuthAttributesDefinitions.dropBoxDefinition);
+        PROFILES.put(PayPalProfile.class, OAuthAttributesDefinitions.payPalDefinition);
+        PROFILES.put(VkProfile.class, OAuthAttributesDefinitions.vkDefinition);
+        PROFILES.put(FoursquareProfile.class, OAuthAttributesDefinitions.foursquareDefinition);
+        PROFILES.put(BitbucketProfile.class, OAuthAttributesDefinitions.bitbucketDefinition);
+        PROFILES.put(OrcidProfile.class, OAuthAttributesDefinitions.orcidDefinition);
+        PROFILES.put(StravaProfile.class, OAuthAttributesDefinitions.stravaDefinition);
+    }
+
+    private ProfileMemoryBenchmark() {
+    }
+
+    public static void main(final String[] args) {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        System.out.println(String.format("%-20s %10s %12s %12s", "profile", "attributes", "before (B)", "after (B)"));
+        for (final Map.Entry<Class<? extends UserProfile>, AttributesDefinition> entry : PROFILES.entrySet()) {
+            final long[] result = measure(entry.getKey(), entry.getValue(), count);
+            System.out.println(String.format("%-20s %10d %12d %12d", entry.getKey().getSimpleName(), result[0],
+                    result[1], result[2]));
+        }
+    }
+
+    /**
+     * Measure the retained bytes per profile.
+     *
+     * @param profileClass the profile class
+     * @param definition its attributes definition
+     * @param count the number of live profiles
+     * @return the number of attributes, the bytes per profile before and after
+     */
+    public static long[] measure(final Class<? extends UserProfile> profileClass, final AttributesDefinition definition,
+            final int count) {
+        final Map<String, Object> raw = sampleAttributes(definition);
+
+        final long start = usedMemory();
+        final UserProfile[] profiles = new UserProfile[count];
+        for (int i = 0; i < count; i++) {
+            profiles[i] = newProfile(profileClass);
+            profiles[i].build("user" + i, raw);
+        }
+        final long afterProfiles = usedMemory();
+
+        // the former storage: a map holding the (already counted) values
+        final Map<?, ?>[] maps = new Map<?, ?>[count];
+        for (int i = 0; i < count; i++) {
+            final Map<String, Object> map = new HashMap<String, Object>();
+            for (final Map.Entry<String, Object> attribute : profiles[i].getAttributes().entrySet()) {
+                map.put(attribute.getKey(), attribute.getValue());
+            }
+            maps[i] = map;
+        }
+        final long afterMaps = usedMemory();
+
+        // the current storage: an array sized by the definition
+        final Object[][] slots = new Object[count][];
+        for (int i = 0; i < count; i++) {
+            slots[i] = new Object[definition.getAllAttributes().size()];
+        }
+        final long afterSlots = usedMemory();
+
+        final long after = (afterProfiles - start) / count;
+        final long mapBytes = (afterMaps - afterProfiles) / count;
+        final long slotBytes = (afterSlots - afterMaps) / count;
+        final long attributes = profiles[0].getAttributes().size();
+        // keep everything reachable until the last measure
+        if (profiles[count - 1] == null || maps[count - 1] == null || slots[count - 1] == null) {
+            throw new IllegalStateException();
+        }
+        return new long[] { attributes, after - slotBytes + mapBytes, after };
+    }
+
+    private static Map<String, Object> sampleAttributes(final AttributesDefinition definition) {
+        final Map<String, Object> attributes = new HashMap<String, Object>();
+        for (final String name : definition.getAllAttributes()) {
+            for (final String value : RAW_VALUES) {
+                try {
+                    if (definition.convert(name, value) != null) {
+                        attributes.put(name, value);
+                        break;
+                    }
+                } catch (final RuntimeException e) {
+                    // not the expected format, try the next value
+                }
+            }
+        }
+        return attributes;
+    }
+
+    private static UserProfile newProfile(final Class<? extends UserProfile> profileClass) {
+        try {
+            return profileClass.newInstance();
+        } catch (final Exception e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    private static long usedMemory() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
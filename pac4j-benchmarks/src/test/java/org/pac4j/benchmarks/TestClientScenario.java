@@ -0,0 +1,52 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.benchmarks;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.profile.CommonProfile;
+
+/**
+ * This class tests that every benchmark scenario performs a full login against the in-process providers.
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestClientScenario extends TestCase {
+
+    private LocalProviderServer server;
+
+    @Override
+    protected void setUp() {
+        this.server = new LocalProviderServer().start();
+    }
+
+    @Override
+    protected void tearDown() {
+        this.server.stop();
+    }
+
+    public void testLogin() throws Exception {
+        for (final String name : ClientScenario.NAMES) {
+            final ClientScenario scenario = ClientScenario.create(name, this.server);
+            for (int i = 0; i < 2; i++) {
+                final CommonProfile profile = scenario.login();
+                assertNotNull(name, profile);
+                assertEquals(name, LocalProviderServer.USER, profile.getId());
+            }
+        }
+    }
+}
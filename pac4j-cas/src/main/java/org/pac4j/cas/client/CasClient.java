@@ -15,6 +15,8 @@
  */
 package org.pac4j.cas.client;
 
+import java.util.List;
+
 import org.jasig.cas.client.authentication.AttributePrincipal;
 import org.jasig.cas.client.session.SingleSignOutHttpSessionListener;
 import org.jasig.cas.client.util.CommonUtils;
@@ -33,13 +35,16 @@ import org.pac4j.cas.logout.LogoutHandler;
 import org.pac4j.cas.logout.NoLogoutHandler;
 import org.pac4j.cas.profile.CasProfile;
 import org.pac4j.cas.profile.CasProxyProfile;
+import org.pac4j.core.authorization.AuthorizationGenerator;
 import org.pac4j.core.client.BaseClient;
 import org.pac4j.core.client.Mechanism;
 import org.pac4j.core.client.RedirectAction;
 import org.pac4j.core.context.WebContext;
-import org.pac4j.core.exception.CredentialsException;
 import org.pac4j.core.exception.RequiresHttpAction;
+import org.pac4j.core.exception.StacklessCredentialsException;
 import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.metrics.MeasuredCall;
+import org.pac4j.core.metrics.Phase;
 import org.pac4j.core.util.CommonHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -182,6 +187,15 @@ public class CasClient extends BaseClient<CasCredentials, CasProfile> {
         	saml11TicketValidator.setTolerance(getTimeTolerance());
             this.ticketValidator = saml11TicketValidator;
         }
+        // on re-initialization, the default generator has already been added
+        final List<AuthorizationGenerator<CasProfile>> generators = getAuthorizationGenerators();
+        if (generators != null) {
+            for (final AuthorizationGenerator<CasProfile> generator : generators) {
+                if (generator instanceof DefaultCasAuthorizationGenerator) {
+                    return;
+                }
+            }
+        }
         addAuthorizationGenerator(new DefaultCasAuthorizationGenerator<CasProfile>());
     }
 
@@ -213,7 +227,7 @@ public class CasClient extends BaseClient<CasCredentials, CasProfile> {
         } else {
             final String message = "No ticket or logout request";
             logger.error(message);
-            throw new CredentialsException(message);
+            throw new StacklessCredentialsException(message);
         }
     }
 
@@ -228,7 +242,13 @@ public class CasClient extends BaseClient<CasCredentials, CasProfile> {
         final String ticket = credentials.getServiceTicket();
         try {
             final String contextualCallbackUrl = getContextualCallbackUrl(context);
-            final Assertion assertion = this.ticketValidator.validate(ticket, contextualCallbackUrl);
+            final Assertion assertion = measure(Phase.PROVIDER_CALL,
+                    new MeasuredCall<Assertion, TicketValidationException>() {
+                        @Override
+                        public Assertion call() throws TicketValidationException {
+                            return CasClient.this.ticketValidator.validate(ticket, contextualCallbackUrl);
+                        }
+                    });
             final AttributePrincipal principal = assertion.getPrincipal();
             logger.debug("principal : {}", principal);
             final CasProfile casProfile;
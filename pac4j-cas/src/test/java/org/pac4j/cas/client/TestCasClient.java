@@ -121,4 +121,14 @@ public final class TestCasClient extends TestCase implements TestsConstants {
             assertEquals("logout request : no credential returned", e.getMessage());
         }
     }
+
+    public void testReinitAddsDefaultGeneratorOnce() {
+        final CasClient casClient = new CasClient();
+        casClient.setCallbackUrl(CALLBACK_URL);
+        casClient.setCasLoginUrl(LOGIN_URL);
+        casClient.init();
+        casClient.reinit();
+        casClient.reinit();
+        assertEquals(1, casClient.getAuthorizationGenerators().size());
+    }
 }
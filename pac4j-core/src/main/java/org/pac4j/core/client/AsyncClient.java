@@ -0,0 +1,50 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.client;
+
+import java.util.concurrent.Future;
+
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.profile.UserProfile;
+
+/**
+ * This interface is the asynchronous counterpart of the {@link Client#getUserProfile(Credentials, WebContext)} method:
+ * the user profile retrieval, which may perform several HTTP calls to the provider, does not run on the calling thread.
+ * <p>The web context must remain usable until the user profile is retrieved (like an asynchronous servlet request).</p>
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public interface AsyncClient<C extends Credentials, U extends UserProfile> {
+
+    /**
+     * Get the name of the client.
+     * 
+     * @return the name of the client
+     */
+    String getName();
+
+    /**
+     * Start the retrieval of the user profile from the credentials.
+     * 
+     * @param credentials the credentials
+     * @param context the web context
+     * @param callback the callback notified of the outcome (optional)
+     * @return the future user profile
+     */
+    Future<U> getUserProfileAsync(C credentials, WebContext context, ProfileCallback<U> callback);
+}
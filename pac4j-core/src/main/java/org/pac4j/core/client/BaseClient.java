@@ -16,19 +16,29 @@
 package org.pac4j.core.client;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.pac4j.core.authorization.AuthorizationGenerator;
 import org.pac4j.core.client.RedirectAction.RedirectType;
 import org.pac4j.core.context.HttpConstants;
+import org.pac4j.core.context.Pac4jSession;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.credentials.Authenticator;
 import org.pac4j.core.credentials.Credentials;
 import org.pac4j.core.exception.RequiresHttpAction;
+import org.pac4j.core.metrics.AuthenticationTracer;
+import org.pac4j.core.metrics.MeasuredCall;
+import org.pac4j.core.metrics.MetricsRecorder;
+import org.pac4j.core.metrics.NoOpMetricsRecorder;
+import org.pac4j.core.metrics.Phase;
 import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.profile.ProfileCreator;
+import org.pac4j.core.state.SignedStateCodec;
 import org.pac4j.core.util.CommonHelper;
 import org.pac4j.core.util.InitializableObject;
+import org.pac4j.core.util.SharedResourceFactory;
+import org.pac4j.core.util.SharedResources;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,6 +65,12 @@ import org.slf4j.LoggerFactory;
  * <p>The {@link #init()} method must be called implicitly by the main methods of the {@link Client} interface, so that no explicit call is
  * required to initialize the client.</p>
  * <p>The {@link #getMechanism()} method returns the implemented {@link Mechanism} by the client.</p>
+ * <p>A client can be {@link #setStateless(boolean) stateless}: it then never reads or writes the web session for its own
+ * bookkeeping (the attempted authentication flag, saved in the {@link Pac4jSession}), which is appropriate for the clients authenticating each request
+ * (like the header-based ones) so that no HTTP session is created for them.</p>
+ * <p>The duration and outcome of each phase (redirection, credentials, user profile, authorization generators and calls
+ * to the provider) are reported to the {@link MetricsRecorder} of the client, which ignores them by default. They can
+ * also be traced per authentication by an {@link AuthenticationTracer} to get the timeline of the slow ones.</p>
  * <p>After retrieving the user profile, the client can generate the authorization information (roles, permissions and remember-me) by using
  * the appropriate {@link AuthorizationGenerator}, which is by default <code>null</code>.</p>
  * 
@@ -78,12 +94,24 @@ public abstract class BaseClient<C extends Credentials, U extends CommonProfile>
     
     private boolean includeClientNameInCallbackUrl = true;
 
+    private boolean stateless = false;
+
     private List<AuthorizationGenerator<U>> authorizationGenerators = new ArrayList<AuthorizationGenerator<U>>();
 
     private Authenticator<C> authenticator;
 
     private ProfileCreator<C, U> profileCreator;
 
+    private MetricsRecorder metricsRecorder = NoOpMetricsRecorder.INSTANCE;
+
+    private AuthenticationTracer tracer;
+
+    private SignedStateCodec stateCodec;
+
+    private List<SharedResources.Lease<?>> sharedResources = Collections.emptyList();
+
+    private volatile long sharedResourcesGeneration;
+
     /**
      * Clone the current client.
      * 
@@ -96,9 +124,73 @@ public abstract class BaseClient<C extends Credentials, U extends CommonProfile>
         newClient.setName(this.name);
         newClient.setAuthenticator(this.authenticator);
         newClient.setProfileCreator(this.profileCreator);
+        newClient.setStateless(this.stateless);
+        newClient.setMetricsRecorder(this.metricsRecorder);
+        newClient.setTracer(this.tracer);
+        newClient.setStateCodec(this.stateCodec);
         return newClient;
     }
 
+    /**
+     * Acquire a lease on a resource shared between the clients (in {@link SharedResources#INSTANCE}) during the
+     * initialization of the client.
+     * 
+     * @param leases the leases of the current initialization, completed with the new lease
+     * @param key the key of the resource
+     * @param factory the factory of the resource
+     * @return the shared resource
+     */
+    protected final <T> T acquireSharedResource(final List<SharedResources.Lease<?>> leases, final Object key,
+                                                final SharedResourceFactory<T> factory) {
+        final SharedResources.Lease<T> lease = SharedResources.INSTANCE.acquire(key, factory,
+                this.sharedResourcesGeneration);
+        leases.add(lease);
+        return lease.get();
+    }
+
+    /**
+     * Keep the leases on the shared resources acquired by the (re-)initialization of the client, and release the ones of
+     * the previous initialization. To be called at the end of the {@link #internalInit()} method of the clients relying
+     * on {@link SharedResources}.
+     * 
+     * @param leases the leases of the current initialization
+     */
+    protected final void replaceSharedResources(final List<SharedResources.Lease<?>> leases) {
+        final List<SharedResources.Lease<?>> previous;
+        synchronized (this) {
+            previous = this.sharedResources;
+            this.sharedResources = leases;
+        }
+        SharedResources.releaseAll(previous);
+    }
+
+    /**
+     * Re-initialize the client: the shared resources are rebuilt (the metadata and the keys are fetched again), instead
+     * of being reused from the cache where the current initialization holds them.
+     */
+    @Override
+    public void reinit() {
+        refreshSharedResources(SharedResources.INSTANCE.newGeneration());
+        super.reinit();
+    }
+
+    /**
+     * Require the shared resources built since the given generation at the next initialization of the client.
+     * 
+     * @param generation the generation of the shared resources
+     */
+    void refreshSharedResources(final long generation) {
+        this.sharedResourcesGeneration = generation;
+    }
+
+    /**
+     * Release the shared resources of the client, when it is discarded. The client can still process the current
+     * requests, but must be re-initialized to acquire them again.
+     */
+    public void releaseSharedResources() {
+        replaceSharedResources(Collections.<SharedResources.Lease<?>> emptyList());
+    }
+
     /**
      * Create a new instance of the client.
      * 
@@ -162,29 +254,50 @@ public abstract class BaseClient<C extends Credentials, U extends CommonProfile>
     public final RedirectAction getRedirectAction(final WebContext context, final boolean requiresAuthentication,
             final boolean ajaxRequest) throws RequiresHttpAction {
         init();
+        if (this.tracer == null) {
+            return redirectAction(context, requiresAuthentication, ajaxRequest);
+        }
+        final String name = getName();
+        this.tracer.begin(name);
+        try {
+            return redirectAction(context, requiresAuthentication, ajaxRequest);
+        } finally {
+            this.tracer.end(name);
+        }
+    }
+
+    private RedirectAction redirectAction(final WebContext context, final boolean requiresAuthentication,
+            final boolean ajaxRequest) throws RequiresHttpAction {
         // it's an AJAX request -> unauthorized (instead of a redirection)
         if (ajaxRequest) {
             throw RequiresHttpAction.unauthorized("AJAX request -> 401", context, null);
         }
         // authentication has already been tried
-        final String attemptedAuth = (String) context.getSessionAttribute(getName() + ATTEMPTED_AUTHENTICATION_SUFFIX);
-        if (CommonHelper.isNotBlank(attemptedAuth)) {
-            context.setSessionAttribute(getName() + ATTEMPTED_AUTHENTICATION_SUFFIX, null);
+        final Pac4jSession session = this.stateless ? null : Pac4jSession.get(context);
+        if (session != null) {
+            final String attemptedAuth = (String) session.remove(getName() + ATTEMPTED_AUTHENTICATION_SUFFIX);
             // protected target -> forbidden
-            if (requiresAuthentication) {
+            if (CommonHelper.isNotBlank(attemptedAuth) && requiresAuthentication) {
+                session.save(context);
                 logger.error("authentication already tried and protected target -> forbidden");
                 throw RequiresHttpAction.forbidden("authentication already tried -> forbidden", context);
             }
         }
+        final RedirectAction action;
         // it's a direct redirection or force the redirection -> return the real redirection
         if (isDirectRedirection() || requiresAuthentication) {
-            return retrieveRedirectAction(context);
+            action = measuredRedirectAction(context);
         } else {
             // return an intermediate url which is the callback url with a specific parameter requiring redirection
             final String intermediateUrl = CommonHelper.addParameter(getContextualCallbackUrl(context),
                     NEEDS_CLIENT_REDIRECTION_PARAMETER, "true");
-            return RedirectAction.redirect(intermediateUrl);
+            action = RedirectAction.redirect(intermediateUrl);
         }
+        // the pac4j session is written once, with the values saved by the redirection (states, tokens...) if any
+        if (session != null) {
+            session.save(context);
+        }
+        return action;
     }
 
     /**
@@ -201,32 +314,97 @@ public abstract class BaseClient<C extends Credentials, U extends CommonProfile>
         }
     }
 
+    private RedirectAction measuredRedirectAction(final WebContext context) {
+        return measure(Phase.REDIRECT, new MeasuredCall<RedirectAction, RuntimeException>() {
+            @Override
+            public RedirectAction call() {
+                return retrieveRedirectAction(context);
+            }
+        });
+    }
+
     protected abstract RedirectAction retrieveRedirectAction(final WebContext context);
 
     @Override
     public final C getCredentials(final WebContext context) throws RequiresHttpAction {
+        return getCredentialsResult(context).get();
+    }
+
+    /**
+     * Get the credentials or the additional HTTP action (redirect, basic auth...) required, without throwing any
+     * {@link RequiresHttpAction}. The {@link #getCredentials(WebContext)} method is a thin adapter on this method.
+     * 
+     * @param context the current web context
+     * @return the credentials result
+     */
+    public final CredentialsResult<C> getCredentialsResult(final WebContext context) {
         init();
+        if (this.tracer == null) {
+            return credentialsResult(context);
+        }
+        final String name = getName();
+        this.tracer.begin(name);
+        boolean ended = true;
+        try {
+            final CredentialsResult<C> result = credentialsResult(context);
+            // with credentials, the authentication goes on with the user profile retrieval
+            ended = result.isAction() || result.getCredentials() == null;
+            return result;
+        } finally {
+            if (ended) {
+                this.tracer.end(name);
+            }
+        }
+    }
+
+    private CredentialsResult<C> credentialsResult(final WebContext context) {
         final String value = context.getRequestParameter(NEEDS_CLIENT_REDIRECTION_PARAMETER);
         // needs redirection -> return the redirection url
         if (CommonHelper.isNotBlank(value)) {
-            final RedirectAction action = retrieveRedirectAction(context);
+            final RedirectAction action = measuredRedirectAction(context);
             final String message = "Needs client redirection";
             if (action.getType() == RedirectType.SUCCESS) {
-                throw RequiresHttpAction.ok(message, context, action.getContent());
+                return CredentialsResult.action(RequiresHttpAction.ok(message, context, action.getContent()));
             } else {
                 // it's a redirect
-                throw RequiresHttpAction.redirect(message, context, action.getLocation());
+                return CredentialsResult.action(RequiresHttpAction.redirect(message, context, action.getLocation()));
             }
         } else {
             // else get the credentials
-            final C credentials = retrieveCredentials(context);
-            // no credentials -> save this authentication has already been tried and failed
-            if (credentials == null) {
-                context.setSessionAttribute(getName() + ATTEMPTED_AUTHENTICATION_SUFFIX, "true");
-            } else {
-                context.setSessionAttribute(getName() + ATTEMPTED_AUTHENTICATION_SUFFIX, null);
+            final CredentialsResult<C> result = measure(Phase.CREDENTIALS,
+                    new MeasuredCall<CredentialsResult<C>, RuntimeException>() {
+                        @Override
+                        public CredentialsResult<C> call() {
+                            return retrieveCredentialsResult(context);
+                        }
+                    });
+            if (!this.stateless && !result.isAction()) {
+                // no credentials -> save this authentication has already been tried and failed
+                final Pac4jSession session = Pac4jSession.get(context);
+                if (result.getCredentials() == null) {
+                    session.set(getName() + ATTEMPTED_AUTHENTICATION_SUFFIX, "true");
+                } else {
+                    session.remove(getName() + ATTEMPTED_AUTHENTICATION_SUFFIX);
+                }
+                session.save(context);
             }
-            return credentials;
+            return result;
+        }
+    }
+
+    /**
+     * Retrieve the credentials or the additional HTTP action required. By default, it adapts the
+     * {@link #retrieveCredentials(WebContext)} method: clients which frequently return HTTP actions should override it
+     * to avoid throwing exceptions.
+     * 
+     * @param context the current web context
+     * @return the credentials result
+     */
+    protected CredentialsResult<C> retrieveCredentialsResult(final WebContext context) {
+        try {
+            return CredentialsResult.credentials(retrieveCredentials(context));
+        } catch (final RequiresHttpAction e) {
+            return CredentialsResult.action(e);
         }
     }
 
@@ -235,20 +413,85 @@ public abstract class BaseClient<C extends Credentials, U extends CommonProfile>
     @Override
     public final U getUserProfile(final C credentials, final WebContext context) {
         init();
+        if (this.tracer == null) {
+            return userProfile(credentials, context);
+        }
+        final String name = getName();
+        this.tracer.continueOrBegin(name);
+        try {
+            return userProfile(credentials, context);
+        } finally {
+            this.tracer.end(name);
+        }
+    }
+
+    private U userProfile(final C credentials, final WebContext context) {
         logger.debug("credentials : {}", credentials);
         if (credentials == null) {
             return null;
         }
 
-        final U profile = retrieveUserProfile(credentials, context);
+        final U profile = measure(Phase.PROFILE, new MeasuredCall<U, RuntimeException>() {
+            @Override
+            public U call() {
+                return retrieveUserProfile(credentials, context);
+            }
+        });
         if (this.authorizationGenerators != null) {
-            for (AuthorizationGenerator<U> authorizationGenerator : this.authorizationGenerators) {
-                authorizationGenerator.generate(profile);
+            for (final AuthorizationGenerator<U> authorizationGenerator : this.authorizationGenerators) {
+                measure(Phase.AUTHORIZATION, new MeasuredCall<Void, RuntimeException>() {
+                    @Override
+                    public Void call() {
+                        authorizationGenerator.generate(profile);
+                        return null;
+                    }
+                });
             }
         }
         return profile;
     }
 
+    /**
+     * Run a call and report its duration and outcome for a phase to the metrics recorder and the tracer.
+     * 
+     * @param phase the measured phase
+     * @param call the call
+     * @param <T> the type of the result
+     * @param <E> the type of the checked exception thrown by the call
+     * @return the result of the call
+     * @throws E the exception of the call
+     */
+    protected final <T, E extends Exception> T measure(final Phase phase, final MeasuredCall<T, E> call) throws E {
+        final long start = System.nanoTime();
+        boolean error = true;
+        try {
+            final T result = call.call();
+            error = call.isError(result);
+            return result;
+        } finally {
+            recordMetrics(phase, start, error);
+        }
+    }
+
+    /**
+     * Report the duration of a phase, started at the given time, to the metrics recorder.
+     * 
+     * @param phase the measured phase
+     * @param start the start of the phase (from {@link System#nanoTime()})
+     * @param error whether the phase has failed with an exception
+     */
+    private void recordMetrics(final Phase phase, final long start, final boolean error) {
+        if (this.tracer == null && this.metricsRecorder == NoOpMetricsRecorder.INSTANCE) {
+            return;
+        }
+        final long end = System.nanoTime();
+        final String name = getName();
+        this.metricsRecorder.record(name, phase, end - start, error);
+        if (this.tracer != null) {
+            this.tracer.record(name, phase, start, end, error);
+        }
+    }
+
     protected abstract U retrieveUserProfile(final C credentials, final WebContext context);
 
     /**
@@ -262,7 +505,7 @@ public abstract class BaseClient<C extends Credentials, U extends CommonProfile>
     public String toString() {
         return CommonHelper.toString(this.getClass(), "callbackUrl", this.callbackUrl, "name", this.name,
                 "isDirectRedirection", isDirectRedirection(), "enableContextualRedirects",
-                isEnableContextualRedirects());
+                isEnableContextualRedirects(), "stateless", this.stateless);
     }
 
     /**
@@ -301,6 +544,25 @@ public abstract class BaseClient<C extends Credentials, U extends CommonProfile>
     	this.includeClientNameInCallbackUrl = includeClientNameInCallbackUrl;
     }
     
+    /**
+     * Returns if this client never uses the web session for its own bookkeeping
+     * 
+     * @return if this client is stateless
+     */
+    public boolean isStateless() {
+        return this.stateless;
+    }
+
+    /**
+     * Sets whether this client never uses the web session for its own bookkeeping (the "authentication already tried"
+     * flag is then no longer handled).
+     * 
+     * @param stateless whether this client is stateless
+     */
+    public void setStateless(final boolean stateless) {
+        this.stateless = stateless;
+    }
+
     protected String prependHostToUrlIfNotPresent(final String url, final WebContext webContext) {
         if (webContext != null && this.enableContextualRedirects && url != null && !url.startsWith("http://")
                 && !url.startsWith("https://")) {
@@ -366,6 +628,43 @@ public abstract class BaseClient<C extends Credentials, U extends CommonProfile>
         return this.profileCreator;
     }
 
+    public MetricsRecorder getMetricsRecorder() {
+        return this.metricsRecorder;
+    }
+
+    public void setMetricsRecorder(final MetricsRecorder metricsRecorder) {
+        CommonHelper.assertNotNull("metricsRecorder", metricsRecorder);
+        this.metricsRecorder = metricsRecorder;
+    }
+
+    public AuthenticationTracer getTracer() {
+        return this.tracer;
+    }
+
+    /**
+     * Define the tracer of the authentications of this client (null, the default, disables tracing).
+     * 
+     * @param tracer the authentication tracer
+     */
+    public void setTracer(final AuthenticationTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    public SignedStateCodec getStateCodec() {
+        return this.stateCodec;
+    }
+
+    /**
+     * Define the codec of the state tokens, for the clients supporting it: their state is then carried by the
+     * protocol instead of the web session. <code>null</code> (by default) to use the web session. Combined with a
+     * {@link #setStateless(boolean) stateless} client, no web session is used before the callback.
+     * 
+     * @param stateCodec the codec of the state tokens
+     */
+    public void setStateCodec(final SignedStateCodec stateCodec) {
+        this.stateCodec = stateCodec;
+    }
+
     public void setProfileCreator(ProfileCreator<C, U> profileCreator) {
         this.profileCreator = profileCreator;
     }
@@ -16,12 +16,17 @@
 package org.pac4j.core.client;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.exception.TechnicalException;
 import org.pac4j.core.util.CommonHelper;
 import org.pac4j.core.util.InitializableObject;
+import org.pac4j.core.util.SharedResources;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +39,12 @@ import org.slf4j.LoggerFactory;
  * <p>The {@link #findClient(WebContext)}, {@link #findClient(String)} or {@link #findClient(Class)} methods must be called
  * to find the right client according to the input context or type. The {@link #findAllClients()} method returns all the
  * clients.</p>
+ * <p>The clients are indexed by name and by type at initialization in an immutable {@link ClientsSnapshot}, so that the
+ * "finders" methods do not scan the clients list nor take any lock: any change on the clients (list or names) after
+ * initialization requires a {@link #reinit()}.</p>
+ * <p>To change the configuration of the clients at runtime (a certificate, a secret, an url...), new client instances
+ * must be built and passed to {@link #reload(List, Executor)}: they are initialized aside and then swapped in
+ * atomically, while the requests already processed by the previous clients complete on them.</p>
  * 
  * @author Jerome Leleu
  * @since 1.3.0
@@ -45,12 +56,22 @@ public final class Clients extends InitializableObject {
 
     public final static String DEFAULT_CLIENT_NAME_PARAMETER = "client_name";
 
+    private static final Executor CALLER_RUNS = new Executor() {
+        public void execute(final Runnable command) {
+            command.run();
+        }
+    };
+
     private String clientNameParameter = DEFAULT_CLIENT_NAME_PARAMETER;
 
     private List<Client> clients;
 
     private String callbackUrl;
 
+    private volatile ClientsSnapshot snapshot;
+
+    private final Object reloadLock = new Object();
+
     public Clients() {
     }
 
@@ -71,7 +92,19 @@ public final class Clients extends InitializableObject {
     protected void internalInit() {
         CommonHelper.assertNotBlank("callbackUrl", this.callbackUrl);
         CommonHelper.assertNotNull("clients", this.clients);
-        for (final Client client : this.clients) {
+        synchronized (this.reloadLock) {
+            prepareCallbackUrls(this.clients);
+            this.snapshot = new ClientsSnapshot(nextVersion(), this.clients);
+        }
+    }
+
+    private long nextVersion() {
+        final ClientsSnapshot current = this.snapshot;
+        return current == null ? 1 : current.getVersion() + 1;
+    }
+
+    private void prepareCallbackUrls(final List<Client> clientsToPrepare) {
+        for (final Client client : clientsToPrepare) {
             final BaseClient baseClient = (BaseClient) client;
             String baseClientCallbackUrl = baseClient.getCallbackUrl();
             // no callback url defined for the client -> set it with the group callback url
@@ -89,6 +122,141 @@ public final class Clients extends InitializableObject {
         }
     }
 
+    /**
+     * Initialize this group and then all its clients concurrently on the given executor (to warm up the clients at
+     * startup instead of on the first user requests).
+     * 
+     * @param executor the executor running the initializations of the clients
+     * @return the initialization time in milliseconds of each client by name, in the order of the clients list
+     */
+    public Map<String, Long> initAll(final Executor executor) {
+        CommonHelper.assertNotNull("executor", executor);
+        init();
+        return initClients(this.snapshot.getClients(), executor);
+    }
+
+    /**
+     * Replace the clients of this group by new ones, without blocking the requests: the new clients get their callback
+     * urls and are initialized on the given executor, then a new {@link ClientsSnapshot} is atomically swapped in. If
+     * any client fails to initialize, the current clients are kept.
+     * <p>The new clients rebuild their {@link SharedResources shared resources} (metadata, keys...) instead of sharing
+     * the ones of the current clients, which are released once the new snapshot is swapped in.</p>
+     * <p>The new clients must be new instances: the current ones are left untouched so that the requests being
+     * processed by them complete on the configuration they started with.</p>
+     *
+     * @param newClients the new clients
+     * @param executor the executor running the initializations of the new clients
+     * @return the new snapshot
+     */
+    public ClientsSnapshot reload(final List<Client> newClients, final Executor executor) {
+        CommonHelper.assertNotNull("clients", newClients);
+        CommonHelper.assertNotNull("executor", executor);
+        init();
+        synchronized (this.reloadLock) {
+            final List<Client> currentClients = this.snapshot.getClients();
+            for (final Client newClient : newClients) {
+                for (final Client currentClient : currentClients) {
+                    if (newClient == currentClient) {
+                        throw new TechnicalException("Client " + newClient.getName()
+                                + " is currently in use: the reload requires new client instances");
+                    }
+                }
+            }
+            prepareCallbackUrls(newClients);
+            // the new clients share the resources they rebuild, not the ones of the current clients
+            final long generation = SharedResources.INSTANCE.newGeneration();
+            for (final Client newClient : newClients) {
+                if (newClient instanceof BaseClient) {
+                    ((BaseClient) newClient).refreshSharedResources(generation);
+                }
+            }
+            try {
+                initClients(newClients, executor);
+            } catch (final RuntimeException e) {
+                releaseSharedResources(newClients);
+                throw e;
+            }
+            final ClientsSnapshot next = new ClientsSnapshot(nextVersion(), newClients);
+            this.clients = new ArrayList<Client>(newClients);
+            this.snapshot = next;
+            releaseSharedResources(currentClients);
+            logger.info("Clients reloaded: version {}", next.getVersion());
+            return next;
+        }
+    }
+
+    /**
+     * Replace the clients of this group by new ones, initialized by the calling thread.
+     *
+     * @param newClients the new clients
+     * @return the new snapshot
+     * @see #reload(List, Executor)
+     */
+    public ClientsSnapshot reload(final List<Client> newClients) {
+        return reload(newClients, CALLER_RUNS);
+    }
+
+    private static void releaseSharedResources(final List<Client> clientsToRelease) {
+        for (final Client client : clientsToRelease) {
+            if (client instanceof BaseClient) {
+                ((BaseClient) client).releaseSharedResources();
+            }
+        }
+    }
+
+    private Map<String, Long> initClients(final List<Client> allClients, final Executor executor) {
+        final int size = allClients.size();
+        final long[] durations = new long[size];
+        final Throwable[] failures = new Throwable[size];
+        final CountDownLatch latch = new CountDownLatch(size);
+        for (int i = 0; i < size; i++) {
+            final int position = i;
+            final Client client = allClients.get(i);
+            executor.execute(new Runnable() {
+                public void run() {
+                    final long start = System.nanoTime();
+                    try {
+                        if (client instanceof InitializableObject) {
+                            ((InitializableObject) client).init();
+                        }
+                    } catch (final Throwable t) {
+                        failures[position] = t;
+                    } finally {
+                        durations[position] = System.nanoTime() - start;
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TechnicalException("Interrupted while initializing the clients", e);
+        }
+        final Map<String, Long> times = new LinkedHashMap<String, Long>();
+        final List<String> failedNames = new ArrayList<String>();
+        Throwable firstFailure = null;
+        for (int i = 0; i < size; i++) {
+            final String name = allClients.get(i).getName();
+            final long time = durations[i] / 1000000L;
+            times.put(name, time);
+            if (failures[i] != null) {
+                logger.error("Client {} failed to initialize in {} ms", name, time);
+                failedNames.add(name);
+                if (firstFailure == null) {
+                    firstFailure = failures[i];
+                }
+            } else {
+                logger.info("Client {} initialized in {} ms", name, time);
+            }
+        }
+        if (firstFailure != null) {
+            throw new TechnicalException("Initialization failed for clients: " + failedNames, firstFailure);
+        }
+        return times;
+    }
+
     /**
      * Return the right client according to the web context.
      * 
@@ -108,15 +276,7 @@ public final class Clients extends InitializableObject {
      * @return the right client
      */
     public Client findClient(final String name) {
-        init();
-        for (final Client client : this.clients) {
-            if (CommonHelper.areEquals(name, client.getName())) {
-                return client;
-            }
-        }
-        final String message = "No client found for name: " + name;
-        logger.error(message);
-        throw new TechnicalException(message);
+        return getSnapshot().findClient(name);
     }
 
     /**
@@ -125,29 +285,28 @@ public final class Clients extends InitializableObject {
      * @param clazz class of the client
      * @return the right client
      */
-    @SuppressWarnings("unchecked")
     public <C extends Client> C findClient(final Class<C> clazz) {
-        init();
-        if (clazz != null) {
-          for (final Client client : this.clients) {
-            if (clazz.isAssignableFrom(client.getClass())) {
-                return (C) client;
-            }
-          }
-        }
-        final String message = "No client found for class: " + clazz;
-        logger.error(message);
-        throw new TechnicalException(message);
+        return getSnapshot().findClient(clazz);
     }
 
     /**
      * Find all the clients.
      * 
-     * @return all the clients
+     * @return all the clients (unmodifiable list)
      */
     public List<Client> findAllClients() {
+        return getSnapshot().getClients();
+    }
+
+    /**
+     * Return the current snapshot of the clients, to work on the same clients during a whole request whatever the
+     * reloads.
+     *
+     * @return the current snapshot
+     */
+    public ClientsSnapshot getSnapshot() {
         init();
-        return this.clients;
+        return this.snapshot;
     }
 
     public String getClientNameParameter() {
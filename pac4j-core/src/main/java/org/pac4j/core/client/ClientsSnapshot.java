@@ -0,0 +1,137 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pac4j.core.exception.StacklessTechnicalException;
+import org.pac4j.core.util.CommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is an immutable and versioned view of the clients of a {@link Clients} group: the clients list and its
+ * indexes by name and by type (class, superclasses and interfaces). When several clients match, the first one in the
+ * clients list wins.
+ * <p>A new snapshot is built on each (re-)initialization or reload of the group and replaces the previous one
+ * atomically: a request which has retrieved a snapshot (or a client) keeps working on it whatever the reloads happening
+ * in the meantime.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+@SuppressWarnings("rawtypes")
+public final class ClientsSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClientsSnapshot.class);
+
+    private final long version;
+
+    private final List<Client> clients;
+
+    private final Map<String, Client> byName;
+
+    private final Map<Class<?>, Client> byType;
+
+    ClientsSnapshot(final long version, final List<Client> clients) {
+        this.version = version;
+        this.clients = Collections.unmodifiableList(new ArrayList<Client>(clients));
+        final Map<String, Client> names = new HashMap<String, Client>();
+        final Map<Class<?>, Client> types = new HashMap<Class<?>, Client>();
+        for (final Client client : this.clients) {
+            final String name = client.getName();
+            if (!names.containsKey(name)) {
+                names.put(name, client);
+            }
+            indexType(types, client.getClass(), client);
+        }
+        this.byName = names;
+        this.byType = types;
+    }
+
+    private static void indexType(final Map<Class<?>, Client> types, final Class<?> type, final Client client) {
+        if (type == null || types.containsKey(type)) {
+            return;
+        }
+        types.put(type, client);
+        indexType(types, type.getSuperclass(), client);
+        for (final Class<?> anInterface : type.getInterfaces()) {
+            indexType(types, anInterface, client);
+        }
+    }
+
+    /**
+     * Return the right client according to the specific name.
+     *
+     * @param name name of the client
+     * @return the right client
+     */
+    public Client findClient(final String name) {
+        final Client client = this.byName.get(name);
+        if (client != null) {
+            return client;
+        }
+        final String message = "No client found for name: " + name;
+        logger.error(message);
+        throw new StacklessTechnicalException(message);
+    }
+
+    /**
+     * Return the right client according to the specific class.
+     *
+     * @param clazz class of the client
+     * @return the right client
+     */
+    @SuppressWarnings("unchecked")
+    public <C extends Client> C findClient(final Class<C> clazz) {
+        if (clazz != null) {
+            final Client client = this.byType.get(clazz);
+            if (client != null) {
+                return (C) client;
+            }
+        }
+        final String message = "No client found for class: " + clazz;
+        logger.error(message);
+        throw new StacklessTechnicalException(message);
+    }
+
+    /**
+     * Return the version of this snapshot, incremented by each (re-)initialization or reload of the group.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Return all the clients of this snapshot.
+     *
+     * @return the (unmodifiable) clients list
+     */
+    public List<Client> getClients() {
+        return this.clients;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "version", this.version, "clients", this.clients);
+    }
+}
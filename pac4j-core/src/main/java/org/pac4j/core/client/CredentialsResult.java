@@ -0,0 +1,103 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.client;
+
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.exception.RequiresHttpAction;
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * This class is the result of the credentials retrieval: either the credentials (which may be <code>null</code> if
+ * none are found) or an additional HTTP action (redirect, basic auth...) already applied on the web context. It allows
+ * to handle the HTTP actions without throwing exceptions.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class CredentialsResult<C extends Credentials> {
+
+    @SuppressWarnings("rawtypes")
+    private static final CredentialsResult NO_CREDENTIALS = new CredentialsResult<Credentials>(null, null);
+
+    private final C credentials;
+
+    private final RequiresHttpAction action;
+
+    private CredentialsResult(final C credentials, final RequiresHttpAction action) {
+        this.credentials = credentials;
+        this.action = action;
+    }
+
+    /**
+     * Build a result with credentials.
+     * 
+     * @param credentials the credentials (may be <code>null</code>)
+     * @return a credentials result
+     */
+    @SuppressWarnings("unchecked")
+    public static <C extends Credentials> CredentialsResult<C> credentials(final C credentials) {
+        if (credentials == null) {
+            return NO_CREDENTIALS;
+        }
+        return new CredentialsResult<C>(credentials, null);
+    }
+
+    /**
+     * Build a result with an HTTP action.
+     * 
+     * @param action the HTTP action
+     * @return an HTTP action result
+     */
+    public static <C extends Credentials> CredentialsResult<C> action(final RequiresHttpAction action) {
+        CommonHelper.assertNotNull("action", action);
+        return new CredentialsResult<C>(null, action);
+    }
+
+    /**
+     * Return whether this result is an HTTP action.
+     * 
+     * @return whether this result is an HTTP action
+     */
+    public boolean isAction() {
+        return this.action != null;
+    }
+
+    public C getCredentials() {
+        return this.credentials;
+    }
+
+    public RequiresHttpAction getAction() {
+        return this.action;
+    }
+
+    /**
+     * Return the credentials or throw the HTTP action (legacy exception-based flow).
+     * 
+     * @return the credentials
+     * @throws RequiresHttpAction the HTTP action of this result
+     */
+    public C get() throws RequiresHttpAction {
+        if (this.action != null) {
+            throw this.action;
+        }
+        return this.credentials;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "credentials", this.credentials, "action", this.action);
+    }
+}
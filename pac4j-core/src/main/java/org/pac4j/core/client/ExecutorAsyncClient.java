@@ -0,0 +1,112 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.client;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * This class adapts a blocking {@link Client} into an {@link AsyncClient}: the user profile is retrieved by a task
+ * of the given executor, whose size bounds the number of concurrent calls to the provider.
+ * <p>When the executor rejects the task (saturated or shut down), the returned future and the callback immediately
+ * report the {@link RejectedExecutionException}, so that the caller can fail fast instead of waiting.</p>
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class ExecutorAsyncClient<C extends Credentials, U extends UserProfile> implements AsyncClient<C, U> {
+
+    private final Client<C, U> client;
+
+    private final Executor executor;
+
+    public ExecutorAsyncClient(final Client<C, U> client, final Executor executor) {
+        CommonHelper.assertNotNull("client", client);
+        CommonHelper.assertNotNull("executor", executor);
+        this.client = client;
+        this.executor = executor;
+    }
+
+    public String getName() {
+        return this.client.getName();
+    }
+
+    public Future<U> getUserProfileAsync(final C credentials, final WebContext context,
+                                         final ProfileCallback<U> callback) {
+        final ProfileTask<U> task = new ProfileTask<U>(new Callable<U>() {
+            public U call() {
+                return ExecutorAsyncClient.this.client.getUserProfile(credentials, context);
+            }
+        }, callback);
+        try {
+            this.executor.execute(task);
+        } catch (final RejectedExecutionException e) {
+            task.reject(e);
+        }
+        return task;
+    }
+
+    public Client<C, U> getClient() {
+        return this.client;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "client", this.client, "executor", this.executor);
+    }
+
+    private static final class ProfileTask<U extends UserProfile> extends FutureTask<U> {
+
+        private final ProfileCallback<U> callback;
+
+        private ProfileTask(final Callable<U> callable, final ProfileCallback<U> callback) {
+            super(callable);
+            this.callback = callback;
+        }
+
+        private void reject(final RejectedExecutionException e) {
+            setException(e);
+        }
+
+        @Override
+        protected void done() {
+            if (this.callback == null || isCancelled()) {
+                return;
+            }
+            final U profile;
+            try {
+                profile = get();
+            } catch (final ExecutionException e) {
+                this.callback.onError(e.getCause());
+                return;
+            } catch (final InterruptedException e) {
+                // cannot happen: the task is done
+                Thread.currentThread().interrupt();
+                return;
+            }
+            this.callback.onProfile(profile);
+        }
+    }
+}
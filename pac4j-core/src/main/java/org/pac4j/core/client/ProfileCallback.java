@@ -0,0 +1,42 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.client;
+
+import org.pac4j.core.profile.UserProfile;
+
+/**
+ * This interface is notified of the outcome of an asynchronous user profile retrieval (see {@link AsyncClient}). It is
+ * called on the thread which has retrieved the user profile.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public interface ProfileCallback<U extends UserProfile> {
+
+    /**
+     * Called when the user profile has been retrieved.
+     * 
+     * @param profile the user profile (may be null)
+     */
+    void onProfile(U profile);
+
+    /**
+     * Called when the user profile retrieval has failed.
+     * 
+     * @param error the error
+     */
+    void onError(Throwable error);
+}
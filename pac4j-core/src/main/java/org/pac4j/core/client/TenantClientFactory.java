@@ -0,0 +1,33 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.client;
+
+/**
+ * A factory to build the client of a tenant, used by {@link TenantClients} on the first request of the tenant.
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public interface TenantClientFactory {
+
+    /**
+     * Build the client of a tenant (not initialized).
+     *
+     * @param tenant the tenant identifier
+     * @return the client of the tenant
+     */
+    Client build(String tenant);
+}
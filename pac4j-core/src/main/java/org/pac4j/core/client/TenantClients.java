@@ -0,0 +1,347 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.client;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.InitializableObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>This class is a multi-tenant registry of clients: the client of a tenant is built by the
+ * {@link TenantClientFactory} and initialized on the first request of the tenant, instead of building and
+ * initializing all the clients at startup like {@link Clients}.</p>
+ * <p>Only the configured {@link #setTenants(Collection) tenants} are served: the tenant being read from the request,
+ * an unknown one is rejected before any build, so that arbitrary values cannot force client builds and evictions.</p>
+ * <p>Concurrent first requests of the same tenant share a single build and initialization. If it fails, all of them
+ * get the failure and the next request retries.</p>
+ * <p>The number of initialized clients is bounded by the {@link #setMaxSize(int)} property: when it is exceeded, the
+ * least recently used clients are evicted (down to 7/8 of the maximum size, so that the eviction cost is shared by
+ * several new tenants) and rebuilt on their next request. The memory used then depends on the number of active tenants
+ * instead of the total number of tenants. The evicted clients release their
+ * {@link org.pac4j.core.util.SharedResources shared resources}. Their metrics are kept: the clients built by a factory
+ * usually share the same name, so the metrics recorded under it belong to all the tenants.</p>
+ * <p>The callback url of a client is computed from the callback url of the registry (if the client has none) and the
+ * tenant parameter (unless the client callback url already defines it), which is used by
+ * {@link #findClient(WebContext)} to find the client on callback.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+@SuppressWarnings("rawtypes")
+public final class TenantClients extends InitializableObject {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantClients.class);
+
+    public final static String DEFAULT_TENANT_PARAMETER = "tenant";
+
+    public final static int DEFAULT_MAX_SIZE = 1000;
+
+    private TenantClientFactory factory;
+
+    private String callbackUrl;
+
+    private String tenantParameter = DEFAULT_TENANT_PARAMETER;
+
+    private int maxSize = DEFAULT_MAX_SIZE;
+
+    private volatile Set<String> tenants;
+
+    private final ConcurrentMap<String, Slot> slots = new ConcurrentHashMap<String, Slot>();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    public TenantClients() {
+    }
+
+    public TenantClients(final String callbackUrl, final TenantClientFactory factory) {
+        setCallbackUrl(callbackUrl);
+        setFactory(factory);
+    }
+
+    public TenantClients(final String callbackUrl, final TenantClientFactory factory,
+                         final Collection<String> tenants) {
+        this(callbackUrl, factory);
+        setTenants(tenants);
+    }
+
+    @Override
+    protected void internalInit() {
+        CommonHelper.assertNotBlank("callbackUrl", this.callbackUrl);
+        CommonHelper.assertNotNull("factory", this.factory);
+        CommonHelper.assertNotBlank("tenantParameter", this.tenantParameter);
+        CommonHelper.assertNotNull("tenants", this.tenants);
+        if (this.maxSize <= 0) {
+            throw new TechnicalException("maxSize must be greater than 0");
+        }
+    }
+
+    /**
+     * Return the client of the tenant defined by the tenant parameter of the web context.
+     *
+     * @param context web context
+     * @return the client of the tenant
+     */
+    public Client findClient(final WebContext context) {
+        final String tenant = context.getRequestParameter(this.tenantParameter);
+        CommonHelper.assertNotBlank("tenant", tenant);
+        return findClient(tenant);
+    }
+
+    /**
+     * Return the client of the tenant, built and initialized if it is not already.
+     *
+     * @param tenant the tenant identifier
+     * @return the client of the tenant
+     */
+    public Client findClient(final String tenant) {
+        init();
+        if (!this.tenants.contains(tenant)) {
+            throw new TechnicalException("Unknown tenant: " + tenant);
+        }
+        Slot slot = this.slots.get(tenant);
+        if (slot == null) {
+            final Slot created = new Slot();
+            slot = this.slots.putIfAbsent(tenant, created);
+            if (slot == null) {
+                slot = created;
+                load(tenant, created);
+                evictIfNeeded();
+            }
+        }
+        slot.lastAccess = System.nanoTime();
+        return slot.await(tenant);
+    }
+
+    /**
+     * Remove the client of a tenant (after a configuration change for example): it will be rebuilt on the next request
+     * of the tenant.
+     *
+     * @param tenant the tenant identifier
+     */
+    public void invalidate(final String tenant) {
+        final Slot slot = this.slots.remove(tenant);
+        if (slot != null) {
+            release(slot);
+        }
+    }
+
+    /**
+     * Return the number of clients in the registry (initialized or being initialized).
+     *
+     * @return the number of clients
+     */
+    public int size() {
+        return this.slots.size();
+    }
+
+    private void load(final String tenant, final Slot slot) {
+        try {
+            final Client client = this.factory.build(tenant);
+            CommonHelper.assertNotNull("client", client);
+            if (client instanceof BaseClient) {
+                prepareCallbackUrl(tenant, (BaseClient) client);
+            }
+            if (client instanceof InitializableObject) {
+                ((InitializableObject) client).init();
+            }
+            slot.client = client;
+            logger.debug("Client of tenant {} initialized", tenant);
+        } catch (final RuntimeException e) {
+            slot.failure = e;
+            this.slots.remove(tenant, slot);
+            throw e;
+        } catch (final Error e) {
+            slot.failure = e;
+            this.slots.remove(tenant, slot);
+            throw e;
+        } finally {
+            slot.latch.countDown();
+        }
+    }
+
+    private void prepareCallbackUrl(final String tenant, final BaseClient client) {
+        String clientCallbackUrl = client.getCallbackUrl();
+        if (clientCallbackUrl == null) {
+            clientCallbackUrl = this.callbackUrl;
+        }
+        if (!CommonHelper.hasParameter(clientCallbackUrl, this.tenantParameter)) {
+            clientCallbackUrl = CommonHelper.addParameter(clientCallbackUrl, this.tenantParameter, tenant);
+        }
+        client.setCallbackUrl(clientCallbackUrl);
+    }
+
+    /**
+     * Evict the least recently used initialized clients when the maximum size is exceeded. Only one thread evicts at a
+     * time, the other ones go on.
+     */
+    private void evictIfNeeded() {
+        if (this.slots.size() <= this.maxSize || !this.evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int toEvict = this.slots.size() - (this.maxSize - this.maxSize / 8);
+            // clients may have been removed concurrently since the size check
+            if (toEvict <= 0) {
+                return;
+            }
+            // the access times are copied as they keep changing: the clients used since are spared
+            final long[] times = new long[this.slots.size()];
+            int nb = 0;
+            for (final Slot slot : this.slots.values()) {
+                if (slot.client != null && nb < times.length) {
+                    times[nb++] = slot.lastAccess;
+                }
+            }
+            if (nb == 0) {
+                return;
+            }
+            Arrays.sort(times, 0, nb);
+            final long threshold = times[Math.min(toEvict, nb) - 1];
+            final Iterator<Slot> iterator = this.slots.values().iterator();
+            while (toEvict > 0 && iterator.hasNext()) {
+                final Slot slot = iterator.next();
+                if (slot.client != null && slot.lastAccess <= threshold) {
+                    iterator.remove();
+                    release(slot);
+                    toEvict--;
+                }
+            }
+            logger.debug("{} clients after eviction", this.slots.size());
+        } finally {
+            this.evictionLock.unlock();
+        }
+    }
+
+    private static void release(final Slot slot) {
+        final Client client = slot.client;
+        if (client instanceof BaseClient) {
+            ((BaseClient) client).releaseSharedResources();
+        }
+    }
+
+    public TenantClientFactory getFactory() {
+        return this.factory;
+    }
+
+    public void setFactory(final TenantClientFactory factory) {
+        this.factory = factory;
+    }
+
+    public String getCallbackUrl() {
+        return this.callbackUrl;
+    }
+
+    public void setCallbackUrl(final String callbackUrl) {
+        this.callbackUrl = callbackUrl;
+    }
+
+    public String getTenantParameter() {
+        return this.tenantParameter;
+    }
+
+    public void setTenantParameter(final String tenantParameter) {
+        this.tenantParameter = tenantParameter;
+    }
+
+    public Set<String> getTenants() {
+        return this.tenants;
+    }
+
+    /**
+     * Define the tenants served by the registry. The clients of the tenants which are no longer defined are released.
+     *
+     * @param tenants the tenant identifiers
+     */
+    public void setTenants(final Collection<String> tenants) {
+        CommonHelper.assertNotNull("tenants", tenants);
+        final Set<String> newTenants = Collections.unmodifiableSet(new HashSet<String>(tenants));
+        this.tenants = newTenants;
+        for (final Map.Entry<String, Slot> entry : this.slots.entrySet()) {
+            if (!newTenants.contains(entry.getKey()) && this.slots.remove(entry.getKey(), entry.getValue())) {
+                release(entry.getValue());
+            }
+        }
+    }
+
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    public void setMaxSize(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * The slot of a tenant client, published by the latch once built and initialized (or failed).
+     */
+    private static final class Slot {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        private volatile Client client;
+
+        private Throwable failure;
+
+        private volatile long lastAccess = System.nanoTime();
+
+        private Client await(final String tenant) {
+            final Client current = this.client;
+            if (current != null) {
+                return current;
+            }
+            boolean interrupted = false;
+            try {
+                for (;;) {
+                    try {
+                        this.latch.await();
+                        break;
+                    } catch (final InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (this.failure != null) {
+                throw new TechnicalException("Initialization failed for the client of tenant: " + tenant, this.failure);
+            }
+            return this.client;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "callbackUrl", this.callbackUrl, "tenantParameter",
+                this.tenantParameter, "maxSize", this.maxSize, "factory", this.factory, "size", this.slots.size());
+    }
+}
@@ -0,0 +1,264 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.context;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * This class is a {@link WebContext} decorator which buffers the session attributes during a request and writes the net
+ * changes in the session of the decorated web context once, on {@link #flush()}.
+ * <p>Session managers replicating on each <code>setAttribute</code> call (clustered or external session stores) then
+ * replicate once per request instead of once per attribute. Attributes are read at most once from the session, several
+ * writes of the same attribute are coalesced into the last one, and a write is skipped when it changes nothing: the
+ * removal of an attribute which is not in session or an equal (but not the same) value. Saving again the same instance
+ * is always written, as it is the usual way to tell the session manager that a mutable attribute has changed.</p>
+ * <p>The buffered session is flushed before the response status is set or the response content is written, as the
+ * response may be committed then (and a new session could no longer be tracked by cookie). It must be flushed explicitly
+ * at the end of a request which sets nothing on the response.</p>
+ * <p>Like the other web contexts, this class is bound to a request and is not thread-safe.</p>
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public class BufferedSessionWebContext implements WebContext {
+
+    private final WebContext context;
+
+    // values read from the session of the decorated web context (null values included)
+    private final Map<String, Object> readValues = new HashMap<String, Object>(8);
+
+    // values to write in the session of the decorated web context (null values are removals)
+    private final Map<String, Object> pendingValues = new LinkedHashMap<String, Object>(8);
+
+    private int sessionReads;
+
+    private int sessionWrites;
+
+    private int sessionCreations;
+
+    /**
+     * Decorate a web context.
+     * 
+     * @param context the decorated web context
+     */
+    public BufferedSessionWebContext(final WebContext context) {
+        CommonHelper.assertNotNull("context", context);
+        this.context = context;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Object getSessionAttribute(final String name) {
+        if (this.pendingValues.containsKey(name)) {
+            return this.pendingValues.get(name);
+        }
+        return read(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void setSessionAttribute(final String name, final Object value) {
+        this.pendingValues.put(name, value);
+    }
+
+    private Object read(final String name) {
+        if (this.readValues.containsKey(name)) {
+            return this.readValues.get(name);
+        }
+        final Object value = this.context.getSessionAttribute(name);
+        this.sessionReads++;
+        this.readValues.put(name, value);
+        return value;
+    }
+
+    /**
+     * Write the changed session attributes in the session of the decorated web context.
+     * 
+     * @return the number of session attributes written
+     */
+    public int flush() {
+        if (this.pendingValues.isEmpty()) {
+            return 0;
+        }
+        int writes = 0;
+        for (final Map.Entry<String, Object> entry : this.pendingValues.entrySet()) {
+            final String name = entry.getKey();
+            final Object value = entry.getValue();
+            // only the removals are checked against the session: a new value is (almost always) a change
+            final boolean known = value == null || this.readValues.containsKey(name);
+            if (known && isUnchanged(read(name), value)) {
+                continue;
+            }
+            if (writes == 0 && !hasSession()) {
+                this.sessionCreations++;
+            }
+            this.context.setSessionAttribute(name, value);
+            this.readValues.put(name, value);
+            writes++;
+        }
+        this.pendingValues.clear();
+        this.sessionWrites += writes;
+        return writes;
+    }
+
+    private boolean isUnchanged(final Object previous, final Object value) {
+        if (previous == null || value == null) {
+            return previous == value;
+        }
+        return previous != value && previous.equals(value);
+    }
+
+    /**
+     * Return if a session exists for the decorated web context. Only known for the {@link J2EContext}, a session is
+     * assumed to exist for the other web contexts.
+     * 
+     * @return if a session exists
+     */
+    protected boolean hasSession() {
+        if (this.context instanceof J2EContext) {
+            return ((J2EContext) this.context).getRequest().getSession(false) != null;
+        }
+        return true;
+    }
+
+    /**
+     * Return the number of session attributes read from the decorated web context.
+     * 
+     * @return the number of session reads
+     */
+    public int getSessionReads() {
+        return this.sessionReads;
+    }
+
+    /**
+     * Return the number of session attributes written in the decorated web context.
+     * 
+     * @return the number of session writes
+     */
+    public int getSessionWrites() {
+        return this.sessionWrites;
+    }
+
+    /**
+     * Return the number of sessions created by the flushes (see {@link #hasSession()}).
+     * 
+     * @return the number of session creations
+     */
+    public int getSessionCreations() {
+        return this.sessionCreations;
+    }
+
+    /**
+     * Return the decorated web context.
+     * 
+     * @return the decorated web context
+     */
+    public WebContext getContext() {
+        return this.context;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getRequestParameter(final String name) {
+        return this.context.getRequestParameter(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Map<String, String[]> getRequestParameters() {
+        return this.context.getRequestParameters();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getRequestHeader(final String name) {
+        return this.context.getRequestHeader(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getRequestMethod() {
+        return this.context.getRequestMethod();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void writeResponseContent(final String content) {
+        flush();
+        this.context.writeResponseContent(content);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void setResponseStatus(final int code) {
+        flush();
+        this.context.setResponseStatus(code);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void setResponseHeader(final String name, final String value) {
+        this.context.setResponseHeader(name, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getServerName() {
+        return this.context.getServerName();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getServerPort() {
+        return this.context.getServerPort();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getScheme() {
+        return this.context.getScheme();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getFullRequestURL() {
+        return this.context.getFullRequestURL();
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "context", this.context, "pendingValues",
+                                     this.pendingValues.keySet(), "sessionReads", this.sessionReads, "sessionWrites",
+                                     this.sessionWrites, "sessionCreations", this.sessionCreations);
+    }
+}
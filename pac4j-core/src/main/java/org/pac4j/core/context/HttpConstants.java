@@ -41,6 +41,10 @@ public interface HttpConstants {
 
     public static final String CONTENT_TYPE_HEADER = "Content-Type";
 
+    public static final String COOKIE_HEADER = "Cookie";
+
+    public static final String SET_COOKIE_HEADER = "Set-Cookie";
+
     public final static String HTML_CONTENT_TYPE = "text/html; charset=utf-8";
 
     /* Use Pac4jConstants.REQUESTED_URL instead */
@@ -20,6 +20,7 @@ import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
 
 import org.pac4j.core.exception.TechnicalException;
 
@@ -78,7 +79,9 @@ public class J2EContext implements WebContext {
      * {@inheritDoc}
      */
     public Object getSessionAttribute(final String name) {
-        return this.request.getSession().getAttribute(name);
+        // reading does not create the session
+        final HttpSession session = this.request.getSession(false);
+        return session == null ? null : session.getAttribute(name);
     }
 
     /**
@@ -134,7 +137,12 @@ public class J2EContext implements WebContext {
      * {@inheritDoc}
      */
     public void setResponseHeader(final String name, final String value) {
-        this.response.setHeader(name, value);
+        // the cookies are added to the ones of the container (like the session cookie)
+        if (HttpConstants.SET_COOKIE_HEADER.equalsIgnoreCase(name)) {
+            this.response.addHeader(name, value);
+        } else {
+            this.response.setHeader(name, value);
+        }
     }
 
     /**
@@ -8,6 +8,12 @@ public interface Pac4jConstants {
     /* User Profile object saved in session */
     public final static String USER_PROFILE = "pac4jUserProfile";
 
+    /* Key of the user profile saved in a ProfileStore, saved in session instead of the user profile */
+    public final static String USER_PROFILE_KEY = "pac4jUserProfileKey";
+
+    /* Consolidated pac4j session state (see Pac4jSession) */
+    public final static String PAC4J_SESSION = "pac4jSession";
+
     /* Session ID */
     public final static String SESSION_ID = "pac4jSessionId";
 
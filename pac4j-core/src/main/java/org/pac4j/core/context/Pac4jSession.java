@@ -0,0 +1,259 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.context;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * <p>This class gathers all the values saved in the web session by the clients (attempted authentication flags, OAuth /
+ * OpenID Connect states and nonces, request tokens, SAML relay state...) in a single session attribute:
+ * {@link Pac4jConstants#PAC4J_SESSION}.</p>
+ * <p>The {@link #get(WebContext)} method returns the same pac4j session for all the calls of a request (kept as a
+ * request attribute for the {@link J2EContext}, per web context otherwise). Values are modified in memory through the
+ * {@link #set(String, Object)} and {@link #remove(String)} methods and written back in the web session by the
+ * {@link #save(WebContext)} method, only if something changed. The changes are merged into the values saved in the
+ * meantime by concurrent requests, so that they do not overwrite each other's keys.</p>
+ * <p>The serialized form is compact: strings are written in UTF-8 and only the other values rely on the default Java
+ * serialization.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class Pac4jSession implements Externalizable {
+
+    private static final long serialVersionUID = 4720458916371904376L;
+
+    private final static byte VERSION = 1;
+
+    private final static byte STRING_VALUE = 0;
+
+    private final static byte OBJECT_VALUE = 1;
+
+    // a modified UTF-8 char takes at most 3 bytes and writeUTF is limited to 65535 bytes
+    private final static int MAX_UTF_LENGTH = 65535 / 3;
+
+    // marker of a removed key
+    private final static Object REMOVED = new Object();
+
+    // the pac4j sessions of the requests, for the web contexts which do not hold request attributes
+    private final static Map<WebContext, Pac4jSession> SESSIONS = Collections
+        .synchronizedMap(new WeakHashMap<WebContext, Pac4jSession>());
+
+    // the values saved in the web session: never modified once saved, so shared with the pac4j sessions reading them
+    private Map<String, Object> values;
+
+    // the values set or removed since the last save
+    private transient final Map<String, Object> changes = new LinkedHashMap<String, Object>(4);
+
+    private transient boolean stored = false;
+
+    /**
+     * Public constructor required by the {@link Externalizable} contract.
+     */
+    public Pac4jSession() {
+        this(new LinkedHashMap<String, Object>(4));
+    }
+
+    private Pac4jSession(final Map<String, Object> values) {
+        this.values = values;
+    }
+
+    /**
+     * Get the pac4j session of the current request: the one saved in the web session or a new empty one (not saved
+     * until {@link #save(WebContext)} is called).
+     *
+     * @param context the web context
+     * @return the pac4j session
+     */
+    public static Pac4jSession get(final WebContext context) {
+        CommonHelper.assertNotNull("context", context);
+        if (context instanceof J2EContext) {
+            final HttpServletRequest request = ((J2EContext) context).getRequest();
+            Pac4jSession session = (Pac4jSession) request.getAttribute(Pac4jConstants.PAC4J_SESSION);
+            if (session == null) {
+                session = read(context);
+                request.setAttribute(Pac4jConstants.PAC4J_SESSION, session);
+            }
+            return session;
+        }
+        synchronized (SESSIONS) {
+            Pac4jSession session = SESSIONS.get(context);
+            if (session == null) {
+                session = read(context);
+                SESSIONS.put(context, session);
+            }
+            return session;
+        }
+    }
+
+    private static Pac4jSession read(final WebContext context) {
+        final Object saved = context.getSessionAttribute(Pac4jConstants.PAC4J_SESSION);
+        if (saved instanceof Pac4jSession) {
+            final Pac4jSession session = new Pac4jSession(((Pac4jSession) saved).getValues());
+            session.stored = true;
+            return session;
+        }
+        return new Pac4jSession();
+    }
+
+    private synchronized Map<String, Object> getValues() {
+        return this.values;
+    }
+
+    /**
+     * Get a value.
+     *
+     * @param key the key
+     * @return the value or <code>null</code>
+     */
+    public synchronized Object get(final String key) {
+        if (this.changes.containsKey(key)) {
+            final Object value = this.changes.get(key);
+            return value == REMOVED ? null : value;
+        }
+        return this.values.get(key);
+    }
+
+    /**
+     * Set a value (a <code>null</code> value removes the key).
+     *
+     * @param key the key
+     * @param value the value
+     */
+    public synchronized void set(final String key, final Object value) {
+        CommonHelper.assertNotBlank("key", key);
+        if (value == null) {
+            remove(key);
+        } else if (value.equals(this.values.get(key))) {
+            this.changes.remove(key);
+        } else {
+            this.changes.put(key, value);
+        }
+    }
+
+    /**
+     * Remove a value.
+     *
+     * @param key the key
+     * @return the removed value or <code>null</code>
+     */
+    public synchronized Object remove(final String key) {
+        final Object value = get(key);
+        if (this.values.containsKey(key)) {
+            this.changes.put(key, REMOVED);
+        } else {
+            this.changes.remove(key);
+        }
+        return value;
+    }
+
+    /**
+     * Return if some values have been modified since the last save.
+     *
+     * @return if some values have been modified
+     */
+    public synchronized boolean isDirty() {
+        return !this.changes.isEmpty();
+    }
+
+    /**
+     * Save this pac4j session in the web context if it has been modified: its changes are applied to the pac4j session
+     * currently saved in the web session and the result is written in a single session attribute. An empty pac4j
+     * session is removed from the web context (or never saved).
+     *
+     * @param context the web context
+     */
+    public synchronized void save(final WebContext context) {
+        if (this.changes.isEmpty()) {
+            return;
+        }
+        final Object saved = context.getSessionAttribute(Pac4jConstants.PAC4J_SESSION);
+        final Map<String, Object> merged = new LinkedHashMap<String, Object>(4);
+        if (saved instanceof Pac4jSession) {
+            merged.putAll(((Pac4jSession) saved).getValues());
+        }
+        for (final Map.Entry<String, Object> entry : this.changes.entrySet()) {
+            if (entry.getValue() == REMOVED) {
+                merged.remove(entry.getKey());
+            } else {
+                merged.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!merged.isEmpty()) {
+            context.setSessionAttribute(Pac4jConstants.PAC4J_SESSION, new Pac4jSession(merged));
+        } else if (this.stored || saved != null) {
+            context.setSessionAttribute(Pac4jConstants.PAC4J_SESSION, null);
+        }
+        this.values = merged;
+        this.stored = !merged.isEmpty();
+        this.changes.clear();
+    }
+
+    @Override
+    public synchronized void writeExternal(final ObjectOutput out) throws IOException {
+        out.writeByte(VERSION);
+        out.writeInt(this.values.size());
+        for (final Map.Entry<String, Object> entry : this.values.entrySet()) {
+            out.writeUTF(entry.getKey());
+            final Object value = entry.getValue();
+            if (value instanceof String && ((String) value).length() <= MAX_UTF_LENGTH) {
+                out.writeByte(STRING_VALUE);
+                out.writeUTF((String) value);
+            } else {
+                out.writeByte(OBJECT_VALUE);
+                out.writeObject(value);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
+        final byte version = in.readByte();
+        if (version != VERSION) {
+            throw new InvalidClassException(Pac4jSession.class.getName(), "Unsupported version: " + version);
+        }
+        final int size = in.readInt();
+        final Map<String, Object> read = new LinkedHashMap<String, Object>(Math.max(4, size * 2));
+        for (int i = 0; i < size; i++) {
+            final String key = in.readUTF();
+            final byte type = in.readByte();
+            if (type == STRING_VALUE) {
+                read.put(key, in.readUTF());
+            } else {
+                read.put(key, in.readObject());
+            }
+        }
+        this.values = read;
+        this.stored = true;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return CommonHelper.toString(this.getClass(), "keys", this.values.keySet(), "dirty", isDirty());
+    }
+}
@@ -0,0 +1,47 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.context;
+
+/**
+ * This interface receives the response of a {@link SimpleWebContext}, to be written by the server embedding pac4j.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public interface ResponseSink {
+
+    /**
+     * Set the response status.
+     * 
+     * @param code the HTTP status code
+     */
+    void setStatus(int code);
+
+    /**
+     * Set a response header.
+     * 
+     * @param name name of the header
+     * @param value value of the header
+     */
+    void setHeader(String name, String value);
+
+    /**
+     * Write some content in the response.
+     * 
+     * @param content the content
+     */
+    void write(String content);
+}
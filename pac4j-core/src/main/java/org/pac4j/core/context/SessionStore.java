@@ -0,0 +1,41 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.context;
+
+/**
+ * This interface is the session storage of a {@link SimpleWebContext}, provided by the server embedding pac4j.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public interface SessionStore {
+
+    /**
+     * Get a session attribute.
+     * 
+     * @param name name of the session attribute
+     * @return the session attribute
+     */
+    Object get(String name);
+
+    /**
+     * Save a session attribute (a null value removes it).
+     * 
+     * @param name name of the session attribute
+     * @param value value of the session attribute
+     */
+    void set(String name, Object value);
+}
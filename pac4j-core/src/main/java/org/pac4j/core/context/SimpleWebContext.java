@@ -0,0 +1,311 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.context;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * This class is a web context built on the raw data of a request, without any servlet API, for the servers embedding
+ * pac4j without servlet bridge (like the Netty based ones).
+ * <p>The parameters (query and form ones, already parsed by the server or parsed by
+ * {@link #addEncodedParameters(String)}) and the headers are kept in flat arrays of name / value pairs: the lookups are
+ * linear scans, faster than hashing for the few parameters and headers of a request. The parameters map and the full
+ * request url are only built on demand.</p>
+ * <p>The session and the response are delegated to a {@link SessionStore} and a {@link ResponseSink}. Without session
+ * store, the session attributes are always null and saving one fails: only the stateless clients can then be used.</p>
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public class SimpleWebContext implements WebContext {
+
+    private final String method;
+
+    private final String scheme;
+
+    private final String serverName;
+
+    private final int serverPort;
+
+    private final String path;
+
+    private final String queryString;
+
+    private final SessionStore sessionStore;
+
+    private final ResponseSink responseSink;
+
+    private String[] parameters = new String[8];
+
+    private int parametersSize;
+
+    private String[] headers = new String[16];
+
+    private int headersSize;
+
+    private Map<String, String[]> parametersMap;
+
+    private String fullRequestURL;
+
+    /**
+     * Build a web context.
+     * 
+     * @param method the HTTP method
+     * @param scheme the scheme (http or https)
+     * @param serverName the server name
+     * @param serverPort the server port
+     * @param path the path of the request
+     * @param queryString the query string (without the <code>?</code>, may be null)
+     * @param sessionStore the session store (may be null)
+     * @param responseSink the response sink
+     */
+    public SimpleWebContext(final String method, final String scheme, final String serverName, final int serverPort,
+                            final String path, final String queryString, final SessionStore sessionStore,
+                            final ResponseSink responseSink) {
+        CommonHelper.assertNotBlank("method", method);
+        CommonHelper.assertNotBlank("scheme", scheme);
+        CommonHelper.assertNotBlank("serverName", serverName);
+        CommonHelper.assertNotNull("responseSink", responseSink);
+        this.method = method;
+        this.scheme = scheme;
+        this.serverName = serverName;
+        this.serverPort = serverPort;
+        this.path = path == null || path.length() == 0 ? "/" : path;
+        this.queryString = queryString;
+        this.sessionStore = sessionStore;
+        this.responseSink = responseSink;
+    }
+
+    /**
+     * Add a (decoded) request parameter.
+     * 
+     * @param name name of the parameter
+     * @param value value of the parameter
+     * @return this web context
+     */
+    public SimpleWebContext addRequestParameter(final String name, final String value) {
+        this.parameters = add(this.parameters, this.parametersSize, name, value);
+        this.parametersSize += 2;
+        this.parametersMap = null;
+        return this;
+    }
+
+    /**
+     * Add the request parameters of an url encoded string: the query string or a form body.
+     * 
+     * @param encoded the url encoded parameters (<code>name1=value1&amp;name2=value2</code>)
+     * @return this web context
+     */
+    public SimpleWebContext addEncodedParameters(final String encoded) {
+        if (encoded != null) {
+            int start = 0;
+            final int length = encoded.length();
+            while (start < length) {
+                int end = encoded.indexOf('&', start);
+                if (end < 0) {
+                    end = length;
+                }
+                if (end > start) {
+                    final int equals = encoded.indexOf('=', start);
+                    if (equals < 0 || equals > end) {
+                        addRequestParameter(CommonHelper.decodeText(encoded.substring(start, end)), "");
+                    } else {
+                        addRequestParameter(CommonHelper.decodeText(encoded.substring(start, equals)),
+                                            CommonHelper.decodeText(encoded.substring(equals + 1, end)));
+                    }
+                }
+                start = end + 1;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add a request header.
+     * 
+     * @param name name of the header
+     * @param value value of the header
+     * @return this web context
+     */
+    public SimpleWebContext addRequestHeader(final String name, final String value) {
+        this.headers = add(this.headers, this.headersSize, name, value);
+        this.headersSize += 2;
+        return this;
+    }
+
+    private static String[] add(final String[] pairs, final int size, final String name, final String value) {
+        CommonHelper.assertNotNull("name", name);
+        final String[] result = size + 2 > pairs.length ? Arrays.copyOf(pairs, pairs.length * 2) : pairs;
+        result[size] = name;
+        result[size + 1] = value;
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getRequestParameter(final String name) {
+        for (int i = 0; i < this.parametersSize; i += 2) {
+            if (this.parameters[i].equals(name)) {
+                return this.parameters[i + 1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Map<String, String[]> getRequestParameters() {
+        if (this.parametersMap == null) {
+            final Map<String, String[]> map = new LinkedHashMap<String, String[]>();
+            for (int i = 0; i < this.parametersSize; i += 2) {
+                final String[] values = map.get(this.parameters[i]);
+                if (values == null) {
+                    map.put(this.parameters[i], new String[] { this.parameters[i + 1] });
+                } else {
+                    final String[] newValues = Arrays.copyOf(values, values.length + 1);
+                    newValues[values.length] = this.parameters[i + 1];
+                    map.put(this.parameters[i], newValues);
+                }
+            }
+            this.parametersMap = Collections.unmodifiableMap(map);
+        }
+        return this.parametersMap;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getRequestHeader(final String name) {
+        for (int i = 0; i < this.headersSize; i += 2) {
+            if (this.headers[i].equalsIgnoreCase(name)) {
+                return this.headers[i + 1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void setSessionAttribute(final String name, final Object value) {
+        if (this.sessionStore == null) {
+            throw new TechnicalException("No session store for this web context: cannot save " + name);
+        }
+        this.sessionStore.set(name, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Object getSessionAttribute(final String name) {
+        return this.sessionStore == null ? null : this.sessionStore.get(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getRequestMethod() {
+        return this.method;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void writeResponseContent(final String content) {
+        if (content != null) {
+            this.responseSink.write(content);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void setResponseStatus(final int code) {
+        this.responseSink.setStatus(code);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void setResponseHeader(final String name, final String value) {
+        this.responseSink.setHeader(name, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getServerName() {
+        return this.serverName;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getServerPort() {
+        return this.serverPort;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getScheme() {
+        return this.scheme;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getFullRequestURL() {
+        if (this.fullRequestURL == null) {
+            final boolean defaultPort = this.serverPort <= 0 || this.serverPort == 80 && "http".equals(this.scheme)
+                    || this.serverPort == 443 && "https".equals(this.scheme);
+            final StringBuilder sb = new StringBuilder(this.scheme.length() + this.serverName.length()
+                    + this.path.length() + (this.queryString == null ? 0 : this.queryString.length()) + 10);
+            sb.append(this.scheme).append("://").append(this.serverName);
+            if (!defaultPort) {
+                sb.append(':').append(this.serverPort);
+            }
+            sb.append(this.path);
+            if (this.queryString != null) {
+                sb.append('?').append(this.queryString);
+            }
+            this.fullRequestURL = sb.toString();
+        }
+        return this.fullRequestURL;
+    }
+
+    public SessionStore getSessionStore() {
+        return this.sessionStore;
+    }
+
+    public ResponseSink getResponseSink() {
+        return this.responseSink;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "method", this.method, "fullRequestURL", getFullRequestURL(),
+                "sessionStore", this.sessionStore, "responseSink", this.responseSink);
+    }
+}
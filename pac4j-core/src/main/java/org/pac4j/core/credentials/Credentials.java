@@ -29,6 +29,8 @@ public abstract class Credentials implements Serializable {
 
     private String clientName;
 
+    private String requestedUrl;
+
     public String getClientName() {
         return this.clientName;
     }
@@ -36,4 +38,18 @@ public abstract class Credentials implements Serializable {
     public void setClientName(final String clientName) {
         this.clientName = clientName;
     }
+
+    /**
+     * Return the url originally requested by the user, when it is carried by the protocol (like in a
+     * {@link org.pac4j.core.state.SignedState}) instead of the web session.
+     * 
+     * @return the requested url, or <code>null</code> if unknown
+     */
+    public String getRequestedUrl() {
+        return this.requestedUrl;
+    }
+
+    public void setRequestedUrl(final String requestedUrl) {
+        this.requestedUrl = requestedUrl;
+    }
 }
@@ -21,6 +21,8 @@ import org.pac4j.core.util.CommonHelper;
 
 /**
  * This exception is thrown when an additionnal HTTP action (redirect, basic auth...) is required.
+ * <p>It is part of the normal flow (and can be returned without being thrown in a
+ * {@link org.pac4j.core.client.CredentialsResult}): it has no stack trace.</p>
  * 
  * @author Jerome Leleu
  * @since 1.4.0
@@ -103,6 +105,11 @@ public class RequiresHttpAction extends Exception {
         return new RequiresHttpAction(message, HttpConstants.FORBIDDEN);
     }
     
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+    
     /**
      * Return the HTTP code.
      * 
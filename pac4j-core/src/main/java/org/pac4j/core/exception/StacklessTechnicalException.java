@@ -0,0 +1,41 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.exception;
+
+/**
+ * This class is a {@link TechnicalException} without stack trace, for expected failures (like a bad user input) where
+ * filling in the stack trace would be a waste.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public class StacklessTechnicalException extends TechnicalException {
+
+    private static final long serialVersionUID = -1283904564917457802L;
+
+    public StacklessTechnicalException(final String message) {
+        super(message);
+    }
+
+    public StacklessTechnicalException(final String message, final Throwable t) {
+        super(message, t);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
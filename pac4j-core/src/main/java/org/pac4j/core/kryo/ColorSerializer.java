@@ -18,6 +18,7 @@ package org.pac4j.core.kryo;
 import java.nio.ByteBuffer;
 
 import org.pac4j.core.profile.Color;
+import org.pac4j.core.profile.converter.Interners;
 
 import com.esotericsoftware.kryo.serialize.IntSerializer;
 import com.esotericsoftware.kryo.serialize.SimpleSerializer;
@@ -37,7 +38,7 @@ public class ColorSerializer extends SimpleSerializer<Color> {
         final int red = this.intSerializer.readObject(buffer, Integer.class);
         final int green = this.intSerializer.readObject(buffer, Integer.class);
         final int blue = this.intSerializer.readObject(buffer, Integer.class);
-        return new Color(red, green, blue);
+        return Interners.colors.intern(new Color(red, green, blue));
     }
     
     @Override
@@ -20,6 +20,7 @@ import java.util.Date;
 import java.util.Locale;
 
 import org.pac4j.core.profile.FormattedDate;
+import org.pac4j.core.profile.converter.Interners;
 
 import com.esotericsoftware.kryo.serialize.LongSerializer;
 import com.esotericsoftware.kryo.serialize.SimpleSerializer;
@@ -42,7 +43,7 @@ public class FormattedDateSerializer extends SimpleSerializer<FormattedDate> {
     @Override
     public FormattedDate read(final ByteBuffer buffer) {
         final Long time = this.longSerializer.readObject(buffer, Long.class);
-        final String format = this.stringSerializer.readObject(buffer, String.class);
+        final String format = Interners.dateFormats.intern(this.stringSerializer.readObject(buffer, String.class));
         final Locale locale = this.localeSerializer.readObject(buffer, Locale.class);
         return new FormattedDate(new Date(time), format, locale);
     }
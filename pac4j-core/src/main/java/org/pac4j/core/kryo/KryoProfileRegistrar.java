@@ -0,0 +1,116 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.kryo;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import org.pac4j.core.profile.Color;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.FormattedDate;
+import org.pac4j.core.profile.Gender;
+import org.pac4j.core.profile.ProfileFactory;
+import org.pac4j.core.profile.ProfileFactoryRegistry;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.util.CommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.esotericsoftware.kryo.Kryo;
+
+/**
+ * This class registers in Kryo all the profile types and the classes of their attribute values.
+ * <p>The profiles of the {@link ProfileFactoryRegistry} are registered with the {@link UserProfileSerializer}, the
+ * classes of the {@link ProfileClassesProvider} found by the {@link java.util.ServiceLoader} with the default Kryo
+ * serializers. Kryo identifies the registered classes by their order of registration: only the core classes are
+ * registered this way, first and in a fixed order (new ones must be appended). The profile types and the value classes
+ * of the modules are written by name, so that deploying a new module or a new value class does not change the ids of
+ * the other classes and the stored profiles remain readable.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class KryoProfileRegistrar {
+
+    private static final Logger logger = LoggerFactory.getLogger(KryoProfileRegistrar.class);
+
+    private KryoProfileRegistrar() {
+    }
+
+    /**
+     * Register the profiles and their attribute values in Kryo.
+     *
+     * @param kryo the Kryo instance
+     * @return the Kryo instance
+     */
+    public static Kryo register(final Kryo kryo) {
+        return register(kryo, getValueClasses());
+    }
+
+    static Kryo register(final Kryo kryo, final List<Class<?>> valueClasses) {
+        CommonHelper.assertNotNull("kryo", kryo);
+        // the core classes, identified by their order of registration
+        kryo.register(HashMap.class);
+        kryo.register(LinkedHashMap.class);
+        kryo.register(ArrayList.class);
+        kryo.register(Date.class);
+        kryo.register(Locale.class, new LocaleSerializer());
+        kryo.register(FormattedDate.class, new FormattedDateSerializer());
+        kryo.register(Color.class, new ColorSerializer());
+        kryo.register(Gender.class);
+        final UserProfileSerializer serializer = new UserProfileSerializer(kryo);
+        kryo.register(UserProfile.class, serializer);
+        kryo.register(CommonProfile.class, serializer);
+
+        // the classes of the modules, identified by their name
+        for (final String type : ProfileFactoryRegistry.getTypes()) {
+            final ProfileFactory<? extends UserProfile> factory = ProfileFactoryRegistry.getFactory(type);
+            kryo.register(factory.newProfile().getClass(), serializer, true);
+        }
+        for (final Class<?> clazz : valueClasses) {
+            kryo.register(clazz, kryo.newSerializer(clazz), true);
+        }
+        return kryo;
+    }
+
+    private static List<Class<?>> getValueClasses() {
+        final List<Class<?>> classes = new ArrayList<Class<?>>();
+        final Iterator<ProfileClassesProvider> providers = ServiceLoader.load(ProfileClassesProvider.class,
+                KryoProfileRegistrar.class.getClassLoader()).iterator();
+        while (true) {
+            try {
+                if (!providers.hasNext()) {
+                    break;
+                }
+                for (final Class<?> clazz : providers.next().getClasses()) {
+                    if (!classes.contains(clazz)) {
+                        classes.add(clazz);
+                    }
+                }
+            } catch (final ServiceConfigurationError e) {
+                logger.error("Cannot load profile classes provider", e);
+            }
+        }
+        return classes;
+    }
+}
@@ -18,6 +18,8 @@ package org.pac4j.core.kryo;
 import java.nio.ByteBuffer;
 import java.util.Locale;
 
+import org.pac4j.core.profile.converter.Interners;
+
 import com.esotericsoftware.kryo.serialize.SimpleSerializer;
 import com.esotericsoftware.kryo.serialize.StringSerializer;
 
@@ -36,7 +38,7 @@ public class LocaleSerializer extends SimpleSerializer<Locale> {
         final String language = this.stringSerializer.readObject(buffer, String.class);
         final String country = this.stringSerializer.readObject(buffer, String.class);
         final String variant = this.stringSerializer.readObject(buffer, String.class);
-        return new Locale(language, country, variant);
+        return Interners.locales.intern(new Locale(language, country, variant));
     }
     
     @Override
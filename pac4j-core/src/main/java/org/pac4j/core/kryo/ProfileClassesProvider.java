@@ -0,0 +1,36 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.kryo;
+
+import java.util.List;
+
+/**
+ * This interface provides the classes of the attribute values of the profiles of a module (the objects built from the
+ * JSON or XML data of a provider and their sub-objects), to be registered in Kryo by the {@link KryoProfileRegistrar}.
+ * <p>The implementations are loaded by the {@link java.util.ServiceLoader} and do not depend on Kryo.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public interface ProfileClassesProvider {
+
+    /**
+     * Return the classes of the attribute values.
+     *
+     * @return the classes
+     */
+    List<Class<?>> getClasses();
+}
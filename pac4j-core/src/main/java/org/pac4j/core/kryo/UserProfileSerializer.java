@@ -0,0 +1,182 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.kryo;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pac4j.core.profile.ProfileFactory;
+import org.pac4j.core.profile.ProfileFactoryRegistry;
+import org.pac4j.core.profile.ProfileHelper;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.util.CommonHelper;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.SerializationException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.serialize.IntSerializer;
+import com.esotericsoftware.kryo.serialize.LongSerializer;
+import com.esotericsoftware.kryo.serialize.StringSerializer;
+
+/**
+ * This class is a Kryo serializer for {@link UserProfile} and all its subclasses.
+ * <p>The format is versioned (a leading byte) and tolerates the evolutions of the profile classes: the attributes are
+ * written by name (and not by slot), so adding, removing or reordering the defined attributes of a profile does not
+ * break the profiles serialized before. The strings, booleans, integers, longs, doubles and dates are written with a
+ * one byte tag, the other values (like the JSON or XML objects) are written with their Kryo class.</p>
+ * <p>The profiles are created by the factory registered in the {@link ProfileFactoryRegistry} for their type.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public class UserProfileSerializer extends Serializer {
+
+    public final static byte VERSION = 1;
+
+    private final static byte OBJECT = 0;
+
+    private final static byte STRING = 1;
+
+    private final static byte BOOLEAN = 2;
+
+    private final static byte INTEGER = 3;
+
+    private final static byte LONG = 4;
+
+    private final static byte DOUBLE = 5;
+
+    private final static byte DATE = 6;
+
+    private final Kryo kryo;
+
+    public UserProfileSerializer(final Kryo kryo) {
+        CommonHelper.assertNotNull("kryo", kryo);
+        this.kryo = kryo;
+    }
+
+    @Override
+    public void writeObjectData(final ByteBuffer buffer, final Object object) {
+        final UserProfile profile = (UserProfile) object;
+        buffer.put(VERSION);
+        StringSerializer.put(buffer, profile.getId());
+        buffer.put(profile.isRemembered() ? (byte) 1 : (byte) 0);
+        writeStrings(buffer, profile.getRoles());
+        writeStrings(buffer, profile.getPermissions());
+        final Map<String, Object> attributes = profile.getAttributes();
+        IntSerializer.put(buffer, attributes.size(), true);
+        for (final Map.Entry<String, Object> entry : attributes.entrySet()) {
+            StringSerializer.put(buffer, entry.getKey());
+            writeValue(buffer, entry.getValue());
+        }
+    }
+
+    private void writeStrings(final ByteBuffer buffer, final List<String> strings) {
+        IntSerializer.put(buffer, strings.size(), true);
+        for (final String s : strings) {
+            StringSerializer.put(buffer, s);
+        }
+    }
+
+    private void writeValue(final ByteBuffer buffer, final Object value) {
+        // exact classes: a subclass (like FormattedDate) has its own serializer
+        final Class<?> clazz = value.getClass();
+        if (clazz == String.class) {
+            buffer.put(STRING);
+            StringSerializer.put(buffer, (String) value);
+        } else if (clazz == Boolean.class) {
+            buffer.put(BOOLEAN);
+            buffer.put(((Boolean) value).booleanValue() ? (byte) 1 : (byte) 0);
+        } else if (clazz == Integer.class) {
+            buffer.put(INTEGER);
+            IntSerializer.put(buffer, (Integer) value, false);
+        } else if (clazz == Long.class) {
+            buffer.put(LONG);
+            LongSerializer.put(buffer, (Long) value, false);
+        } else if (clazz == Double.class) {
+            buffer.put(DOUBLE);
+            buffer.putDouble((Double) value);
+        } else if (clazz == Date.class) {
+            buffer.put(DATE);
+            LongSerializer.put(buffer, ((Date) value).getTime(), false);
+        } else {
+            buffer.put(OBJECT);
+            this.kryo.writeClassAndObject(buffer, value);
+        }
+    }
+
+    @Override
+    public <T> T readObjectData(final ByteBuffer buffer, final Class<T> type) {
+        final byte version = buffer.get();
+        if (version != VERSION) {
+            throw new SerializationException("Unsupported profile format version: " + version);
+        }
+        final UserProfile profile = newProfile(type);
+        profile.setId(StringSerializer.get(buffer));
+        profile.setRemembered(buffer.get() != 0);
+        int size = IntSerializer.get(buffer, true);
+        for (int i = 0; i < size; i++) {
+            profile.addRole(StringSerializer.get(buffer));
+        }
+        size = IntSerializer.get(buffer, true);
+        for (int i = 0; i < size; i++) {
+            profile.addPermission(StringSerializer.get(buffer));
+        }
+        size = IntSerializer.get(buffer, true);
+        final Map<String, Object> attributes = new LinkedHashMap<String, Object>(size * 2);
+        for (int i = 0; i < size; i++) {
+            final String name = StringSerializer.get(buffer);
+            attributes.put(name, readValue(buffer));
+        }
+        ProfileHelper.restoreAttributes(profile, attributes);
+        return type.cast(profile);
+    }
+
+    private Object readValue(final ByteBuffer buffer) {
+        final byte tag = buffer.get();
+        switch (tag) {
+        case STRING:
+            return StringSerializer.get(buffer);
+        case BOOLEAN:
+            return Boolean.valueOf(buffer.get() != 0);
+        case INTEGER:
+            return Integer.valueOf(IntSerializer.get(buffer, false));
+        case LONG:
+            return Long.valueOf(LongSerializer.get(buffer, false));
+        case DOUBLE:
+            return Double.valueOf(buffer.getDouble());
+        case DATE:
+            return new Date(LongSerializer.get(buffer, false));
+        case OBJECT:
+            return this.kryo.readClassAndObject(buffer);
+        default:
+            throw new SerializationException("Unknown attribute value tag: " + tag);
+        }
+    }
+
+    private UserProfile newProfile(final Class<?> type) {
+        final ProfileFactory<? extends UserProfile> factory = ProfileFactoryRegistry.getFactory(type.getSimpleName());
+        if (factory != null) {
+            final UserProfile profile = factory.newProfile();
+            if (profile.getClass() == type) {
+                return profile;
+            }
+        }
+        return (UserProfile) this.kryo.newInstance(type);
+    }
+}
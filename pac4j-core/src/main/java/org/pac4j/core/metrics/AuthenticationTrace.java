@@ -0,0 +1,164 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.metrics;
+
+import java.util.Arrays;
+
+/**
+ * This class is the timeline of an authentication on the current thread: the start and end of each phase of the
+ * client (see {@link Phase}). It is a ring of preallocated arrays reused by all the authentications of the thread, so
+ * that tracing allocates nothing: when a trace has more phases than its capacity, the oldest ones are overwritten.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class AuthenticationTrace {
+
+    final static int CAPACITY = 32;
+
+    private final static Phase[] PHASES = Phase.values();
+
+    private final byte[] phases = new byte[CAPACITY];
+
+    private final long[] starts = new long[CAPACITY];
+
+    private final long[] ends = new long[CAPACITY];
+
+    private final boolean[] errors = new boolean[CAPACITY];
+
+    private int count;
+
+    private String clientName;
+
+    private long startNanos;
+
+    private long endNanos;
+
+    private boolean active;
+
+    void begin(final String clientName, final long startNanos) {
+        this.clientName = clientName;
+        this.startNanos = startNanos;
+        this.endNanos = startNanos;
+        this.count = 0;
+        this.active = true;
+    }
+
+    boolean isActiveFor(final String clientName) {
+        return this.active && this.clientName.equals(clientName);
+    }
+
+    void add(final Phase phase, final long start, final long end, final boolean error) {
+        final int slot = this.count % CAPACITY;
+        this.phases[slot] = (byte) phase.ordinal();
+        this.starts[slot] = start;
+        this.ends[slot] = end;
+        this.errors[slot] = error;
+        this.count++;
+    }
+
+    void end(final long endNanos) {
+        this.endNanos = endNanos;
+        this.active = false;
+    }
+
+    public String getClientName() {
+        return this.clientName;
+    }
+
+    /**
+     * Return the duration of the whole authentication.
+     * 
+     * @return the duration in nanoseconds
+     */
+    public long getDurationNanos() {
+        return this.endNanos - this.startNanos;
+    }
+
+    /**
+     * Return the number of phases kept in this trace (the oldest ones being lost beyond the capacity).
+     * 
+     * @return the number of phases
+     */
+    public int size() {
+        return Math.min(this.count, CAPACITY);
+    }
+
+    // the phases are ordered by end (the nested ones first), the i-th one being the i-th oldest kept
+    private int slot(final int i) {
+        if (i < 0 || i >= size()) {
+            throw new IndexOutOfBoundsException("index: " + i + ", size: " + size());
+        }
+        return this.count <= CAPACITY ? i : (this.count + i) % CAPACITY;
+    }
+
+    public Phase getPhase(final int i) {
+        return PHASES[this.phases[slot(i)]];
+    }
+
+    /**
+     * Return the start of a phase, relatively to the start of the authentication.
+     * 
+     * @param i the index of the phase
+     * @return the start in nanoseconds
+     */
+    public long getStartNanos(final int i) {
+        return this.starts[slot(i)] - this.startNanos;
+    }
+
+    /**
+     * Return the end of a phase, relatively to the start of the authentication.
+     * 
+     * @param i the index of the phase
+     * @return the end in nanoseconds
+     */
+    public long getEndNanos(final int i) {
+        return this.ends[slot(i)] - this.startNanos;
+    }
+
+    public boolean isError(final int i) {
+        return this.errors[slot(i)];
+    }
+
+    /**
+     * Format the timeline, the phases being sorted by start: <code>[+offset ms] PHASE duration ms</code>.
+     */
+    @Override
+    public String toString() {
+        final int size = size();
+        final long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            // start in the high bits, index in the low ones
+            sorted[i] = getStartNanos(i) << 6 | i;
+        }
+        Arrays.sort(sorted);
+        final StringBuilder sb = new StringBuilder();
+        sb.append(this.clientName).append(" in ").append(toMillis(getDurationNanos())).append(" ms");
+        for (final long entry : sorted) {
+            final int i = (int) (entry & 63);
+            sb.append(" | [+").append(toMillis(getStartNanos(i))).append(" ms] ").append(getPhase(i)).append(' ')
+                .append(toMillis(getEndNanos(i) - getStartNanos(i))).append(" ms");
+            if (isError(i)) {
+                sb.append(" (error)");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String toMillis(final long nanos) {
+        return String.valueOf(nanos / 1000 / 1000.0);
+    }
+}
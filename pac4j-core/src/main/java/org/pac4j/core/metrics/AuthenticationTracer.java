@@ -0,0 +1,116 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.metrics;
+
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * This class traces the authentications of the clients it is set on: each thread records the timeline of its current
+ * authentication in its own {@link AuthenticationTrace}, which is given to the {@link TraceListener} when the
+ * authentication lasts longer than the threshold.
+ * <p>An authentication starts with the redirection to the provider or the credentials retrieval and ends with the
+ * redirection, the failed credentials retrieval or the user profile retrieval.</p>
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class AuthenticationTracer {
+
+    private final TraceListener listener;
+
+    private final long thresholdNanos;
+
+    private final ThreadLocal<AuthenticationTrace> traces = new ThreadLocal<AuthenticationTrace>() {
+        @Override
+        protected AuthenticationTrace initialValue() {
+            return new AuthenticationTrace();
+        }
+    };
+
+    /**
+     * Build a tracer logging the authentications slower than the threshold.
+     * 
+     * @param thresholdMillis the threshold in milliseconds
+     */
+    public AuthenticationTracer(final long thresholdMillis) {
+        this(new LoggingTraceListener(), thresholdMillis);
+    }
+
+    public AuthenticationTracer(final TraceListener listener, final long thresholdMillis) {
+        CommonHelper.assertNotNull("listener", listener);
+        this.listener = listener;
+        this.thresholdNanos = thresholdMillis * 1000000L;
+    }
+
+    /**
+     * Start the trace of an authentication on the current thread.
+     * 
+     * @param clientName the name of the client
+     */
+    public void begin(final String clientName) {
+        this.traces.get().begin(clientName, System.nanoTime());
+    }
+
+    /**
+     * Start the trace of an authentication on the current thread, unless one is already in progress for this client.
+     * 
+     * @param clientName the name of the client
+     */
+    public void continueOrBegin(final String clientName) {
+        final AuthenticationTrace trace = this.traces.get();
+        if (!trace.isActiveFor(clientName)) {
+            trace.begin(clientName, System.nanoTime());
+        }
+    }
+
+    /**
+     * Record a phase in the trace of the current thread (ignored if no authentication is traced).
+     * 
+     * @param clientName the name of the client
+     * @param phase the phase
+     * @param start the start of the phase (from {@link System#nanoTime()})
+     * @param end the end of the phase (from {@link System#nanoTime()})
+     * @param error whether the phase has failed with an exception
+     */
+    public void record(final String clientName, final Phase phase, final long start, final long end,
+                       final boolean error) {
+        final AuthenticationTrace trace = this.traces.get();
+        if (trace.isActiveFor(clientName)) {
+            trace.add(phase, start, end, error);
+        }
+    }
+
+    /**
+     * End the trace of the current thread and notify the listener if the authentication was slow.
+     * 
+     * @param clientName the name of the client
+     */
+    public void end(final String clientName) {
+        final AuthenticationTrace trace = this.traces.get();
+        if (trace.isActiveFor(clientName)) {
+            trace.end(System.nanoTime());
+            if (trace.getDurationNanos() >= this.thresholdNanos) {
+                this.listener.onSlowAuthentication(trace);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "listener", this.listener, "thresholdMillis",
+                this.thresholdNanos / 1000000L);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is the default implementation of the {@link MetricsRecorder}: it keeps lock-free {@link PhaseMetrics}
+ * (striped counters and fixed-bucket latency histogram) per client name and phase.
+ * <p>When built with a {@link MBeanServer}, each {@link PhaseMetrics} is registered on its creation under the
+ * <code>org.pac4j:type=ClientMetrics,client=&lt;client name&gt;,phase=&lt;phase&gt;</code> name. The metrics of a client
+ * are unregistered by {@link #remove(String)} (when a tenant client is evicted for example) and all of them by
+ * {@link #destroy()}, which must be called when the application is stopped.</p>
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class DefaultMetricsRecorder implements MetricsRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DefaultMetricsRecorder.class);
+
+    public final static String JMX_DOMAIN = "org.pac4j";
+
+    private final static Phase[] PHASES = Phase.values();
+
+    private final ConcurrentMap<String, PhaseMetrics[]> metrics = new ConcurrentHashMap<String, PhaseMetrics[]>();
+
+    private final MBeanServer mbeanServer;
+
+    public DefaultMetricsRecorder() {
+        this(null);
+    }
+
+    public DefaultMetricsRecorder(final MBeanServer mbeanServer) {
+        this.mbeanServer = mbeanServer;
+    }
+
+    public void record(final String clientName, final Phase phase, final long durationNanos, final boolean error) {
+        getMetrics(clientName, phase, true).record(durationNanos, error);
+    }
+
+    /**
+     * Return the metrics of a phase for a client.
+     * 
+     * @param clientName the name of the client
+     * @param phase the phase
+     * @return the metrics or null if nothing has been recorded for this client yet
+     */
+    public PhaseMetrics getMetrics(final String clientName, final Phase phase) {
+        return getMetrics(clientName, phase, false);
+    }
+
+    private PhaseMetrics getMetrics(final String clientName, final Phase phase, final boolean create) {
+        PhaseMetrics[] clientMetrics = this.metrics.get(clientName);
+        if (clientMetrics == null) {
+            if (!create) {
+                return null;
+            }
+            final PhaseMetrics[] newMetrics = new PhaseMetrics[PHASES.length];
+            for (int i = 0; i < PHASES.length; i++) {
+                newMetrics[i] = new PhaseMetrics();
+            }
+            clientMetrics = this.metrics.putIfAbsent(clientName, newMetrics);
+            if (clientMetrics == null) {
+                clientMetrics = newMetrics;
+                register(clientName, newMetrics);
+            }
+        }
+        return clientMetrics[phase.ordinal()];
+    }
+
+    private void register(final String clientName, final PhaseMetrics[] clientMetrics) {
+        if (this.mbeanServer != null) {
+            for (int i = 0; i < PHASES.length; i++) {
+                try {
+                    this.mbeanServer.registerMBean(clientMetrics[i], getObjectName(clientName, PHASES[i]));
+                } catch (final Exception e) {
+                    logger.warn("Cannot register the metrics of the {} phase for the client: {}", PHASES[i], clientName, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove (and unregister) the metrics of a client.
+     * 
+     * @param clientName the name of the client
+     */
+    public void remove(final String clientName) {
+        final PhaseMetrics[] clientMetrics = this.metrics.remove(clientName);
+        if (clientMetrics != null) {
+            unregister(clientName);
+        }
+    }
+
+    /**
+     * Remove (and unregister) the metrics of all the clients.
+     */
+    public void destroy() {
+        for (final String clientName : this.metrics.keySet()) {
+            remove(clientName);
+        }
+    }
+
+    private void unregister(final String clientName) {
+        if (this.mbeanServer != null) {
+            for (int i = 0; i < PHASES.length; i++) {
+                try {
+                    this.mbeanServer.unregisterMBean(getObjectName(clientName, PHASES[i]));
+                } catch (final Exception e) {
+                    logger.warn("Cannot unregister the metrics of the {} phase for the client: {}", PHASES[i],
+                            clientName, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the JMX name of the metrics of a phase for a client.
+     * 
+     * @param clientName the name of the client
+     * @param phase the phase
+     * @return the JMX name
+     */
+    public static ObjectName getObjectName(final String clientName, final Phase phase) {
+        try {
+            return new ObjectName(JMX_DOMAIN + ":type=ClientMetrics,client=" + ObjectName.quote(clientName) + ",phase="
+                    + phase.name());
+        } catch (final Exception e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "clients", this.metrics.keySet(), "mbeanServer", this.mbeanServer);
+    }
+}
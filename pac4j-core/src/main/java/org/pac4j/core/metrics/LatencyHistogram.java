@@ -0,0 +1,114 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class is a lock-free latency histogram with fixed exponential buckets: the bucket <code>i</code> counts the
+ * durations lower than 2<sup>i</sup> microseconds (the last one counting all the longer durations). The percentiles
+ * are thus approximated by the upper bound of their bucket.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class LatencyHistogram {
+
+    // 2^26 µs = ~67 s
+    final static int BUCKETS = 27;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    private final StripedCounter count = new StripedCounter();
+
+    private final StripedCounter totalNanos = new StripedCounter();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record a duration.
+     * 
+     * @param durationNanos the duration in nanoseconds
+     */
+    public void record(final long durationNanos) {
+        final long nanos = durationNanos < 0 ? 0 : durationNanos;
+        final long micros = nanos / 1000;
+        final int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        this.buckets.incrementAndGet(bucket);
+        this.count.add(1);
+        this.totalNanos.add(nanos);
+        long max = this.maxNanos.get();
+        while (nanos > max && !this.maxNanos.compareAndSet(max, nanos)) {
+            max = this.maxNanos.get();
+        }
+    }
+
+    /**
+     * Return the number of recorded durations.
+     * 
+     * @return the number of recorded durations
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Return the mean duration in milliseconds.
+     * 
+     * @return the mean duration
+     */
+    public double getMeanMillis() {
+        final long count = getCount();
+        return count == 0 ? 0 : this.totalNanos.sum() / (count * 1000000.0);
+    }
+
+    /**
+     * Return the maximum duration in milliseconds.
+     * 
+     * @return the maximum duration
+     */
+    public double getMaxMillis() {
+        return this.maxNanos.get() / 1000000.0;
+    }
+
+    /**
+     * Return the (approximated) duration in milliseconds below which the given ratio of the durations fall.
+     * 
+     * @param ratio the ratio, like 0.99 for the 99th percentile
+     * @return the percentile
+     */
+    public double getPercentileMillis(final double ratio) {
+        final long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        final long rank = (long) Math.ceil(ratio * total);
+        long cumulated = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            cumulated += counts[i];
+            if (cumulated >= rank) {
+                return (1L << i) / 1000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+}
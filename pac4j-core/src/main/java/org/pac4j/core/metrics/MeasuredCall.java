@@ -0,0 +1,47 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.metrics;
+
+/**
+ * This class is a call measured by a client (a provider call, a conversion...): its duration and its outcome are
+ * reported for a {@link Phase} by the {@link org.pac4j.core.client.BaseClient#measure(Phase, MeasuredCall)} method.
+ * 
+ * @param <T> the type of the result
+ * @param <E> the type of the checked exception thrown by the call ({@link RuntimeException} for none)
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public abstract class MeasuredCall<T, E extends Exception> {
+
+    /**
+     * Run the call.
+     * 
+     * @return the result
+     * @throws E the exception of the call
+     */
+    public abstract T call() throws E;
+
+    /**
+     * Return whether a result is an error (an HTTP error status for example). By default, only an exception is an
+     * error.
+     * 
+     * @param result the result of the call
+     * @return whether the result is an error
+     */
+    public boolean isError(final T result) {
+        return false;
+    }
+}
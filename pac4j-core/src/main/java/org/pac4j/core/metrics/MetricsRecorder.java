@@ -0,0 +1,36 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.metrics;
+
+/**
+ * This interface is the SPI used by the clients to report the duration and the outcome of their phases (see
+ * {@link Phase}). Implementations are called on the authentication path and must be thread-safe and fast.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public interface MetricsRecorder {
+
+    /**
+     * Record the duration of a phase for a client.
+     * 
+     * @param clientName the name of the client
+     * @param phase the measured phase
+     * @param durationNanos the duration in nanoseconds
+     * @param error whether the phase has failed with an exception
+     */
+    void record(String clientName, Phase phase, long durationNanos, boolean error);
+}
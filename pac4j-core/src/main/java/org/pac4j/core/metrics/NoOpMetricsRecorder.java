@@ -0,0 +1,33 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.metrics;
+
+/**
+ * This class is the metrics recorder which ignores all measures: it's the default one of the clients.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class NoOpMetricsRecorder implements MetricsRecorder {
+
+    public final static NoOpMetricsRecorder INSTANCE = new NoOpMetricsRecorder();
+
+    private NoOpMetricsRecorder() {
+    }
+
+    public void record(final String clientName, final Phase phase, final long durationNanos, final boolean error) {
+    }
+}
@@ -0,0 +1,39 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.metrics;
+
+/**
+ * This enum lists the measured phases of an authentication client.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public enum Phase {
+    /** computing the redirection to the provider */
+    REDIRECT,
+    /** retrieving the credentials from the callback request */
+    CREDENTIALS,
+    /** retrieving the user profile from the credentials */
+    PROFILE,
+    /** generating the authorization information with an authorization generator */
+    AUTHORIZATION,
+    /** exchanging a code or a token with the provider for an access token */
+    TOKEN_EXCHANGE,
+    /** calling the provider for the user data (user info, ticket validation...) */
+    PROVIDER_CALL,
+    /** building the user profile from the data of the provider (parsing and attribute conversion) */
+    CONVERSION
+}
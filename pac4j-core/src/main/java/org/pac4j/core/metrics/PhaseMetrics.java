@@ -0,0 +1,69 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.metrics;
+
+/**
+ * This class gathers the metrics of a phase for a client: the latency histogram and the number of errors.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class PhaseMetrics implements PhaseMetricsMBean {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private final StripedCounter errors = new StripedCounter();
+
+    void record(final long durationNanos, final boolean error) {
+        this.histogram.record(durationNanos);
+        if (error) {
+            this.errors.add(1);
+        }
+    }
+
+    public LatencyHistogram getHistogram() {
+        return this.histogram;
+    }
+
+    public long getCount() {
+        return this.histogram.getCount();
+    }
+
+    public long getErrorCount() {
+        return this.errors.sum();
+    }
+
+    public double getErrorRate() {
+        final long count = getCount();
+        return count == 0 ? 0 : (double) getErrorCount() / count;
+    }
+
+    public double getMeanMillis() {
+        return this.histogram.getMeanMillis();
+    }
+
+    public double getMaxMillis() {
+        return this.histogram.getMaxMillis();
+    }
+
+    public double getP50Millis() {
+        return this.histogram.getPercentileMillis(0.5);
+    }
+
+    public double getP99Millis() {
+        return this.histogram.getPercentileMillis(0.99);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class is a lock-free counter spread over several cells, chosen by the current thread, to reduce the contention
+ * between threads updating it. Reading it sums the cells.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+final class StripedCounter {
+
+    // one cell every 8 longs, so that two cells never share a cache line
+    private final static int PADDING = 8;
+
+    private final static int STRIPES = stripes();
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+    private static int stripes() {
+        int stripes = 1;
+        while (stripes < Runtime.getRuntime().availableProcessors() && stripes < 64) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    void add(final long value) {
+        final int stripe = (int) (Thread.currentThread().getId() & (STRIPES - 1));
+        this.cells.addAndGet(stripe * PADDING, value);
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += this.cells.get(i * PADDING);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.profile;
+
+import java.util.Arrays;
+
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * <p>This class is a compiled access requirement: the <code>requireAnyRole</code> and <code>requireAllRoles</code>
+ * parameters are parsed once and the required roles converted into a bit mask (see {@link RoleRegistry}), so that
+ * checking a profile (see {@link UserProfile#hasAccess(AccessRequirement)}) only costs a few word operations.</p>
+ * <p>It has the same semantics as the {@link UserProfile#hasAccess(String, String)} method: the
+ * <code>requireAnyRole</code> parameter, if defined, takes precedence over the <code>requireAllRoles</code> one.</p>
+ * <p>It is immutable and thread-safe: it should be built once (at filter initialization for example).</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class AccessRequirement {
+
+    private final static int NONE = 0;
+
+    private final static int ANY_ROLE = 1;
+
+    private final static int ALL_ROLES = 2;
+
+    private final int type;
+
+    private final long[] mask;
+
+    private final String requireAnyRole;
+
+    private final String requireAllRoles;
+
+    private AccessRequirement(final int type, final long[] mask, final String requireAnyRole,
+            final String requireAllRoles) {
+        this.type = type;
+        this.mask = mask;
+        this.requireAnyRole = requireAnyRole;
+        this.requireAllRoles = requireAllRoles;
+    }
+
+    /**
+     * Compile an access requirement. You can pass null values for the parameters you want to ignore.
+     *
+     * @param requireAnyRole any of the required roles (comma separated)
+     * @param requireAllRoles all the required roles (comma separated)
+     * @return the compiled access requirement
+     */
+    public static AccessRequirement compile(final String requireAnyRole, final String requireAllRoles) {
+        int type = NONE;
+        long[] mask = null;
+        if (CommonHelper.isNotBlank(requireAnyRole)) {
+            final String[] roles = requireAnyRole.split(",");
+            if (roles.length > 0) {
+                type = ANY_ROLE;
+                mask = RoleRegistry.toMask(Arrays.asList(roles));
+            }
+        } else if (CommonHelper.isNotBlank(requireAllRoles)) {
+            final String[] roles = requireAllRoles.split(",");
+            if (roles.length > 0) {
+                type = ALL_ROLES;
+                mask = RoleRegistry.toMask(Arrays.asList(roles));
+            }
+        }
+        return new AccessRequirement(type, mask, requireAnyRole, requireAllRoles);
+    }
+
+    /**
+     * Check the roles of a profile.
+     *
+     * @param roleMask the bit mask of the roles of the profile
+     * @return if the access is granted
+     */
+    boolean isGranted(final long[] roleMask) {
+        if (this.type == ANY_ROLE) {
+            final int length = Math.min(this.mask.length, roleMask.length);
+            for (int i = 0; i < length; i++) {
+                if ((this.mask[i] & roleMask[i]) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        } else if (this.type == ALL_ROLES) {
+            for (int i = 0; i < this.mask.length; i++) {
+                final long roles = i < roleMask.length ? roleMask[i] : 0L;
+                if ((this.mask[i] & ~roles) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "requireAnyRole", this.requireAnyRole, "requireAllRoles",
+                this.requireAllRoles);
+    }
+}
@@ -16,6 +16,7 @@
 package org.pac4j.core.profile;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,7 +24,11 @@ import java.util.Map;
 import org.pac4j.core.profile.converter.AttributeConverter;
 
 /**
- * This class is the definition of the attributes of a profile.
+ * This class is the definition of the attributes of a profile. The order in which the attributes are added defines their
+ * index, used by the profiles to store their values in an array (see {@link #getAttributeIndex(String)}) and to find their
+ * converter without any other lookup (see {@link #convert(int, Object)}).
+ * <p>An attribute can be defined as lazy: its raw value is then stored by the profile and only converted when it is
+ * read for the first time, which is worth it for the attributes expensive to convert and rarely read.</p>
  * 
  * @author Jerome Leleu
  * @since 1.1.0
@@ -38,6 +43,12 @@ public class AttributesDefinition {
     
     protected Map<String, AttributeConverter<? extends Object>> attributesConverters = new HashMap<String, AttributeConverter<? extends Object>>();
     
+    protected Map<String, Integer> attributesIndexes = new HashMap<String, Integer>();
+    
+    protected List<AttributeConverter<? extends Object>> indexedConverters = new ArrayList<AttributeConverter<? extends Object>>();
+    
+    protected BitSet lazyIndexes = new BitSet();
+    
     /**
      * Return all the attributes names.
      * 
@@ -84,6 +95,30 @@ public class AttributesDefinition {
      */
     protected void addAttribute(final String name, final AttributeConverter<? extends Object> converter,
                                 final boolean principal) {
+        addAttribute(name, converter, principal, false);
+    }
+    
+    /**
+     * Add an attribute, its primary aspect, its converter and whether its conversion is lazy to this attributes
+     * definition.
+     * 
+     * @param name name of the attribute
+     * @param converter converter
+     * @param principal whether the attribute is principal
+     * @param lazy whether the attribute is only converted when it is read
+     */
+    protected void addAttribute(final String name, final AttributeConverter<? extends Object> converter,
+                                final boolean principal, final boolean lazy) {
+        final Integer index = this.attributesIndexes.get(name);
+        if (index == null) {
+            this.attributesIndexes.put(name, this.allAttributesNames.size());
+        } else {
+            // an attribute defined again: its last converter wins
+            this.indexedConverters.set(index.intValue(), converter);
+            this.lazyIndexes.set(index.intValue(), lazy);
+        }
+        this.lazyIndexes.set(this.allAttributesNames.size(), lazy);
+        this.indexedConverters.add(converter);
         this.allAttributesNames.add(name);
         this.attributesConverters.put(name, converter);
         if (principal) {
@@ -109,4 +144,42 @@ public class AttributesDefinition {
             return null;
         }
     }
+    
+    /**
+     * Convert an attribute into the right type, the attribute being identified by its index (see
+     * {@link #getAttributeIndex(String)}).
+     * 
+     * @param index index of the attribute
+     * @param value value of the attribute
+     * @return the converted attribute or null if no converter exists for this attribute
+     */
+    public Object convert(final int index, final Object value) {
+        final AttributeConverter<? extends Object> converter = this.indexedConverters.get(index);
+        if (converter != null && value != null) {
+            return converter.convert(value);
+        } else {
+            return null;
+        }
+    }
+    
+    /**
+     * Return whether an attribute, identified by its index, is only converted when it is read.
+     * 
+     * @param index index of the attribute
+     * @return whether the attribute is lazy
+     */
+    public boolean isLazy(final int index) {
+        return this.lazyIndexes.get(index);
+    }
+    
+    /**
+     * Return the index of an attribute: its position in the {@link #getAllAttributes()} list.
+     * 
+     * @param name name of the attribute
+     * @return the index of the attribute or -1 if the attribute is not defined
+     */
+    public int getAttributeIndex(final String name) {
+        final Integer index = this.attributesIndexes.get(name);
+        return index == null ? -1 : index.intValue();
+    }
 }
@@ -18,6 +18,7 @@ package org.pac4j.core.profile;
 import java.io.Serializable;
 
 import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.converter.Interners;
 
 /**
  * <p>This class is a simple RGB color values holder.</p>
@@ -54,6 +55,28 @@ public class Color implements Serializable {
         return this.blue;
     }
     
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Color)) {
+            return false;
+        }
+        final Color color = (Color) obj;
+        return this.red == color.red && this.green == color.green && this.blue == color.blue;
+    }
+    
+    @Override
+    public int hashCode() {
+        return (this.red << 16) | (this.green << 8) | this.blue;
+    }
+    
+    // the deserialized colors are canonical too
+    private Object readResolve() {
+        return Interners.colors.intern(this);
+    }
+    
     @Override
     public String toString() {
         return toPaddedHexString(this.red) + toPaddedHexString(this.green) + toPaddedHexString(this.blue);
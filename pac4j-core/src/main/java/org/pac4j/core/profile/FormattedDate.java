@@ -15,10 +15,14 @@
  */
 package org.pac4j.core.profile;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 
+import org.pac4j.core.profile.converter.Interners;
+
 /**
  * This class represents a formatted date.
  * 
@@ -58,6 +62,13 @@ public final class FormattedDate extends Date {
         return this.locale;
     }
     
+    // the format and locale are shared by all the dates of a converter: share them after deserialization too
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.format = Interners.dateFormats.intern(this.format);
+        this.locale = Interners.locales.intern(this.locale);
+    }
+    
     @Override
     public String toString() {
         SimpleDateFormat simpleDateFormat;
@@ -0,0 +1,79 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.profile;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * This class holds the raw value of a lazy attribute (see {@link AttributesDefinition#isLazy(int)}): it is converted
+ * on the first read and the converted value is kept for the next reads. It stays in the slot of the attribute, so that
+ * the converted value is safely published to all the threads reading the profile. Only the raw value is serialized,
+ * even once converted; if it is not serializable itself, its string form is written (the JSON text for a JSON node),
+ * the converters accepting it.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+final class LazyAttribute implements Serializable {
+
+    private static final long serialVersionUID = -2740216385297519543L;
+
+    private final Object raw;
+
+    private transient volatile boolean converted;
+
+    private transient Object value;
+
+    LazyAttribute(final Object raw) {
+        this.raw = raw;
+    }
+
+    /**
+     * Return the converted value, converting the raw value on the first call.
+     * 
+     * @param definition the attributes definition of the profile
+     * @param index the index of the attribute
+     * @return the converted value (may be null if the raw value cannot be converted)
+     */
+    Object get(final AttributesDefinition definition, final int index) {
+        if (!this.converted) {
+            synchronized (this) {
+                if (!this.converted) {
+                    this.value = definition.convert(index, this.raw);
+                    this.converted = true;
+                }
+            }
+        }
+        return this.value;
+    }
+
+    Object getRaw() {
+        return this.raw;
+    }
+
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        final ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("raw", this.raw instanceof Serializable ? this.raw : String.valueOf(this.raw));
+        out.writeFields();
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(this.converted ? this.value : this.raw);
+    }
+}
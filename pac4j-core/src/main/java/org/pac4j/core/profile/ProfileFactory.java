@@ -0,0 +1,34 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.profile;
+
+/**
+ * This interface creates new (empty) instances of a profile type, without reflection. The factories are registered in
+ * the {@link ProfileFactoryRegistry} and used to rebuild profiles from their typed id and attributes (see
+ * {@link ProfileHelper#buildProfile(String, java.util.Map)}).
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public interface ProfileFactory<U extends UserProfile> {
+
+    /**
+     * Create a new profile.
+     *
+     * @return a new profile
+     */
+    U newProfile();
+}
@@ -0,0 +1,37 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.profile;
+
+import java.util.Map;
+
+/**
+ * This interface is the service provider interface through which each module contributes the factories of its
+ * profiles to the {@link ProfileFactoryRegistry}. Implementations are discovered by the {@link java.util.ServiceLoader}:
+ * they must have a public no-arg constructor and be declared in a
+ * <code>META-INF/services/org.pac4j.core.profile.ProfileFactoryProvider</code> file.
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public interface ProfileFactoryProvider {
+
+    /**
+     * Return the profile factories by profile type (the simple name of the profile class).
+     *
+     * @return the profile factories
+     */
+    Map<String, ProfileFactory<? extends UserProfile>> getProfileFactories();
+}
@@ -0,0 +1,99 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.profile;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.pac4j.core.util.CommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is the registry of the {@link ProfileFactory} by profile type (the simple name of the profile class, as
+ * used in the typed id). It is filled at class loading by the {@link ProfileFactoryProvider} implementations found by
+ * the {@link ServiceLoader} and third-party profile types can be added by the {@link #register(String, ProfileFactory)}
+ * method.
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class ProfileFactoryRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfileFactoryRegistry.class);
+
+    private final static ConcurrentMap<String, ProfileFactory<? extends UserProfile>> factories = new ConcurrentHashMap<String, ProfileFactory<? extends UserProfile>>();
+
+    static {
+        final Iterator<ProfileFactoryProvider> providers = ServiceLoader.load(ProfileFactoryProvider.class,
+                ProfileFactoryRegistry.class.getClassLoader()).iterator();
+        while (true) {
+            try {
+                if (!providers.hasNext()) {
+                    break;
+                }
+                final ProfileFactoryProvider provider = providers.next();
+                for (final Map.Entry<String, ProfileFactory<? extends UserProfile>> entry : provider
+                        .getProfileFactories().entrySet()) {
+                    factories.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+                logger.debug("profile factories loaded from : {}", provider);
+            } catch (final ServiceConfigurationError e) {
+                logger.error("Cannot load profile factory provider", e);
+            }
+        }
+    }
+
+    private ProfileFactoryRegistry() {
+    }
+
+    /**
+     * Register (or replace) the factory of a profile type.
+     *
+     * @param type the profile type (the simple name of the profile class)
+     * @param factory the profile factory
+     */
+    public static void register(final String type, final ProfileFactory<? extends UserProfile> factory) {
+        CommonHelper.assertNotBlank("type", type);
+        CommonHelper.assertNotNull("factory", factory);
+        factories.put(type, factory);
+    }
+
+    /**
+     * Return the factory of a profile type.
+     *
+     * @param type the profile type (the simple name of the profile class)
+     * @return the profile factory or <code>null</code> if the type is unknown
+     */
+    public static ProfileFactory<? extends UserProfile> getFactory(final String type) {
+        return type == null ? null : factories.get(type);
+    }
+
+    /**
+     * Return the registered profile types, sorted.
+     *
+     * @return the profile types
+     */
+    public static SortedSet<String> getTypes() {
+        return new TreeSet<String>(factories.keySet());
+    }
+}
@@ -15,7 +15,6 @@
  */
 package org.pac4j.core.profile;
 
-import java.lang.reflect.Constructor;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -47,7 +46,8 @@ public final class ProfileHelper {
     }
 
     /**
-     * Build a profile from a typed id and a map of attributes.
+     * Build a profile from a typed id and a map of attributes. The profile is created by the factory registered for its
+     * type in the {@link ProfileFactoryRegistry}.
      * 
      * @param typedId typed identifier
      * @param attributes user attributes
@@ -55,44 +55,41 @@ public final class ProfileHelper {
      */
     public static UserProfile buildProfile(final String typedId, final Map<String, Object> attributes) {
         if (typedId != null) {
-            final String[] values = typedId.split("#");
-            if (values != null && values.length == 2) {
-                final String className = values[0];
-                if (className != null) {
-                    try {
-                        String completeName;
-                        if ("CasProfile".equals(className) || "CasProxyProfile".equals(className)) {
-                            completeName = "org.pac4j.cas.profile." + className;
-                        } else if ("Saml2Profile".equals(className)) {
-                            completeName = "org.pac4j.saml.profile.Saml2Profile";
-                        } else if ("HttpProfile".equals(className)) {
-                            completeName = "org.pac4j.http.profile.HttpProfile";
-                        } else if ("MyOpenIdProfile".equals(className)) {
-                            completeName = "org.pac4j.openid.profile.myopenid.MyOpenIdProfile";
-                        } else if ("YahooOpenIdProfile".equals(className)) {
-                        	completeName = "org.pac4j.openid.profile.yahoo.YahooOpenIdProfile";
-                        } else if ("GaeUserServiceProfile".equals(className)) {
-                        	completeName = "org.pac4j.gae.profile.GaeUserServiceProfile";
-                        } else {
-                            final String packageName = className.substring(0, className.length() - 7).toLowerCase();
-                            completeName = "org.pac4j.oauth.profile." + packageName + "." + className;
-                        }
-                        @SuppressWarnings("unchecked")
-                        final Constructor<? extends UserProfile> constructor = (Constructor<? extends UserProfile>) Class
-                                .forName(completeName).getDeclaredConstructor();
-                        final UserProfile userProfile = constructor.newInstance();
-                        userProfile.build(typedId, attributes);
-                        logger.debug("userProfile built : {}", userProfile);
-                        return userProfile;
-                    } catch (final Exception e) {
-                        logger.error("Cannot build instance", e);
-                    }
+            final int separator = typedId.indexOf(UserProfile.SEPARATOR);
+            if (separator > 0 && separator < typedId.length() - 1
+                    && typedId.indexOf(UserProfile.SEPARATOR, separator + 1) < 0) {
+                final String type = typedId.substring(0, separator);
+                final ProfileFactory<? extends UserProfile> factory = ProfileFactoryRegistry.getFactory(type);
+                if (factory == null) {
+                    logger.error("No profile factory for type : {}", type);
+                    return null;
+                }
+                try {
+                    final UserProfile userProfile = factory.newProfile();
+                    userProfile.build(typedId, attributes);
+                    logger.debug("userProfile built : {}", userProfile);
+                    return userProfile;
+                } catch (final RuntimeException e) {
+                    logger.error("Cannot build instance", e);
                 }
             }
         }
         return null;
     }
 
+    /**
+     * Restore the attributes of a profile, as returned by {@link UserProfile#getAttributes()}: they are already converted
+     * and are stored as is (used by the profile serializers).
+     * 
+     * @param profile the user profile
+     * @param attributes the converted attributes
+     */
+    public static void restoreAttributes(final UserProfile profile, final Map<String, Object> attributes) {
+        for (final Map.Entry<String, Object> entry : attributes.entrySet()) {
+            profile.restoreAttribute(entry.getKey(), entry.getValue());
+        }
+    }
+
     /**
      * Set whether the input data should be stored in object to be restored for CAS serialization when toString() is called. Save memory
      * also.
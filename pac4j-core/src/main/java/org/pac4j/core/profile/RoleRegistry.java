@@ -0,0 +1,111 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.profile;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class interns the role names into small integer identifiers, so that a set of roles can be represented as a bit
+ * mask (see {@link AccessRequirement}). The identifiers are only valid in the current JVM: they must never be
+ * serialized.
+ * <p>The registry is never cleaned: it is designed for a finite set of role names, not for arbitrary user values.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class RoleRegistry {
+
+    private final static ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+
+    private RoleRegistry() {
+    }
+
+    /**
+     * Return the identifier of a role, registering it if necessary.
+     *
+     * @param role the role name
+     * @return the role identifier
+     */
+    public static int getId(final String role) {
+        final Integer id = ids.get(role);
+        if (id != null) {
+            return id.intValue();
+        }
+        synchronized (ids) {
+            Integer newId = ids.get(role);
+            if (newId == null) {
+                newId = ids.size();
+                ids.put(role, newId);
+            }
+            return newId.intValue();
+        }
+    }
+
+    /**
+     * Return the number of registered roles.
+     *
+     * @return the number of registered roles
+     */
+    public static int size() {
+        return ids.size();
+    }
+
+    /**
+     * Build the bit mask of some roles, registering them if necessary: only for the roles of the access requirements.
+     *
+     * @param roles the role names
+     * @return the bit mask
+     */
+    static long[] toMask(final Iterable<String> roles) {
+        return toMask(roles, true);
+    }
+
+    /**
+     * Build the bit mask of the registered roles among some roles: the other ones cannot satisfy any access
+     * requirement, so they are skipped (and never registered).
+     *
+     * @param roles the role names
+     * @return the bit mask
+     */
+    static long[] toRegisteredMask(final Iterable<String> roles) {
+        return toMask(roles, false);
+    }
+
+    private static long[] toMask(final Iterable<String> roles, final boolean register) {
+        long[] mask = new long[0];
+        for (final String role : roles) {
+            final int id;
+            if (register) {
+                id = getId(role);
+            } else {
+                final Integer registeredId = ids.get(role);
+                if (registeredId == null) {
+                    continue;
+                }
+                id = registeredId.intValue();
+            }
+            final int word = id >>> 6;
+            if (word >= mask.length) {
+                final long[] newMask = new long[word + 1];
+                System.arraycopy(mask, 0, newMask, 0, mask.length);
+                mask = newMask;
+            }
+            mask[word] |= 1L << id;
+        }
+        return mask;
+    }
+}
@@ -15,12 +15,23 @@
  */
 package org.pac4j.core.profile;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import org.pac4j.core.util.CommonHelper;
 import org.slf4j.Logger;
@@ -30,6 +41,9 @@ import org.slf4j.LoggerFactory;
  * This class is the user profile retrieved from a provider after successful authentication : it's an identifier (string) and attributes
  * (objects). The attributes definition is null (generic profile), it must be defined in subclasses. Additional concepts are the
  * "remember me" nature of the user profile and the roles and permissions associated.
+ * <p>When an attributes definition exists, the values of the defined attributes are stored in an array indexed by
+ * {@link AttributesDefinition#getAttributeIndex(String)}, the other attributes in a map (allocated on demand). The
+ * lazy attributes are stored raw and converted on their first read (see {@link AttributesDefinition#isLazy(int)}).</p>
  * 
  * @author Jerome Leleu
  * @since 1.0.0
@@ -40,17 +54,28 @@ public class UserProfile implements Serializable {
 
     protected transient static final Logger logger = LoggerFactory.getLogger(UserProfile.class);
 
+    // the serialized form is the one of the former versions: the attributes by name in a map
+    private static final ObjectStreamField[] serialPersistentFields = new ObjectStreamField[] {
+            new ObjectStreamField("id", String.class), new ObjectStreamField("attributes", Map.class),
+            new ObjectStreamField("isRemembered", boolean.class), new ObjectStreamField("roles", List.class),
+            new ObjectStreamField("permissions", List.class) };
+
     private String id;
 
-    private final Map<String, Object> attributes = new HashMap<String, Object>();
+    private transient Object[] attributeSlots;
+
+    private transient Map<String, Object> otherAttributes;
 
     public transient static final String SEPARATOR = "#";
 
     private boolean isRemembered = false;
 
-    private final List<String> roles = new ArrayList<String>();
+    private List<String> roles = new ArrayList<String>();
 
-    private final List<String> permissions = new ArrayList<String>();
+    private List<String> permissions = new ArrayList<String>();
+
+    // the roles as a bit mask: computed on demand as the role identifiers are only valid in the current JVM
+    private transient volatile RoleMask roleMask;
 
     /**
      * Build a profile from user identifier and attributes.
@@ -83,28 +108,88 @@ public class UserProfile implements Serializable {
             final AttributesDefinition definition = getAttributesDefinition();
             // no attributes definition -> no conversion
             if (definition == null) {
-                logger.debug("no conversion => key : {} / value : {} / {}",
-                        new Object[] { key, value, value.getClass() });
-                this.attributes.put(key, value);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("no conversion => key : {} / value : {} / {}",
+                            new Object[] { key, value, value.getClass() });
+                }
+                putOtherAttribute(key, value);
             } else {
-                value = definition.convert(key, value);
+                // one lookup for both the converter and the storage slot
+                final int index = definition.getAttributeIndex(key);
+                if (index >= 0 && definition.isLazy(index)) {
+                    logger.debug("lazy conversion => key : {}", key);
+                    putSlot(definition, index, new LazyAttribute(value));
+                    return;
+                }
+                value = index >= 0 ? definition.convert(index, value) : definition.convert(key, value);
                 if (value != null) {
-                    logger.debug("converted to => key : {} / value : {} / {}",
-                            new Object[] { key, value, value.getClass() });
-                    this.attributes.put(key, value);
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("converted to => key : {} / value : {} / {}",
+                                new Object[] { key, value, value.getClass() });
+                    }
+                    if (index >= 0) {
+                        putSlot(definition, index, value);
+                    } else {
+                        putOtherAttribute(key, value);
+                    }
                 }
             }
         }
     }
 
+    private void putSlot(final AttributesDefinition definition, final int index, final Object value) {
+        if (this.attributeSlots == null) {
+            this.attributeSlots = new Object[definition.getAllAttributes().size()];
+        } else if (index >= this.attributeSlots.length) {
+            this.attributeSlots = Arrays.copyOf(this.attributeSlots, definition.getAllAttributes().size());
+        }
+        this.attributeSlots[index] = value;
+    }
+
+    private Object getSlot(final int index) {
+        final Object value = this.attributeSlots[index];
+        if (value instanceof LazyAttribute) {
+            return ((LazyAttribute) value).get(getAttributesDefinition(), index);
+        }
+        return value;
+    }
+
+    /**
+     * Restore an attribute which is already converted (when the profile is deserialized): it is stored in its slot if it
+     * is a defined attribute, with the other attributes otherwise.
+     *
+     * @param key the attribute name
+     * @param value the converted attribute value
+     */
+    void restoreAttribute(final String key, final Object value) {
+        if (value instanceof LazyAttribute) {
+            addAttribute(key, ((LazyAttribute) value).getRaw());
+        } else if (value != null) {
+            final AttributesDefinition definition = getAttributesDefinition();
+            final int index = definition == null ? -1 : definition.getAttributeIndex(key);
+            if (index >= 0) {
+                putSlot(definition, index, value);
+            } else {
+                putOtherAttribute(key, value);
+            }
+        }
+    }
+
+    private void putOtherAttribute(final String key, final Object value) {
+        if (this.otherAttributes == null) {
+            this.otherAttributes = new HashMap<String, Object>(4);
+        }
+        this.otherAttributes.put(key, value);
+    }
+
     /**
      * Add attributes.
      * 
      * @param attributes use attributes
      */
     public void addAttributes(final Map<String, Object> attributes) {
-        for (final String key : attributes.keySet()) {
-            addAttribute(key, attributes.get(key));
+        for (final Map.Entry<String, Object> entry : attributes.entrySet()) {
+            addAttribute(entry.getKey(), entry.getValue());
         }
     }
 
@@ -149,7 +234,7 @@ public class UserProfile implements Serializable {
      * @return the immutable attributes
      */
     public Map<String, Object> getAttributes() {
-        return Collections.unmodifiableMap(this.attributes);
+        return new AttributesView();
     }
 
     /**
@@ -159,7 +244,13 @@ public class UserProfile implements Serializable {
      * @return the attribute with name
      */
     public Object getAttribute(final String name) {
-        return this.attributes.get(name);
+        if (this.attributeSlots != null) {
+            final int index = getAttributesDefinition().getAttributeIndex(name);
+            if (index >= 0 && index < this.attributeSlots.length) {
+                return getSlot(index);
+            }
+        }
+        return this.otherAttributes == null ? null : this.otherAttributes.get(name);
     }
 
     /**
@@ -169,6 +260,7 @@ public class UserProfile implements Serializable {
      */
     public void addRole(final String role) {
         this.roles.add(role);
+        this.roleMask = null;
     }
 
     /**
@@ -205,6 +297,23 @@ public class UserProfile implements Serializable {
         return access;
     }
 
+    /**
+     * Check if the user has access to the resource protected by a compiled access requirement. This is the fast
+     * equivalent of the {@link #hasAccess(String, String)} method.
+     * 
+     * @param requirement the compiled access requirement
+     * @return if the user has access to the resource
+     */
+    public boolean hasAccess(final AccessRequirement requirement) {
+        RoleMask mask = this.roleMask;
+        // the roles registered since the mask was computed may include some roles of the profile
+        if (mask == null || mask.registeredRoles != RoleRegistry.size()) {
+            mask = new RoleMask();
+            this.roleMask = mask;
+        }
+        return requirement.isGranted(mask.bits);
+    }
+
     /**
      * Check if the user has one of the expected roles.
      *
@@ -277,9 +386,193 @@ public class UserProfile implements Serializable {
         return this.isRemembered;
     }
 
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        final ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("id", this.id);
+        fields.put("attributes", getSerializableAttributes());
+        fields.put("isRemembered", this.isRemembered);
+        fields.put("roles", this.roles);
+        fields.put("permissions", this.permissions);
+        out.writeFields();
+    }
+
+    // the lazy attributes are kept raw
+    private Map<String, Object> getSerializableAttributes() {
+        final Map<String, Object> attributes = new HashMap<String, Object>();
+        if (this.attributeSlots != null) {
+            final List<String> names = getAttributesDefinition().getAllAttributes();
+            for (int i = 0; i < this.attributeSlots.length; i++) {
+                final Object value = this.attributeSlots[i];
+                if (value != null) {
+                    attributes.put(names.get(i), value);
+                }
+            }
+        }
+        if (this.otherAttributes != null) {
+            attributes.putAll(this.otherAttributes);
+        }
+        return attributes;
+    }
+
+    // the attributes are restored by name: the attributes definition may have changed since the serialization
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        final ObjectInputStream.GetField fields = in.readFields();
+        this.id = (String) fields.get("id", null);
+        this.isRemembered = fields.get("isRemembered", false);
+        this.roles = readList((List<String>) fields.get("roles", null));
+        this.permissions = readList((List<String>) fields.get("permissions", null));
+        final Map<String, Object> attributes = (Map<String, Object>) fields.get("attributes", null);
+        if (attributes != null) {
+            for (final Map.Entry<String, Object> entry : attributes.entrySet()) {
+                restoreAttribute(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static List<String> readList(final List<String> strings) {
+        return strings == null ? new ArrayList<String>() : new ArrayList<String>(strings);
+    }
+
+    // the lazy attributes not read yet are displayed raw (and not converted)
     @Override
     public String toString() {
-        return CommonHelper.toString(this.getClass(), "id", this.id, "attributes", this.attributes, "roles",
+        return CommonHelper.toString(this.getClass(), "id", this.id, "attributes", getSerializableAttributes(), "roles",
                 this.roles, "permissions", this.permissions, "isRemembered", this.isRemembered);
     }
+
+    private final class RoleMask {
+
+        private final int registeredRoles = RoleRegistry.size();
+
+        private final long[] bits = RoleRegistry.toRegisteredMask(UserProfile.this.roles);
+    }
+
+    /**
+     * Read-only view of the attributes: the defined ones first (in the order of the attributes definition), then the
+     * other ones.
+     */
+    private final class AttributesView extends AbstractMap<String, Object> {
+
+        @Override
+        public Object get(final Object key) {
+            return key instanceof String ? getAttribute((String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            if (!(key instanceof String)) {
+                return false;
+            }
+            if (UserProfile.this.attributeSlots != null) {
+                final int index = getAttributesDefinition().getAttributeIndex((String) key);
+                if (index >= 0 && index < UserProfile.this.attributeSlots.length) {
+                    return UserProfile.this.attributeSlots[index] != null;
+                }
+            }
+            return UserProfile.this.otherAttributes != null && UserProfile.this.otherAttributes.containsKey(key);
+        }
+
+        @Override
+        public Set<Map.Entry<String, Object>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Object>>() {
+
+                @Override
+                public Iterator<Map.Entry<String, Object>> iterator() {
+                    return new AttributesIterator();
+                }
+
+                @Override
+                public int size() {
+                    int size = UserProfile.this.otherAttributes == null ? 0 : UserProfile.this.otherAttributes.size();
+                    if (UserProfile.this.attributeSlots != null) {
+                        for (int i = 0; i < UserProfile.this.attributeSlots.length; i++) {
+                            if (UserProfile.this.attributeSlots[i] != null) {
+                                size++;
+                            }
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
+    }
+
+    // an entry of a defined attribute: a lazy attribute is only converted when its value is read
+    private final class SlotEntry implements Map.Entry<String, Object> {
+
+        private final int index;
+
+        private SlotEntry(final int index) {
+            this.index = index;
+        }
+
+        public String getKey() {
+            return getAttributesDefinition().getAllAttributes().get(this.index);
+        }
+
+        public Object getValue() {
+            return getSlot(this.index);
+        }
+
+        public Object setValue(final Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return new SimpleImmutableEntry<String, Object>(getKey(), getValue()).equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return new SimpleImmutableEntry<String, Object>(getKey(), getValue()).hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    private final class AttributesIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private final Object[] slots = UserProfile.this.attributeSlots;
+
+        private final Iterator<Map.Entry<String, Object>> others = UserProfile.this.otherAttributes == null ? null
+                : Collections.unmodifiableMap(UserProfile.this.otherAttributes).entrySet().iterator();
+
+        private int slot = -1;
+
+        private AttributesIterator() {
+            advance();
+        }
+
+        private void advance() {
+            if (this.slots != null) {
+                do {
+                    this.slot++;
+                } while (this.slot < this.slots.length && this.slots[this.slot] == null);
+            }
+        }
+
+        public boolean hasNext() {
+            return (this.slots != null && this.slot < this.slots.length) || (this.others != null && this.others.hasNext());
+        }
+
+        public Map.Entry<String, Object> next() {
+            if (this.slots != null && this.slot < this.slots.length) {
+                final Map.Entry<String, Object> entry = new SlotEntry(this.slot);
+                advance();
+                return entry;
+            } else if (this.others != null) {
+                return this.others.next();
+            }
+            throw new NoSuchElementException();
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
 }
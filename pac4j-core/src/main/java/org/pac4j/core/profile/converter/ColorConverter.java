@@ -40,7 +40,7 @@ public final class ColorConverter implements AttributeConverter<Color> {
                     final int g = Integer.parseInt(hex, 16);
                     hex = s.substring(4, 6);
                     final int b = Integer.parseInt(hex, 16);
-                    return new Color(r, g, b);
+                    return Interners.colors.intern(new Color(r, g, b));
                 } catch (final NumberFormatException e) {
                     logger.error("Cannot convert " + s + " into color", e);
                 }
@@ -28,6 +28,8 @@ public final class Converters {
     
     public final static StringConverter stringConverter = new StringConverter();
     
+    public final static StringConverter timeZoneConverter = new StringConverter(Interners.timeZones);
+    
     public final static BooleanConverter booleanConverter = new BooleanConverter();
     
     public final static IntegerConverter integerConverter = new IntegerConverter();
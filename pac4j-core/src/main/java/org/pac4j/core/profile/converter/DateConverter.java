@@ -25,6 +25,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * This class converts a String (depending on a specified format) into a Date.
+ * <p>It is thread-safe: the date format is built once per thread (and not on every conversion), and built again if a
+ * subclass changes the format or the locale.</p>
  * 
  * @author Jerome Leleu
  * @since 1.0.0
@@ -37,8 +39,10 @@ public class DateConverter implements AttributeConverter<Date> {
     
     protected Locale locale;
     
+    private final ThreadLocal<ThreadDateFormat> dateFormats = new ThreadLocal<ThreadDateFormat>();
+    
     public DateConverter(final String format) {
-        this.format = format;
+        this(format, null);
     }
     
     public DateConverter(final String format, final Locale locale) {
@@ -48,19 +52,45 @@ public class DateConverter implements AttributeConverter<Date> {
     
     public Date convert(final Object attribute) {
         if (attribute != null && attribute instanceof String) {
-            SimpleDateFormat simpleDateFormat;
-            if (this.locale == null) {
-                simpleDateFormat = new SimpleDateFormat(this.format);
-            } else {
-                simpleDateFormat = new SimpleDateFormat(this.format, this.locale);
-            }
             final String s = (String) attribute;
             try {
-                return simpleDateFormat.parse(s);
+                return getDateFormat().parse(s);
             } catch (final ParseException e) {
                 logger.error("parse exception on " + s + " with format : " + this.format, e);
             }
         }
         return null;
     }
+    
+    private SimpleDateFormat getDateFormat() {
+        final String format = this.format;
+        final Locale locale = this.locale;
+        ThreadDateFormat dateFormat = this.dateFormats.get();
+        if (dateFormat == null || !dateFormat.isBuiltWith(format, locale)) {
+            dateFormat = new ThreadDateFormat(format, locale);
+            this.dateFormats.set(dateFormat);
+        }
+        return dateFormat.simpleDateFormat;
+    }
+    
+    // the date format of a thread, with the format and locale it was built with
+    private static final class ThreadDateFormat {
+        
+        private final String format;
+        
+        private final Locale locale;
+        
+        private final SimpleDateFormat simpleDateFormat;
+        
+        private ThreadDateFormat(final String format, final Locale locale) {
+            this.format = format;
+            this.locale = locale;
+            this.simpleDateFormat = locale == null ? new SimpleDateFormat(format)
+                    : new SimpleDateFormat(format, locale);
+        }
+        
+        private boolean isBuiltWith(final String format, final Locale locale) {
+            return this.format.equals(format) && (this.locale == null ? locale == null : this.locale.equals(locale));
+        }
+    }
 }
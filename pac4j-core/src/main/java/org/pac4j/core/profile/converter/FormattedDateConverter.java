@@ -21,7 +21,7 @@ import java.util.Locale;
 import org.pac4j.core.profile.FormattedDate;
 
 /**
- * This class converts a String (depending on a specified format) into a FormattedDate.
+ * This class converts a String (depending on a specified format) into a FormattedDate. It is thread-safe.
  * 
  * @author Jerome Leleu
  * @since 1.1.0
@@ -0,0 +1,102 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.profile.converter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.pac4j.core.exception.TechnicalException;
+
+/**
+ * <p>This class interns immutable values: equal values are replaced by a single canonical instance, shared by all the
+ * profiles. It is meant for the attribute values with few distinct values (locales, colors, time zones, date
+ * formats...): millions of live profiles then retain a few canonical instances instead of one instance each.</p>
+ * <p>The table is bounded instead of weak (there is no concurrent weak map in the JDK): once it holds
+ * {@link #getMaxSize()} values, the new values are returned as is. The canonical values are never evicted, so that an
+ * unexpected high cardinality attribute cannot fill the heap nor break the sharing of the already interned values.</p>
+ * <p>The interning can be disabled for all the interners by {@link #setEnabled(boolean)}.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class Interner<T> {
+
+    public final static int DEFAULT_MAX_SIZE = 4096;
+
+    private static volatile boolean enabled = true;
+
+    private final ConcurrentMap<T, T> values = new ConcurrentHashMap<T, T>();
+
+    private final int maxSize;
+
+    public Interner() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public Interner(final int maxSize) {
+        if (maxSize <= 0) {
+            throw new TechnicalException("maxSize must be greater than 0");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Return the canonical instance of a value.
+     *
+     * @param value the value (may be null)
+     * @return the canonical instance, or the value itself if it is the first one or if the table is full
+     */
+    public T intern(final T value) {
+        if (value == null || !enabled) {
+            return value;
+        }
+        final T canonical = this.values.get(value);
+        if (canonical != null) {
+            return canonical;
+        }
+        if (this.values.size() >= this.maxSize) {
+            return value;
+        }
+        final T previous = this.values.putIfAbsent(value, value);
+        return previous == null ? value : previous;
+    }
+
+    /**
+     * Return the number of canonical values.
+     *
+     * @return the number of canonical values
+     */
+    public int size() {
+        return this.values.size();
+    }
+
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable the interning (enabled by default).
+     *
+     * @param enabled whether the values are interned
+     */
+    public static void setEnabled(final boolean enabled) {
+        Interner.enabled = enabled;
+    }
+}
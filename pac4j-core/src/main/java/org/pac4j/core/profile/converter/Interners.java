@@ -0,0 +1,43 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.profile.converter;
+
+import java.util.Locale;
+
+import org.pac4j.core.profile.Color;
+
+/**
+ * This class defines the interners of the profile values, used by the converters, the profiles and the serializers.
+ * <p>There is one interner per kind of value, so that a kind with more distinct values than expected cannot fill the
+ * table of the other ones. The values with an unbounded number of distinct values (like role and permission names or
+ * the attribute names which are not defined by an attributes definition) are not interned.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class Interners {
+
+    public final static Interner<String> timeZones = new Interner<String>();
+
+    public final static Interner<String> dateFormats = new Interner<String>();
+
+    public final static Interner<Locale> locales = new Interner<Locale>();
+
+    public final static Interner<Color> colors = new Interner<Color>();
+
+    private Interners() {
+    }
+}
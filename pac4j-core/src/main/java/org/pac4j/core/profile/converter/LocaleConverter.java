@@ -28,13 +28,13 @@ public final class LocaleConverter implements AttributeConverter<Locale> {
     
     public Locale convert(final Object attribute) {
         if (attribute != null && attribute instanceof String) {
-            final String s = ((String) attribute).replaceAll("-", "_");
+            final String s = ((String) attribute).replace('-', '_');
             final String[] parts = s.split("_");
             final int length = parts.length;
             if (length == 2) {
-                return new Locale(parts[0], parts[1]);
+                return Interners.locales.intern(new Locale(parts[0], parts[1]));
             } else if (length == 1) {
-                return new Locale(parts[0]);
+                return Interners.locales.intern(new Locale(parts[0]));
             }
         }
         return null;
@@ -24,9 +24,25 @@ package org.pac4j.core.profile.converter;
  */
 public final class StringConverter implements AttributeConverter<String> {
     
+    private final Interner<String> interner;
+    
+    public StringConverter() {
+        this(null);
+    }
+    
+    /**
+     * Build a converter interning the strings, for the attributes with few distinct values.
+     * 
+     * @param interner the interner of the strings (may be null)
+     * @since 1.7.1
+     */
+    public StringConverter(final Interner<String> interner) {
+        this.interner = interner;
+    }
+    
     public String convert(final Object attribute) {
         if (attribute != null && attribute instanceof String) {
-            return (String) attribute;
+            return this.interner == null ? (String) attribute : this.interner.intern((String) attribute);
         }
         return null;
     }
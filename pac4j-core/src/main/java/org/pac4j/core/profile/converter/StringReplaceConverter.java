@@ -15,6 +15,8 @@
  */
 package org.pac4j.core.profile.converter;
 
+import java.util.regex.Pattern;
+
 import org.pac4j.core.util.CommonHelper;
 
 /**
@@ -25,21 +27,20 @@ import org.pac4j.core.util.CommonHelper;
  */
 public final class StringReplaceConverter implements AttributeConverter<String> {
     
-    private final String regex;
+    private final Pattern pattern;
     
     private final String replacement;
     
     public StringReplaceConverter(final String regex, final String replacement) {
-        this.regex = regex;
+        this.pattern = CommonHelper.isNotBlank(regex) ? Pattern.compile(regex) : null;
         this.replacement = replacement;
     }
     
     public String convert(final Object attribute) {
         if (attribute != null && attribute instanceof String) {
             final String s = (String) attribute;
-            if (CommonHelper.isNotBlank(s) && CommonHelper.isNotBlank(this.regex)
-                && CommonHelper.isNotBlank(this.replacement)) {
-                return s.replaceAll(this.regex, this.replacement);
+            if (CommonHelper.isNotBlank(s) && this.pattern != null && CommonHelper.isNotBlank(this.replacement)) {
+                return this.pattern.matcher(s).replaceAll(this.replacement);
             }
         }
         return null;
@@ -0,0 +1,81 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.state;
+
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * This class is the content of a state token of the {@link SignedStateCodec}: the random state sent to the provider,
+ * the name of the client, the creation time, the url originally requested by the user and the hash of the value binding
+ * the token to the browser. The nonce (if any) is not part of the token: it is derived from the binding value.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class SignedState {
+
+    private final String state;
+
+    private final String nonce;
+
+    private final String clientName;
+
+    private final long timestamp;
+
+    private final String requestedUrl;
+
+    private final String bindingHash;
+
+    public SignedState(final String state, final String nonce, final String clientName, final long timestamp,
+                       final String requestedUrl, final String bindingHash) {
+        this.state = state;
+        this.nonce = nonce;
+        this.clientName = clientName;
+        this.timestamp = timestamp;
+        this.requestedUrl = requestedUrl;
+        this.bindingHash = bindingHash;
+    }
+
+    public String getState() {
+        return this.state;
+    }
+
+    public String getNonce() {
+        return this.nonce;
+    }
+
+    public String getClientName() {
+        return this.clientName;
+    }
+
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    public String getRequestedUrl() {
+        return this.requestedUrl;
+    }
+
+    public String getBindingHash() {
+        return this.bindingHash;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "state", this.state, "nonce", this.nonce, "clientName",
+                this.clientName, "timestamp", this.timestamp, "requestedUrl", this.requestedUrl);
+    }
+}
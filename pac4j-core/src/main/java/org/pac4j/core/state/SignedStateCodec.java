@@ -0,0 +1,382 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.state;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.pac4j.core.context.HttpConstants;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.CredentialsException;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.SecureIdGenerator;
+import org.pac4j.core.util.UrlSafeBase64;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class encodes a {@link SignedState} into a compact token sent as the state (or relay state) parameter to the
+ * provider and validates it on callback, so that the clients don't need to save their state in the web session before
+ * redirecting the user (no session creation and no sticky sessions).
+ * <p>The token is signed with HMAC-SHA256 (truncated to 128 bits) and can be encrypted with AES-128 in CTR mode
+ * (encrypt-then-MAC) to hide the requested url. Both keys are derived from the secret, which must be shared by all the
+ * servers of the cluster. On callback, the token is rejected if its signature is wrong, if it was issued for another
+ * client or if it is older than the {@link #setMaxAge(long) maximum age}.</p>
+ * <p>The token is bound to the browser of the user (against login CSRF): a random binding value is set in a cookie at
+ * redirection time (or reused if the browser already has one) and its hash is signed into the token. On callback, the
+ * token is rejected if the cookie of the browser does not match. The OIDC nonce is not carried by the token either: it
+ * is derived from the binding value and the state, so that the expected nonce never comes from the callback request
+ * alone.</p>
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class SignedStateCodec {
+
+    private static final Logger logger = LoggerFactory.getLogger(SignedStateCodec.class);
+
+    public final static long DEFAULT_MAX_AGE = 10 * 60 * 1000L;
+
+    public final static String DEFAULT_COOKIE_NAME = "pac4jStateBinding";
+
+    private final static byte SIGNED = 3;
+
+    private final static byte ENCRYPTED = 4;
+
+    private final static int BINDING_SIZE = 16;
+
+    private final static Pattern BINDING_PATTERN = Pattern.compile("[A-Za-z0-9_-]{16,64}");
+
+    private final static int MAC_SIZE = 16;
+
+    private final static int IV_SIZE = 16;
+
+    private final static int NULL_FIELD = 0xffff;
+
+    private final static String MAC_ALGORITHM = "HmacSHA256";
+
+    private final static String CIPHER_ALGORITHM = "AES/CTR/NoPadding";
+
+    private final SecretKeySpec macKey;
+
+    private final SecretKeySpec encryptionKey;
+
+    private final ThreadLocal<Mac> macs = new ThreadLocal<Mac>() {
+        @Override
+        protected Mac initialValue() {
+            try {
+                final Mac mac = Mac.getInstance(MAC_ALGORITHM);
+                mac.init(SignedStateCodec.this.macKey);
+                return mac;
+            } catch (final GeneralSecurityException e) {
+                throw new TechnicalException(e);
+            }
+        }
+    };
+
+    private long maxAge = DEFAULT_MAX_AGE;
+
+    private String cookieName = DEFAULT_COOKIE_NAME;
+
+    /**
+     * Define a codec signing the tokens.
+     * 
+     * @param secret the secret (at least 32 characters)
+     */
+    public SignedStateCodec(final String secret) {
+        this(secret, false);
+    }
+
+    /**
+     * Define a codec signing and optionally encrypting the tokens.
+     * 
+     * @param secret the secret (at least 32 characters)
+     * @param encrypted whether the tokens are encrypted
+     */
+    public SignedStateCodec(final String secret, final boolean encrypted) {
+        CommonHelper.assertNotBlank("secret", secret);
+        CommonHelper.assertTrue(secret.length() >= 32, "secret must have at least 32 characters");
+        final byte[] secretBytes = utf8(secret);
+        this.macKey = new SecretKeySpec(derive(secretBytes, "pac4j-state-mac"), MAC_ALGORITHM);
+        this.encryptionKey = encrypted ? new SecretKeySpec(Arrays.copyOf(derive(secretBytes, "pac4j-state-enc"), 16),
+                                                           "AES") : null;
+    }
+
+    private static byte[] derive(final byte[] secret, final String purpose) {
+        try {
+            final Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret, MAC_ALGORITHM));
+            return mac.doFinal(utf8(purpose));
+        } catch (final GeneralSecurityException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    /**
+     * Build a new state for a client, bound to the browser of the user: the binding cookie is set on the response if
+     * the request does not have it. The requested url is the one of the request.
+     * 
+     * @param context the web context of the redirection
+     * @param clientName the name of the client
+     * @param state the state sent to the provider
+     * @param withNonce whether a nonce is required
+     * @return the new state
+     */
+    public SignedState newState(final WebContext context, final String clientName, final String state,
+                                final boolean withNonce) {
+        CommonHelper.assertNotBlank("state", state);
+        String binding = getBinding(context);
+        if (binding == null) {
+            binding = SecureIdGenerator.generate(BINDING_SIZE);
+            final StringBuilder cookie = new StringBuilder(this.cookieName).append('=').append(binding)
+                .append("; Path=/; HttpOnly; SameSite=Lax");
+            if ("https".equalsIgnoreCase(context.getScheme())) {
+                cookie.append("; Secure");
+            }
+            context.setResponseHeader(HttpConstants.SET_COOKIE_HEADER, cookie.toString());
+        }
+        return new SignedState(state, withNonce ? nonce(binding, state) : null, clientName,
+                               System.currentTimeMillis(), context.getFullRequestURL(), hash(binding));
+    }
+
+    private String getBinding(final WebContext context) {
+        final String cookies = context.getRequestHeader(HttpConstants.COOKIE_HEADER);
+        if (cookies == null) {
+            return null;
+        }
+        for (final String cookie : cookies.split(";")) {
+            final int equal = cookie.indexOf('=');
+            if (equal > 0 && this.cookieName.equals(cookie.substring(0, equal).trim())) {
+                final String value = cookie.substring(equal + 1).trim();
+                return BINDING_PATTERN.matcher(value).matches() ? value : null;
+            }
+        }
+        return null;
+    }
+
+    private static String hash(final String binding) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(utf8(binding));
+            return UrlSafeBase64.encode(Arrays.copyOf(digest, MAC_SIZE));
+        } catch (final GeneralSecurityException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    private String nonce(final String binding, final String state) {
+        final Mac mac = this.macs.get();
+        mac.update(utf8("nonce"));
+        mac.update((byte) 0);
+        mac.update(utf8(binding));
+        mac.update((byte) 0);
+        return UrlSafeBase64.encode(Arrays.copyOf(mac.doFinal(utf8(state)), MAC_SIZE));
+    }
+
+    /**
+     * Encode the state into a token.
+     * 
+     * @param state the state
+     * @return the token (URL-safe)
+     */
+    public String encode(final SignedState state) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        final boolean encrypted = this.encryptionKey != null;
+        out.write(encrypted ? ENCRYPTED : SIGNED);
+        final byte[] iv = new byte[IV_SIZE];
+        if (encrypted) {
+            SecureIdGenerator.nextBytes(iv);
+            out.write(iv, 0, IV_SIZE);
+        }
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream(128);
+        final long timestamp = state.getTimestamp();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            payload.write((int) (timestamp >>> shift));
+        }
+        writeField(payload, state.getState());
+        writeField(payload, state.getClientName());
+        writeField(payload, state.getRequestedUrl());
+        writeField(payload, state.getBindingHash());
+        final byte[] payloadBytes = payload.toByteArray();
+        final byte[] content = encrypted ? cipher(Cipher.ENCRYPT_MODE, iv, payloadBytes) : payloadBytes;
+        out.write(content, 0, content.length);
+        final byte[] signed = out.toByteArray();
+        final byte[] mac = this.macs.get().doFinal(signed);
+        final byte[] token = Arrays.copyOf(signed, signed.length + MAC_SIZE);
+        System.arraycopy(mac, 0, token, signed.length, MAC_SIZE);
+        return UrlSafeBase64.encode(token);
+    }
+
+    /**
+     * Validate the token and decode its state. The nonce is derived from the binding cookie of the browser.
+     * 
+     * @param token the token received on callback
+     * @param clientName the name of the client receiving the callback
+     * @param context the web context of the callback
+     * @return the state
+     * @throws CredentialsException if the token is invalid, expired, issued for another client or another browser
+     */
+    public SignedState decode(final String token, final String clientName, final WebContext context) {
+        if (token == null) {
+            throw invalid("Missing state token");
+        }
+        final byte[] bytes = UrlSafeBase64.decode(token);
+        if (bytes == null || bytes.length < 1 + MAC_SIZE) {
+            throw invalid("Malformed state token");
+        }
+        final int signedLength = bytes.length - MAC_SIZE;
+        final Mac mac = this.macs.get();
+        mac.update(bytes, 0, signedLength);
+        final byte[] expectedMac = Arrays.copyOf(mac.doFinal(), MAC_SIZE);
+        if (!MessageDigest.isEqual(expectedMac, Arrays.copyOfRange(bytes, signedLength, bytes.length))) {
+            throw invalid("Bad signature of the state token");
+        }
+        final byte[] payload;
+        if (bytes[0] == ENCRYPTED && this.encryptionKey != null && signedLength >= 1 + IV_SIZE) {
+            final byte[] iv = Arrays.copyOfRange(bytes, 1, 1 + IV_SIZE);
+            payload = cipher(Cipher.DECRYPT_MODE, iv, Arrays.copyOfRange(bytes, 1 + IV_SIZE, signedLength));
+        } else if (bytes[0] == SIGNED && this.encryptionKey == null) {
+            payload = Arrays.copyOfRange(bytes, 1, signedLength);
+        } else {
+            throw invalid("Unexpected state token version");
+        }
+        final SignedState state = readState(payload);
+        if (state == null) {
+            throw invalid("Malformed state token");
+        }
+        if (clientName == null || !clientName.equals(state.getClientName())) {
+            throw invalid("State token issued for another client: " + state.getClientName());
+        }
+        final long age = System.currentTimeMillis() - state.getTimestamp();
+        if (age > this.maxAge || age < -this.maxAge) {
+            throw invalid("Expired state token");
+        }
+        final String binding = getBinding(context);
+        if (binding == null) {
+            throw invalid("Missing state binding cookie");
+        }
+        if (state.getBindingHash() == null
+                || !MessageDigest.isEqual(utf8(hash(binding)), utf8(state.getBindingHash()))) {
+            throw invalid("State token issued for another browser");
+        }
+        return new SignedState(state.getState(), nonce(binding, state.getState()), state.getClientName(),
+                               state.getTimestamp(), state.getRequestedUrl(), state.getBindingHash());
+    }
+
+    private static CredentialsException invalid(final String message) {
+        logger.error(message);
+        return new CredentialsException(message);
+    }
+
+    private byte[] cipher(final int mode, final byte[] iv, final byte[] input) {
+        try {
+            final Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+            cipher.init(mode, this.encryptionKey, new IvParameterSpec(iv));
+            return cipher.doFinal(input);
+        } catch (final GeneralSecurityException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    private static void writeField(final ByteArrayOutputStream out, final String value) {
+        if (value == null) {
+            out.write(NULL_FIELD >>> 8);
+            out.write(NULL_FIELD & 0xff);
+            return;
+        }
+        final byte[] bytes = utf8(value);
+        CommonHelper.assertTrue(bytes.length < NULL_FIELD, "state field too long");
+        out.write(bytes.length >>> 8);
+        out.write(bytes.length & 0xff);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static SignedState readState(final byte[] payload) {
+        if (payload.length < 8) {
+            return null;
+        }
+        long timestamp = 0;
+        for (int i = 0; i < 8; i++) {
+            timestamp = timestamp << 8 | (payload[i] & 0xff);
+        }
+        final String[] fields = new String[4];
+        int position = 8;
+        for (int i = 0; i < fields.length; i++) {
+            if (position + 2 > payload.length) {
+                return null;
+            }
+            final int length = (payload[position] & 0xff) << 8 | (payload[position + 1] & 0xff);
+            position += 2;
+            if (length != NULL_FIELD) {
+                if (position + length > payload.length) {
+                    return null;
+                }
+                try {
+                    fields[i] = new String(payload, position, length, "UTF-8");
+                } catch (final UnsupportedEncodingException e) {
+                    throw new TechnicalException(e);
+                }
+                position += length;
+            }
+        }
+        return new SignedState(fields[0], null, fields[1], timestamp, fields[2], fields[3]);
+    }
+
+    private static byte[] utf8(final String value) {
+        try {
+            return value.getBytes("UTF-8");
+        } catch (final UnsupportedEncodingException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    public long getMaxAge() {
+        return this.maxAge;
+    }
+
+    public void setMaxAge(final long maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public String getCookieName() {
+        return this.cookieName;
+    }
+
+    /**
+     * Define the name of the cookie binding the state tokens to the browser.
+     * 
+     * @param cookieName the name of the cookie
+     */
+    public void setCookieName(final String cookieName) {
+        CommonHelper.assertNotBlank("cookieName", cookieName);
+        this.cookieName = cookieName;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "encrypted", this.encryptionKey != null, "maxAge", this.maxAge,
+                "cookieName", this.cookieName);
+    }
+}
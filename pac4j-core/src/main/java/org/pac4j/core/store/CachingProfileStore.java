@@ -0,0 +1,294 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.store;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.InitializableObject;
+import org.pac4j.core.util.SecureIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>This class is a {@link ProfileStore} made of a bounded in-process near-cache in front of a
+ * {@link RemoteProfileStore} shared by all the nodes. The keys are generated by the {@link SecureIdGenerator}.</p>
+ * <p>A cached user profile is only returned if its version is still the current one in the remote store: this check
+ * costs one round-trip but no profile transfer, and a logout or a role change on a node is seen by all the other nodes
+ * on their next read. The check can be skipped for the user profiles validated less than
+ * {@link #setRevalidationInterval(long)} milliseconds ago (0 by default), trading this guarantee for fewer round-trips.
+ * </p>
+ * <p>The cached user profiles expire after {@link #setTimeToLive(long)} milliseconds and their number is bounded by
+ * {@link #setMaxSize(int)}: when it is exceeded, the least recently used ones are evicted (down to 7/8 of the maximum
+ * size). The user profiles are saved in the remote store with a {@link #setRemoteTimeToLive(long) time to live}
+ * (8 hours by default), after which they are no longer returned by any node.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class CachingProfileStore extends InitializableObject implements ProfileStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingProfileStore.class);
+
+    public final static int DEFAULT_MAX_SIZE = 10000;
+
+    public final static long DEFAULT_TIME_TO_LIVE = 30 * 60 * 1000L;
+
+    public final static long DEFAULT_REMOTE_TIME_TO_LIVE = 8 * 60 * 60 * 1000L;
+
+    private RemoteProfileStore remoteStore;
+
+    private int maxSize = DEFAULT_MAX_SIZE;
+
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    private long remoteTimeToLive = DEFAULT_REMOTE_TIME_TO_LIVE;
+
+    private long revalidationInterval = 0;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    public CachingProfileStore() {
+    }
+
+    public CachingProfileStore(final RemoteProfileStore remoteStore) {
+        setRemoteStore(remoteStore);
+    }
+
+    @Override
+    protected void internalInit() {
+        CommonHelper.assertNotNull("remoteStore", this.remoteStore);
+        if (this.maxSize <= 0) {
+            throw new TechnicalException("maxSize must be greater than 0");
+        }
+        if (this.timeToLive <= 0) {
+            throw new TechnicalException("timeToLive must be greater than 0");
+        }
+        if (this.remoteTimeToLive <= 0) {
+            throw new TechnicalException("remoteTimeToLive must be greater than 0");
+        }
+    }
+
+    public String save(final UserProfile profile) {
+        CommonHelper.assertNotNull("profile", profile);
+        final String key = SecureIdGenerator.generate();
+        update(key, profile);
+        return key;
+    }
+
+    public void update(final String key, final UserProfile profile) {
+        CommonHelper.assertNotBlank("key", key);
+        CommonHelper.assertNotNull("profile", profile);
+        init();
+        final long version = this.remoteStore.put(key, profile, this.remoteTimeToLive);
+        cache(key, profile, version);
+    }
+
+    public UserProfile get(final String key) {
+        if (key == null) {
+            return null;
+        }
+        init();
+        final long now = System.currentTimeMillis();
+        final Entry entry = this.entries.get(key);
+        if (entry != null && now - entry.loaded < this.timeToLive) {
+            entry.lastAccess = now;
+            if (now - entry.validated < this.revalidationInterval) {
+                return entry.profile;
+            }
+            final long version = this.remoteStore.getVersion(key);
+            if (version == entry.version) {
+                entry.validated = now;
+                return entry.profile;
+            }
+            if (version == RemoteProfileStore.NO_VERSION) {
+                logger.debug("User profile removed from the remote store: {}", key);
+                this.entries.remove(key, entry);
+                return null;
+            }
+            logger.debug("User profile updated in the remote store: {}", key);
+        }
+        final VersionedProfile versionedProfile = this.remoteStore.get(key);
+        if (versionedProfile == null) {
+            if (entry != null) {
+                this.entries.remove(key, entry);
+            }
+            return null;
+        }
+        cache(key, versionedProfile.getProfile(), versionedProfile.getVersion());
+        return versionedProfile.getProfile();
+    }
+
+    public void remove(final String key) {
+        CommonHelper.assertNotBlank("key", key);
+        init();
+        this.remoteStore.remove(key);
+        this.entries.remove(key);
+    }
+
+    /**
+     * Return the number of user profiles in the near-cache.
+     *
+     * @return the number of cached user profiles
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    private void cache(final String key, final UserProfile profile, final long version) {
+        this.entries.put(key, new Entry(profile, version, System.currentTimeMillis()));
+        evictIfNeeded();
+    }
+
+    /**
+     * Evict the expired and the least recently used user profiles when the maximum size is exceeded. Only one thread
+     * evicts at a time, the other ones go on.
+     */
+    private void evictIfNeeded() {
+        if (this.entries.size() <= this.maxSize || !this.evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            final long now = System.currentTimeMillis();
+            int toEvict = this.entries.size() - (this.maxSize - this.maxSize / 8);
+            final Iterator<Entry> expired = this.entries.values().iterator();
+            while (expired.hasNext()) {
+                if (now - expired.next().loaded >= this.timeToLive) {
+                    expired.remove();
+                    toEvict--;
+                }
+            }
+            if (toEvict > 0) {
+                // the access times are copied as they keep changing: the user profiles read since are spared
+                final long[] times = new long[this.entries.size()];
+                int nb = 0;
+                for (final Entry entry : this.entries.values()) {
+                    if (nb < times.length) {
+                        times[nb++] = entry.lastAccess;
+                    }
+                }
+                if (nb > 0) {
+                    Arrays.sort(times, 0, nb);
+                    final long threshold = times[Math.min(toEvict, nb) - 1];
+                    final Iterator<Entry> iterator = this.entries.values().iterator();
+                    while (toEvict > 0 && iterator.hasNext()) {
+                        if (iterator.next().lastAccess <= threshold) {
+                            iterator.remove();
+                            toEvict--;
+                        }
+                    }
+                }
+            }
+            logger.debug("{} user profiles after eviction", this.entries.size());
+        } finally {
+            this.evictionLock.unlock();
+        }
+    }
+
+    public RemoteProfileStore getRemoteStore() {
+        return this.remoteStore;
+    }
+
+    public void setRemoteStore(final RemoteProfileStore remoteStore) {
+        this.remoteStore = remoteStore;
+    }
+
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    public void setMaxSize(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getTimeToLive() {
+        return this.timeToLive;
+    }
+
+    /**
+     * Define how long a user profile stays in the near-cache.
+     *
+     * @param timeToLive the time to live in milliseconds
+     */
+    public void setTimeToLive(final long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    public long getRemoteTimeToLive() {
+        return this.remoteTimeToLive;
+    }
+
+    /**
+     * Define how long a user profile stays in the remote store after its last save.
+     *
+     * @param remoteTimeToLive the time to live in milliseconds
+     */
+    public void setRemoteTimeToLive(final long remoteTimeToLive) {
+        this.remoteTimeToLive = remoteTimeToLive;
+    }
+
+    public long getRevalidationInterval() {
+        return this.revalidationInterval;
+    }
+
+    /**
+     * Define how long a cached user profile is returned without checking its version in the remote store.
+     *
+     * @param revalidationInterval the revalidation interval in milliseconds (0 to check on each read)
+     */
+    public void setRevalidationInterval(final long revalidationInterval) {
+        this.revalidationInterval = revalidationInterval;
+    }
+
+    /**
+     * A cached user profile, with its version in the remote store.
+     */
+    private static final class Entry {
+
+        private final UserProfile profile;
+
+        private final long version;
+
+        private final long loaded;
+
+        private volatile long validated;
+
+        private volatile long lastAccess;
+
+        private Entry(final UserProfile profile, final long version, final long now) {
+            this.profile = profile;
+            this.version = version;
+            this.loaded = now;
+            this.validated = now;
+            this.lastAccess = now;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "remoteStore", this.remoteStore, "maxSize", this.maxSize,
+                "timeToLive", this.timeToLive, "remoteTimeToLive", this.remoteTimeToLive, "revalidationInterval",
+                this.revalidationInterval, "size", this.entries.size());
+    }
+}
@@ -0,0 +1,124 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.store;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * This class is an in-memory {@link RemoteProfileStore}, standing for a real remote store in tests and single node
+ * deployments. The versions are taken from a single counter, so that a key removed and saved again never gets a version
+ * it already had.
+ * <p>The expired user profiles are never returned and are purged by the writes, at most once per
+ * {@link #PURGE_INTERVAL}.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public class InMemoryRemoteProfileStore implements RemoteProfileStore {
+
+    public final static long PURGE_INTERVAL = 60 * 1000L;
+
+    private final ConcurrentMap<String, Entry> profiles = new ConcurrentHashMap<String, Entry>();
+
+    private final AtomicLong versions = new AtomicLong();
+
+    private final AtomicLong nextPurge = new AtomicLong();
+
+    public VersionedProfile get(final String key) {
+        final Entry entry = getEntry(key);
+        return entry == null ? null : entry.profile;
+    }
+
+    public long getVersion(final String key) {
+        final Entry entry = getEntry(key);
+        return entry == null ? NO_VERSION : entry.profile.getVersion();
+    }
+
+    private Entry getEntry(final String key) {
+        if (key == null) {
+            return null;
+        }
+        final Entry entry = this.profiles.get(key);
+        if (entry != null && entry.expiration <= System.currentTimeMillis()) {
+            this.profiles.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    public long put(final String key, final UserProfile profile, final long timeToLive) {
+        CommonHelper.assertNotBlank("key", key);
+        CommonHelper.assertTrue(timeToLive > 0, "timeToLive must be greater than 0");
+        final long now = System.currentTimeMillis();
+        final long version = this.versions.incrementAndGet();
+        final long expiration = timeToLive > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + timeToLive;
+        this.profiles.put(key, new Entry(new VersionedProfile(profile, version), expiration));
+        final long next = this.nextPurge.get();
+        if (now >= next && this.nextPurge.compareAndSet(next, now + PURGE_INTERVAL)) {
+            purge(now);
+        }
+        return version;
+    }
+
+    public void remove(final String key) {
+        this.profiles.remove(key);
+    }
+
+    private void purge(final long now) {
+        final Iterator<Entry> iterator = this.profiles.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiration <= now) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Return the number of user profiles (the expired ones are purged first).
+     *
+     * @return the number of user profiles
+     */
+    public int size() {
+        purge(System.currentTimeMillis());
+        return this.profiles.size();
+    }
+
+    /**
+     * A user profile and its expiration time.
+     */
+    private static final class Entry {
+
+        private final VersionedProfile profile;
+
+        private final long expiration;
+
+        private Entry(final VersionedProfile profile, final long expiration) {
+            this.profile = profile;
+            this.expiration = expiration;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "size", this.profiles.size());
+    }
+}
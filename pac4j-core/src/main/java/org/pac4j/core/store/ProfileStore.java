@@ -0,0 +1,60 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.store;
+
+import org.pac4j.core.profile.UserProfile;
+
+/**
+ * This interface stores the user profiles outside of the web session, under an opaque key: only the key is saved in
+ * session (see {@link ProfileStoreHelper}), which keeps the sessions small and allows several services to share the
+ * profiles.
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public interface ProfileStore {
+
+    /**
+     * Save a new user profile.
+     *
+     * @param profile the user profile
+     * @return the opaque key of the user profile
+     */
+    String save(UserProfile profile);
+
+    /**
+     * Replace the user profile of a key (after a role change for example).
+     *
+     * @param key the key of the user profile
+     * @param profile the new user profile
+     */
+    void update(String key, UserProfile profile);
+
+    /**
+     * Get a user profile.
+     *
+     * @param key the key of the user profile
+     * @return the user profile or <code>null</code> if there is none (removed or expired)
+     */
+    UserProfile get(String key);
+
+    /**
+     * Remove a user profile (on logout).
+     *
+     * @param key the key of the user profile
+     */
+    void remove(String key);
+}
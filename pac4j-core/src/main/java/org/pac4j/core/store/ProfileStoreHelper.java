@@ -0,0 +1,84 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.store;
+
+import org.pac4j.core.context.Pac4jConstants;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.profile.UserProfile;
+
+/**
+ * This class saves the user profiles in a {@link ProfileStore} and only their key in the web session (under
+ * {@link Pac4jConstants#USER_PROFILE_KEY}).
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class ProfileStoreHelper {
+
+    private ProfileStoreHelper() {
+    }
+
+    /**
+     * Save the user profile in the profile store: it replaces the user profile already referenced by the web session,
+     * if any.
+     *
+     * @param context the web context
+     * @param store the profile store
+     * @param profile the user profile
+     */
+    public static void saveProfile(final WebContext context, final ProfileStore store, final UserProfile profile) {
+        final String key = (String) context.getSessionAttribute(Pac4jConstants.USER_PROFILE_KEY);
+        if (key != null) {
+            store.update(key, profile);
+        } else {
+            context.setSessionAttribute(Pac4jConstants.USER_PROFILE_KEY, store.save(profile));
+        }
+    }
+
+    /**
+     * Get the user profile referenced by the web session. A reference to a removed or expired user profile is removed
+     * from the web session.
+     *
+     * @param context the web context
+     * @param store the profile store
+     * @return the user profile or <code>null</code> if there is none
+     */
+    public static UserProfile getProfile(final WebContext context, final ProfileStore store) {
+        final String key = (String) context.getSessionAttribute(Pac4jConstants.USER_PROFILE_KEY);
+        if (key == null) {
+            return null;
+        }
+        final UserProfile profile = store.get(key);
+        if (profile == null) {
+            context.setSessionAttribute(Pac4jConstants.USER_PROFILE_KEY, null);
+        }
+        return profile;
+    }
+
+    /**
+     * Remove the user profile referenced by the web session (on logout), from the profile store and the web session.
+     *
+     * @param context the web context
+     * @param store the profile store
+     */
+    public static void removeProfile(final WebContext context, final ProfileStore store) {
+        final String key = (String) context.getSessionAttribute(Pac4jConstants.USER_PROFILE_KEY);
+        if (key != null) {
+            store.remove(key);
+            context.setSessionAttribute(Pac4jConstants.USER_PROFILE_KEY, null);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.store;
+
+import org.pac4j.core.profile.UserProfile;
+
+/**
+ * This interface is the remote tier of a {@link CachingProfileStore}, shared by all the nodes (a distributed cache, a
+ * database...). Each write of a user profile gives it a new version, so that the nodes can check with a single (small)
+ * round-trip that the profile of their near-cache is still the current one.
+ * <p>Each user profile is saved with a time to live: once expired, it must no longer be returned (nor its version) and
+ * must eventually be removed from the store.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public interface RemoteProfileStore {
+
+    /**
+     * The version of a missing user profile.
+     */
+    long NO_VERSION = -1;
+
+    /**
+     * Get a user profile and its version.
+     *
+     * @param key the key of the user profile
+     * @return the versioned user profile or <code>null</code> if there is none
+     */
+    VersionedProfile get(String key);
+
+    /**
+     * Get the version of a user profile.
+     *
+     * @param key the key of the user profile
+     * @return the version of the user profile or {@link #NO_VERSION} if there is none
+     */
+    long getVersion(String key);
+
+    /**
+     * Save a user profile under a new version.
+     *
+     * @param key the key of the user profile
+     * @param profile the user profile
+     * @param timeToLive the time in milliseconds after which the user profile expires
+     * @return the new version of the user profile
+     */
+    long put(String key, UserProfile profile, long timeToLive);
+
+    /**
+     * Remove a user profile.
+     *
+     * @param key the key of the user profile
+     */
+    void remove(String key);
+}
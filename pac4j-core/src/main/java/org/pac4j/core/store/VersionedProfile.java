@@ -0,0 +1,51 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.store;
+
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * This class is a user profile and its version in a {@link RemoteProfileStore}: the version changes on each update.
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class VersionedProfile {
+
+    private final UserProfile profile;
+
+    private final long version;
+
+    public VersionedProfile(final UserProfile profile, final long version) {
+        CommonHelper.assertNotNull("profile", profile);
+        this.profile = profile;
+        this.version = version;
+    }
+
+    public UserProfile getProfile() {
+        return this.profile;
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "profile", this.profile, "version", this.version);
+    }
+}
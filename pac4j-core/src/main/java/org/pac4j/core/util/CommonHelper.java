@@ -19,6 +19,7 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
 import java.net.URLEncoder;
 
 import org.pac4j.core.exception.TechnicalException;
@@ -101,7 +102,10 @@ public final class CommonHelper {
      * @param value value of the string
      */
     public static void assertNotBlank(final String name, final String value) {
-        assertTrue(!isBlank(value), name + " cannot be blank");
+        // the message is only built on failure
+        if (isBlank(value)) {
+            throw new TechnicalException(name + " cannot be blank");
+        }
     }
 
     /**
@@ -111,7 +115,9 @@ public final class CommonHelper {
      * @param obj object
      */
     public static void assertNotNull(final String name, final Object obj) {
-        assertTrue(obj != null, name + " cannot be null");
+        if (obj == null) {
+            throw new TechnicalException(name + " cannot be null");
+        }
     }
 
     /**
@@ -143,6 +149,54 @@ public final class CommonHelper {
         return null;
     }
 
+    /**
+     * Return if an url has a parameter: the names of its query parameters are decoded and compared exactly.
+     * 
+     * @param url url
+     * @param name name of the parameter
+     * @return if the url has the parameter
+     */
+    public static boolean hasParameter(final String url, final String name) {
+        if (url == null || name == null) {
+            return false;
+        }
+        int end = url.indexOf('#');
+        if (end < 0) {
+            end = url.length();
+        }
+        final int start = url.indexOf('?');
+        if (start < 0 || start > end) {
+            return false;
+        }
+        for (final String pair : url.substring(start + 1, end).split("&")) {
+            final int equal = pair.indexOf('=');
+            if (name.equals(decodeText(equal < 0 ? pair : pair.substring(0, equal)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Decode a URL encoded text using UTF-8. A text with a malformed escape sequence is returned as is.
+     * 
+     * @param text text to decode
+     * @return the decoded text
+     */
+    public static String decodeText(final String text) {
+        if (text.indexOf('%') < 0 && text.indexOf('+') < 0) {
+            return text;
+        }
+        try {
+            return URLDecoder.decode(text, "UTF-8");
+        } catch (final UnsupportedEncodingException e) {
+            throw new TechnicalException(e);
+        } catch (final IllegalArgumentException e) {
+            // malformed escape sequence: compared as is
+            return text;
+        }
+    }
+
     /**
      * Encode a text using UTF-8.
      * 
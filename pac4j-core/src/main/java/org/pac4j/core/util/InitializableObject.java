@@ -15,42 +15,153 @@
  */
 package org.pac4j.core.util;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.pac4j.core.exception.TechnicalException;
 
 /**
  * This class is an object that can be (re-)initialized through the {@link #init()} and the {@link #reinit()} methods, the
  * {@link #internalInit()} must be implemented in sub-classes.
+ * <p>The initialization follows the {@link InitializationState} state machine, driven by compare-and-set operations: once
+ * the object is {@link InitializationState#READY}, the {@link #init()} method costs a single volatile read. Threads
+ * calling {@link #init()} while the first initialization is in progress wait for it to complete (and get its failure if
+ * any), while a {@link #reinit()} does not block the callers of an object which has already been initialized.</p>
  * 
  * @author Jerome Leleu
  * @since 1.4.0
  */
 public abstract class InitializableObject {
-    
-    private boolean initialized = false;
-    
+
+    private static final Phase NEW = new Phase(InitializationState.NEW, false, null, null);
+
+    private static final Phase READY = new Phase(InitializationState.READY, true, null, null);
+
+    private final AtomicReference<Phase> phase = new AtomicReference<Phase>(NEW);
+
     /**
      * Initialize the object.
      */
     public void init() {
-        if (!this.initialized) {
-            synchronized (this) {
-                if (!this.initialized) {
-                    internalInit();
-                    this.initialized = true;
+        for (;;) {
+            final Phase current = this.phase.get();
+            if (current.usable || current.initializer == Thread.currentThread()) {
+                return;
+            }
+            if (current.state == InitializationState.INITIALIZING) {
+                final Throwable failure = current.await();
+                if (failure != null) {
+                    throw new TechnicalException("Concurrent initialization failed", failure);
                 }
+            } else if (run(current, false)) {
+                return;
             }
         }
     }
-    
+
     /**
      * Force (again) the initialization of the object.
      */
-    public synchronized void reinit() {
-        internalInit();
-        this.initialized = true;
+    public void reinit() {
+        for (;;) {
+            final Phase current = this.phase.get();
+            if (current.initializer == Thread.currentThread()) {
+                internalInit();
+                return;
+            } else if (current.state == InitializationState.INITIALIZING) {
+                current.await();
+            } else if (run(current, current.usable)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Return the current initialization state.
+     *
+     * @return the initialization state
+     */
+    public InitializationState getInitializationState() {
+        return this.phase.get().state;
+    }
+
+    /**
+     * Try to move from the expected phase to the initializing one and run the internal initialization.
+     *
+     * @param expected the expected current phase
+     * @param usable whether the object remains usable by other threads during the initialization
+     * @return whether this thread has run the initialization
+     */
+    private boolean run(final Phase expected, final boolean usable) {
+        final Phase initializing = new Phase(InitializationState.INITIALIZING, usable, Thread.currentThread(),
+                                             new CountDownLatch(1));
+        if (!this.phase.compareAndSet(expected, initializing)) {
+            return false;
+        }
+        try {
+            internalInit();
+            this.phase.set(READY);
+        } catch (final RuntimeException e) {
+            fail(initializing, e);
+            throw e;
+        } catch (final Error e) {
+            fail(initializing, e);
+            throw e;
+        } finally {
+            initializing.latch.countDown();
+        }
+        return true;
     }
-    
+
+    private void fail(final Phase initializing, final Throwable failure) {
+        initializing.failure = failure;
+        this.phase.set(new Phase(InitializationState.FAILED, false, null, null));
+    }
+
     /**
      * Internal initialization of the object.
      */
     protected abstract void internalInit();
+
+    /**
+     * Immutable initialization phase (except the failure which is published by the latch).
+     */
+    private static final class Phase {
+
+        private final InitializationState state;
+
+        private final boolean usable;
+
+        private final Thread initializer;
+
+        private final CountDownLatch latch;
+
+        private Throwable failure;
+
+        private Phase(final InitializationState state, final boolean usable, final Thread initializer,
+                      final CountDownLatch latch) {
+            this.state = state;
+            this.usable = usable;
+            this.initializer = initializer;
+            this.latch = latch;
+        }
+
+        private Throwable await() {
+            boolean interrupted = false;
+            try {
+                for (;;) {
+                    try {
+                        this.latch.await();
+                        return this.failure;
+                    } catch (final InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
 }
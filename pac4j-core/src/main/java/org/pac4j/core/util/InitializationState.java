@@ -0,0 +1,33 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.util;
+
+/**
+ * This enumeration lists the states of an {@link InitializableObject}.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public enum InitializationState {
+    /** never initialized */
+    NEW,
+    /** being (re-)initialized */
+    INITIALIZING,
+    /** successfully initialized */
+    READY,
+    /** the last initialization failed, the next call to {@link InitializableObject#init()} will retry */
+    FAILED
+}
@@ -0,0 +1,175 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.util;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * This class generates the random identifiers of the protocols (state, nonce, request identifiers...): URL-safe
+ * base64 strings (without padding) of cryptographically strong random bytes. It also provides random bytes for the
+ * other security needs (like initialization vectors).
+ * <p>Each thread draws its random bytes by blocks from its own {@link SecureRandom} (a SHA1PRNG, which has no
+ * global lock unlike the native PRNG), so that no lock is shared between threads. The random generator of a thread is
+ * replaced by a newly seeded one after {@link #RESEED_INTERVAL} bytes.</p>
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class SecureIdGenerator {
+
+    /**
+     * Default number of random bytes of an identifier: 128 bits, i.e. 22 characters.
+     */
+    public final static int DEFAULT_SIZE = 16;
+
+    /**
+     * Maximum number of random bytes of an identifier.
+     */
+    public final static int MAX_SIZE = 256;
+
+    /**
+     * Number of random bytes drawn by a thread before its random generator is replaced.
+     */
+    public final static long RESEED_INTERVAL = 1L << 20;
+
+    private final static int BUFFER_SIZE = 1024;
+
+    private final static char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+        .toCharArray();
+
+    private final static ThreadLocal<Source> SOURCES = new ThreadLocal<Source>() {
+        @Override
+        protected Source initialValue() {
+            return new Source();
+        }
+    };
+
+    private SecureIdGenerator() {
+    }
+
+    /**
+     * Generate an identifier of {@link #DEFAULT_SIZE} random bytes.
+     * 
+     * @return the identifier
+     */
+    public static String generate() {
+        return generate(DEFAULT_SIZE);
+    }
+
+    /**
+     * Generate an identifier of the given number of random bytes.
+     * 
+     * @param size the number of random bytes (from 1 to {@link #MAX_SIZE})
+     * @return the identifier
+     */
+    public static String generate(final int size) {
+        CommonHelper.assertTrue(size > 0 && size <= MAX_SIZE, "size must be between 1 and " + MAX_SIZE);
+        return SOURCES.get().next(size);
+    }
+
+    /**
+     * Fill the array with random bytes (like initialization vectors).
+     * 
+     * @param bytes the array to fill (from 1 to {@link #MAX_SIZE} bytes)
+     */
+    public static void nextBytes(final byte[] bytes) {
+        CommonHelper.assertTrue(bytes.length > 0 && bytes.length <= MAX_SIZE, "size must be between 1 and " + MAX_SIZE);
+        SOURCES.get().next(bytes);
+    }
+
+    /**
+     * The random generator of a thread, with its pre-drawn random bytes and its encoding buffer.
+     */
+    private static final class Source {
+
+        private final byte[] bytes = new byte[BUFFER_SIZE];
+
+        private final char[] chars = new char[(MAX_SIZE * 4 + 2) / 3];
+
+        private SecureRandom random;
+
+        private int position = BUFFER_SIZE;
+
+        private long drawn;
+
+        private String next(final int size) {
+            if (this.position + size > BUFFER_SIZE) {
+                refill();
+            }
+            final byte[] b = this.bytes;
+            final char[] c = this.chars;
+            int i = this.position;
+            final int end = i + size;
+            int nb = 0;
+            // 3 bytes -> 4 characters
+            for (; i + 3 <= end; i += 3) {
+                final int bits = (b[i] & 0xff) << 16 | (b[i + 1] & 0xff) << 8 | (b[i + 2] & 0xff);
+                c[nb++] = ALPHABET[bits >>> 18];
+                c[nb++] = ALPHABET[(bits >>> 12) & 0x3f];
+                c[nb++] = ALPHABET[(bits >>> 6) & 0x3f];
+                c[nb++] = ALPHABET[bits & 0x3f];
+            }
+            final int remaining = end - i;
+            if (remaining == 1) {
+                final int bits = b[i] & 0xff;
+                c[nb++] = ALPHABET[bits >>> 2];
+                c[nb++] = ALPHABET[(bits << 4) & 0x3f];
+            } else if (remaining == 2) {
+                final int bits = (b[i] & 0xff) << 8 | (b[i + 1] & 0xff);
+                c[nb++] = ALPHABET[bits >>> 10];
+                c[nb++] = ALPHABET[(bits >>> 4) & 0x3f];
+                c[nb++] = ALPHABET[(bits << 2) & 0x3f];
+            }
+            // the used random bytes are not kept in memory
+            for (int j = this.position; j < end; j++) {
+                b[j] = 0;
+            }
+            this.position = end;
+            return new String(c, 0, nb);
+        }
+
+        private void next(final byte[] out) {
+            if (this.position + out.length > BUFFER_SIZE) {
+                refill();
+            }
+            System.arraycopy(this.bytes, this.position, out, 0, out.length);
+            final int end = this.position + out.length;
+            for (int j = this.position; j < end; j++) {
+                this.bytes[j] = 0;
+            }
+            this.position = end;
+        }
+
+        private void refill() {
+            if (this.random == null || this.drawn >= RESEED_INTERVAL) {
+                this.random = newSecureRandom();
+                this.drawn = 0;
+            }
+            this.random.nextBytes(this.bytes);
+            this.drawn += BUFFER_SIZE;
+            this.position = 0;
+        }
+
+        private static SecureRandom newSecureRandom() {
+            try {
+                return SecureRandom.getInstance("SHA1PRNG");
+            } catch (final NoSuchAlgorithmException e) {
+                return new SecureRandom();
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.util;
+
+/**
+ * This interface builds a resource shared through the {@link SharedResources}.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public interface SharedResourceFactory<T> {
+
+    /**
+     * Build the resource. It is called once per key while the resource is referenced.
+     * 
+     * @return the resource (immutable or thread-safe)
+     */
+    T create();
+}
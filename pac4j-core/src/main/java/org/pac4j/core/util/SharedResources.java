@@ -0,0 +1,231 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.pac4j.core.exception.TechnicalException;
+
+/**
+ * This class is a reference-counted cache of the heavy resources of the clients which can be shared between them
+ * (parsed metadata, key material, template engines...), keyed by their content (like the metadata itself or the
+ * keystore path and passwords).
+ * <p>Clients {@link #acquire(Object, SharedResourceFactory)} a {@link Lease} on a resource at initialization and
+ * release it when they are re-initialized or discarded: the resource is built by the first client acquiring it and
+ * forgotten by the cache when the last lease is released. The resources of a
+ * {@link DestroyableSharedResourceFactory} are then destroyed.</p>
+ * <p>Since the content behind a key may change (like the JWKS of a discovery URI), a client can require a resource
+ * built after a {@link #newGeneration() generation}: an older resource is then replaced for the next clients, the
+ * current ones keeping it until they release their leases.</p>
+ * <p>The resources are built outside of the global lock: only the clients waiting for the same key are blocked.</p>
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class SharedResources {
+
+    public final static SharedResources INSTANCE = new SharedResources();
+
+    private final Map<Object, Entry> entries = new HashMap<Object, Entry>();
+
+    private long generation;
+
+    /**
+     * Acquire a lease on the resource defined by the key, building it with the factory if it is not already shared.
+     * 
+     * @param key the key of the resource (with proper <code>equals</code> and <code>hashCode</code> methods)
+     * @param factory the factory of the resource
+     * @return the lease on the resource
+     */
+    public <T> Lease<T> acquire(final Object key, final SharedResourceFactory<T> factory) {
+        return acquire(key, factory, 0);
+    }
+
+    /**
+     * Acquire a lease on the resource defined by the key, building it with the factory if it is not already shared or
+     * if it was built before the given generation.
+     * 
+     * @param key the key of the resource (with proper <code>equals</code> and <code>hashCode</code> methods)
+     * @param factory the factory of the resource
+     * @param minGeneration the oldest generation of the resource which can be shared
+     * @return the lease on the resource
+     */
+    public <T> Lease<T> acquire(final Object key, final SharedResourceFactory<T> factory, final long minGeneration) {
+        CommonHelper.assertNotNull("key", key);
+        CommonHelper.assertNotNull("factory", factory);
+        final Entry entry;
+        synchronized (this.entries) {
+            Entry current = this.entries.get(key);
+            if (current == null || current.generation < minGeneration) {
+                current = new Entry(this.generation);
+                this.entries.put(key, current);
+            }
+            current.references++;
+            entry = current;
+        }
+        try {
+            return new Lease<T>(this, key, entry, entry.get(factory));
+        } catch (final RuntimeException e) {
+            release(key, entry);
+            throw e;
+        }
+    }
+
+    private void release(final Object key, final Entry entry) {
+        synchronized (this.entries) {
+            entry.references--;
+            if (entry.references > 0) {
+                return;
+            }
+            if (this.entries.get(key) == entry) {
+                this.entries.remove(key);
+            }
+        }
+        // the entry can no longer be acquired
+        entry.destroy();
+    }
+
+    /**
+     * Start a new generation of resources: the next acquisitions requiring it rebuild the resources built before.
+     * 
+     * @return the new generation
+     */
+    public long newGeneration() {
+        synchronized (this.entries) {
+            return ++this.generation;
+        }
+    }
+
+    /**
+     * Release all the leases.
+     * 
+     * @param leases the leases to release
+     */
+    public static void releaseAll(final List<? extends Lease<?>> leases) {
+        for (final Lease<?> lease : leases) {
+            lease.release();
+        }
+    }
+
+    /**
+     * Return the number of leases on the resource defined by the key.
+     * 
+     * @param key the key of the resource
+     * @return the number of leases (0 if the resource is not shared)
+     */
+    public int getReferences(final Object key) {
+        synchronized (this.entries) {
+            final Entry entry = this.entries.get(key);
+            return entry == null ? 0 : entry.references;
+        }
+    }
+
+    /**
+     * Return the number of shared resources.
+     * 
+     * @return the number of resources
+     */
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * A lease on a shared resource, to be released once.
+     */
+    public static final class Lease<T> {
+
+        private final SharedResources resources;
+
+        private final Object key;
+
+        private final Entry entry;
+
+        private final T resource;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(final SharedResources resources, final Object key, final Entry entry, final T resource) {
+            this.resources = resources;
+            this.key = key;
+            this.entry = entry;
+            this.resource = resource;
+        }
+
+        public T get() {
+            return this.resource;
+        }
+
+        /**
+         * Release the lease (the next calls do nothing).
+         */
+        public void release() {
+            if (this.released.compareAndSet(false, true)) {
+                this.resources.release(this.key, this.entry);
+            }
+        }
+    }
+
+    /**
+     * A resource, its generation and its number of leases (guarded by the lock of the entries map).
+     */
+    private static final class Entry {
+
+        private final long generation;
+
+        private int references;
+
+        private Object resource;
+
+        @SuppressWarnings("rawtypes")
+        private SharedResourceFactory factory;
+
+        private Entry(final long generation) {
+            this.generation = generation;
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized <T> T get(final SharedResourceFactory<T> factory) {
+            if (this.resource == null) {
+                final T created = factory.create();
+                if (created == null) {
+                    throw new TechnicalException("The shared resource factory returned null");
+                }
+                this.resource = created;
+                this.factory = factory;
+            }
+            return (T) this.resource;
+        }
+
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        private synchronized void destroy() {
+            if (this.factory instanceof DestroyableSharedResourceFactory) {
+                ((DestroyableSharedResourceFactory) this.factory).destroy(this.resource);
+            }
+            this.resource = null;
+            this.factory = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "size", size());
+    }
+}
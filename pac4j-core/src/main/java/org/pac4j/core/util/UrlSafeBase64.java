@@ -0,0 +1,105 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.util;
+
+/**
+ * This class encodes and decodes bytes in URL-safe base64 without padding (RFC 4648, section 5), to carry binary
+ * values in URL parameters.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class UrlSafeBase64 {
+
+    private final static char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+        .toCharArray();
+
+    private final static int[] VALUES = new int[128];
+
+    static {
+        for (int i = 0; i < VALUES.length; i++) {
+            VALUES[i] = -1;
+        }
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = i;
+        }
+    }
+
+    private UrlSafeBase64() {
+    }
+
+    /**
+     * Encode bytes.
+     * 
+     * @param bytes the bytes
+     * @return the URL-safe base64 string
+     */
+    public static String encode(final byte[] bytes) {
+        final char[] chars = new char[(bytes.length * 4 + 2) / 3];
+        int nb = 0;
+        int i = 0;
+        for (; i + 3 <= bytes.length; i += 3) {
+            final int bits = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | (bytes[i + 2] & 0xff);
+            chars[nb++] = ALPHABET[bits >>> 18];
+            chars[nb++] = ALPHABET[(bits >>> 12) & 0x3f];
+            chars[nb++] = ALPHABET[(bits >>> 6) & 0x3f];
+            chars[nb++] = ALPHABET[bits & 0x3f];
+        }
+        final int remaining = bytes.length - i;
+        if (remaining == 1) {
+            final int bits = bytes[i] & 0xff;
+            chars[nb++] = ALPHABET[bits >>> 2];
+            chars[nb++] = ALPHABET[(bits << 4) & 0x3f];
+        } else if (remaining == 2) {
+            final int bits = (bytes[i] & 0xff) << 8 | (bytes[i + 1] & 0xff);
+            chars[nb++] = ALPHABET[bits >>> 10];
+            chars[nb++] = ALPHABET[(bits >>> 4) & 0x3f];
+            chars[nb++] = ALPHABET[(bits << 2) & 0x3f];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Decode a URL-safe base64 string.
+     * 
+     * @param value the URL-safe base64 string
+     * @return the bytes, or <code>null</code> if the string is not valid
+     */
+    public static byte[] decode(final String value) {
+        final int length = value.length();
+        if (length % 4 == 1) {
+            return null;
+        }
+        final byte[] bytes = new byte[length * 3 / 4];
+        int nb = 0;
+        int bits = 0;
+        int nbBits = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            final int v = c < 128 ? VALUES[c] : -1;
+            if (v < 0) {
+                return null;
+            }
+            bits = bits << 6 | v;
+            nbBits += 6;
+            if (nbBits >= 8) {
+                nbBits -= 8;
+                bytes[nb++] = (byte) (bits >>> nbBits);
+            }
+        }
+        return bytes;
+    }
+}
@@ -17,10 +17,15 @@ package org.pac4j.core.client;
 
 import junit.framework.TestCase;
 
+import org.pac4j.core.authorization.AuthorizationGenerator;
 import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.context.Pac4jSession;
 import org.pac4j.core.credentials.Authenticator;
 import org.pac4j.core.credentials.Credentials;
 import org.pac4j.core.exception.RequiresHttpAction;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.metrics.DefaultMetricsRecorder;
+import org.pac4j.core.metrics.Phase;
 import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.profile.ProfileCreator;
 import org.pac4j.core.util.CommonHelper;
@@ -86,6 +91,31 @@ public final class TestBaseClient extends TestCase implements TestsConstants {
         }
     }
 
+    public void testIndirectClientCredentialsResult() {
+        final MockBaseClient<Credentials> client = new MockBaseClient<Credentials>(TYPE, false);
+        client.setCallbackUrl(CALLBACK_URL);
+        final MockWebContext context = MockWebContext.create();
+        context.addRequestParameter(BaseClient.NEEDS_CLIENT_REDIRECTION_PARAMETER, "true");
+        final CredentialsResult<Credentials> result = client.getCredentialsResult(context);
+        assertTrue(result.isAction());
+        assertNull(result.getCredentials());
+        assertEquals(302, result.getAction().getCode());
+        assertEquals(0, result.getAction().getStackTrace().length);
+        assertEquals(302, context.getResponseStatus());
+        assertEquals(LOGIN_URL, context.getResponseHeaders().get("Location"));
+    }
+
+    public void testNoCredentialsResult() {
+        final MockBaseClient<Credentials> client = new MockBaseClient<Credentials>(TYPE);
+        client.setCallbackUrl(CALLBACK_URL);
+        final MockWebContext context = MockWebContext.create();
+        final CredentialsResult<Credentials> result = client.getCredentialsResult(context);
+        assertFalse(result.isAction());
+        assertNull(result.getCredentials());
+        assertEquals("true",
+                (String) Pac4jSession.get(context).get(client.getName() + BaseClient.ATTEMPTED_AUTHENTICATION_SUFFIX));
+    }
+
     public void testIndirectClientWithImmediate() throws RequiresHttpAction {
         final MockBaseClient<Credentials> client = new MockBaseClient<Credentials>(TYPE, false);
         client.setCallbackUrl(CALLBACK_URL);
@@ -179,7 +209,9 @@ public final class TestBaseClient extends TestCase implements TestsConstants {
         final MockBaseClient<Credentials> client = new MockBaseClient<Credentials>(TYPE);
         client.setCallbackUrl(CALLBACK_URL);
         final MockWebContext context = MockWebContext.create();
-        context.setSessionAttribute(client.getName() + BaseClient.ATTEMPTED_AUTHENTICATION_SUFFIX, "true");
+        final Pac4jSession session = Pac4jSession.get(context);
+        session.set(client.getName() + BaseClient.ATTEMPTED_AUTHENTICATION_SUFFIX, "true");
+        session.save(context);
         try {
             client.redirect(context, true, false);
             fail("should fail");
@@ -195,7 +227,7 @@ public final class TestBaseClient extends TestCase implements TestsConstants {
         final MockWebContext context = MockWebContext.create();
         client.getCredentials(context);
         assertEquals("true",
-                (String) context.getSessionAttribute(client.getName() + BaseClient.ATTEMPTED_AUTHENTICATION_SUFFIX));
+                (String) Pac4jSession.get(context).get(client.getName() + BaseClient.ATTEMPTED_AUTHENTICATION_SUFFIX));
     }
 
     public void testStateParameter() {
@@ -208,4 +240,33 @@ public final class TestBaseClient extends TestCase implements TestsConstants {
 
         }
     }
+
+    public void testMetrics() throws RequiresHttpAction {
+        final DefaultMetricsRecorder recorder = new DefaultMetricsRecorder();
+        final MockBaseClient<Credentials> client = new MockBaseClient<Credentials>(TYPE);
+        client.setCallbackUrl(CALLBACK_URL);
+        client.setMetricsRecorder(recorder);
+        client.addAuthorizationGenerator(new AuthorizationGenerator<CommonProfile>() {
+            public void generate(final CommonProfile profile) {
+                throw new TechnicalException("generation failure");
+            }
+        });
+        final MockWebContext context = MockWebContext.create();
+        client.redirect(context, false, false);
+        client.getCredentials(context);
+        try {
+            client.getUserProfile(new Credentials() {
+                private static final long serialVersionUID = 1L;
+            }, context);
+            fail();
+        } catch (final TechnicalException e) {
+        }
+        assertEquals(1, recorder.getMetrics(TYPE, Phase.REDIRECT).getCount());
+        assertEquals(1, recorder.getMetrics(TYPE, Phase.CREDENTIALS).getCount());
+        assertEquals(1, recorder.getMetrics(TYPE, Phase.PROFILE).getCount());
+        assertEquals(0, recorder.getMetrics(TYPE, Phase.PROFILE).getErrorCount());
+        assertEquals(1, recorder.getMetrics(TYPE, Phase.AUTHORIZATION).getErrorCount());
+        assertEquals(0, recorder.getMetrics(TYPE, Phase.PROVIDER_CALL).getCount());
+        assertSame(recorder, client.clone().getMetricsRecorder());
+    }
 }
@@ -17,10 +17,19 @@ package org.pac4j.core.client;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import junit.framework.TestCase;
 
 import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.exception.StacklessTechnicalException;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.InitializationState;
+import org.pac4j.core.util.SharedResourceFactory;
+import org.pac4j.core.util.SharedResources;
 import org.pac4j.core.util.TestsConstants;
 import org.pac4j.core.util.TestsHelper;
 
@@ -143,4 +152,168 @@ public final class TestClients extends TestCase implements TestsConstants {
         assertEquals(facebookClient, clients.findClient(MockBaseClient.class));
         assertEquals(fakeClient, clients.findClient(FakeClient.class));
     }
+
+    public void testByClassFromSuperType() {
+        final FakeClient fakeClient = new FakeClient();
+        final MockBaseClient facebookClient = newFacebookClient();
+        final Clients clients = new Clients(CALLBACK_URL, fakeClient, facebookClient);
+        assertEquals(fakeClient, clients.findClient(BaseClient.class));
+        assertEquals(fakeClient, clients.findClient(Client.class));
+    }
+
+    public void testSameNameFirstClientWins() {
+        final MockBaseClient facebookClient = newFacebookClient();
+        final MockBaseClient facebookClient2 = newFacebookClient();
+        final Clients clients = new Clients(CALLBACK_URL, facebookClient, facebookClient2);
+        assertSame(facebookClient, clients.findClient(facebookClient.getName()));
+    }
+
+    public void testReinitRebuildsIndex() {
+        final MockBaseClient facebookClient = newFacebookClient();
+        final Clients clients = new Clients(CALLBACK_URL, facebookClient);
+        assertEquals(facebookClient, clients.findClient(facebookClient.getName()));
+        final MockBaseClient yahooClient = newYahooClient();
+        clients.setClients(facebookClient, yahooClient);
+        clients.reinit();
+        assertEquals(yahooClient, clients.findClient(yahooClient.getName()));
+    }
+
+    public void testMissingName() {
+        final Clients clients = new Clients(CALLBACK_URL, newFacebookClient());
+        try {
+            clients.findClient("YahooClient");
+            fail("should fail");
+        } catch (final TechnicalException e) {
+            assertEquals("No client found for name: YahooClient", e.getMessage());
+        }
+    }
+
+    public void testMissingClass() {
+        final Clients clients = new Clients(CALLBACK_URL, newFacebookClient());
+        try {
+            clients.findClient(FakeClient.class);
+            fail("should fail");
+        } catch (final StacklessTechnicalException e) {
+            assertEquals("No client found for class: " + FakeClient.class, e.getMessage());
+        }
+    }
+
+    public void testInitAll() {
+        final MockBaseClient facebookClient = newFacebookClient();
+        final MockBaseClient yahooClient = newYahooClient();
+        final Clients clients = new Clients(CALLBACK_URL, facebookClient, yahooClient);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Map<String, Long> times = clients.initAll(executor);
+            assertEquals(2, times.size());
+            assertTrue(times.containsKey(facebookClient.getName()));
+            assertTrue(times.containsKey(yahooClient.getName()));
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(InitializationState.READY, facebookClient.getInitializationState());
+        assertEquals(InitializationState.READY, yahooClient.getInitializationState());
+        assertEquals(CALLBACK_URL + "?" + Clients.DEFAULT_CLIENT_NAME_PARAMETER + "=" + yahooClient.getName(),
+                yahooClient.getCallbackUrl());
+    }
+
+    public void testReload() {
+        final MockBaseClient facebookClient = newFacebookClient();
+        final Clients clients = new Clients(CALLBACK_URL, facebookClient);
+        final ClientsSnapshot first = clients.getSnapshot();
+        assertEquals(1, first.getVersion());
+        final MockBaseClient facebookClient2 = newFacebookClient();
+        final MockBaseClient yahooClient = newYahooClient();
+        final List<Client> newClients = new ArrayList<Client>();
+        newClients.add(facebookClient2);
+        newClients.add(yahooClient);
+        final ClientsSnapshot second = clients.reload(newClients);
+        assertEquals(2, second.getVersion());
+        assertSame(second, clients.getSnapshot());
+        assertEquals(InitializationState.READY, yahooClient.getInitializationState());
+        assertEquals(CALLBACK_URL + "?" + Clients.DEFAULT_CLIENT_NAME_PARAMETER + "=" + yahooClient.getName(),
+                yahooClient.getCallbackUrl());
+        assertSame(facebookClient2, clients.findClient(facebookClient2.getName()));
+        assertSame(yahooClient, clients.findClient(yahooClient.getName()));
+        // the previous snapshot is left untouched
+        assertSame(facebookClient, first.findClient(facebookClient.getName()));
+        assertEquals(1, first.getClients().size());
+    }
+
+    public void testReloadRefreshesSharedResources() {
+        final AtomicInteger creations = new AtomicInteger();
+        final Clients clients = new Clients(CALLBACK_URL, new SharingClient(creations));
+        ((SharingClient) clients.findClient(NAME)).init();
+        assertEquals(1, creations.get());
+        final List<Client> newClients = new ArrayList<Client>();
+        newClients.add(new SharingClient(creations));
+        clients.reload(newClients);
+        assertEquals(2, creations.get());
+        assertEquals(1, SharedResources.INSTANCE.getReferences(SharingClient.RESOURCE_KEY));
+        ((SharingClient) clients.findClient(NAME)).reinit();
+        assertEquals(3, creations.get());
+        assertEquals(1, SharedResources.INSTANCE.getReferences(SharingClient.RESOURCE_KEY));
+        ((SharingClient) clients.findClient(NAME)).releaseSharedResources();
+        assertEquals(0, SharedResources.INSTANCE.getReferences(SharingClient.RESOURCE_KEY));
+    }
+
+    private static final class SharingClient extends MockBaseClient {
+
+        private final static String RESOURCE_KEY = "sharingClient.resource";
+
+        private final AtomicInteger creations;
+
+        private SharingClient(final AtomicInteger creations) {
+            super(NAME);
+            this.creations = creations;
+        }
+
+        @Override
+        protected void internalInit() {
+            final List<SharedResources.Lease<?>> leases = new ArrayList<SharedResources.Lease<?>>();
+            acquireSharedResource(leases, RESOURCE_KEY, new SharedResourceFactory<Object>() {
+                public Object create() {
+                    SharingClient.this.creations.incrementAndGet();
+                    return new Object();
+                }
+            });
+            replaceSharedResources(leases);
+        }
+    }
+
+    public void testReloadSameInstance() {
+        final MockBaseClient facebookClient = newFacebookClient();
+        final Clients clients = new Clients(CALLBACK_URL, facebookClient);
+        final List<Client> newClients = new ArrayList<Client>();
+        newClients.add(facebookClient);
+        try {
+            clients.reload(newClients);
+            fail("should fail");
+        } catch (final TechnicalException e) {
+            assertEquals("Client FacebookClient is currently in use: the reload requires new client instances",
+                    e.getMessage());
+        }
+        assertEquals(1, clients.getSnapshot().getVersion());
+    }
+
+    public void testReloadFailureKeepsCurrentClients() {
+        final MockBaseClient facebookClient = newFacebookClient();
+        final Clients clients = new Clients(CALLBACK_URL, facebookClient);
+        final ClientsSnapshot first = clients.getSnapshot();
+        final List<Client> newClients = new ArrayList<Client>();
+        newClients.add(new MockBaseClient(NAME) {
+            @Override
+            protected void internalInit() {
+                throw new TechnicalException(VALUE);
+            }
+        });
+        try {
+            clients.reload(newClients);
+            fail("should fail");
+        } catch (final TechnicalException e) {
+            assertEquals(VALUE, e.getCause().getMessage());
+        }
+        assertSame(first, clients.getSnapshot());
+        assertSame(facebookClient, clients.findClient(facebookClient.getName()));
+    }
 }
@@ -0,0 +1,127 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.client;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.util.TestsConstants;
+
+/**
+ * This class tests the {@link ExecutorAsyncClient} class.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestExecutorAsyncClient extends TestCase implements TestsConstants {
+
+    private final static class RecordingCallback implements ProfileCallback<CommonProfile> {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        private final AtomicReference<Object> outcome = new AtomicReference<Object>();
+
+        public void onProfile(final CommonProfile profile) {
+            this.outcome.set(profile);
+            this.latch.countDown();
+        }
+
+        public void onError(final Throwable error) {
+            this.outcome.set(error);
+            this.latch.countDown();
+        }
+
+        private Object await() throws InterruptedException {
+            assertTrue(this.latch.await(10, TimeUnit.SECONDS));
+            return this.outcome.get();
+        }
+    }
+
+    private final Credentials credentials = new Credentials() {
+        private static final long serialVersionUID = 1L;
+    };
+
+    public void testProfile() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final MockBaseClient<Credentials> client = new MockBaseClient<Credentials>(TYPE);
+            client.setCallbackUrl(CALLBACK_URL);
+            final AsyncClient<Credentials, CommonProfile> asyncClient = new ExecutorAsyncClient<Credentials, CommonProfile>(
+                    client, executor);
+            assertEquals(TYPE, asyncClient.getName());
+            final RecordingCallback callback = new RecordingCallback();
+            final Future<CommonProfile> future = asyncClient.getUserProfileAsync(this.credentials,
+                    MockWebContext.create(), callback);
+            assertNotNull(future.get(10, TimeUnit.SECONDS));
+            assertSame(future.get(), callback.await());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void testError() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final MockBaseClient<Credentials> client = new MockBaseClient<Credentials>(TYPE) {
+                @Override
+                protected CommonProfile retrieveUserProfile(final Credentials credentials, final WebContext context) {
+                    throw new TechnicalException(VALUE);
+                }
+            };
+            client.setCallbackUrl(CALLBACK_URL);
+            final RecordingCallback callback = new RecordingCallback();
+            final Future<CommonProfile> future = new ExecutorAsyncClient<Credentials, CommonProfile>(client, executor)
+                .getUserProfileAsync(this.credentials, MockWebContext.create(), callback);
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                fail();
+            } catch (final ExecutionException e) {
+                assertTrue(e.getCause() instanceof TechnicalException);
+            }
+            assertEquals(VALUE, ((TechnicalException) callback.await()).getMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void testRejected() throws Exception {
+        final Executor executor = new Executor() {
+            public void execute(final Runnable command) {
+                throw new RejectedExecutionException(VALUE);
+            }
+        };
+        final RecordingCallback callback = new RecordingCallback();
+        final Future<CommonProfile> future = new ExecutorAsyncClient<Credentials, CommonProfile>(
+                new MockBaseClient<Credentials>(TYPE), executor).getUserProfileAsync(this.credentials,
+                MockWebContext.create(), callback);
+        assertTrue(future.isDone());
+        assertTrue(callback.await() instanceof RejectedExecutionException);
+    }
+}
@@ -0,0 +1,218 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.metrics.DefaultMetricsRecorder;
+import org.pac4j.core.metrics.Phase;
+import org.pac4j.core.util.InitializationState;
+import org.pac4j.core.util.TestsConstants;
+import org.pac4j.core.util.TestsHelper;
+
+/**
+ * This class tests the {@link TenantClients} class.
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+@SuppressWarnings("rawtypes")
+public final class TestTenantClients extends TestCase implements TestsConstants {
+
+    private static class CountingFactory implements TenantClientFactory {
+
+        private final AtomicInteger builds = new AtomicInteger();
+
+        public Client build(final String tenant) {
+            this.builds.incrementAndGet();
+            return new MockBaseClient(tenant);
+        }
+    }
+
+    private static final List<String> TENANTS = Arrays.asList(KEY, NAME + 0, NAME + 1, NAME + 2, NAME + 3, NAME + 4,
+            NAME + 5, NAME + 6, NAME + 7, NAME + 8);
+
+    public void testMissingFactory() {
+        TestsHelper.initShouldFail(new TenantClients(CALLBACK_URL, null, TENANTS), "factory cannot be null");
+    }
+
+    public void testMissingTenants() {
+        TestsHelper.initShouldFail(new TenantClients(CALLBACK_URL, new CountingFactory()), "tenants cannot be null");
+    }
+
+    public void testUnknownTenant() {
+        final CountingFactory factory = new CountingFactory();
+        final TenantClients clients = new TenantClients(CALLBACK_URL, factory, TENANTS);
+        try {
+            clients.findClient(MockWebContext.create().addRequestParameter(TenantClients.DEFAULT_TENANT_PARAMETER,
+                    VALUE));
+            fail("should fail");
+        } catch (final TechnicalException e) {
+            assertEquals("Unknown tenant: " + VALUE, e.getMessage());
+        }
+        assertEquals(0, factory.builds.get());
+        assertEquals(0, clients.size());
+    }
+
+    public void testRemovedTenant() {
+        final CountingFactory factory = new CountingFactory();
+        final TenantClients clients = new TenantClients(CALLBACK_URL, factory, TENANTS);
+        clients.findClient(KEY);
+        clients.findClient(NAME + 0);
+        clients.setTenants(Arrays.asList(KEY));
+        assertEquals(1, clients.size());
+        try {
+            clients.findClient(NAME + 0);
+            fail("should fail");
+        } catch (final TechnicalException e) {
+            assertEquals("Unknown tenant: " + NAME + 0, e.getMessage());
+        }
+    }
+
+    public void testCallbackUrlTenantParameter() {
+        final TenantClients clients = new TenantClients(CALLBACK_URL, new TenantClientFactory() {
+            public Client build(final String tenant) {
+                final MockBaseClient client = new MockBaseClient(tenant);
+                client.setCallbackUrl(CALLBACK_URL + "?x" + TenantClients.DEFAULT_TENANT_PARAMETER + "=" + VALUE);
+                return client;
+            }
+        }, TENANTS);
+        assertEquals(CALLBACK_URL + "?x" + TenantClients.DEFAULT_TENANT_PARAMETER + "=" + VALUE + "&"
+                + TenantClients.DEFAULT_TENANT_PARAMETER + "=" + KEY,
+                ((BaseClient) clients.findClient(KEY)).getCallbackUrl());
+    }
+
+    public void testLazyInit() {
+        final CountingFactory factory = new CountingFactory();
+        final TenantClients clients = new TenantClients(CALLBACK_URL, factory, TENANTS);
+        assertEquals(0, clients.size());
+        final MockBaseClient client = (MockBaseClient) clients.findClient(KEY);
+        assertEquals(KEY, client.getName());
+        assertEquals(InitializationState.READY, client.getInitializationState());
+        assertEquals(CALLBACK_URL + "?" + TenantClients.DEFAULT_TENANT_PARAMETER + "=" + KEY, client.getCallbackUrl());
+        assertSame(client, clients.findClient(MockWebContext.create().addRequestParameter(
+                TenantClients.DEFAULT_TENANT_PARAMETER, KEY)));
+        assertEquals(1, factory.builds.get());
+        clients.invalidate(KEY);
+        assertNotSame(client, clients.findClient(KEY));
+        assertEquals(2, factory.builds.get());
+    }
+
+    public void testSingleFlight() throws Exception {
+        final AtomicInteger builds = new AtomicInteger();
+        final TenantClients clients = new TenantClients(CALLBACK_URL, new TenantClientFactory() {
+            public Client build(final String tenant) {
+                builds.incrementAndGet();
+                try {
+                    Thread.sleep(100);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new MockBaseClient(tenant);
+            }
+        }, TENANTS);
+        final int nb = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(nb);
+        try {
+            final List<Future<Client>> futures = new ArrayList<Future<Client>>();
+            for (int i = 0; i < nb; i++) {
+                futures.add(executor.submit(new Callable<Client>() {
+                    public Client call() {
+                        return clients.findClient(KEY);
+                    }
+                }));
+            }
+            final Client first = futures.get(0).get();
+            for (final Future<Client> future : futures) {
+                assertSame(first, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, builds.get());
+    }
+
+    public void testFailureIsRetried() {
+        final AtomicInteger builds = new AtomicInteger();
+        final TenantClients clients = new TenantClients(CALLBACK_URL, new TenantClientFactory() {
+            public Client build(final String tenant) {
+                if (builds.incrementAndGet() == 1) {
+                    throw new TechnicalException(VALUE);
+                }
+                return new MockBaseClient(tenant);
+            }
+        }, TENANTS);
+        try {
+            clients.findClient(KEY);
+            fail("should fail");
+        } catch (final TechnicalException e) {
+            assertEquals(VALUE, e.getMessage());
+        }
+        assertEquals(0, clients.size());
+        assertEquals(KEY, clients.findClient(KEY).getName());
+    }
+
+    public void testLeastRecentlyUsedEviction() throws InterruptedException {
+        final CountingFactory factory = new CountingFactory();
+        final TenantClients clients = new TenantClients(CALLBACK_URL, factory, TENANTS);
+        clients.setMaxSize(8);
+        final Client first = clients.findClient(NAME + 0);
+        for (int i = 1; i < 8; i++) {
+            clients.findClient(NAME + i);
+            Thread.sleep(1);
+        }
+        // the first tenant is the most recently used one now
+        clients.findClient(NAME + 0);
+        clients.findClient(NAME + 8);
+        assertEquals(7, clients.size());
+        assertSame(first, clients.findClient(NAME + 0));
+        assertEquals(9, factory.builds.get());
+        clients.findClient(NAME + 1);
+        assertEquals(10, factory.builds.get());
+    }
+
+    public void testMetricsKeptOnRelease() {
+        final DefaultMetricsRecorder recorder = new DefaultMetricsRecorder();
+        try {
+            final TenantClients clients = new TenantClients(CALLBACK_URL, new TenantClientFactory() {
+                public Client build(final String tenant) {
+                    // the clients of all the tenants share the same name
+                    final MockBaseClient client = new MockBaseClient(TYPE);
+                    client.setMetricsRecorder(recorder);
+                    return client;
+                }
+            }, TENANTS);
+            clients.findClient(KEY);
+            clients.findClient(NAME + 0);
+            recorder.record(TYPE, Phase.PROFILE, 1000, false);
+            clients.invalidate(KEY);
+            assertNotNull(recorder.getMetrics(TYPE, Phase.PROFILE));
+        } finally {
+            recorder.destroy();
+        }
+    }
+}
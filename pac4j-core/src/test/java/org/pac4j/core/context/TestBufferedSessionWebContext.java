@@ -0,0 +1,117 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.context;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.util.TestsConstants;
+
+/**
+ * This class tests the {@link BufferedSessionWebContext} class.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestBufferedSessionWebContext extends TestCase implements TestsConstants {
+
+    private final static class CountingWebContext extends MockWebContext {
+
+        private int reads;
+
+        private int writes;
+
+        @Override
+        public void setSessionAttribute(final String name, final Object value) {
+            this.writes++;
+            super.setSessionAttribute(name, value);
+        }
+
+        @Override
+        public Object getSessionAttribute(final String name) {
+            this.reads++;
+            return super.getSessionAttribute(name);
+        }
+    }
+
+    public void testCoalescedWrites() {
+        final CountingWebContext delegate = new CountingWebContext();
+        final BufferedSessionWebContext context = new BufferedSessionWebContext(delegate);
+        context.setSessionAttribute(KEY, "v1");
+        context.setSessionAttribute(KEY, VALUE);
+        assertEquals(VALUE, context.getSessionAttribute(KEY));
+        assertEquals(0, delegate.writes);
+        assertEquals(1, context.flush());
+        assertEquals(1, delegate.writes);
+        assertEquals(VALUE, delegate.getSessionAttribute(KEY));
+        assertEquals(0, context.flush());
+        assertEquals(1, context.getSessionWrites());
+    }
+
+    public void testCachedReads() {
+        final CountingWebContext delegate = new CountingWebContext();
+        delegate.setSessionAttribute(KEY, VALUE);
+        final BufferedSessionWebContext context = new BufferedSessionWebContext(delegate);
+        assertEquals(VALUE, context.getSessionAttribute(KEY));
+        assertEquals(VALUE, context.getSessionAttribute(KEY));
+        assertNull(context.getSessionAttribute(NAME));
+        assertNull(context.getSessionAttribute(NAME));
+        assertEquals(2, delegate.reads);
+        assertEquals(2, context.getSessionReads());
+    }
+
+    public void testSkippedWrites() {
+        final CountingWebContext delegate = new CountingWebContext();
+        delegate.setSessionAttribute(KEY, VALUE);
+        final BufferedSessionWebContext context = new BufferedSessionWebContext(delegate);
+        // removal of a missing attribute and equal value
+        context.setSessionAttribute(NAME, null);
+        context.getSessionAttribute(KEY);
+        context.setSessionAttribute(KEY, new String(VALUE));
+        assertEquals(0, context.flush());
+        assertEquals(1, delegate.writes);
+        assertEquals(0, context.getSessionWrites());
+    }
+
+    public void testSameInstanceWritten() {
+        final CountingWebContext delegate = new CountingWebContext();
+        final StringBuilder mutable = new StringBuilder(VALUE);
+        delegate.setSessionAttribute(KEY, mutable);
+        final BufferedSessionWebContext context = new BufferedSessionWebContext(delegate);
+        ((StringBuilder) context.getSessionAttribute(KEY)).append(VALUE);
+        context.setSessionAttribute(KEY, mutable);
+        assertEquals(1, context.flush());
+    }
+
+    public void testRemoval() {
+        final CountingWebContext delegate = new CountingWebContext();
+        delegate.setSessionAttribute(KEY, VALUE);
+        final BufferedSessionWebContext context = new BufferedSessionWebContext(delegate);
+        context.setSessionAttribute(KEY, null);
+        assertNull(context.getSessionAttribute(KEY));
+        assertEquals(1, context.flush());
+        assertNull(delegate.getSessionAttribute(KEY));
+    }
+
+    public void testFlushBeforeResponse() {
+        final CountingWebContext delegate = new CountingWebContext();
+        final BufferedSessionWebContext context = new BufferedSessionWebContext(delegate);
+        context.setSessionAttribute(KEY, VALUE);
+        context.setResponseStatus(HttpConstants.TEMP_REDIRECT);
+        assertEquals(VALUE, delegate.getSessionAttribute(KEY));
+        assertEquals(HttpConstants.TEMP_REDIRECT, delegate.getResponseStatus());
+        assertEquals(0, context.getSessionCreations());
+    }
+}
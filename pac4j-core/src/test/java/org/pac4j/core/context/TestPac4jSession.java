@@ -0,0 +1,150 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.context;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.util.TestsConstants;
+
+/**
+ * This class tests the {@link Pac4jSession} class.
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestPac4jSession extends TestCase implements TestsConstants {
+
+    // a request on a web session shared with the other requests
+    private static final class CountingWebContext extends MockWebContext {
+
+        private final Map<String, Object> sharedSession;
+
+        private int writes = 0;
+
+        private CountingWebContext() {
+            this(new HashMap<String, Object>());
+        }
+
+        private CountingWebContext(final Map<String, Object> sharedSession) {
+            this.sharedSession = sharedSession;
+        }
+
+        @Override
+        public void setSessionAttribute(final String name, final Object value) {
+            this.writes++;
+            this.sharedSession.put(name, value);
+        }
+
+        @Override
+        public Object getSessionAttribute(final String name) {
+            return this.sharedSession.get(name);
+        }
+    }
+
+    public void testSameSessionForTheRequest() {
+        final CountingWebContext context = new CountingWebContext();
+        assertSame(Pac4jSession.get(context), Pac4jSession.get(context));
+        assertNotSame(Pac4jSession.get(context), Pac4jSession.get(new CountingWebContext(context.sharedSession)));
+    }
+
+    public void testSaveOnlyWhenDirty() {
+        final CountingWebContext context = new CountingWebContext();
+        final Pac4jSession session = Pac4jSession.get(context);
+        assertFalse(session.isDirty());
+        session.save(context);
+        assertEquals(0, context.writes);
+        session.set(KEY, VALUE);
+        Pac4jSession.get(context).set(NAME, VALUE);
+        assertTrue(session.isDirty());
+        Pac4jSession.get(context).save(context);
+        session.save(context);
+        assertEquals(1, context.writes);
+        assertEquals(1, context.sharedSession.size());
+        session.set(KEY, VALUE);
+        assertFalse(session.isDirty());
+        session.set(KEY, TYPE);
+        session.set(KEY, VALUE);
+        assertFalse(session.isDirty());
+        final CountingWebContext context2 = new CountingWebContext(context.sharedSession);
+        assertEquals(VALUE, Pac4jSession.get(context2).get(NAME));
+    }
+
+    public void testEmptyIsRemoved() {
+        final CountingWebContext context = new CountingWebContext();
+        final Pac4jSession session = Pac4jSession.get(context);
+        session.set(KEY, VALUE);
+        session.remove(KEY);
+        session.save(context);
+        assertEquals(0, context.writes);
+        session.set(KEY, VALUE);
+        session.save(context);
+        assertEquals(VALUE, session.remove(KEY));
+        session.save(context);
+        assertEquals(2, context.writes);
+        assertNull(context.getSessionAttribute(Pac4jConstants.PAC4J_SESSION));
+    }
+
+    public void testConcurrentRequestsAreMerged() {
+        final CountingWebContext context1 = new CountingWebContext();
+        final Pac4jSession init = Pac4jSession.get(context1);
+        init.set(TYPE, VALUE);
+        init.save(context1);
+        final CountingWebContext context2 = new CountingWebContext(context1.sharedSession);
+        final CountingWebContext context3 = new CountingWebContext(context1.sharedSession);
+        final Pac4jSession session2 = Pac4jSession.get(context2);
+        final Pac4jSession session3 = Pac4jSession.get(context3);
+        session2.set(KEY, VALUE);
+        session3.set(NAME, VALUE);
+        session3.remove(TYPE);
+        session2.save(context2);
+        session3.save(context3);
+        final Pac4jSession session = Pac4jSession.get(new CountingWebContext(context1.sharedSession));
+        assertEquals(VALUE, session.get(KEY));
+        assertEquals(VALUE, session.get(NAME));
+        assertNull(session.get(TYPE));
+        assertEquals(1, context2.writes);
+        assertEquals(1, context3.writes);
+    }
+
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        final CountingWebContext context = new CountingWebContext();
+        final Pac4jSession session = Pac4jSession.get(context);
+        session.set(KEY, VALUE);
+        final Date date = new Date();
+        session.set(NAME, date);
+        session.save(context);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(context.getSessionAttribute(Pac4jConstants.PAC4J_SESSION));
+        out.close();
+        final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        final MockWebContext context2 = MockWebContext.create().addSessionAttribute(Pac4jConstants.PAC4J_SESSION,
+                                                                                    in.readObject());
+        final Pac4jSession session2 = Pac4jSession.get(context2);
+        assertEquals(VALUE, session2.get(KEY));
+        assertEquals(date, session2.get(NAME));
+        assertFalse(session2.isDirty());
+    }
+}
@@ -0,0 +1,141 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.context;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.TestsConstants;
+
+/**
+ * This class tests the {@link SimpleWebContext} class.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestSimpleWebContext extends TestCase implements TestsConstants {
+
+    private final static class RecordingSink implements ResponseSink {
+
+        private int status;
+
+        private final Map<String, String> headers = new HashMap<String, String>();
+
+        private final StringBuilder content = new StringBuilder();
+
+        public void setStatus(final int code) {
+            this.status = code;
+        }
+
+        public void setHeader(final String name, final String value) {
+            this.headers.put(name, value);
+        }
+
+        public void write(final String content) {
+            this.content.append(content);
+        }
+    }
+
+    private final static class MapSessionStore implements SessionStore {
+
+        private final Map<String, Object> attributes = new HashMap<String, Object>();
+
+        public Object get(final String name) {
+            return this.attributes.get(name);
+        }
+
+        public void set(final String name, final Object value) {
+            this.attributes.put(name, value);
+        }
+    }
+
+    private static SimpleWebContext create(final String scheme, final int port, final String queryString,
+                                           final SessionStore sessionStore, final ResponseSink sink) {
+        return new SimpleWebContext("GET", scheme, "localhost", port, "/callback", queryString, sessionStore, sink);
+    }
+
+    public void testParameters() {
+        final SimpleWebContext context = create("http", 80, null, null, new RecordingSink());
+        context.addEncodedParameters("a=1&b=x+y%21&&c&a=2").addRequestParameter(KEY, VALUE);
+        assertEquals("1", context.getRequestParameter("a"));
+        assertEquals("x y!", context.getRequestParameter("b"));
+        assertEquals("", context.getRequestParameter("c"));
+        assertEquals(VALUE, context.getRequestParameter(KEY));
+        assertNull(context.getRequestParameter(NAME));
+        final Map<String, String[]> parameters = context.getRequestParameters();
+        assertEquals(4, parameters.size());
+        assertEquals(2, parameters.get("a").length);
+        assertEquals("2", parameters.get("a")[1]);
+        assertSame(parameters, context.getRequestParameters());
+    }
+
+    public void testMalformedParameters() {
+        final SimpleWebContext context = create("http", 80, null, null, new RecordingSink());
+        context.addEncodedParameters("q=100%&r=%zz&s=%41");
+        assertEquals("100%", context.getRequestParameter("q"));
+        assertEquals("%zz", context.getRequestParameter("r"));
+        assertEquals("A", context.getRequestParameter("s"));
+    }
+
+    public void testManyParametersAndHeaders() {
+        final SimpleWebContext context = create("http", 80, null, null, new RecordingSink());
+        for (int i = 0; i < 100; i++) {
+            context.addRequestParameter(KEY + i, VALUE + i).addRequestHeader(NAME + i, VALUE + i);
+        }
+        assertEquals(VALUE + 99, context.getRequestParameter(KEY + 99));
+        assertEquals(VALUE + 42, context.getRequestHeader(NAME.toUpperCase() + 42));
+    }
+
+    public void testFullRequestURL() {
+        assertEquals("http://localhost/callback", create("http", 80, null, null, new RecordingSink())
+            .getFullRequestURL());
+        assertEquals("https://localhost/callback?a=1", create("https", 443, "a=1", null, new RecordingSink())
+            .getFullRequestURL());
+        assertEquals("http://localhost:8080/callback?a=1", create("http", 8080, "a=1", null, new RecordingSink())
+            .getFullRequestURL());
+    }
+
+    public void testResponse() {
+        final RecordingSink sink = new RecordingSink();
+        final SimpleWebContext context = create("http", 80, null, null, sink);
+        context.setResponseStatus(HttpConstants.TEMP_REDIRECT);
+        context.setResponseHeader(HttpConstants.LOCATION_HEADER, CALLBACK_URL);
+        context.writeResponseContent(VALUE);
+        context.writeResponseContent(null);
+        assertEquals(HttpConstants.TEMP_REDIRECT, sink.status);
+        assertEquals(CALLBACK_URL, sink.headers.get(HttpConstants.LOCATION_HEADER));
+        assertEquals(VALUE, sink.content.toString());
+    }
+
+    public void testSession() {
+        final SimpleWebContext context = create("http", 80, null, new MapSessionStore(), new RecordingSink());
+        context.setSessionAttribute(KEY, VALUE);
+        assertEquals(VALUE, context.getSessionAttribute(KEY));
+    }
+
+    public void testNoSession() {
+        final SimpleWebContext context = create("http", 80, null, null, new RecordingSink());
+        assertNull(context.getSessionAttribute(KEY));
+        try {
+            context.setSessionAttribute(KEY, VALUE);
+            fail();
+        } catch (final TechnicalException e) {
+        }
+    }
+}
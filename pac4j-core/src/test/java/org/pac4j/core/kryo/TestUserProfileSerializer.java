@@ -0,0 +1,211 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.kryo;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.profile.AttributesDefinition;
+import org.pac4j.core.profile.Color;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.FormattedDate;
+import org.pac4j.core.profile.Gender;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.profile.converter.Converters;
+import org.pac4j.core.util.TestsConstants;
+import org.pac4j.core.util.TestsHelper;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.SerializationException;
+
+/**
+ * This class tests the {@link UserProfileSerializer} and {@link KryoProfileRegistrar} classes.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestUserProfileSerializer extends TestCase implements TestsConstants {
+
+    private static final String AGE = "age";
+
+    private static final String COLOR = "color";
+
+    private static final String ROLE = "role";
+
+    private static final String PERMISSION = "permission";
+
+    private final static AttributesDefinition definition = new AttributesDefinition() {
+        {
+            addAttribute(NAME, Converters.stringConverter);
+            addAttribute(AGE, Converters.integerConverter);
+            addAttribute(COLOR, Converters.colorConverter);
+        }
+    };
+
+    // a new version of the profile: the attributes are reordered, one is added and the age is no longer defined
+    private final static AttributesDefinition newDefinition = new AttributesDefinition() {
+        {
+            addAttribute(COLOR, Converters.colorConverter);
+            addAttribute(NAME, Converters.stringConverter);
+        }
+    };
+
+    public static final class DefinedProfile extends CommonProfile {
+
+        private static final long serialVersionUID = -5327541364580208417L;
+
+        @Override
+        protected AttributesDefinition getAttributesDefinition() {
+            return definition;
+        }
+    }
+
+    public static final class NewDefinedProfile extends CommonProfile {
+
+        private static final long serialVersionUID = 1879153203520446337L;
+
+        @Override
+        protected AttributesDefinition getAttributesDefinition() {
+            return newDefinition;
+        }
+    }
+
+    // the value class of a provider
+    public static final class ProviderValue {
+
+        private String name;
+
+        public ProviderValue() {
+        }
+
+        public ProviderValue(final String name) {
+            this.name = name;
+        }
+    }
+
+    // a value class added in a later release
+    public static final class AnotherProviderValue {
+
+        private int count;
+    }
+
+    private Kryo newKryo() {
+        final Kryo kryo = KryoProfileRegistrar.register(new Kryo());
+        kryo.register(DefinedProfile.class, new UserProfileSerializer(kryo));
+        return kryo;
+    }
+
+    private CommonProfile newProfile() {
+        final CommonProfile profile = new CommonProfile();
+        profile.setId(STRING_ID);
+        profile.addAttribute(NAME, VALUE);
+        profile.addAttribute("locale", Locale.FRANCE);
+        profile.addAttribute("birthday", new FormattedDate(new Date(1000L), "yyyy", Locale.FRANCE));
+        profile.addAttribute("updated", new Date(2000L));
+        profile.addAttribute(COLOR, new Color(1, 2, 3));
+        profile.addAttribute("gender", Gender.FEMALE);
+        profile.addAttribute("verified", Boolean.TRUE);
+        profile.addAttribute(AGE, 33);
+        profile.addAttribute("size", 12345678901L);
+        profile.addAttribute("score", 1.5d);
+        profile.addAttribute("emails", new ArrayList<String>(Arrays.asList(KEY, VALUE)));
+        profile.addRole(ROLE);
+        profile.addPermission(PERMISSION);
+        profile.setRemembered(true);
+        return profile;
+    }
+
+    private DefinedProfile newDefinedProfile() {
+        final DefinedProfile profile = new DefinedProfile();
+        profile.setId(STRING_ID);
+        profile.addAttribute(NAME, VALUE);
+        profile.addAttribute(AGE, "33");
+        profile.addAttribute(COLOR, "010203");
+        return profile;
+    }
+
+    public void testRoundTrip() {
+        final Kryo kryo = newKryo();
+        final CommonProfile profile = newProfile();
+        final byte[] bytes = TestsHelper.serializeKryo(kryo, profile);
+        final CommonProfile profile2 = (CommonProfile) TestsHelper.unserializeKryo(kryo, bytes);
+        assertEquals(STRING_ID, profile2.getId());
+        assertEquals(11, profile2.getAttributes().size());
+        assertEquals(profile.getAttributes().toString(), profile2.getAttributes().toString());
+        assertEquals(Arrays.asList(ROLE), profile2.getRoles());
+        assertEquals(Arrays.asList(PERMISSION), profile2.getPermissions());
+        assertTrue(profile2.isRemembered());
+        assertTrue(bytes.length < TestsHelper.serialize(profile).length);
+    }
+
+    public void testDefinedAttributes() {
+        final Kryo kryo = newKryo();
+        final DefinedProfile profile = (DefinedProfile) TestsHelper.unserializeKryo(kryo,
+                TestsHelper.serializeKryo(kryo, newDefinedProfile()));
+        assertEquals(VALUE, profile.getAttribute(NAME));
+        assertEquals(33, profile.getAttribute(AGE));
+        assertEquals("010203", profile.getAttribute(COLOR).toString());
+    }
+
+    public void testRegisteredProfiles() {
+        final Kryo kryo = newKryo();
+        assertTrue(kryo.getSerializer(CommonProfile.class) instanceof UserProfileSerializer);
+        assertTrue(kryo.getSerializer(UserProfile.class) instanceof UserProfileSerializer);
+    }
+
+    public void testNewValueClass() {
+        final Kryo kryo = KryoProfileRegistrar.register(new Kryo(), Arrays.<Class<?>> asList(ProviderValue.class));
+        final CommonProfile profile = newProfile();
+        profile.addAttribute(KEY, new ProviderValue(VALUE));
+        final byte[] bytes = TestsHelper.serializeKryo(kryo, profile);
+        // the new class is registered before the existing one
+        final Kryo newKryo = KryoProfileRegistrar.register(new Kryo(),
+                Arrays.<Class<?>> asList(AnotherProviderValue.class, ProviderValue.class));
+        final CommonProfile profile2 = (CommonProfile) TestsHelper.unserializeKryo(newKryo, bytes);
+        assertEquals(VALUE, ((ProviderValue) profile2.getAttribute(KEY)).name);
+        assertEquals(profile.getAttribute("updated"), profile2.getAttribute("updated"));
+        assertEquals(profile.getAttribute(COLOR).toString(), profile2.getAttribute(COLOR).toString());
+    }
+
+    public void testNewProfileVersion() {
+        final Kryo kryo = newKryo();
+        final ByteBuffer buffer = ByteBuffer.allocate(4096);
+        final UserProfileSerializer serializer = new UserProfileSerializer(kryo);
+        serializer.writeObjectData(buffer, newDefinedProfile());
+        buffer.flip();
+        final NewDefinedProfile profile = serializer.readObjectData(buffer, NewDefinedProfile.class);
+        assertEquals(VALUE, profile.getAttribute(NAME));
+        assertEquals(33, profile.getAttribute(AGE));
+        assertEquals("010203", profile.getAttribute(COLOR).toString());
+    }
+
+    public void testUnsupportedVersion() {
+        final ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.put((byte) (UserProfileSerializer.VERSION + 1));
+        buffer.flip();
+        try {
+            new UserProfileSerializer(new Kryo()).readObjectData(buffer, CommonProfile.class);
+            fail("should fail");
+        } catch (final SerializationException e) {
+            assertEquals("Unsupported profile format version: 2", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.client.MockBaseClient;
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.exception.RequiresHttpAction;
+import org.pac4j.core.util.TestsConstants;
+
+/**
+ * This class tests the {@link AuthenticationTracer} class.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestAuthenticationTracer extends TestCase implements TestsConstants {
+
+    private final static class CollectingListener implements TraceListener {
+
+        private final List<String> timelines = new ArrayList<String>();
+
+        private final List<Phase> phases = new ArrayList<Phase>();
+
+        public void onSlowAuthentication(final AuthenticationTrace trace) {
+            this.timelines.add(trace.toString());
+            this.phases.clear();
+            for (int i = 0; i < trace.size(); i++) {
+                this.phases.add(trace.getPhase(i));
+            }
+        }
+    }
+
+    public void testFastAuthenticationNotNotified() {
+        final CollectingListener listener = new CollectingListener();
+        final AuthenticationTracer tracer = new AuthenticationTracer(listener, 60000);
+        tracer.begin(NAME);
+        tracer.record(NAME, Phase.PROFILE, System.nanoTime(), System.nanoTime(), false);
+        tracer.end(NAME);
+        assertTrue(listener.timelines.isEmpty());
+    }
+
+    public void testSlowAuthentication() {
+        final CollectingListener listener = new CollectingListener();
+        final AuthenticationTracer tracer = new AuthenticationTracer(listener, 0);
+        tracer.begin(NAME);
+        final long start = System.nanoTime();
+        tracer.record(NAME, Phase.PROVIDER_CALL, start, start + 2000000000L, true);
+        tracer.record(TYPE, Phase.REDIRECT, start, start, false);
+        tracer.record(NAME, Phase.PROFILE, start, start + 2100000000L, false);
+        tracer.end(NAME);
+        assertEquals(1, listener.timelines.size());
+        final String timeline = listener.timelines.get(0);
+        assertTrue(timeline, timeline.startsWith(NAME + " in "));
+        assertTrue(timeline, timeline.contains("PROVIDER_CALL 2000.0 ms (error)"));
+        assertTrue(timeline, timeline.contains("PROFILE 2100.0 ms"));
+        assertFalse(timeline, timeline.contains("REDIRECT"));
+        // ended: no longer notified
+        tracer.end(NAME);
+        assertEquals(1, listener.timelines.size());
+    }
+
+    public void testRing() {
+        final CollectingListener listener = new CollectingListener();
+        final AuthenticationTracer tracer = new AuthenticationTracer(listener, 0);
+        tracer.begin(NAME);
+        for (int i = 0; i < AuthenticationTrace.CAPACITY + 2; i++) {
+            final long now = System.nanoTime();
+            tracer.record(NAME, i < 2 ? Phase.REDIRECT : Phase.AUTHORIZATION, now, now, false);
+        }
+        tracer.end(NAME);
+        assertEquals(AuthenticationTrace.CAPACITY, listener.phases.size());
+        assertFalse(listener.phases.contains(Phase.REDIRECT));
+    }
+
+    public void testClientLogin() throws RequiresHttpAction {
+        final CollectingListener listener = new CollectingListener();
+        final MockBaseClient<Credentials> client = new MockBaseClient<Credentials>(TYPE) {
+            @Override
+            protected Credentials retrieveCredentials(final WebContext context) {
+                return new Credentials() {
+                    private static final long serialVersionUID = 1L;
+                };
+            }
+        };
+        client.setCallbackUrl(CALLBACK_URL);
+        client.setTracer(new AuthenticationTracer(listener, 0));
+        final MockWebContext context = MockWebContext.create();
+        final Credentials credentials = client.getCredentials(context);
+        // the authentication goes on with the user profile
+        assertTrue(listener.timelines.isEmpty());
+        client.getUserProfile(credentials, context);
+        assertEquals(1, listener.timelines.size());
+        assertEquals(2, listener.phases.size());
+        assertEquals(Phase.CREDENTIALS, listener.phases.get(0));
+        assertEquals(Phase.PROFILE, listener.phases.get(1));
+    }
+}
@@ -0,0 +1,105 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.MBeanServer;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.util.TestsConstants;
+
+/**
+ * This class tests the {@link DefaultMetricsRecorder} class.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestDefaultMetricsRecorder extends TestCase implements TestsConstants {
+
+    private final static long MILLI = 1000000L;
+
+    public void testNoMetrics() {
+        final DefaultMetricsRecorder recorder = new DefaultMetricsRecorder();
+        assertNull(recorder.getMetrics(NAME, Phase.PROFILE));
+    }
+
+    public void testPercentiles() {
+        final DefaultMetricsRecorder recorder = new DefaultMetricsRecorder();
+        for (int i = 0; i < 98; i++) {
+            recorder.record(NAME, Phase.PROVIDER_CALL, 3 * MILLI, false);
+        }
+        recorder.record(NAME, Phase.PROVIDER_CALL, 100 * MILLI, true);
+        recorder.record(NAME, Phase.PROVIDER_CALL, 100 * MILLI, true);
+        final PhaseMetrics metrics = recorder.getMetrics(NAME, Phase.PROVIDER_CALL);
+        assertEquals(100, metrics.getCount());
+        assertEquals(2, metrics.getErrorCount());
+        assertEquals(0.02, metrics.getErrorRate(), 0.0001);
+        assertEquals(4.94, metrics.getMeanMillis(), 0.0001);
+        assertEquals(100.0, metrics.getMaxMillis(), 0.0001);
+        // 3 ms is in the [2048 µs, 4096 µs[ bucket
+        assertEquals(4.096, metrics.getP50Millis(), 0.0001);
+        // 100 ms is in the [65536 µs, 131072 µs[ bucket
+        assertEquals(131.072, metrics.getP99Millis(), 0.0001);
+        assertEquals(0, recorder.getMetrics(NAME, Phase.REDIRECT).getCount());
+        assertEquals(0.0, recorder.getMetrics(NAME, Phase.REDIRECT).getP99Millis());
+    }
+
+    public void testConcurrentRecords() throws InterruptedException {
+        final DefaultMetricsRecorder recorder = new DefaultMetricsRecorder();
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        recorder.record(NAME, Phase.CREDENTIALS, j, j % 10 == 0);
+                    }
+                }
+            });
+        }
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        final PhaseMetrics metrics = recorder.getMetrics(NAME, Phase.CREDENTIALS);
+        assertEquals(80000, metrics.getCount());
+        assertEquals(8000, metrics.getErrorCount());
+    }
+
+    public void testJmx() throws Exception {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final DefaultMetricsRecorder recorder = new DefaultMetricsRecorder(server);
+        recorder.record(TYPE, Phase.PROFILE, MILLI, false);
+        assertEquals(Long.valueOf(1),
+                server.getAttribute(DefaultMetricsRecorder.getObjectName(TYPE, Phase.PROFILE), "Count"));
+        assertTrue(server.isRegistered(DefaultMetricsRecorder.getObjectName(TYPE, Phase.REDIRECT)));
+        recorder.record(NAME, Phase.PROFILE, MILLI, false);
+        recorder.remove(TYPE);
+        assertNull(recorder.getMetrics(TYPE, Phase.PROFILE));
+        assertFalse(server.isRegistered(DefaultMetricsRecorder.getObjectName(TYPE, Phase.REDIRECT)));
+        assertTrue(server.isRegistered(DefaultMetricsRecorder.getObjectName(NAME, Phase.REDIRECT)));
+        recorder.destroy();
+        for (final Phase phase : Phase.values()) {
+            assertFalse(server.isRegistered(DefaultMetricsRecorder.getObjectName(NAME, phase)));
+        }
+    }
+}
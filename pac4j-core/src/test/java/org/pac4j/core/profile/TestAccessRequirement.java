@@ -0,0 +1,90 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.profile;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.util.TestsConstants;
+
+/**
+ * This class tests the {@link AccessRequirement} class.
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestAccessRequirement extends TestCase implements TestsConstants {
+
+    private static final String ROLE1 = "role1";
+    private static final String ROLE2 = "role2";
+    private static final String ROLE3 = "role3";
+
+    private static final String[][] REQUIREMENTS = new String[][] { { null, null }, { "", "" }, { ROLE1, null },
+        { ROLE3, null }, { ROLE2 + "," + ROLE1, null }, { null, ROLE1 + "," + ROLE2 },
+        { null, ROLE1 + "," + ROLE2 + "," + ROLE3 }, { ROLE2, ROLE1 + "," + ROLE2 + "," + ROLE3 },
+        { ROLE3, ROLE1 + "," + ROLE2 + "," + ROLE3 }, { ",", null }, { null, "," } };
+
+    private void assertSameAsStringCheck(final UserProfile profile) {
+        for (final String[] requirement : REQUIREMENTS) {
+            assertEquals(requirement[0] + " / " + requirement[1], profile.hasAccess(requirement[0], requirement[1]),
+                    profile.hasAccess(AccessRequirement.compile(requirement[0], requirement[1])));
+        }
+    }
+
+    public void testNoRole() {
+        assertSameAsStringCheck(new UserProfile());
+    }
+
+    public void testRoles() {
+        final UserProfile profile = new UserProfile();
+        profile.addRole(ROLE1);
+        assertSameAsStringCheck(profile);
+        profile.addRole(ROLE2);
+        assertSameAsStringCheck(profile);
+        profile.addRole(ROLE3);
+        assertSameAsStringCheck(profile);
+    }
+
+    public void testManyRoles() {
+        final UserProfile profile = new UserProfile();
+        final StringBuilder all = new StringBuilder(ROLE1);
+        for (int i = 0; i < 200; i++) {
+            profile.addRole("manyRoles" + i);
+            all.append(",manyRoles").append(i);
+        }
+        assertTrue(profile.hasAccess(AccessRequirement.compile("manyRoles199", null)));
+        assertFalse(profile.hasAccess(AccessRequirement.compile(null, all.toString())));
+        assertTrue(RoleRegistry.size() > 128);
+        profile.addRole(ROLE1);
+        assertTrue(profile.hasAccess(AccessRequirement.compile(null, all.toString())));
+        assertSameAsStringCheck(profile);
+    }
+
+    public void testProfileRolesNotRegistered() {
+        final UserProfile profile = new UserProfile();
+        profile.addRole("profileOnlyRole");
+        final AccessRequirement requirement = AccessRequirement.compile(ROLE1, null);
+        final int size = RoleRegistry.size();
+        assertFalse(profile.hasAccess(requirement));
+        assertEquals(size, RoleRegistry.size());
+        // the mask is computed again once the role is registered by a requirement
+        assertTrue(profile.hasAccess(AccessRequirement.compile("profileOnlyRole", null)));
+    }
+
+    public void testRegistry() {
+        assertEquals(RoleRegistry.getId(ROLE1), RoleRegistry.getId(new String(ROLE1)));
+        assertFalse(RoleRegistry.getId(ROLE1) == RoleRegistry.getId(ROLE2));
+    }
+}
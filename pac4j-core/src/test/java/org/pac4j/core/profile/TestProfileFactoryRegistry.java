@@ -0,0 +1,68 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.profile;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.TestsConstants;
+
+/**
+ * This class tests the {@link ProfileFactoryRegistry} class.
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestProfileFactoryRegistry extends TestCase implements TestsConstants {
+
+    public static final class ThirdPartyProfile extends CommonProfile {
+
+        private static final long serialVersionUID = 5036469367327451484L;
+    }
+
+    public void testUnknownType() {
+        assertNull(ProfileFactoryRegistry.getFactory("ThirdPartyUnknownProfile"));
+        assertNull(ProfileHelper.buildProfile("ThirdPartyUnknownProfile#" + STRING_ID, new HashMap<String, Object>()));
+    }
+
+    public void testRegister() {
+        ProfileFactoryRegistry.register("ThirdPartyProfile", new ProfileFactory<ThirdPartyProfile>() {
+            public ThirdPartyProfile newProfile() {
+                return new ThirdPartyProfile();
+            }
+        });
+        final Map<String, Object> attributes = new HashMap<String, Object>();
+        attributes.put(KEY, VALUE);
+        final UserProfile profile = ProfileHelper.buildProfile("ThirdPartyProfile#" + STRING_ID, attributes);
+        assertTrue(profile instanceof ThirdPartyProfile);
+        assertEquals(STRING_ID, profile.getId());
+        assertEquals(VALUE, profile.getAttribute(KEY));
+        assertNull(ProfileHelper.buildProfile("ThirdPartyProfile#" + STRING_ID + "#" + STRING_ID, attributes));
+        assertNull(ProfileHelper.buildProfile("ThirdPartyProfile#", attributes));
+    }
+
+    public void testRegisterNoFactory() {
+        try {
+            ProfileFactoryRegistry.register("ThirdPartyProfile", null);
+            fail("should fail");
+        } catch (final TechnicalException e) {
+            assertEquals("factory cannot be null", e.getMessage());
+        }
+    }
+}
@@ -15,12 +15,22 @@
  */
 package org.pac4j.core.profile;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 import junit.framework.TestCase;
 
+import org.pac4j.core.profile.converter.AttributeConverter;
+import org.pac4j.core.profile.converter.Converters;
 import org.pac4j.core.util.TestsConstants;
+import org.pac4j.core.util.TestsHelper;
 
 /**
  * This class tests the {@link UserProfile} class.
@@ -37,6 +47,46 @@ public final class TestUserProfile extends TestCase implements TestsConstants {
     private static final String ROLE3 = "role3";
     private static final String PERMISSION = "onePermission";
 
+    private static final String AGE = "age";
+
+    private final static class DefinedAttributes extends AttributesDefinition {
+
+        private DefinedAttributes() {
+            addAttribute(NAME, Converters.stringConverter);
+            addAttribute(AGE, Converters.integerConverter);
+        }
+    }
+
+    private final static AttributesDefinition definition = new DefinedAttributes();
+
+    private final static class DefinedProfile extends UserProfile {
+
+        private static final long serialVersionUID = -2087373567862474335L;
+
+        @Override
+        protected AttributesDefinition getAttributesDefinition() {
+            return definition;
+        }
+    }
+
+    private final static AttributesDefinition reorderedDefinition = new AttributesDefinition() {
+        {
+            addAttribute(TYPE, Converters.stringConverter);
+            addAttribute(AGE, Converters.integerConverter);
+            addAttribute(NAME, Converters.stringConverter);
+        }
+    };
+
+    private final static class ReorderedProfile extends UserProfile {
+
+        private static final long serialVersionUID = -2087373567862474335L;
+
+        @Override
+        protected AttributesDefinition getAttributesDefinition() {
+            return reorderedDefinition;
+        }
+    }
+
     public void testSetId() {
         final UserProfile userProfile = new UserProfile();
         assertNull(userProfile.getId());
@@ -199,4 +249,153 @@ public final class TestUserProfile extends TestCase implements TestsConstants {
         profile.addRole(ROLE2);
         assertFalse(profile.hasAccess(ROLE3, ROLE1 + "," + ROLE2 + "," + ROLE3));
     }
+
+    public void testDefinedAttributes() {
+        final UserProfile profile = new DefinedProfile();
+        profile.addAttribute(AGE, "42");
+        profile.addAttribute(KEY, VALUE);
+        assertEquals(1, profile.getAttributes().size());
+        assertEquals(Integer.valueOf(42), profile.getAttribute(AGE));
+        assertNull(profile.getAttribute(NAME));
+        assertNull(profile.getAttribute(KEY));
+        profile.addAttribute(NAME, VALUE);
+        final Map<String, Object> attributes = profile.getAttributes();
+        assertEquals(2, attributes.size());
+        assertTrue(attributes.containsKey(NAME));
+        final Iterator<Map.Entry<String, Object>> entries = attributes.entrySet().iterator();
+        assertEquals(NAME, entries.next().getKey());
+        assertEquals(Integer.valueOf(42), entries.next().getValue());
+        assertFalse(entries.hasNext());
+        try {
+            attributes.put(KEY, VALUE);
+            fail();
+        } catch (final UnsupportedOperationException e) {
+        }
+    }
+
+    public void testRedefinedAttributeConverter() {
+        final AttributesDefinition redefined = new AttributesDefinition() {
+            {
+                addAttribute(AGE, Converters.stringConverter);
+                addAttribute(AGE, Converters.integerConverter);
+            }
+        };
+        final int index = redefined.getAttributeIndex(AGE);
+        assertEquals(0, index);
+        assertEquals(Integer.valueOf(42), redefined.convert(index, "42"));
+        assertEquals(Integer.valueOf(42), redefined.convert(AGE, "42"));
+        assertNull(redefined.convert(index, null));
+    }
+
+    private final static class CountingConverter implements AttributeConverter<String> {
+
+        private int conversions = 0;
+
+        public String convert(final Object attribute) {
+            this.conversions++;
+            return attribute.toString().toUpperCase();
+        }
+    }
+
+    private final static class LazyProfile extends UserProfile {
+
+        private static final long serialVersionUID = 4514390186297514447L;
+
+        private final static CountingConverter converter = new CountingConverter();
+
+        private final static AttributesDefinition lazyDefinition = new AttributesDefinition() {
+            {
+                addAttribute(NAME, converter, false, true);
+            }
+        };
+
+        @Override
+        protected AttributesDefinition getAttributesDefinition() {
+            return lazyDefinition;
+        }
+    }
+
+    public void testLazyAttribute() throws IOException, ClassNotFoundException {
+        final UserProfile profile = new LazyProfile();
+        final int conversions = LazyProfile.converter.conversions;
+        // a raw value which is not serializable
+        profile.addAttribute(NAME, new StringBuilder(VALUE));
+        assertEquals(conversions, LazyProfile.converter.conversions);
+        final Object value = profile.getAttribute(NAME);
+        assertEquals(VALUE.toUpperCase(), value);
+        assertSame(value, profile.getAttribute(NAME));
+        assertEquals(1, profile.getAttributes().size());
+        assertEquals(conversions + 1, LazyProfile.converter.conversions);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(profile);
+        out.close();
+        final UserProfile profile2 = (UserProfile) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))
+            .readObject();
+        // the raw value is serialized (as a string) and converted again
+        assertEquals(conversions + 1, LazyProfile.converter.conversions);
+        assertEquals(VALUE.toUpperCase(), profile2.getAttribute(NAME));
+        assertEquals(conversions + 2, LazyProfile.converter.conversions);
+    }
+
+    public void testLazyAttributeViews() {
+        final UserProfile profile = new LazyProfile();
+        profile.addAttribute(NAME, VALUE);
+        final int conversions = LazyProfile.converter.conversions;
+        final Map<String, Object> attributes = profile.getAttributes();
+        assertEquals(1, attributes.size());
+        assertTrue(attributes.containsKey(NAME));
+        assertEquals(NAME, attributes.keySet().iterator().next());
+        assertTrue(profile.toString().contains(VALUE));
+        assertEquals(conversions, LazyProfile.converter.conversions);
+        assertEquals(VALUE.toUpperCase(), attributes.values().iterator().next());
+        assertEquals(conversions + 1, LazyProfile.converter.conversions);
+        assertTrue(profile.toString().contains(VALUE.toUpperCase()));
+    }
+
+    public void testLazyAttributeNotReadSerialization() throws IOException, ClassNotFoundException {
+        final UserProfile profile = new LazyProfile();
+        profile.addAttribute(NAME, VALUE);
+        final int conversions = LazyProfile.converter.conversions;
+        final UserProfile profile2 = (UserProfile) TestsHelper.unserialize(TestsHelper.serialize(profile));
+        assertEquals(conversions, LazyProfile.converter.conversions);
+        assertEquals(VALUE.toUpperCase(), profile2.getAttribute(NAME));
+        assertEquals(conversions + 1, LazyProfile.converter.conversions);
+    }
+
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        final UserProfile profile = new DefinedProfile();
+        profile.setId(ID);
+        profile.addAttribute(NAME, VALUE);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(profile);
+        out.close();
+        final UserProfile profile2 = (UserProfile) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))
+            .readObject();
+        assertEquals(ID, profile2.getId());
+        assertEquals(profile.getAttributes(), profile2.getAttributes());
+    }
+
+    public void testSerializationAfterDefinitionChange() throws IOException, ClassNotFoundException {
+        final UserProfile profile = new DefinedProfile();
+        profile.addAttribute(NAME, VALUE);
+        profile.addAttribute(AGE, 18);
+        // read the profile as if its attributes definition had been reordered and extended
+        final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(TestsHelper.serialize(profile))) {
+            @Override
+            protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+                final ObjectStreamClass descriptor = super.readClassDescriptor();
+                if (DefinedProfile.class.getName().equals(descriptor.getName())) {
+                    return ObjectStreamClass.lookup(ReorderedProfile.class);
+                }
+                return descriptor;
+            }
+        };
+        final UserProfile profile2 = (UserProfile) in.readObject();
+        assertTrue(profile2 instanceof ReorderedProfile);
+        assertEquals(VALUE, profile2.getAttribute(NAME));
+        assertEquals(18, profile2.getAttribute(AGE));
+        assertEquals(2, profile2.getAttributes().size());
+    }
 }
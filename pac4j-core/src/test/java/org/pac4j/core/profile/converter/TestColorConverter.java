@@ -58,6 +58,10 @@ public final class TestColorConverter extends TestCase {
         assertEquals(5, color.getBlue());
     }
     
+    public void testInterned() {
+        assertSame(this.converter.convert(GOOD_COLOR), this.converter.convert(GOOD_COLOR.toLowerCase()));
+    }
+    
     public void testColorToString() {
         final Color color = new Color(10, 20, 30);
         final Color color2 = this.converter.convert(color.toString());
@@ -16,7 +16,13 @@
 package org.pac4j.core.profile.converter;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import junit.framework.TestCase;
 
@@ -50,7 +56,46 @@ public final class TestDateConverter extends TestCase {
         assertEquals(GOOD_DATE, simpleDateFormat.format(d));
     }
     
+    public void testFormatChangedBySubclass() {
+        final DateConverter converter = new DateConverter(FORMAT) {
+            {
+                this.format = "yyyy/MM/dd";
+            }
+        };
+        assertNotNull(converter.convert(BAD_DATE));
+        converter.format = FORMAT;
+        assertNotNull(converter.convert(GOOD_DATE));
+        assertNull(converter.convert(BAD_DATE));
+    }
+    
     public void testBadDate() {
         assertNull(this.converter.convert(BAD_DATE));
     }
+    
+    public void testConcurrentConversions() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 8; i++) {
+                final String date = "2012.01.0" + (i + 1);
+                results.add(executor.submit(new Callable<Boolean>() {
+                    public Boolean call() {
+                        final SimpleDateFormat simpleDateFormat = new SimpleDateFormat(FORMAT);
+                        for (int j = 0; j < 1000; j++) {
+                            final Date d = TestDateConverter.this.converter.convert(date);
+                            if (d == null || !date.equals(simpleDateFormat.format(d))) {
+                                return Boolean.FALSE;
+                            }
+                        }
+                        return Boolean.TRUE;
+                    }
+                }));
+            }
+            for (final Future<Boolean> result : results) {
+                assertTrue(result.get().booleanValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -0,0 +1,104 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.profile.converter;
+
+import java.util.Date;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.Color;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.FormattedDate;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.util.TestsConstants;
+import org.pac4j.core.util.TestsHelper;
+
+/**
+ * This class tests the {@link Interner} class and the interning of the profile values.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestInterner extends TestCase implements TestsConstants {
+
+    public void testIntern() {
+        final Interner<String> interner = new Interner<String>();
+        final String value = new String(VALUE);
+        assertSame(value, interner.intern(value));
+        assertSame(value, interner.intern(new String(VALUE)));
+        assertNull(interner.intern(null));
+        assertEquals(1, interner.size());
+    }
+
+    public void testBounded() {
+        final Interner<String> interner = new Interner<String>(2);
+        interner.intern(KEY);
+        interner.intern(VALUE);
+        final String name = new String(NAME);
+        assertSame(name, interner.intern(name));
+        assertNotSame(name, interner.intern(new String(NAME)));
+        assertEquals(2, interner.size());
+        // the canonical values are kept
+        assertSame(VALUE, interner.intern(new String(VALUE)));
+    }
+
+    public void testBadMaxSize() {
+        try {
+            new Interner<String>(0);
+            fail("should fail");
+        } catch (final TechnicalException e) {
+            assertEquals("maxSize must be greater than 0", e.getMessage());
+        }
+    }
+
+    public void testDisabled() {
+        final Interner<String> interner = new Interner<String>();
+        Interner.setEnabled(false);
+        try {
+            final String value = new String(VALUE);
+            assertSame(value, interner.intern(value));
+            assertEquals(0, interner.size());
+        } finally {
+            Interner.setEnabled(true);
+        }
+    }
+
+    public void testDeserialization() {
+        final Color color = Interners.colors.intern(new Color(1, 2, 3));
+        assertSame(color, TestsHelper.unserialize(TestsHelper.serialize(new Color(1, 2, 3))));
+
+        final String format = "yyyy-MM-dd'T'HH:mm";
+        final FormattedDate date = (FormattedDate) TestsHelper.unserialize(TestsHelper.serialize(new FormattedDate(
+                new Date(), new String(format), null)));
+        assertSame(Interners.dateFormats.intern(new String(format)), date.getFormat());
+    }
+
+    public void testProfileNamesNotInterned() {
+        final int timeZones = Interners.timeZones.size();
+        final int dateFormats = Interners.dateFormats.size();
+        final CommonProfile profile = new CommonProfile();
+        for (int i = 0; i < 10; i++) {
+            profile.addRole(KEY + i);
+            profile.addPermission(VALUE + i);
+            profile.addAttribute(NAME + i, VALUE);
+        }
+        final UserProfile profile2 = (UserProfile) TestsHelper.unserialize(TestsHelper.serialize(profile));
+        assertEquals(10, profile2.getRoles().size());
+        assertEquals(timeZones, Interners.timeZones.size());
+        assertEquals(dateFormats, Interners.dateFormats.size());
+    }
+}
@@ -50,6 +50,10 @@ public final class TestLocaleConverter extends TestCase {
         assertEquals(Locale.FRANCE.getCountry(), locale.getCountry());
     }
     
+    public void testInterned() {
+        assertSame(this.converter.convert("fr_FR"), this.converter.convert("fr-FR"));
+    }
+    
     public void testBadLocale() {
         assertNull(this.converter.convert("1_2_3"));
     }
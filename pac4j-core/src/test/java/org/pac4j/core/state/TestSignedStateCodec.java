@@ -0,0 +1,155 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.state;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.context.HttpConstants;
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.exception.CredentialsException;
+import org.pac4j.core.util.TestsConstants;
+
+/**
+ * This class tests the {@link SignedStateCodec} class.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestSignedStateCodec extends TestCase implements TestsConstants {
+
+    private static final String SECRET_KEY = "12345678901234567890123456789012";
+
+    private static final String BINDING = "abcdefghijklmnopqrstuv";
+
+    private static final String OTHER_BINDING = "ABCDEFGHIJKLMNOPQRSTUV";
+
+    private static MockWebContext browser(final String binding) {
+        final MockWebContext context = MockWebContext.create();
+        context.setFullRequestURL(PAC4J_URL);
+        if (binding != null) {
+            context.addRequestHeader(HttpConstants.COOKIE_HEADER, "x=y; " + SignedStateCodec.DEFAULT_COOKIE_NAME + "="
+                    + binding);
+        }
+        return context;
+    }
+
+    private void assertInvalid(final SignedStateCodec codec, final String token, final String clientName,
+                               final String binding, final String message) {
+        try {
+            codec.decode(token, clientName, browser(binding));
+            fail("should fail");
+        } catch (final CredentialsException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    private void assertRoundTrip(final SignedStateCodec codec) {
+        final SignedState state = codec.newState(browser(BINDING), NAME, VALUE, true);
+        final SignedState decoded = codec.decode(codec.encode(state), NAME, browser(BINDING));
+        assertEquals(VALUE, decoded.getState());
+        assertNotNull(state.getNonce());
+        assertEquals(state.getNonce(), decoded.getNonce());
+        assertEquals(NAME, decoded.getClientName());
+        assertEquals(state.getTimestamp(), decoded.getTimestamp());
+        assertEquals(PAC4J_URL, decoded.getRequestedUrl());
+        final SignedState withoutNonce = codec.newState(browser(BINDING), NAME, VALUE, false);
+        assertNull(withoutNonce.getNonce());
+        assertNotNull(codec.decode(codec.encode(withoutNonce), NAME, browser(BINDING)).getNonce());
+    }
+
+    public void testSigned() {
+        final SignedStateCodec codec = new SignedStateCodec(SECRET_KEY);
+        assertRoundTrip(codec);
+        final String token = codec.encode(codec.newState(browser(BINDING), NAME, VALUE, false));
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    public void testEncrypted() {
+        final SignedStateCodec codec = new SignedStateCodec(SECRET_KEY, true);
+        assertRoundTrip(codec);
+        final SignedState state = codec.newState(browser(BINDING), NAME, VALUE, false);
+        // the requested url is not readable in the token and the same state gives different tokens
+        final String token = codec.encode(state);
+        assertFalse(token.equals(codec.encode(state)));
+        assertInvalid(new SignedStateCodec(SECRET_KEY), token, NAME, BINDING, "Unexpected state token version");
+    }
+
+    public void testBindingCookie() {
+        final SignedStateCodec codec = new SignedStateCodec(SECRET_KEY);
+        final MockWebContext context = browser(null);
+        context.setScheme("https");
+        final SignedState state = codec.newState(context, NAME, VALUE, true);
+        final String cookie = context.getResponseHeaders().get(HttpConstants.SET_COOKIE_HEADER);
+        assertTrue(cookie.startsWith(SignedStateCodec.DEFAULT_COOKIE_NAME + "="));
+        assertTrue(cookie.endsWith("; Path=/; HttpOnly; SameSite=Lax; Secure"));
+        final String binding = cookie.substring(cookie.indexOf('=') + 1, cookie.indexOf(';'));
+        assertEquals(state.getNonce(), codec.decode(codec.encode(state), NAME, browser(binding)).getNonce());
+        // the cookie of the browser is reused
+        final MockWebContext next = browser(binding);
+        codec.newState(next, NAME, VALUE, false);
+        assertNull(next.getResponseHeaders().get(HttpConstants.SET_COOKIE_HEADER));
+    }
+
+    public void testOtherBrowser() {
+        final SignedStateCodec codec = new SignedStateCodec(SECRET_KEY);
+        final String token = codec.encode(codec.newState(browser(BINDING), NAME, VALUE, true));
+        assertInvalid(codec, token, NAME, OTHER_BINDING, "State token issued for another browser");
+        assertInvalid(codec, token, NAME, null, "Missing state binding cookie");
+        assertInvalid(codec, token, NAME, "%%%", "Missing state binding cookie");
+    }
+
+    public void testNonceBoundToBrowserAndState() {
+        final SignedStateCodec codec = new SignedStateCodec(SECRET_KEY);
+        final String nonce = codec.newState(browser(BINDING), NAME, VALUE, true).getNonce();
+        assertEquals(nonce, codec.newState(browser(BINDING), NAME, VALUE, true).getNonce());
+        assertFalse(nonce.equals(codec.newState(browser(OTHER_BINDING), NAME, VALUE, true).getNonce()));
+        assertFalse(nonce.equals(codec.newState(browser(BINDING), NAME, KEY, true).getNonce()));
+    }
+
+    public void testShortSecret() {
+        try {
+            new SignedStateCodec(SECRET);
+            fail("should fail");
+        } catch (final RuntimeException e) {
+            assertEquals("secret must have at least 32 characters", e.getMessage());
+        }
+    }
+
+    public void testTampered() {
+        final SignedStateCodec codec = new SignedStateCodec(SECRET_KEY);
+        final String token = codec.encode(codec.newState(browser(BINDING), NAME, VALUE, false));
+        final char last = token.charAt(10);
+        final String tampered = token.substring(0, 10) + (last == 'A' ? 'B' : 'A') + token.substring(11);
+        assertInvalid(codec, tampered, NAME, BINDING, "Bad signature of the state token");
+        assertInvalid(codec, "%%%", NAME, BINDING, "Malformed state token");
+        assertInvalid(codec, null, NAME, BINDING, "Missing state token");
+        assertInvalid(new SignedStateCodec(SECRET_KEY + "2"), token, NAME, BINDING, "Bad signature of the state token");
+    }
+
+    public void testOtherClient() {
+        final SignedStateCodec codec = new SignedStateCodec(SECRET_KEY);
+        final String token = codec.encode(codec.newState(browser(BINDING), NAME, VALUE, false));
+        assertInvalid(codec, token, KEY, BINDING, "State token issued for another client: " + NAME);
+    }
+
+    public void testExpired() {
+        final SignedStateCodec codec = new SignedStateCodec(SECRET_KEY);
+        final SignedState state = codec.newState(browser(BINDING), NAME, VALUE, false);
+        final String token = codec.encode(new SignedState(VALUE, null, NAME, System.currentTimeMillis()
+                - SignedStateCodec.DEFAULT_MAX_AGE - 1000, null, state.getBindingHash()));
+        assertInvalid(codec, token, NAME, BINDING, "Expired state token");
+    }
+}
@@ -0,0 +1,160 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.store;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.util.TestsConstants;
+import org.pac4j.core.util.TestsHelper;
+
+/**
+ * This class tests the {@link CachingProfileStore} class.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestCachingProfileStore extends TestCase implements TestsConstants {
+
+    private static final String ROLE = "role";
+
+    private final static class CountingRemoteStore extends InMemoryRemoteProfileStore {
+
+        private int gets;
+
+        private int versions;
+
+        @Override
+        public VersionedProfile get(final String key) {
+            this.gets++;
+            return super.get(key);
+        }
+
+        @Override
+        public long getVersion(final String key) {
+            this.versions++;
+            return super.getVersion(key);
+        }
+    }
+
+    private static UserProfile newProfile(final String id) {
+        final CommonProfile profile = new CommonProfile();
+        profile.setId(id);
+        return profile;
+    }
+
+    public void testMissingRemoteStore() {
+        TestsHelper.initShouldFail(new CachingProfileStore(), "remoteStore cannot be null");
+    }
+
+    public void testNearCache() {
+        final CountingRemoteStore remote = new CountingRemoteStore();
+        final CachingProfileStore store = new CachingProfileStore(remote);
+        final UserProfile profile = newProfile(STRING_ID);
+        final String key = store.save(profile);
+        assertTrue(key.length() >= 22);
+        assertSame(profile, store.get(key));
+        assertSame(profile, store.get(key));
+        // only the versions are checked
+        assertEquals(0, remote.gets);
+        assertEquals(2, remote.versions);
+        assertNull(store.get(VALUE));
+        assertNull(store.get(null));
+    }
+
+    public void testInvalidationAcrossNodes() {
+        final CountingRemoteStore remote = new CountingRemoteStore();
+        final CachingProfileStore node1 = new CachingProfileStore(remote);
+        final CachingProfileStore node2 = new CachingProfileStore(remote);
+        final String key = node1.save(newProfile(STRING_ID));
+        assertEquals(STRING_ID, node2.get(key).getId());
+        assertEquals(1, remote.gets);
+
+        // role change on node 1
+        final UserProfile updated = newProfile(STRING_ID);
+        updated.addRole(ROLE);
+        node1.update(key, updated);
+        assertTrue(node2.get(key).getRoles().contains(ROLE));
+        assertEquals(2, remote.gets);
+
+        // logout on node 2
+        node2.remove(key);
+        assertNull(node1.get(key));
+        assertEquals(0, node1.size());
+    }
+
+    public void testRevalidationInterval() {
+        final CountingRemoteStore remote = new CountingRemoteStore();
+        final CachingProfileStore node1 = new CachingProfileStore(remote);
+        node1.setRevalidationInterval(60000);
+        final CachingProfileStore node2 = new CachingProfileStore(remote);
+        final String key = node1.save(newProfile(STRING_ID));
+        node2.remove(key);
+        // not revalidated yet
+        assertNotNull(node1.get(key));
+        assertEquals(0, remote.versions);
+    }
+
+    public void testTimeToLive() throws InterruptedException {
+        final CountingRemoteStore remote = new CountingRemoteStore();
+        final CachingProfileStore store = new CachingProfileStore(remote);
+        store.setTimeToLive(1);
+        final String key = store.save(newProfile(STRING_ID));
+        Thread.sleep(5);
+        assertEquals(STRING_ID, store.get(key).getId());
+        assertEquals(1, remote.gets);
+        assertEquals(0, remote.versions);
+    }
+
+    public void testRemoteTimeToLive() throws InterruptedException {
+        final CountingRemoteStore remote = new CountingRemoteStore();
+        final CachingProfileStore store = new CachingProfileStore(remote);
+        store.setRemoteTimeToLive(1);
+        final String key = store.save(newProfile(STRING_ID));
+        Thread.sleep(5);
+        assertNull(store.get(key));
+        assertEquals(RemoteProfileStore.NO_VERSION, remote.getVersion(key));
+        assertEquals(0, remote.size());
+    }
+
+    public void testInvalidRemoteTimeToLive() {
+        final CachingProfileStore store = new CachingProfileStore(new InMemoryRemoteProfileStore());
+        store.setRemoteTimeToLive(0);
+        TestsHelper.initShouldFail(store, "remoteTimeToLive must be greater than 0");
+    }
+
+    public void testRemoteExpiredProfilesArePurged() throws InterruptedException {
+        final InMemoryRemoteProfileStore remote = new InMemoryRemoteProfileStore();
+        remote.put(KEY, newProfile(STRING_ID), 1);
+        remote.put(VALUE, newProfile(STRING_ID), 60000);
+        Thread.sleep(5);
+        assertNull(remote.get(KEY));
+        assertNotNull(remote.get(VALUE));
+        assertEquals(1, remote.size());
+    }
+
+    public void testEviction() {
+        final InMemoryRemoteProfileStore remote = new InMemoryRemoteProfileStore();
+        final CachingProfileStore store = new CachingProfileStore(remote);
+        store.setMaxSize(8);
+        for (int i = 0; i < 20; i++) {
+            store.save(newProfile(STRING_ID + i));
+        }
+        assertTrue(store.size() <= 8);
+        assertEquals(20, remote.size());
+    }
+}
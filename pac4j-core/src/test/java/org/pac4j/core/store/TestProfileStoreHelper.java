@@ -0,0 +1,66 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.store;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.context.Pac4jConstants;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.util.TestsConstants;
+
+/**
+ * This class tests the {@link ProfileStoreHelper} class.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestProfileStoreHelper extends TestCase implements TestsConstants {
+
+    public void testSaveGetRemove() {
+        final CachingProfileStore store = new CachingProfileStore(new InMemoryRemoteProfileStore());
+        final MockWebContext context = MockWebContext.create();
+        assertNull(ProfileStoreHelper.getProfile(context, store));
+
+        final CommonProfile profile = new CommonProfile();
+        profile.setId(STRING_ID);
+        ProfileStoreHelper.saveProfile(context, store, profile);
+        final String key = (String) context.getSessionAttribute(Pac4jConstants.USER_PROFILE_KEY);
+        assertNotNull(key);
+        assertNull(context.getSessionAttribute(Pac4jConstants.USER_PROFILE));
+        assertSame(profile, ProfileStoreHelper.getProfile(context, store));
+
+        // the key is kept on update
+        final CommonProfile profile2 = new CommonProfile();
+        profile2.setId(VALUE);
+        ProfileStoreHelper.saveProfile(context, store, profile2);
+        assertEquals(key, context.getSessionAttribute(Pac4jConstants.USER_PROFILE_KEY));
+        assertSame(profile2, ProfileStoreHelper.getProfile(context, store));
+
+        ProfileStoreHelper.removeProfile(context, store);
+        assertNull(context.getSessionAttribute(Pac4jConstants.USER_PROFILE_KEY));
+        assertNull(store.get(key));
+    }
+
+    public void testRemovedElsewhere() {
+        final CachingProfileStore store = new CachingProfileStore(new InMemoryRemoteProfileStore());
+        final MockWebContext context = MockWebContext.create();
+        ProfileStoreHelper.saveProfile(context, store, new CommonProfile());
+        store.remove((String) context.getSessionAttribute(Pac4jConstants.USER_PROFILE_KEY));
+        assertNull(ProfileStoreHelper.getProfile(context, store));
+        assertNull(context.getSessionAttribute(Pac4jConstants.USER_PROFILE_KEY));
+    }
+}
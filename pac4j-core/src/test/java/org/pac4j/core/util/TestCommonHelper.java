@@ -105,6 +105,23 @@ public final class TestCommonHelper extends TestCase {
                      CommonHelper.addParameter(URL_WITHOUT_PARAMETER, NAME, VALUE));
     }
     
+    public void testDecodeText() {
+        assertEquals(NAME, CommonHelper.decodeText(NAME));
+        assertEquals("a b!", CommonHelper.decodeText("a+b%21"));
+        assertEquals("100%", CommonHelper.decodeText("100%"));
+    }
+
+    public void testHasParameter() {
+        assertTrue(CommonHelper.hasParameter(URL_WITH_PARAMETER, "param"));
+        assertTrue(CommonHelper.hasParameter(URL_WITH_PARAMETER + "&" + NAME, NAME));
+        assertTrue(CommonHelper.hasParameter(URL_WITHOUT_PARAMETER + "?x=1&na%6De=2", NAME));
+        assertFalse(CommonHelper.hasParameter(URL_WITHOUT_PARAMETER, "param"));
+        assertFalse(CommonHelper.hasParameter(URL_WITHOUT_PARAMETER + "?x" + NAME + "=1", NAME));
+        assertFalse(CommonHelper.hasParameter(URL_WITHOUT_PARAMETER + "?x=" + NAME + "=1", NAME));
+        assertFalse(CommonHelper.hasParameter(URL_WITHOUT_PARAMETER + "#?" + NAME + "=1", NAME));
+        assertFalse(CommonHelper.hasParameter(null, NAME));
+    }
+    
     public void testToStringNoParameter() {
         assertEquals("<" + CLASS_NAME + "> |", CommonHelper.toString(CLAZZ));
     }
@@ -15,8 +15,13 @@
  */
 package org.pac4j.core.util;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import junit.framework.TestCase;
 
+import org.pac4j.core.exception.TechnicalException;
+
 /**
  * This class tests the {@link InitializableObject} class.
  * 
@@ -42,4 +47,63 @@ public final class TestInitializableObject extends TestCase {
         counterInitializableObject.reinit();
         assertEquals(2, counterInitializableObject.getCounter());
     }
+
+    public void testStates() {
+        CounterInitializableObject counterInitializableObject = new CounterInitializableObject();
+        assertEquals(InitializationState.NEW, counterInitializableObject.getInitializationState());
+        counterInitializableObject.init();
+        assertEquals(InitializationState.READY, counterInitializableObject.getInitializationState());
+    }
+
+    public void testFailedInitIsRetried() {
+        final AtomicInteger calls = new AtomicInteger();
+        final InitializableObject object = new InitializableObject() {
+            @Override
+            protected void internalInit() {
+                if (calls.incrementAndGet() == 1) {
+                    throw new TechnicalException("first init fails");
+                }
+            }
+        };
+        TestsHelper.initShouldFail(object, "first init fails");
+        assertEquals(InitializationState.FAILED, object.getInitializationState());
+        object.init();
+        assertEquals(InitializationState.READY, object.getInitializationState());
+        assertEquals(2, calls.get());
+    }
+
+    public void testConcurrentInit() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final InitializableObject object = new InitializableObject() {
+            @Override
+            protected void internalInit() {
+                calls.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    throw new TechnicalException(e);
+                }
+            }
+        };
+        final Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    object.init();
+                }
+            });
+            threads[i].start();
+        }
+        started.await();
+        assertEquals(InitializationState.INITIALIZING, object.getInitializationState());
+        release.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1, calls.get());
+        assertEquals(InitializationState.READY, object.getInitializationState());
+    }
 }
@@ -0,0 +1,94 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.exception.TechnicalException;
+
+/**
+ * This class tests the {@link SecureIdGenerator} class.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestSecureIdGenerator extends TestCase {
+
+    public void testLengths() {
+        assertEquals(22, SecureIdGenerator.generate().length());
+        assertEquals(2, SecureIdGenerator.generate(1).length());
+        assertEquals(3, SecureIdGenerator.generate(2).length());
+        assertEquals(4, SecureIdGenerator.generate(3).length());
+        assertEquals(342, SecureIdGenerator.generate(SecureIdGenerator.MAX_SIZE).length());
+    }
+
+    public void testBadSize() {
+        try {
+            SecureIdGenerator.generate(SecureIdGenerator.MAX_SIZE + 1);
+            fail("should fail");
+        } catch (final TechnicalException e) {
+            assertEquals("size must be between 1 and " + SecureIdGenerator.MAX_SIZE, e.getMessage());
+        }
+    }
+
+    public void testUrlSafeAndUnique() {
+        final Set<String> ids = new HashSet<String>();
+        // enough identifiers to replace the random generator of the thread
+        final int nb = (int) (SecureIdGenerator.RESEED_INTERVAL / SecureIdGenerator.DEFAULT_SIZE) + 1000;
+        for (int i = 0; i < nb; i++) {
+            final String id = SecureIdGenerator.generate();
+            assertTrue(id, id.matches("[A-Za-z0-9_-]{22}"));
+            ids.add(id);
+        }
+        assertEquals(nb, ids.size());
+    }
+
+    public void testConcurrentThreads() throws Exception {
+        final int nbThreads = 8;
+        final int nbIds = 10000;
+        final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        try {
+            final List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>();
+            for (int i = 0; i < nbThreads; i++) {
+                futures.add(executor.submit(new Callable<List<String>>() {
+                    public List<String> call() {
+                        final List<String> ids = new ArrayList<String>();
+                        for (int j = 0; j < nbIds; j++) {
+                            ids.add(SecureIdGenerator.generate());
+                        }
+                        return ids;
+                    }
+                }));
+            }
+            final Set<String> ids = new HashSet<String>();
+            for (final Future<List<String>> future : futures) {
+                ids.addAll(future.get());
+            }
+            assertEquals(nbThreads * nbIds, ids.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.exception.TechnicalException;
+
+/**
+ * This class tests the {@link SharedResources} class.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestSharedResources extends TestCase implements TestsConstants {
+
+    private static class CountingFactory implements SharedResourceFactory<Object> {
+
+        private final AtomicInteger creations = new AtomicInteger();
+
+        public Object create() {
+            this.creations.incrementAndGet();
+            return new Object();
+        }
+    }
+
+    public void testShareAndRelease() {
+        final SharedResources resources = new SharedResources();
+        final CountingFactory factory = new CountingFactory();
+        final SharedResources.Lease<Object> lease1 = resources.acquire(KEY, factory);
+        final SharedResources.Lease<Object> lease2 = resources.acquire(KEY, factory);
+        assertSame(lease1.get(), lease2.get());
+        assertEquals(1, factory.creations.get());
+        assertEquals(2, resources.getReferences(KEY));
+        lease1.release();
+        lease1.release();
+        assertEquals(1, resources.getReferences(KEY));
+        lease2.release();
+        assertEquals(0, resources.getReferences(KEY));
+        assertEquals(0, resources.size());
+        assertNotSame(lease1.get(), resources.acquire(KEY, factory).get());
+        assertEquals(2, factory.creations.get());
+    }
+
+    public void testNewGeneration() {
+        final SharedResources resources = new SharedResources();
+        final CountingFactory factory = new CountingFactory();
+        final SharedResources.Lease<Object> lease1 = resources.acquire(KEY, factory);
+        final long generation = resources.newGeneration();
+        final SharedResources.Lease<Object> lease2 = resources.acquire(KEY, factory, generation);
+        assertNotSame(lease1.get(), lease2.get());
+        assertSame(lease2.get(), resources.acquire(KEY, factory).get());
+        assertEquals(2, factory.creations.get());
+        assertEquals(2, resources.getReferences(KEY));
+        // the replaced resource is only referenced by its previous leases
+        lease1.release();
+        assertEquals(2, resources.getReferences(KEY));
+        assertEquals(1, resources.size());
+    }
+
+    public void testDestroy() {
+        final SharedResources resources = new SharedResources();
+        final List<Object> destroyed = new ArrayList<Object>();
+        final SharedResourceFactory<Object> factory = new DestroyableSharedResourceFactory<Object>() {
+            public Object create() {
+                return new Object();
+            }
+
+            public void destroy(final Object resource) {
+                destroyed.add(resource);
+            }
+        };
+        final SharedResources.Lease<Object> lease1 = resources.acquire(KEY, factory);
+        final SharedResources.Lease<Object> lease2 = resources.acquire(KEY, factory);
+        final SharedResources.Lease<Object> lease3 = resources.acquire(KEY, factory, resources.newGeneration());
+        lease1.release();
+        assertTrue(destroyed.isEmpty());
+        lease2.release();
+        assertEquals(1, destroyed.size());
+        assertSame(lease1.get(), destroyed.get(0));
+        lease3.release();
+        lease3.release();
+        assertEquals(2, destroyed.size());
+        assertSame(lease3.get(), destroyed.get(1));
+    }
+
+    public void testDifferentKeys() {
+        final SharedResources resources = new SharedResources();
+        final CountingFactory factory = new CountingFactory();
+        assertNotSame(resources.acquire(KEY, factory).get(), resources.acquire(VALUE, factory).get());
+        assertEquals(2, resources.size());
+    }
+
+    public void testFailedCreation() {
+        final SharedResources resources = new SharedResources();
+        try {
+            resources.acquire(KEY, new SharedResourceFactory<Object>() {
+                public Object create() {
+                    throw new TechnicalException(VALUE);
+                }
+            });
+            fail("should fail");
+        } catch (final TechnicalException e) {
+            assertEquals(VALUE, e.getMessage());
+        }
+        assertEquals(0, resources.getReferences(KEY));
+        assertEquals(0, resources.size());
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.pac4j.http.client;
 
+import org.pac4j.core.client.CredentialsResult;
 import org.pac4j.core.client.RedirectAction;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.credentials.Authenticator;
@@ -29,6 +30,8 @@ import org.pac4j.http.profile.HttpProfile;
  * <p>For authentication, the user is redirected to the callback url. If the user is not authenticated by a provided header,
  * a specific exception : {@link RequiresHttpAction} is returned which must be handled by the application to force
  * authentication.</p>
+ * <p>As each request is authenticated by its header, the client is stateless by default: it never uses the web
+ * session.</p>
  * <p>It returns a {@link org.pac4j.http.profile.HttpProfile}.</p>
  * 
  * @see org.pac4j.http.profile.HttpProfile
@@ -44,13 +47,16 @@ public abstract class AbstractHeaderClient<C extends Credentials> extends BaseHt
     private String realmName;
 
     public AbstractHeaderClient() {
+        setStateless(true);
     }
 
     public AbstractHeaderClient(final Authenticator<C> authenticator) {
+        this();
         setAuthenticator(authenticator);
     }
 
     public AbstractHeaderClient(final Authenticator<C> authenticator, final ProfileCreator<C, HttpProfile> profilePopulator) {
+        this();
         setAuthenticator(authenticator);
         setProfileCreator(profilePopulator);
     }
@@ -69,11 +75,16 @@ public abstract class AbstractHeaderClient<C extends Credentials> extends BaseHt
 
     @Override
     protected C retrieveCredentials(final WebContext context) throws RequiresHttpAction {
+        return retrieveCredentialsResult(context).get();
+    }
+
+    @Override
+    protected CredentialsResult<C> retrieveCredentialsResult(final WebContext context) {
         final String header = context.getRequestHeader(this.headerName);
         if (header == null || !header.startsWith(this.prefixHeader)) {
             logger.warn("No header found");
-            throw RequiresHttpAction.unauthorized("Requires authentication (no header found)", context,
-                    this.realmName);
+            return CredentialsResult.action(RequiresHttpAction.unauthorized("Requires authentication (no header found)",
+                    context, this.realmName));
         }
 
         C credentials = retrieveCredentialsFromHeader(header.substring(this.prefixHeader.length()));
@@ -83,11 +94,11 @@ public abstract class AbstractHeaderClient<C extends Credentials> extends BaseHt
             getAuthenticator().validate(credentials);
         } catch (final RuntimeException e) {
             logger.error("Credentials validation fails", e);
-            throw RequiresHttpAction.unauthorized("Requires authentication (credentials validation fails)", context,
-                    this.realmName);
+            return CredentialsResult.action(RequiresHttpAction.unauthorized(
+                    "Requires authentication (credentials validation fails)", context, this.realmName));
         }
 
-        return credentials;
+        return CredentialsResult.credentials(credentials);
     }
 
     protected abstract C retrieveCredentialsFromHeader(final String header);
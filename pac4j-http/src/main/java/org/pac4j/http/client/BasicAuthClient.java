@@ -22,8 +22,8 @@ import org.pac4j.core.client.Mechanism;
 import org.pac4j.core.client.RedirectAction;
 import org.pac4j.core.context.HttpConstants;
 import org.pac4j.core.context.WebContext;
-import org.pac4j.core.exception.CredentialsException;
 import org.pac4j.core.exception.RequiresHttpAction;
+import org.pac4j.core.exception.StacklessCredentialsException;
 import org.pac4j.core.util.CommonHelper;
 import org.pac4j.http.credentials.UsernamePasswordAuthenticator;
 import org.pac4j.http.credentials.UsernamePasswordCredentials;
@@ -89,12 +89,12 @@ public class BasicAuthClient extends AbstractHeaderClient<UsernamePasswordCreden
         try {
             token = new String(decoded, "UTF-8");
         } catch (final UnsupportedEncodingException e) {
-            throw new CredentialsException("Bad format of the basic auth header");
+            throw new StacklessCredentialsException("Bad format of the basic auth header");
         }
 
         final int delim = token.indexOf(":");
         if (delim < 0) {
-            throw new CredentialsException("Bad format of the basic auth header");
+            throw new StacklessCredentialsException("Bad format of the basic auth header");
         }
         return new UsernamePasswordCredentials(token.substring(0, delim),
                 token.substring(delim + 1), getName());
@@ -18,7 +18,10 @@ package org.pac4j.http.client;
 import org.pac4j.core.client.Mechanism;
 import org.pac4j.core.client.RedirectAction;
 import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.CredentialsException;
 import org.pac4j.core.exception.RequiresHttpAction;
+import org.pac4j.core.exception.StacklessCredentialsException;
+import org.pac4j.core.exception.StacklessTechnicalException;
 import org.pac4j.core.exception.TechnicalException;
 import org.pac4j.core.util.CommonHelper;
 import org.pac4j.http.credentials.UsernamePasswordAuthenticator;
@@ -118,12 +121,18 @@ public class FormClient extends BaseHttpClient<UsernamePasswordCredentials> {
     }
 
     /**
-     * Return the error message depending on the thrown exception. Can be overriden for other message computation.
+     * Return the error message depending on the thrown exception (the stackless variants are reported as their parent
+     * exception). Can be overriden for other message computation.
      * 
      * @param e
      * @return the error message
      */
     protected String computeErrorMessage(final TechnicalException e) {
+        if (e instanceof StacklessCredentialsException) {
+            return CredentialsException.class.getSimpleName();
+        } else if (e instanceof StacklessTechnicalException) {
+            return TechnicalException.class.getSimpleName();
+        }
         return e.getClass().getSimpleName();
     }
 
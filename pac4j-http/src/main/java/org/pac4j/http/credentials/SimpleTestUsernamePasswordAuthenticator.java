@@ -15,7 +15,7 @@
  */
 package org.pac4j.http.credentials;
 
-import org.pac4j.core.exception.CredentialsException;
+import org.pac4j.core.exception.StacklessCredentialsException;
 import org.pac4j.core.util.CommonHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +50,6 @@ public class SimpleTestUsernamePasswordAuthenticator implements UsernamePassword
 
     protected void throwsException(final String message) {
         logger.error(message);
-        throw new CredentialsException(message);
+        throw new StacklessCredentialsException(message);
     }
 }
@@ -14,11 +14,24 @@
    limitations under the License.
  */package org.pac4j.http.client;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import junit.framework.TestCase;
 
 import org.apache.commons.codec.binary.Base64;
+import org.pac4j.core.client.BaseClient;
+import org.pac4j.core.client.CredentialsResult;
 import org.pac4j.core.context.HttpConstants;
+import org.pac4j.core.context.J2EContext;
 import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.context.Pac4jConstants;
+import org.pac4j.core.context.Pac4jSession;
 import org.pac4j.core.exception.RequiresHttpAction;
 import org.pac4j.core.exception.TechnicalException;
 import org.pac4j.core.util.TestsConstants;
@@ -26,6 +39,7 @@ import org.pac4j.core.util.TestsHelper;
 import org.pac4j.http.credentials.SimpleTestUsernamePasswordAuthenticator;
 import org.pac4j.http.credentials.UsernamePasswordAuthenticator;
 import org.pac4j.http.credentials.UsernamePasswordCredentials;
+import org.pac4j.http.profile.HttpProfile;
 import org.pac4j.http.profile.UsernameProfileCreator;
 
 /**
@@ -103,6 +117,16 @@ public final class TestBasicAuthClient extends TestCase implements TestsConstant
         }
     }
 
+    public void testGetCredentialsResultMissingHeader() {
+        final BasicAuthClient basicAuthClient = getBasicAuthClient();
+        final MockWebContext context = MockWebContext.create();
+        final CredentialsResult<UsernamePasswordCredentials> result = basicAuthClient.getCredentialsResult(context);
+        assertTrue(result.isAction());
+        assertEquals(401, result.getAction().getCode());
+        assertEquals(401, context.getResponseStatus());
+        assertNull(context.getSessionAttribute(Pac4jConstants.PAC4J_SESSION));
+    }
+
     public void testGetCredentialsNotABasicHeader() {
         final BasicAuthClient basicAuthClient = getBasicAuthClient();
         final MockWebContext context = MockWebContext.create();
@@ -164,4 +188,54 @@ public final class TestBasicAuthClient extends TestCase implements TestsConstant
         assertEquals(USERNAME, credentials.getUsername());
         assertEquals(USERNAME, credentials.getPassword());
     }
+
+    public void testStatelessNeverCreatesSession() throws RequiresHttpAction {
+        final BasicAuthClient basicAuthClient = getBasicAuthClient();
+        assertTrue(basicAuthClient.isStateless());
+        final String header = "Basic " + Base64.encodeBase64String((USERNAME + ":" + USERNAME).getBytes());
+        final AtomicInteger sessions = new AtomicInteger();
+        final HttpServletRequest request = (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        final String name = method.getName();
+                        if ("getSession".equals(name)) {
+                            sessions.incrementAndGet();
+                        } else if ("getHeader".equals(name) && HttpConstants.AUTHORIZATION_HEADER.equals(args[0])) {
+                            return header;
+                        }
+                        return null;
+                    }
+                });
+        for (int i = 0; i < 100000; i++) {
+            final J2EContext context = new J2EContext(request, (HttpServletResponse) null);
+            final UsernamePasswordCredentials credentials = basicAuthClient.getCredentials(context);
+            final HttpProfile profile = basicAuthClient.getUserProfile(credentials, context);
+            assertEquals(USERNAME, profile.getId());
+        }
+        assertEquals(0, sessions.get());
+    }
+
+    public void testStatefulAttemptedAuthentication() throws RequiresHttpAction {
+        final BasicAuthClient basicAuthClient = getBasicAuthClient();
+        final String attribute = basicAuthClient.getName() + BaseClient.ATTEMPTED_AUTHENTICATION_SUFFIX;
+        // stateless: the session flag is ignored
+        assertEquals(CALLBACK_URL, basicAuthClient.getRedirectAction(alreadyTried(attribute), true, false).getLocation());
+        basicAuthClient.setStateless(false);
+        assertFalse(basicAuthClient.clone().isStateless());
+        try {
+            basicAuthClient.getRedirectAction(alreadyTried(attribute), true, false);
+            fail("should throw RequiresHttpAction");
+        } catch (final RequiresHttpAction e) {
+            assertEquals(403, e.getCode());
+        }
+    }
+
+    private MockWebContext alreadyTried(final String attribute) {
+        final MockWebContext context = MockWebContext.create();
+        final Pac4jSession session = Pac4jSession.get(context);
+        session.set(attribute, "true");
+        session.save(context);
+        return context;
+    }
 }
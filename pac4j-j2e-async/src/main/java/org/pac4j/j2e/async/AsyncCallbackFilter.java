@@ -0,0 +1,116 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.j2e.async;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.pac4j.core.client.Clients;
+import org.pac4j.core.client.ClientsFactory;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * This filter, mapped on the callback url, finishes the authentications through an {@link AsyncCallbackHandler}: it
+ * must be declared with <code>&lt;async-supported&gt;true&lt;/async-supported&gt;</code>.
+ * <p>It is configured by the following init parameters:</p>
+ * <ul>
+ * <li><code>clientsFactory</code> (mandatory): the class name of the {@link ClientsFactory} building the clients (the
+ * filter config being the environment)</li>
+ * <li><code>defaultUrl</code>: the url to redirect to after the authentication if no url was originally requested
+ * (<code>/</code> by default)</li>
+ * <li><code>threads</code>: the number of threads retrieving the user profiles ({@link #DEFAULT_THREADS} by
+ * default)</li>
+ * <li><code>timeout</code>: the maximum duration of a user profile retrieval in milliseconds
+ * ({@link AsyncCallbackHandler#DEFAULT_TIMEOUT} by default)</li>
+ * </ul>
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public class AsyncCallbackFilter implements Filter {
+
+    public final static int DEFAULT_THREADS = 64;
+
+    private AsyncCallbackHandler handler;
+
+    private ExecutorService executor;
+
+    public void init(final FilterConfig filterConfig) throws ServletException {
+        final String factoryName = filterConfig.getInitParameter("clientsFactory");
+        CommonHelper.assertNotBlank("clientsFactory", factoryName);
+        final Clients clients;
+        try {
+            final ClientsFactory factory = (ClientsFactory) Class.forName(factoryName).newInstance();
+            clients = factory.build(filterConfig);
+        } catch (final Exception e) {
+            throw new TechnicalException("Cannot build the clients from : " + factoryName, e);
+        }
+        final String threads = filterConfig.getInitParameter("threads");
+        this.executor = Executors.newFixedThreadPool(threads == null ? DEFAULT_THREADS : Integer.parseInt(threads),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "pac4j-async-callback-" + this.count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        this.handler = new AsyncCallbackHandler(clients, this.executor);
+        final String defaultUrl = filterConfig.getInitParameter("defaultUrl");
+        if (defaultUrl != null) {
+            this.handler.setDefaultUrl(defaultUrl);
+        }
+        final String timeout = filterConfig.getInitParameter("timeout");
+        if (timeout != null) {
+            this.handler.setTimeout(Long.parseLong(timeout));
+        }
+    }
+
+    public void doFilter(final ServletRequest request, final ServletResponse response, final FilterChain chain)
+            throws IOException, ServletException {
+        this.handler.handle((HttpServletRequest) request, (HttpServletResponse) response);
+    }
+
+    public void destroy() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+            try {
+                this.executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public AsyncCallbackHandler getHandler() {
+        return this.handler;
+    }
+}
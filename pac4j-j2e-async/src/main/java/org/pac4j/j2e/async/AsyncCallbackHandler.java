@@ -0,0 +1,261 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.j2e.async;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.pac4j.core.client.AsyncClient;
+import org.pac4j.core.client.BaseClient;
+import org.pac4j.core.client.Clients;
+import org.pac4j.core.client.CredentialsResult;
+import org.pac4j.core.client.ExecutorAsyncClient;
+import org.pac4j.core.client.ProfileCallback;
+import org.pac4j.core.context.BufferedSessionWebContext;
+import org.pac4j.core.context.HttpConstants;
+import org.pac4j.core.context.J2EContext;
+import org.pac4j.core.context.Pac4jConstants;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.store.ProfileStore;
+import org.pac4j.core.store.ProfileStoreHelper;
+import org.pac4j.core.util.CommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class handles the callback requests of the clients without blocking the container thread on the provider: the
+ * credentials are retrieved on the container thread, then the request is put in asynchronous mode and the user profile
+ * is retrieved by an {@link AsyncClient} (the client itself if it implements this interface, an
+ * {@link ExecutorAsyncClient} on the given executor otherwise).
+ * <p>When the user profile is retrieved, it is saved in the session (under {@link Pac4jConstants#USER_PROFILE}, or in the
+ * {@link ProfileStore} if one is defined, the session only holding its key) and the user is redirected to the
+ * originally requested url (carried by the credentials or saved under {@link Pac4jConstants#REQUESTED_URL}) or to the
+ * default url. If the retrieval fails, a 500 error is returned; if it lasts longer than the timeout, a 504 one and the
+ * retrieval is cancelled.</p>
+ * <p>If the request does not support the asynchronous mode, the user profile is retrieved synchronously.</p>
+ * <p>The session attributes are buffered by a {@link BufferedSessionWebContext}: the session is written once per
+ * callback, before the redirection.</p>
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public class AsyncCallbackHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncCallbackHandler.class);
+
+    public final static long DEFAULT_TIMEOUT = 30000;
+
+    private final Clients clients;
+
+    private final Executor executor;
+
+    private String defaultUrl = "/";
+
+    private long timeout = DEFAULT_TIMEOUT;
+
+    private ProfileStore profileStore;
+
+    public AsyncCallbackHandler(final Clients clients, final Executor executor) {
+        CommonHelper.assertNotNull("clients", clients);
+        CommonHelper.assertNotNull("executor", executor);
+        this.clients = clients;
+        this.executor = executor;
+    }
+
+    /**
+     * Handle a callback request.
+     * 
+     * @param request the HTTP request
+     * @param response the HTTP response
+     * @throws IOException if the response cannot be written
+     */
+    @SuppressWarnings("unchecked")
+    public void handle(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        final BufferedSessionWebContext context = new BufferedSessionWebContext(new J2EContext(request, response));
+        final BaseClient<Credentials, CommonProfile> client = (BaseClient<Credentials, CommonProfile>) this.clients
+            .findClient(context);
+        logger.debug("client : {}", client);
+        final CredentialsResult<Credentials> result = client.getCredentialsResult(context);
+        if (result.isAction()) {
+            // the response has been set by the client
+            logger.debug("requires HTTP action : {}", result.getAction().getCode());
+            context.flush();
+            return;
+        }
+        final Credentials credentials = result.getCredentials();
+        logger.debug("credentials : {}", credentials);
+        if (credentials == null) {
+            redirectToRequestedUrl(context, null);
+            return;
+        }
+
+        if (!request.isAsyncSupported()) {
+            logger.debug("asynchronous mode not supported : synchronous user profile retrieval");
+            saveProfile(context, client.getUserProfile(credentials, context));
+            redirectToRequestedUrl(context, credentials);
+            return;
+        }
+
+        final AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(this.timeout);
+        final AtomicBoolean finished = new AtomicBoolean();
+        final AtomicReference<Future<CommonProfile>> retrieval = new AtomicReference<Future<CommonProfile>>();
+        asyncContext.addListener(new AsyncListener() {
+            public void onTimeout(final AsyncEvent event) throws IOException {
+                if (finished.compareAndSet(false, true)) {
+                    logger.error("user profile retrieval timed out for client : {}", client.getName());
+                    cancel(retrieval.get());
+                    response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+                    asyncContext.complete();
+                }
+            }
+
+            public void onComplete(final AsyncEvent event) {
+            }
+
+            public void onError(final AsyncEvent event) {
+            }
+
+            public void onStartAsync(final AsyncEvent event) {
+            }
+        });
+        retrieval.set(getAsyncClient(client).getUserProfileAsync(credentials, context, new ProfileCallback<CommonProfile>() {
+            public void onProfile(final CommonProfile profile) {
+                if (finished.compareAndSet(false, true)) {
+                    try {
+                        saveProfile(context, profile);
+                        redirectToRequestedUrl(context, credentials);
+                    } finally {
+                        asyncContext.complete();
+                    }
+                }
+            }
+
+            public void onError(final Throwable error) {
+                if (finished.compareAndSet(false, true)) {
+                    logger.error("cannot retrieve the user profile for client : {}", client.getName(), error);
+                    try {
+                        response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                    } catch (final IOException e) {
+                        logger.error("cannot send the error", e);
+                    } finally {
+                        asyncContext.complete();
+                    }
+                }
+            }
+        }));
+        // the timeout may have fired before the future was known
+        if (finished.get()) {
+            cancel(retrieval.get());
+        }
+    }
+
+    private void cancel(final Future<CommonProfile> retrieval) {
+        if (retrieval != null && !retrieval.isDone()) {
+            logger.debug("cancel the user profile retrieval");
+            retrieval.cancel(true);
+        }
+    }
+
+    // the wrapper is cheap and created for each request, so that it always wraps the current client (see reload)
+    @SuppressWarnings("unchecked")
+    private AsyncClient<Credentials, CommonProfile> getAsyncClient(final BaseClient<Credentials, CommonProfile> client) {
+        if (client instanceof AsyncClient) {
+            return (AsyncClient<Credentials, CommonProfile>) client;
+        }
+        return new ExecutorAsyncClient<Credentials, CommonProfile>(client, this.executor);
+    }
+
+    protected void saveProfile(final WebContext context, final CommonProfile profile) {
+        logger.debug("profile : {}", profile);
+        if (profile != null) {
+            if (this.profileStore != null) {
+                ProfileStoreHelper.saveProfile(context, this.profileStore, profile);
+            } else {
+                context.setSessionAttribute(Pac4jConstants.USER_PROFILE, profile);
+            }
+        }
+    }
+
+    protected void redirectToRequestedUrl(final WebContext context, final Credentials credentials) {
+        // the requested url carried by the protocol (stateless clients) prevails over the one saved in session
+        String url = credentials == null ? null : credentials.getRequestedUrl();
+        if (CommonHelper.isBlank(url)) {
+            final String requestedUrl = (String) context.getSessionAttribute(Pac4jConstants.REQUESTED_URL);
+            if (CommonHelper.isNotBlank(requestedUrl)) {
+                context.setSessionAttribute(Pac4jConstants.REQUESTED_URL, null);
+                url = requestedUrl;
+            } else {
+                url = this.defaultUrl;
+            }
+        }
+        logger.debug("redirect to : {}", url);
+        context.setResponseStatus(HttpConstants.TEMP_REDIRECT);
+        context.setResponseHeader(HttpConstants.LOCATION_HEADER, url);
+    }
+
+    public String getDefaultUrl() {
+        return this.defaultUrl;
+    }
+
+    public void setDefaultUrl(final String defaultUrl) {
+        CommonHelper.assertNotBlank("defaultUrl", defaultUrl);
+        this.defaultUrl = defaultUrl;
+    }
+
+    public long getTimeout() {
+        return this.timeout;
+    }
+
+    /**
+     * Define the maximum duration of the user profile retrieval.
+     * 
+     * @param timeout the timeout in milliseconds
+     */
+    public void setTimeout(final long timeout) {
+        this.timeout = timeout;
+    }
+
+    public ProfileStore getProfileStore() {
+        return this.profileStore;
+    }
+
+    /**
+     * Define the profile store of the user profiles: only their key is then saved in session.
+     * 
+     * @param profileStore the profile store
+     */
+    public void setProfileStore(final ProfileStore profileStore) {
+        this.profileStore = profileStore;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "clients", this.clients, "executor", this.executor,
+                "defaultUrl", this.defaultUrl, "timeout", this.timeout, "profileStore", this.profileStore);
+    }
+}
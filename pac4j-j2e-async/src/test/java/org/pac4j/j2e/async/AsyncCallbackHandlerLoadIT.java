@@ -0,0 +1,104 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.j2e.async;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.client.Clients;
+import org.pac4j.core.context.HttpConstants;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.TestsConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is a load test of the {@link AsyncCallbackHandler}: 2,000 concurrent callbacks on a container of 20
+ * threads, the provider answering in 200 ms. Synchronously, the container threads would be blocked for
+ * 2,000 * 200 / 20 = 20 seconds. Asynchronously, they are released as soon as the credentials are retrieved and the
+ * provider calls are only bounded by the executor (200 threads). The timings are logged, not asserted.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class AsyncCallbackHandlerLoadIT extends TestCase implements TestsConstants {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncCallbackHandlerLoadIT.class);
+
+    public void testLoad() throws Exception {
+        final int callbacks = 2000;
+        final int containerThreads = 20;
+        final long latency = 200;
+        final SlowProviderClient client = new SlowProviderClient(latency);
+        final ExecutorService executor = Executors.newFixedThreadPool(200);
+        final AsyncCallbackHandler handler = new AsyncCallbackHandler(new Clients(CALLBACK_URL, client), executor);
+        final ExecutorService container = Executors.newFixedThreadPool(containerThreads);
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        threadBean.resetPeakThreadCount();
+        final int threadsBefore = threadBean.getThreadCount();
+        try {
+            final List<MockServletExchange> exchanges = new ArrayList<MockServletExchange>();
+            final AtomicInteger busyContainerThreads = new AtomicInteger();
+            final AtomicInteger maxBusyContainerThreads = new AtomicInteger();
+            final long start = System.nanoTime();
+            for (int i = 0; i < callbacks; i++) {
+                final MockServletExchange exchange = new MockServletExchange(true).addParameter(
+                        Clients.DEFAULT_CLIENT_NAME_PARAMETER, TYPE);
+                exchanges.add(exchange);
+                container.execute(new Runnable() {
+                    public void run() {
+                        final int busy = busyContainerThreads.incrementAndGet();
+                        if (busy > maxBusyContainerThreads.get()) {
+                            maxBusyContainerThreads.set(busy);
+                        }
+                        try {
+                            handler.handle(exchange.getRequest(), exchange.getResponse());
+                        } catch (final Exception e) {
+                            throw new TechnicalException(e);
+                        } finally {
+                            busyContainerThreads.decrementAndGet();
+                        }
+                    }
+                });
+            }
+            container.shutdown();
+            assertTrue(container.awaitTermination(60, TimeUnit.SECONDS));
+            final long dispatched = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            for (final MockServletExchange exchange : exchanges) {
+                assertTrue(exchange.awaitCompletion(60000));
+                assertEquals(HttpConstants.TEMP_REDIRECT, exchange.getStatus());
+            }
+            final long completed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            logger.info("{} concurrent callbacks (provider latency: {} ms): {} container threads (max busy: {}) "
+                    + "released after {} ms, all completed after {} ms, {} max concurrent provider calls, "
+                    + "{} extra threads at peak", new Object[] { callbacks, latency, containerThreads,
+                    maxBusyContainerThreads.get(), dispatched, completed, client.maxActiveCalls.get(),
+                    threadBean.getPeakThreadCount() - threadsBefore });
+            assertTrue(client.maxActiveCalls.get() > containerThreads);
+        } finally {
+            container.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+}
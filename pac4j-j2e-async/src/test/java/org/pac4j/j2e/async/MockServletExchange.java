@@ -0,0 +1,170 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.j2e.async;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+/**
+ * This class is a mock of a servlet request / response exchange (with its session and asynchronous context), built on
+ * dynamic proxies.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class MockServletExchange {
+
+    private final Map<String, String> parameters = new HashMap<String, String>();
+
+    private final Map<String, Object> sessionAttributes = new ConcurrentHashMap<String, Object>();
+
+    private final Map<String, String> headers = new ConcurrentHashMap<String, String>();
+
+    private final boolean asyncSupported;
+
+    private final CountDownLatch completed = new CountDownLatch(1);
+
+    private volatile int status = HttpServletResponse.SC_OK;
+
+    private volatile boolean asyncStarted = false;
+
+    private volatile AsyncListener asyncListener;
+
+    private final HttpSession session = proxy(HttpSession.class, new InvocationHandler() {
+        public Object invoke(final Object proxy, final Method method, final Object[] args) {
+            final String name = method.getName();
+            if ("getAttribute".equals(name)) {
+                return MockServletExchange.this.sessionAttributes.get(args[0]);
+            } else if ("setAttribute".equals(name)) {
+                if (args[1] == null) {
+                    MockServletExchange.this.sessionAttributes.remove(args[0]);
+                } else {
+                    MockServletExchange.this.sessionAttributes.put((String) args[0], args[1]);
+                }
+            } else if ("removeAttribute".equals(name)) {
+                MockServletExchange.this.sessionAttributes.remove(args[0]);
+            }
+            return null;
+        }
+    });
+
+    private final AsyncContext asyncContext = proxy(AsyncContext.class, new InvocationHandler() {
+        public Object invoke(final Object proxy, final Method method, final Object[] args) {
+            if ("complete".equals(method.getName())) {
+                MockServletExchange.this.completed.countDown();
+            } else if ("addListener".equals(method.getName())) {
+                MockServletExchange.this.asyncListener = (AsyncListener) args[0];
+            }
+            return null;
+        }
+    });
+
+    private final HttpServletRequest request = proxy(HttpServletRequest.class, new InvocationHandler() {
+        public Object invoke(final Object proxy, final Method method, final Object[] args) {
+            final String name = method.getName();
+            if ("getParameter".equals(name)) {
+                return MockServletExchange.this.parameters.get(args[0]);
+            } else if ("getSession".equals(name)) {
+                return MockServletExchange.this.session;
+            } else if ("isAsyncSupported".equals(name)) {
+                return MockServletExchange.this.asyncSupported;
+            } else if ("startAsync".equals(name)) {
+                MockServletExchange.this.asyncStarted = true;
+                return MockServletExchange.this.asyncContext;
+            } else if ("getMethod".equals(name)) {
+                return "GET";
+            }
+            return null;
+        }
+    });
+
+    private final HttpServletResponse response = proxy(HttpServletResponse.class, new InvocationHandler() {
+        public Object invoke(final Object proxy, final Method method, final Object[] args) {
+            final String name = method.getName();
+            if ("setStatus".equals(name) || "sendError".equals(name)) {
+                MockServletExchange.this.status = (Integer) args[0];
+            } else if ("setHeader".equals(name)) {
+                MockServletExchange.this.headers.put((String) args[0], (String) args[1]);
+            }
+            return null;
+        }
+    });
+
+    public MockServletExchange(final boolean asyncSupported) {
+        this.asyncSupported = asyncSupported;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(final Class<T> clazz, final InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(MockServletExchange.class.getClassLoader(), new Class<?>[] { clazz },
+                handler);
+    }
+
+    public MockServletExchange addParameter(final String name, final String value) {
+        this.parameters.put(name, value);
+        return this;
+    }
+
+    public HttpServletRequest getRequest() {
+        return this.request;
+    }
+
+    public HttpServletResponse getResponse() {
+        return this.response;
+    }
+
+    public Map<String, Object> getSessionAttributes() {
+        return this.sessionAttributes;
+    }
+
+    public int getStatus() {
+        return this.status;
+    }
+
+    public String getHeader(final String name) {
+        return this.headers.get(name);
+    }
+
+    public boolean isAsyncStarted() {
+        return this.asyncStarted;
+    }
+
+    /**
+     * Simulate the timeout of the asynchronous context.
+     * 
+     * @throws IOException if the listener fails
+     */
+    public void timeout() throws IOException {
+        this.asyncListener.onTimeout(null);
+    }
+
+    public boolean awaitCompletion(final long timeoutMillis) throws InterruptedException {
+        return this.completed.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.j2e.async;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.pac4j.core.client.MockBaseClient;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.util.TestsConstants;
+
+/**
+ * This class is a client whose provider takes the given time to return the user profile (or fails if negative). With a
+ * release latch, the provider calls wait until it is released instead.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+final class SlowProviderClient extends MockBaseClient<Credentials> implements TestsConstants {
+
+    final static String ID = "id";
+
+    private final long latency;
+
+    private final CountDownLatch release;
+
+    final AtomicInteger startedCalls = new AtomicInteger();
+
+    final AtomicInteger activeCalls = new AtomicInteger();
+
+    final AtomicInteger maxActiveCalls = new AtomicInteger();
+
+    final AtomicInteger interruptedCalls = new AtomicInteger();
+
+    SlowProviderClient(final long latency) {
+        this(latency, null);
+    }
+
+    SlowProviderClient(final CountDownLatch release) {
+        this(0, release);
+    }
+
+    private SlowProviderClient(final long latency, final CountDownLatch release) {
+        super(TYPE);
+        this.latency = latency;
+        this.release = release;
+    }
+
+    @Override
+    protected Credentials retrieveCredentials(final WebContext context) {
+        return new Credentials() {
+            private static final long serialVersionUID = 1L;
+        };
+    }
+
+    @Override
+    protected CommonProfile retrieveUserProfile(final Credentials credentials, final WebContext context) {
+        if (this.latency < 0) {
+            throw new TechnicalException("provider failure");
+        }
+        this.startedCalls.incrementAndGet();
+        final int active = this.activeCalls.incrementAndGet();
+        int max = this.maxActiveCalls.get();
+        while (active > max && !this.maxActiveCalls.compareAndSet(max, active)) {
+            max = this.maxActiveCalls.get();
+        }
+        try {
+            if (this.release != null) {
+                this.release.await();
+            } else {
+                Thread.sleep(this.latency);
+            }
+        } catch (final InterruptedException e) {
+            this.interruptedCalls.incrementAndGet();
+            Thread.currentThread().interrupt();
+            throw new TechnicalException(e);
+        } finally {
+            this.activeCalls.decrementAndGet();
+        }
+        final CommonProfile profile = new CommonProfile();
+        profile.setId(ID);
+        return profile;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.j2e.async;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.servlet.http.HttpServletResponse;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.client.Client;
+import org.pac4j.core.client.Clients;
+import org.pac4j.core.context.HttpConstants;
+import org.pac4j.core.context.Pac4jConstants;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.util.TestsConstants;
+
+/**
+ * This class tests the {@link AsyncCallbackHandler} class (see {@link AsyncCallbackHandlerLoadIT} for a load test).
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestAsyncCallbackHandler extends TestCase implements TestsConstants {
+
+    private final static String REQUESTED_URL = "http://localhost/protected";
+
+    private ExecutorService executor;
+
+    @Override
+    protected void setUp() {
+        this.executor = Executors.newFixedThreadPool(200);
+    }
+
+    @Override
+    protected void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    private AsyncCallbackHandler newHandler(final SlowProviderClient client) {
+        return new AsyncCallbackHandler(new Clients(CALLBACK_URL, client), this.executor);
+    }
+
+    private static MockServletExchange newCallback(final boolean asyncSupported) {
+        return new MockServletExchange(asyncSupported).addParameter(Clients.DEFAULT_CLIENT_NAME_PARAMETER, TYPE);
+    }
+
+    public void testAsyncCallback() throws Exception {
+        final MockServletExchange exchange = newCallback(true);
+        exchange.getSessionAttributes().put(Pac4jConstants.REQUESTED_URL, REQUESTED_URL);
+        newHandler(new SlowProviderClient(10)).handle(exchange.getRequest(), exchange.getResponse());
+        assertTrue(exchange.isAsyncStarted());
+        assertTrue(exchange.awaitCompletion(10000));
+        assertEquals(HttpConstants.TEMP_REDIRECT, exchange.getStatus());
+        assertEquals(REQUESTED_URL, exchange.getHeader(HttpConstants.LOCATION_HEADER));
+        assertEquals(SlowProviderClient.ID,
+                ((CommonProfile) exchange.getSessionAttributes().get(Pac4jConstants.USER_PROFILE)).getId());
+        assertNull(exchange.getSessionAttributes().get(Pac4jConstants.REQUESTED_URL));
+    }
+
+    public void testAsyncCallbackFailure() throws Exception {
+        final MockServletExchange exchange = newCallback(true);
+        newHandler(new SlowProviderClient(-1)).handle(exchange.getRequest(), exchange.getResponse());
+        assertTrue(exchange.awaitCompletion(10000));
+        assertEquals(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, exchange.getStatus());
+        assertNull(exchange.getSessionAttributes().get(Pac4jConstants.USER_PROFILE));
+    }
+
+    public void testSynchronousFallback() throws Exception {
+        final MockServletExchange exchange = newCallback(false);
+        final AsyncCallbackHandler handler = newHandler(new SlowProviderClient(0));
+        handler.setDefaultUrl(REQUESTED_URL);
+        handler.handle(exchange.getRequest(), exchange.getResponse());
+        assertFalse(exchange.isAsyncStarted());
+        assertEquals(HttpConstants.TEMP_REDIRECT, exchange.getStatus());
+        assertEquals(REQUESTED_URL, exchange.getHeader(HttpConstants.LOCATION_HEADER));
+        assertNotNull(exchange.getSessionAttributes().get(Pac4jConstants.USER_PROFILE));
+    }
+
+    public void testCallbackAfterReload() throws Exception {
+        final SlowProviderClient client = new SlowProviderClient(0);
+        final Clients clients = new Clients(CALLBACK_URL, client);
+        final AsyncCallbackHandler handler = new AsyncCallbackHandler(clients, this.executor);
+        MockServletExchange exchange = newCallback(true);
+        handler.handle(exchange.getRequest(), exchange.getResponse());
+        assertTrue(exchange.awaitCompletion(10000));
+        final SlowProviderClient reloadedClient = new SlowProviderClient(0);
+        clients.reload(Arrays.<Client> asList(reloadedClient));
+        exchange = newCallback(true);
+        handler.handle(exchange.getRequest(), exchange.getResponse());
+        assertTrue(exchange.awaitCompletion(10000));
+        assertEquals(HttpConstants.TEMP_REDIRECT, exchange.getStatus());
+        assertEquals(1, client.startedCalls.get());
+        assertEquals(1, reloadedClient.startedCalls.get());
+    }
+
+    /**
+     * The container thread is released before the provider answers: all the callbacks are handled by the test thread
+     * while their provider calls are blocked, so they all run concurrently on the executor.
+     */
+    public void testContainerThreadReleasedBeforeProviderCall() throws Exception {
+        final int callbacks = 50;
+        final CountDownLatch release = new CountDownLatch(1);
+        final SlowProviderClient client = new SlowProviderClient(release);
+        final AsyncCallbackHandler handler = newHandler(client);
+        final List<MockServletExchange> exchanges = new ArrayList<MockServletExchange>();
+        try {
+            for (int i = 0; i < callbacks; i++) {
+                final MockServletExchange exchange = newCallback(true);
+                exchanges.add(exchange);
+                handler.handle(exchange.getRequest(), exchange.getResponse());
+                assertTrue(exchange.isAsyncStarted());
+            }
+            for (final MockServletExchange exchange : exchanges) {
+                assertFalse(exchange.awaitCompletion(0));
+            }
+        } finally {
+            release.countDown();
+        }
+        for (final MockServletExchange exchange : exchanges) {
+            assertTrue(exchange.awaitCompletion(10000));
+            assertEquals(HttpConstants.TEMP_REDIRECT, exchange.getStatus());
+        }
+        assertEquals(callbacks, client.startedCalls.get());
+    }
+
+    public void testTimeoutCancelsProviderCall() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final SlowProviderClient client = new SlowProviderClient(release);
+        final MockServletExchange exchange = newCallback(true);
+        try {
+            newHandler(client).handle(exchange.getRequest(), exchange.getResponse());
+            while (client.startedCalls.get() == 0) {
+                Thread.yield();
+            }
+            exchange.timeout();
+            assertTrue(exchange.awaitCompletion(10000));
+            assertEquals(HttpServletResponse.SC_GATEWAY_TIMEOUT, exchange.getStatus());
+            while (client.interruptedCalls.get() == 0) {
+                Thread.yield();
+            }
+            assertNull(exchange.getSessionAttributes().get(Pac4jConstants.USER_PROFILE));
+        } finally {
+            release.countDown();
+        }
+    }
+}
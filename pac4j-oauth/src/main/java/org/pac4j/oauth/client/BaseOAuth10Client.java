@@ -15,7 +15,10 @@
  */
 package org.pac4j.oauth.client;
 
+import org.pac4j.core.context.Pac4jSession;
 import org.pac4j.core.context.WebContext;
+import org.pac4j.core.metrics.MeasuredCall;
+import org.pac4j.core.metrics.Phase;
 import org.pac4j.oauth.client.exception.OAuthCredentialsException;
 import org.pac4j.oauth.credentials.OAuthCredentials;
 import org.pac4j.oauth.profile.OAuth10Profile;
@@ -42,9 +45,9 @@ public abstract class BaseOAuth10Client<U extends OAuth10Profile> extends BaseOA
     public static final String REQUEST_TOKEN = "requestToken";
     
     /**
-     * Return the name of the attribute storing in session the request token.
+     * Return the key storing the request token in the {@link Pac4jSession}.
      * 
-     * @return the name of the attribute storing in session the request token
+     * @return the key storing the request token in the pac4j session
      */
     protected String getRequestTokenSessionAttributeName() {
         return getName() + "#" + REQUEST_TOKEN;
@@ -55,7 +58,9 @@ public abstract class BaseOAuth10Client<U extends OAuth10Profile> extends BaseOA
         final Token requestToken = this.service.getRequestToken();
         logger.debug("requestToken : {}", requestToken);
         // save requestToken in user session
-        context.setSessionAttribute(getRequestTokenSessionAttributeName(), requestToken);
+        final Pac4jSession session = Pac4jSession.get(context);
+        session.set(getRequestTokenSessionAttributeName(), requestToken);
+        session.save(context);
         final String authorizationUrl = this.service.getAuthorizationUrl(requestToken);
         logger.debug("authorizationUrl : {}", authorizationUrl);
         return authorizationUrl;
@@ -70,7 +75,8 @@ public abstract class BaseOAuth10Client<U extends OAuth10Profile> extends BaseOA
         final String verifierParameter = context.getRequestParameter(OAUTH_VERIFIER);
         if (tokenParameter != null && verifierParameter != null) {
             // get request token from session
-            final Token tokenSession = (Token) context.getSessionAttribute(getRequestTokenSessionAttributeName());
+            final Token tokenSession = (Token) Pac4jSession.get(context).get(
+                    getRequestTokenSessionAttributeName());
             logger.debug("tokenRequest : {}", tokenSession);
             final String token = OAuthEncoder.decode(tokenParameter);
             final String verifier = OAuthEncoder.decode(verifierParameter);
@@ -107,7 +113,12 @@ public abstract class BaseOAuth10Client<U extends OAuth10Profile> extends BaseOA
             throw new OAuthCredentialsException(message);
         }
         final Verifier clientVerifier = new Verifier(verifier);
-        final Token accessToken = this.service.getAccessToken(tokenRequest, clientVerifier);
+        final Token accessToken = measure(Phase.TOKEN_EXCHANGE, new MeasuredCall<Token, RuntimeException>() {
+            @Override
+            public Token call() {
+                return BaseOAuth10Client.this.service.getAccessToken(tokenRequest, clientVerifier);
+            }
+        });
         logger.debug("accessToken : {}", accessToken);
         return accessToken;
     }
@@ -15,8 +15,13 @@
  */
 package org.pac4j.oauth.client;
 
-import org.apache.commons.lang3.RandomStringUtils;
+import org.pac4j.core.context.Pac4jSession;
 import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.CredentialsException;
+import org.pac4j.core.metrics.MeasuredCall;
+import org.pac4j.core.metrics.Phase;
+import org.pac4j.core.state.SignedStateCodec;
+import org.pac4j.core.util.SecureIdGenerator;
 import org.pac4j.oauth.client.exception.OAuthCredentialsException;
 import org.pac4j.oauth.credentials.OAuthCredentials;
 import org.pac4j.oauth.profile.OAuth20Profile;
@@ -46,10 +51,18 @@ public abstract class BaseOAuth20Client<U extends OAuth20Profile> extends BaseOA
         // no request token for OAuth 2.0 -> no need to save it in the context
         final String authorizationUrl;
         // if a state parameter is required
-        if (requiresStateParameter()) {
+        final SignedStateCodec stateCodec = getStateCodec();
+        if (requiresStateParameter() && stateCodec != null) {
+            // the state is carried by the signed token, nothing is saved in the session
+            final String stateToken = stateCodec.encode(stateCodec.newState(context, getName(),
+                                                                            getStateParameter(context), false));
+            authorizationUrl = ((StateOAuth20Service) this.service).getAuthorizationUrl(stateToken);
+        } else if (requiresStateParameter()) {
             String randomState = getStateParameter(context);
             logger.debug("Random state parameter: {}", randomState);
-            context.setSessionAttribute(getName() + STATE_PARAMETER, randomState);
+            final Pac4jSession session = Pac4jSession.get(context);
+            session.set(getName() + STATE_PARAMETER, randomState);
+            session.save(context);
             authorizationUrl = ((StateOAuth20Service) this.service).getAuthorizationUrl(randomState);
         } else {
             authorizationUrl = this.service.getAuthorizationUrl(null);
@@ -67,7 +80,7 @@ public abstract class BaseOAuth20Client<U extends OAuth20Profile> extends BaseOA
 
     @Override
     protected String getStateParameter(WebContext webContext) {
-        return RandomStringUtils.randomAlphanumeric(10);
+        return SecureIdGenerator.generate();
     }
 
     /**
@@ -76,8 +89,17 @@ public abstract class BaseOAuth20Client<U extends OAuth20Profile> extends BaseOA
     @Override
     protected OAuthCredentials getOAuthCredentials(final WebContext context) {
         // check state parameter if required
-        if (requiresStateParameter()) {
-            final String sessionState = (String) context.getSessionAttribute(getName() + STATE_PARAMETER);
+        final SignedStateCodec stateCodec = getStateCodec();
+        String requestedUrl = null;
+        if (requiresStateParameter() && stateCodec != null) {
+            try {
+                requestedUrl = stateCodec.decode(context.getRequestParameter("state"), getName(), context)
+                    .getRequestedUrl();
+            } catch (final CredentialsException e) {
+                throw new OAuthCredentialsException("Invalid state parameter: " + e.getMessage());
+            }
+        } else if (requiresStateParameter()) {
+            final String sessionState = (String) Pac4jSession.get(context).get(getName() + STATE_PARAMETER);
             String stateParameter = context.getRequestParameter("state");
             logger.debug("sessionState : {} / stateParameter : {}", sessionState, stateParameter);
             if (stateParameter == null || !stateParameter.equals(sessionState)) {
@@ -91,7 +113,9 @@ public abstract class BaseOAuth20Client<U extends OAuth20Profile> extends BaseOA
         if (verifierParameter != null) {
             final String verifier = OAuthEncoder.decode(verifierParameter);
             logger.debug("verifier : {}", verifier);
-            return new OAuthCredentials(verifier, getName());
+            final OAuthCredentials credentials = new OAuthCredentials(verifier, getName());
+            credentials.setRequestedUrl(requestedUrl);
+            return credentials;
         } else {
             final String message = "No credential found";
             logger.error(message);
@@ -108,7 +132,12 @@ public abstract class BaseOAuth20Client<U extends OAuth20Profile> extends BaseOA
         final String verifier = credentials.getVerifier();
         logger.debug("verifier : {}", verifier);
         final Verifier clientVerifier = new Verifier(verifier);
-        final Token accessToken = this.service.getAccessToken(null, clientVerifier);
+        final Token accessToken = measure(Phase.TOKEN_EXCHANGE, new MeasuredCall<Token, RuntimeException>() {
+            @Override
+            public Token call() {
+                return BaseOAuth20Client.this.service.getAccessToken(null, clientVerifier);
+            }
+        });
         logger.debug("accessToken : {}", accessToken);
         return accessToken;
     }
@@ -21,6 +21,8 @@ import org.pac4j.core.client.RedirectAction;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.exception.HttpCommunicationException;
 import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.metrics.MeasuredCall;
+import org.pac4j.core.metrics.Phase;
 import org.pac4j.core.util.CommonHelper;
 import org.pac4j.oauth.client.exception.OAuthCredentialsException;
 import org.pac4j.oauth.credentials.OAuthCredentials;
@@ -196,11 +198,50 @@ public abstract class BaseOAuthClient<U extends OAuth20Profile> extends BaseClie
         if (body == null) {
             throw new HttpCommunicationException("Not data found for accessToken : " + accessToken);
         }
-        final U profile = extractUserProfile(body);
+        final U profile = measuredExtractUserProfile(body);
         addAccessTokenToProfile(profile, accessToken);
         return profile;
     }
 
+    /**
+     * Extract the user profile from the response body, measured as the {@link Phase#CONVERSION} phase.
+     * 
+     * @param body the response body of the provider
+     * @return the user profile
+     */
+    protected final U measuredExtractUserProfile(final String body) {
+        return measure(Phase.CONVERSION, new MeasuredCall<U, RuntimeException>() {
+            @Override
+            public U call() {
+                return extractUserProfile(body);
+            }
+        });
+    }
+
+    /**
+     * Send a request to the provider (and read its body), measured for the given phase: a response with a status code
+     * other than 200 is an error.
+     * 
+     * @param phase the measured phase
+     * @param request the request to send
+     * @return the response
+     */
+    protected final Response measuredSend(final Phase phase, final ProxyOAuthRequest request) {
+        return measure(phase, new MeasuredCall<Response, RuntimeException>() {
+            @Override
+            public Response call() {
+                final Response response = request.send();
+                response.getBody();
+                return response;
+            }
+
+            @Override
+            public boolean isError(final Response response) {
+                return response.getCode() != 200;
+            }
+        });
+    }
+
     /**
      * Retrieve the url of the profile of the authenticated user for the provider.
      *
@@ -218,18 +259,15 @@ public abstract class BaseOAuthClient<U extends OAuth20Profile> extends BaseClie
      */
     protected String sendRequestForData(final Token accessToken, final String dataUrl) {
         logger.debug("accessToken : {} / dataUrl : {}", accessToken, dataUrl);
-        final long t0 = System.currentTimeMillis();
         final ProxyOAuthRequest request = createProxyRequest(dataUrl);
         this.service.signRequest(accessToken, request);
         // Let the client to decide if the token should be in header
         if (this.isTokenAsHeader()) {
             request.addHeader("Authorization", "Bearer " + accessToken.getToken());
         }
-        final Response response = request.send();
+        final Response response = measuredSend(Phase.PROVIDER_CALL, request);
         final int code = response.getCode();
         final String body = response.getBody();
-        final long t1 = System.currentTimeMillis();
-        logger.debug("Request took : " + (t1 - t0) + " ms for : " + dataUrl);
         logger.debug("response code : {} / response body : {}", code, body);
         if (code != 200) {
             logger.error("Failed to get data, code : " + code + " / body : " + body);
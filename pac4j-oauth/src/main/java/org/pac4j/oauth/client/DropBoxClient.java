@@ -15,6 +15,7 @@
  */
 package org.pac4j.oauth.client;
 
+import org.pac4j.core.context.Pac4jSession;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.oauth.credentials.OAuthCredentials;
 import org.pac4j.oauth.profile.JsonHelper;
@@ -73,7 +74,7 @@ public class DropBoxClient extends BaseOAuth10Client<DropBoxProfile> {
     @Override
     protected OAuthCredentials getOAuthCredentials(final WebContext context) {
         // get tokenRequest from session
-        final Token tokenRequest = (Token) context.getSessionAttribute(getRequestTokenSessionAttributeName());
+        final Token tokenRequest = (Token) Pac4jSession.get(context).get(getRequestTokenSessionAttributeName());
         logger.debug("tokenRequest : {}", tokenRequest);
         // don't get parameters from url
         // token and verifier are equals and extracted from saved request token
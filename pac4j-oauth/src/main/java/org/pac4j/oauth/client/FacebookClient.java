@@ -18,6 +18,7 @@ package org.pac4j.oauth.client;
 import org.apache.commons.lang3.StringUtils;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.exception.HttpCommunicationException;
+import org.pac4j.core.metrics.Phase;
 import org.pac4j.core.util.CommonHelper;
 import org.pac4j.oauth.client.exception.OAuthCredentialsException;
 import org.pac4j.oauth.profile.JsonHelper;
@@ -80,6 +81,8 @@ public class FacebookClient extends BaseOAuth20Client<FacebookProfile> {
     
     protected boolean requiresExtendedToken = false;
     
+    protected boolean lazyExtraData = false;
+    
     protected StateApi20 api20;
     
     public FacebookClient() {
@@ -96,6 +99,7 @@ public class FacebookClient extends BaseOAuth20Client<FacebookProfile> {
         newClient.setScope(this.scope);
         newClient.setFields(this.fields);
         newClient.setLimit(this.limit);
+        newClient.setLazyExtraData(this.lazyExtraData);
         return newClient;
     }
     
@@ -134,19 +138,16 @@ public class FacebookClient extends BaseOAuth20Client<FacebookProfile> {
         if (body == null) {
             throw new HttpCommunicationException("Not data found for accessToken : " + accessToken);
         }
-        final FacebookProfile profile = extractUserProfile(body);
+        final FacebookProfile profile = measuredExtractUserProfile(body);
         addAccessTokenToProfile(profile, accessToken);
         if (profile != null && this.requiresExtendedToken) {
             String url = CommonHelper.addParameter(EXCHANGE_TOKEN_URL, OAuthConstants.CLIENT_ID, this.key);
             url = CommonHelper.addParameter(url, OAuthConstants.CLIENT_SECRET, this.secret);
             url = CommonHelper.addParameter(url, EXCHANGE_TOKEN_PARAMETER, accessToken.getToken());
             final ProxyOAuthRequest request = createProxyRequest(url);
-            final long t0 = System.currentTimeMillis();
-            final Response response = request.send();
+            final Response response = measuredSend(Phase.TOKEN_EXCHANGE, request);
             final int code = response.getCode();
             body = response.getBody();
-            final long t1 = System.currentTimeMillis();
-            logger.debug("Request took : " + (t1 - t0) + " ms for : " + url);
             logger.debug("response code : {} / response body : {}", code, body);
             if (code == 200) {
                 logger.debug("Retrieve extended token from : {}", body);
@@ -162,7 +163,7 @@ public class FacebookClient extends BaseOAuth20Client<FacebookProfile> {
     
     @Override
     protected FacebookProfile extractUserProfile(final String body) {
-        final FacebookProfile profile = new FacebookProfile();
+        final FacebookProfile profile = new FacebookProfile(this.lazyExtraData);
         final JsonNode json = JsonHelper.getFirstNode(body);
         if (json != null) {
             profile.setId(JsonHelper.get(json, "id"));
@@ -234,6 +235,20 @@ public class FacebookClient extends BaseOAuth20Client<FacebookProfile> {
         this.requiresExtendedToken = requiresExtendedToken;
     }
     
+    public boolean isLazyExtraData() {
+        return this.lazyExtraData;
+    }
+    
+    /**
+     * Define whether the extra data lists (friends, likes, albums, events, music listens...) of the profile are only
+     * converted when they are read. Disabled by default.
+     * 
+     * @param lazyExtraData whether the extra data lists are converted lazily
+     */
+    public void setLazyExtraData(final boolean lazyExtraData) {
+        this.lazyExtraData = lazyExtraData;
+    }
+    
     @Override
     protected boolean requiresStateParameter() {
         return true;
@@ -43,6 +43,8 @@ public final class OAuthAttributesDefinitions {
 
     public final static AttributesDefinition facebookDefinition = new FacebookAttributesDefinition();
 
+    public final static AttributesDefinition lazyFacebookDefinition = new FacebookAttributesDefinition(true);
+
     public final static AttributesDefinition githubDefinition = new GitHubAttributesDefinition();
 
     public final static AttributesDefinition google2Definition = new Google2AttributesDefinition();
@@ -0,0 +1,76 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.oauth.profile;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.pac4j.core.kryo.ProfileClassesProvider;
+import org.pac4j.oauth.profile.facebook.FacebookApplication;
+import org.pac4j.oauth.profile.facebook.FacebookEducation;
+import org.pac4j.oauth.profile.facebook.FacebookEvent;
+import org.pac4j.oauth.profile.facebook.FacebookGroup;
+import org.pac4j.oauth.profile.facebook.FacebookInfo;
+import org.pac4j.oauth.profile.facebook.FacebookMusicData;
+import org.pac4j.oauth.profile.facebook.FacebookMusicListen;
+import org.pac4j.oauth.profile.facebook.FacebookObject;
+import org.pac4j.oauth.profile.facebook.FacebookPhoto;
+import org.pac4j.oauth.profile.facebook.FacebookPicture;
+import org.pac4j.oauth.profile.facebook.FacebookRelationshipStatus;
+import org.pac4j.oauth.profile.facebook.FacebookWork;
+import org.pac4j.oauth.profile.foursquare.FoursquareUserContact;
+import org.pac4j.oauth.profile.foursquare.FoursquareUserFriend;
+import org.pac4j.oauth.profile.foursquare.FoursquareUserFriendGroup;
+import org.pac4j.oauth.profile.foursquare.FoursquareUserFriends;
+import org.pac4j.oauth.profile.foursquare.FoursquareUserPhoto;
+import org.pac4j.oauth.profile.github.GitHubPlan;
+import org.pac4j.oauth.profile.google2.Google2Email;
+import org.pac4j.oauth.profile.linkedin2.LinkedIn2Company;
+import org.pac4j.oauth.profile.linkedin2.LinkedIn2Date;
+import org.pac4j.oauth.profile.linkedin2.LinkedIn2Location;
+import org.pac4j.oauth.profile.linkedin2.LinkedIn2Position;
+import org.pac4j.oauth.profile.paypal.PayPalAddress;
+import org.pac4j.oauth.profile.strava.StravaClub;
+import org.pac4j.oauth.profile.strava.StravaGear;
+import org.pac4j.oauth.profile.wordpress.WordPressLinks;
+import org.pac4j.oauth.profile.yahoo.YahooAddress;
+import org.pac4j.oauth.profile.yahoo.YahooDisclosure;
+import org.pac4j.oauth.profile.yahoo.YahooEmail;
+import org.pac4j.oauth.profile.yahoo.YahooImage;
+import org.pac4j.oauth.profile.yahoo.YahooInterest;
+
+/**
+ * This class provides the classes of the JSON and XML objects of the OAuth profiles to the
+ * {@link org.pac4j.core.kryo.KryoProfileRegistrar}.
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class OAuthProfileClassesProvider implements ProfileClassesProvider {
+
+    public List<Class<?>> getClasses() {
+        return Arrays.<Class<?>> asList(
+                JsonList.class, XmlList.class, FacebookApplication.class, FacebookEducation.class, FacebookEvent.class,
+                FacebookGroup.class, FacebookInfo.class, FacebookMusicData.class, FacebookMusicListen.class,
+                FacebookObject.class, FacebookPhoto.class, FacebookPicture.class, FacebookRelationshipStatus.class,
+                FacebookWork.class, FoursquareUserContact.class, FoursquareUserFriend.class,
+                FoursquareUserFriendGroup.class, FoursquareUserFriends.class, FoursquareUserPhoto.class,
+                GitHubPlan.class, Google2Email.class, LinkedIn2Company.class, LinkedIn2Date.class,
+                LinkedIn2Location.class, LinkedIn2Position.class, PayPalAddress.class, StravaClub.class,
+                StravaGear.class, WordPressLinks.class, YahooAddress.class, YahooDisclosure.class, YahooEmail.class,
+                YahooImage.class, YahooInterest.class);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.oauth.profile;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.pac4j.core.profile.ProfileFactory;
+import org.pac4j.core.profile.ProfileFactoryProvider;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.oauth.profile.bitbucket.BitbucketProfile;
+import org.pac4j.oauth.profile.casoauthwrapper.CasOAuthWrapperProfile;
+import org.pac4j.oauth.profile.dropbox.DropBoxProfile;
+import org.pac4j.oauth.profile.facebook.FacebookProfile;
+import org.pac4j.oauth.profile.foursquare.FoursquareProfile;
+import org.pac4j.oauth.profile.github.GitHubProfile;
+import org.pac4j.oauth.profile.google2.Google2Profile;
+import org.pac4j.oauth.profile.linkedin.LinkedInProfile;
+import org.pac4j.oauth.profile.linkedin2.LinkedIn2Profile;
+import org.pac4j.oauth.profile.orcid.OrcidProfile;
+import org.pac4j.oauth.profile.paypal.PayPalProfile;
+import org.pac4j.oauth.profile.strava.StravaProfile;
+import org.pac4j.oauth.profile.twitter.TwitterProfile;
+import org.pac4j.oauth.profile.vk.VkProfile;
+import org.pac4j.oauth.profile.windowslive.WindowsLiveProfile;
+import org.pac4j.oauth.profile.wordpress.WordPressProfile;
+import org.pac4j.oauth.profile.yahoo.YahooProfile;
+
+/**
+ * This class provides the factories of the OAuth profiles to the {@link org.pac4j.core.profile.ProfileFactoryRegistry}.
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class OAuthProfileFactoryProvider implements ProfileFactoryProvider {
+
+    @SuppressWarnings("deprecation")
+    public Map<String, ProfileFactory<? extends UserProfile>> getProfileFactories() {
+        final Map<String, ProfileFactory<? extends UserProfile>> factories = new LinkedHashMap<String, ProfileFactory<? extends UserProfile>>();
+        factories.put("BitbucketProfile", new ProfileFactory<BitbucketProfile>() {
+            public BitbucketProfile newProfile() {
+                return new BitbucketProfile();
+            }
+        });
+        factories.put("CasOAuthWrapperProfile", new ProfileFactory<CasOAuthWrapperProfile>() {
+            public CasOAuthWrapperProfile newProfile() {
+                return new CasOAuthWrapperProfile();
+            }
+        });
+        factories.put("DropBoxProfile", new ProfileFactory<DropBoxProfile>() {
+            public DropBoxProfile newProfile() {
+                return new DropBoxProfile();
+            }
+        });
+        factories.put("FacebookProfile", new ProfileFactory<FacebookProfile>() {
+            public FacebookProfile newProfile() {
+                return new FacebookProfile();
+            }
+        });
+        factories.put("FoursquareProfile", new ProfileFactory<FoursquareProfile>() {
+            public FoursquareProfile newProfile() {
+                return new FoursquareProfile();
+            }
+        });
+        factories.put("GitHubProfile", new ProfileFactory<GitHubProfile>() {
+            public GitHubProfile newProfile() {
+                return new GitHubProfile();
+            }
+        });
+        factories.put("Google2Profile", new ProfileFactory<Google2Profile>() {
+            public Google2Profile newProfile() {
+                return new Google2Profile();
+            }
+        });
+        factories.put("LinkedInProfile", new ProfileFactory<LinkedInProfile>() {
+            public LinkedInProfile newProfile() {
+                return new LinkedInProfile();
+            }
+        });
+        factories.put("LinkedIn2Profile", new ProfileFactory<LinkedIn2Profile>() {
+            public LinkedIn2Profile newProfile() {
+                return new LinkedIn2Profile();
+            }
+        });
+        factories.put("OrcidProfile", new ProfileFactory<OrcidProfile>() {
+            public OrcidProfile newProfile() {
+                return new OrcidProfile();
+            }
+        });
+        factories.put("PayPalProfile", new ProfileFactory<PayPalProfile>() {
+            public PayPalProfile newProfile() {
+                return new PayPalProfile();
+            }
+        });
+        factories.put("StravaProfile", new ProfileFactory<StravaProfile>() {
+            public StravaProfile newProfile() {
+                return new StravaProfile();
+            }
+        });
+        factories.put("TwitterProfile", new ProfileFactory<TwitterProfile>() {
+            public TwitterProfile newProfile() {
+                return new TwitterProfile();
+            }
+        });
+        factories.put("VkProfile", new ProfileFactory<VkProfile>() {
+            public VkProfile newProfile() {
+                return new VkProfile();
+            }
+        });
+        factories.put("WindowsLiveProfile", new ProfileFactory<WindowsLiveProfile>() {
+            public WindowsLiveProfile newProfile() {
+                return new WindowsLiveProfile();
+            }
+        });
+        factories.put("WordPressProfile", new ProfileFactory<WordPressProfile>() {
+            public WordPressProfile newProfile() {
+                return new WordPressProfile();
+            }
+        });
+        factories.put("YahooProfile", new ProfileFactory<YahooProfile>() {
+            public YahooProfile newProfile() {
+                return new YahooProfile();
+            }
+        });
+        return factories;
+    }
+}
@@ -68,6 +68,15 @@ public class FacebookAttributesDefinition extends OAuthAttributesDefinition {
     public static final String PICTURE = "picture";
     
     public FacebookAttributesDefinition() {
+        this(false);
+    }
+    
+    /**
+     * Define the Facebook attributes.
+     * 
+     * @param lazyExtraData whether the (large) extra data lists are only converted when read
+     */
+    public FacebookAttributesDefinition(final boolean lazyExtraData) {
         final String[] names = new String[] {
             NAME, FIRST_NAME, MIDDLE_NAME, LAST_NAME, LINK, USERNAME, THIRD_PARTY_ID, BIO, EMAIL, POLITICAL, QUOTES,
             RELIGION, WEBSITE
@@ -91,15 +100,15 @@ public class FacebookAttributesDefinition extends OAuthAttributesDefinition {
         addAttribute(FAVORITE_TEAMS, FacebookConverters.listObjectConverter);
         addAttribute(SIGNIFICANT_OTHER, FacebookConverters.objectConverter);
         addAttribute(WORK, FacebookConverters.listWorkConverter);
-        addAttribute(FRIENDS, FacebookConverters.listObjectConverter, false);
-        addAttribute(MOVIES, FacebookConverters.listInfoConverter, false);
-        addAttribute(MUSIC, FacebookConverters.listInfoConverter, false);
-        addAttribute(BOOKS, FacebookConverters.listInfoConverter, false);
-        addAttribute(LIKES, FacebookConverters.listInfoConverter, false);
-        addAttribute(ALBUMS, FacebookConverters.listPhotoConverter, false);
-        addAttribute(EVENTS, FacebookConverters.listEventConverter, false);
-        addAttribute(GROUPS, FacebookConverters.listGroupConverter, false);
-        addAttribute(MUSIC_LISTENS, FacebookConverters.listMusicListensConverter, false);
+        addAttribute(FRIENDS, FacebookConverters.listObjectConverter, false, lazyExtraData);
+        addAttribute(MOVIES, FacebookConverters.listInfoConverter, false, lazyExtraData);
+        addAttribute(MUSIC, FacebookConverters.listInfoConverter, false, lazyExtraData);
+        addAttribute(BOOKS, FacebookConverters.listInfoConverter, false, lazyExtraData);
+        addAttribute(LIKES, FacebookConverters.listInfoConverter, false, lazyExtraData);
+        addAttribute(ALBUMS, FacebookConverters.listPhotoConverter, false, lazyExtraData);
+        addAttribute(EVENTS, FacebookConverters.listEventConverter, false, lazyExtraData);
+        addAttribute(GROUPS, FacebookConverters.listGroupConverter, false, lazyExtraData);
+        addAttribute(MUSIC_LISTENS, FacebookConverters.listMusicListensConverter, false, lazyExtraData);
         addAttribute(PICTURE, FacebookConverters.pictureConverter, false);
     }
 }
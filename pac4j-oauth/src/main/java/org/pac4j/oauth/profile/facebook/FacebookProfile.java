@@ -211,9 +211,25 @@ public class FacebookProfile extends OAuth20Profile {
     
     private static final long serialVersionUID = 6339376303764855109L;
     
+    private transient boolean lazyExtraData;
+    
+    public FacebookProfile() {
+        this(false);
+    }
+    
+    /**
+     * Build a Facebook profile.
+     * 
+     * @param lazyExtraData whether the extra data lists (friends, likes, albums...) are only converted when read
+     */
+    public FacebookProfile(final boolean lazyExtraData) {
+        this.lazyExtraData = lazyExtraData;
+    }
+    
     @Override
     protected AttributesDefinition getAttributesDefinition() {
-        return OAuthAttributesDefinitions.facebookDefinition;
+        return this.lazyExtraData ? OAuthAttributesDefinitions.lazyFacebookDefinition
+                : OAuthAttributesDefinitions.facebookDefinition;
     }
     
     @Override
@@ -96,7 +96,7 @@ public class TwitterAttributesDefinition extends OAuthAttributesDefinition {
         addAttribute(SCREEN_NAME, Converters.stringConverter);
         addAttribute(SHOW_ALL_INLINE_MEDIA, Converters.booleanConverter);
         addAttribute(STATUSES_COUNT, Converters.integerConverter);
-        addAttribute(TIME_ZONE, Converters.stringConverter);
+        addAttribute(TIME_ZONE, Converters.timeZoneConverter);
         addAttribute(URL, Converters.stringConverter);
         addAttribute(UTC_OFFSET, Converters.integerConverter);
         addAttribute(VERIFIED, Converters.booleanConverter);
@@ -69,7 +69,7 @@ public class YahooAttributesDefinition extends OAuthAttributesDefinition {
         addAttribute(MEMBER_SINCE, YahooConverters.dateConverter);
         addAttribute(NICKNAME, Converters.stringConverter);
         addAttribute(PROFILE_URL, Converters.stringConverter);
-        addAttribute(TIME_ZONE, Converters.stringConverter);
+        addAttribute(TIME_ZONE, Converters.timeZoneConverter);
         addAttribute(UPDATED, YahooConverters.dateConverter);
         addAttribute(URI, Converters.stringConverter);
     }
@@ -15,7 +15,7 @@
  */
 package org.scribe.builder.api;
 
-import org.apache.commons.lang3.RandomStringUtils;
+import org.pac4j.core.util.SecureIdGenerator;
 import org.scribe.extractors.AccessTokenExtractor;
 import org.scribe.extractors.PayPalJsonExtractor;
 import org.scribe.model.OAuthConfig;
@@ -35,7 +35,7 @@ public class PayPalApi20 extends DefaultApi20 {
     public String getAuthorizationUrl(final OAuthConfig config) {
         Preconditions.checkValidUrl(config.getCallback(),
                                     "Must provide a valid url as callback. PayPal does not support OOB");
-        final String nonce = System.currentTimeMillis() + RandomStringUtils.random(10, true, true);
+        final String nonce = System.currentTimeMillis() + SecureIdGenerator.generate();
         return String.format(AUTHORIZATION_URL, config.getApiKey(), OAuthEncoder.encode(config.getCallback()),
                              OAuthEncoder.encode(config.getScope()), nonce);
     }
@@ -18,6 +18,7 @@ package org.pac4j.oauth.client;
 import junit.framework.TestCase;
 
 import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.context.Pac4jSession;
 import org.pac4j.core.exception.RequiresHttpAction;
 import org.pac4j.core.exception.TechnicalException;
 import org.pac4j.core.util.TestsConstants;
@@ -71,13 +72,13 @@ public final class BaseOAuth10ClientIT extends TestCase implements TestsConstant
     }
     
     public void testOk() throws RequiresHttpAction {
-        final OAuthCredentials credentials = (OAuthCredentials) getClient()
-            .getCredentials(MockWebContext
-                                .create()
-                                .addRequestParameter(BaseOAuth10Client.OAUTH_VERIFIER, VERIFIER)
-                                .addRequestParameter(BaseOAuth10Client.OAUTH_TOKEN, TOKEN)
-                                .addSessionAttribute(getClient().getName() + "#" + BaseOAuth10Client.REQUEST_TOKEN,
-                                                     new Token(TOKEN, SECRET)));
+        final MockWebContext context = MockWebContext.create()
+            .addRequestParameter(BaseOAuth10Client.OAUTH_VERIFIER, VERIFIER)
+            .addRequestParameter(BaseOAuth10Client.OAUTH_TOKEN, TOKEN);
+        final Pac4jSession session = Pac4jSession.get(context);
+        session.set(getClient().getName() + "#" + BaseOAuth10Client.REQUEST_TOKEN, new Token(TOKEN, SECRET));
+        session.save(context);
+        final OAuthCredentials credentials = (OAuthCredentials) getClient().getCredentials(context);
         assertNotNull(credentials);
         assertEquals(TOKEN, credentials.getToken());
         assertEquals(VERIFIER, credentials.getVerifier());
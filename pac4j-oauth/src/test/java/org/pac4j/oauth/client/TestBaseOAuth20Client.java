@@ -0,0 +1,103 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.oauth.client;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.context.HttpConstants;
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.RequiresHttpAction;
+import org.pac4j.core.state.SignedStateCodec;
+import org.pac4j.core.util.TestsConstants;
+import org.pac4j.oauth.client.exception.OAuthCredentialsException;
+import org.pac4j.oauth.credentials.OAuthCredentials;
+
+/**
+ * This class tests the {@link BaseOAuth20Client} class with a state codec.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestBaseOAuth20Client extends TestCase implements TestsConstants {
+
+    private Google2Client newClient() {
+        final Google2Client client = new Google2Client(KEY, SECRET);
+        client.setCallbackUrl(CALLBACK_URL);
+        client.setStateless(true);
+        client.setStateCodec(new SignedStateCodec("12345678901234567890123456789012"));
+        return client;
+    }
+
+    private String getState(final String location) {
+        final int start = location.indexOf("state=") + "state=".length();
+        final int end = location.indexOf('&', start);
+        return end < 0 ? location.substring(start) : location.substring(start, end);
+    }
+
+    public void testStateWithoutSession() throws RequiresHttpAction {
+        final Google2Client client = newClient();
+        final MockWebContext context = MockWebContext.create();
+        context.setFullRequestURL(PAC4J_URL);
+        final String location = client.getRedirectAction(context, true, false).getLocation();
+        assertNull(context.getSessionAttribute(client.getName() + "#oauth20StateParameter"));
+        final String cookie = context.getResponseHeaders().get(HttpConstants.SET_COOKIE_HEADER);
+        final MockWebContext callbackContext = MockWebContext.create().addRequestParameter("state", getState(location))
+            .addRequestParameter(BaseOAuth20Client.OAUTH_CODE, CODE)
+            .addRequestHeader(HttpConstants.COOKIE_HEADER, cookie.substring(0, cookie.indexOf(';')));
+        final OAuthCredentials credentials = client.getCredentials(callbackContext);
+        assertEquals(CODE, credentials.getVerifier());
+        assertEquals(PAC4J_URL, credentials.getRequestedUrl());
+        // without the binding cookie of the browser (login CSRF)
+        final MockWebContext forgedContext = MockWebContext.create().addRequestParameter("state", getState(location))
+            .addRequestParameter(BaseOAuth20Client.OAUTH_CODE, CODE);
+        try {
+            client.getCredentials(forgedContext);
+            fail("should fail");
+        } catch (final OAuthCredentialsException e) {
+            assertEquals("Invalid state parameter: Missing state binding cookie", e.getMessage());
+        }
+    }
+
+    public void testStateParameterOverride() throws RequiresHttpAction {
+        final Google2Client client = new Google2Client(KEY, SECRET) {
+            @Override
+            protected String getStateParameter(final WebContext webContext) {
+                return VALUE;
+            }
+        };
+        client.setCallbackUrl(CALLBACK_URL);
+        final SignedStateCodec codec = new SignedStateCodec("12345678901234567890123456789012");
+        client.setStateCodec(codec);
+        final MockWebContext context = MockWebContext.create();
+        final String location = client.getRedirectAction(context, true, false).getLocation();
+        final String cookie = context.getResponseHeaders().get(HttpConstants.SET_COOKIE_HEADER);
+        assertEquals(VALUE, codec.decode(getState(location), client.getName(), MockWebContext.create()
+                .addRequestHeader(HttpConstants.COOKIE_HEADER, cookie.substring(0, cookie.indexOf(';')))).getState());
+    }
+
+    public void testBadState() throws RequiresHttpAction {
+        final Google2Client client = newClient();
+        final MockWebContext callbackContext = MockWebContext.create().addRequestParameter("state", VALUE)
+            .addRequestParameter(BaseOAuth20Client.OAUTH_CODE, CODE);
+        try {
+            client.getCredentials(callbackContext);
+            fail("should fail");
+        } catch (final OAuthCredentialsException e) {
+            assertEquals("Invalid state parameter: Malformed state token", e.getMessage());
+        }
+    }
+}
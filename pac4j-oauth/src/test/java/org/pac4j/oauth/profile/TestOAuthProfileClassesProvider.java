@@ -0,0 +1,72 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.oauth.profile;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.pac4j.core.kryo.KryoProfileRegistrar;
+import org.pac4j.core.kryo.UserProfileSerializer;
+import org.pac4j.core.util.TestsConstants;
+import org.pac4j.core.util.TestsHelper;
+import org.pac4j.oauth.profile.facebook.FacebookAttributesDefinition;
+import org.pac4j.oauth.profile.facebook.FacebookEducation;
+import org.pac4j.oauth.profile.facebook.FacebookProfile;
+import org.pac4j.oauth.profile.facebook.FacebookRelationshipStatus;
+
+import com.esotericsoftware.kryo.Kryo;
+
+/**
+ * This class tests the Kryo serialization of the OAuth profiles with the classes of the
+ * {@link OAuthProfileClassesProvider}.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class TestOAuthProfileClassesProvider extends TestCase implements TestsConstants {
+
+    private static final String FACEBOOK_OBJECT = "{\"id\": \"" + STRING_ID + "\", \"name\": \"" + NAME + "\"}";
+
+    private static final String EDUCATION = "[{\"school\": " + FACEBOOK_OBJECT + ", \"concentration\": ["
+                                            + FACEBOOK_OBJECT + "], \"type\": \"" + TYPE + "\"}]";
+
+    public void testFacebookProfile() {
+        final Kryo kryo = KryoProfileRegistrar.register(new Kryo());
+        assertTrue(kryo.getSerializer(FacebookProfile.class) instanceof UserProfileSerializer);
+
+        final FacebookProfile profile = new FacebookProfile();
+        profile.setId(STRING_ID);
+        profile.addAttribute(FacebookAttributesDefinition.NAME, NAME);
+        profile.addAttribute(FacebookAttributesDefinition.EDUCATION, EDUCATION);
+        profile.addAttribute(FacebookAttributesDefinition.HOMETOWN, FACEBOOK_OBJECT);
+        profile.addAttribute(FacebookAttributesDefinition.RELATIONSHIP_STATUS, "married");
+
+        final FacebookProfile profile2 = (FacebookProfile) TestsHelper.unserializeKryo(kryo,
+                TestsHelper.serializeKryo(kryo, profile));
+        assertEquals(STRING_ID, profile2.getId());
+        assertEquals(NAME, profile2.getDisplayName());
+        assertEquals(STRING_ID, profile2.getHometown().getId());
+        assertEquals(NAME, profile2.getHometown().getName());
+        assertEquals(FacebookRelationshipStatus.MARRIED, profile2.getRelationshipStatus());
+        final List<FacebookEducation> educations = profile2.getEducation();
+        assertEquals(1, educations.size());
+        final FacebookEducation education = educations.get(0);
+        assertEquals(NAME, education.getSchool().getName());
+        assertEquals(STRING_ID, education.getConcentration().get(0).getId());
+        assertEquals(TYPE, education.getType());
+    }
+}
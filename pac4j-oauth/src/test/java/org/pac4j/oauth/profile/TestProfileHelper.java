@@ -67,6 +67,13 @@ public final class TestProfileHelper extends org.pac4j.core.profile.TestProfileH
         assertNotNull(ProfileHelper.buildProfile("YahooProfile" + "#" + STRING_ID, EMPTY_MAP));
     }
     
+    public void testBuildProfileOtherProfiles() {
+        for (final String type : new String[] { "BitbucketProfile", "FoursquareProfile", "LinkedIn2Profile",
+            "OrcidProfile", "PayPalProfile", "StravaProfile", "VkProfile" }) {
+            assertEquals(type, ProfileHelper.buildProfile(type + "#" + STRING_ID, EMPTY_MAP).getClass().getSimpleName());
+        }
+    }
+    
     @Override
     protected Class<? extends CommonProfile> getProfileClass() {
         return FacebookProfile.class;
@@ -16,21 +16,34 @@
 
 package org.pac4j.oidc.client;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URL;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import org.pac4j.core.client.BaseClient;
 import org.pac4j.core.client.Mechanism;
 import org.pac4j.core.client.RedirectAction;
+import org.pac4j.core.context.Pac4jSession;
 import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.CredentialsException;
 import org.pac4j.core.exception.RequiresHttpAction;
 import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.metrics.MeasuredCall;
+import org.pac4j.core.metrics.Phase;
+import org.pac4j.core.state.SignedState;
+import org.pac4j.core.state.SignedStateCodec;
 import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.SecureIdGenerator;
+import org.pac4j.core.util.SharedResourceFactory;
+import org.pac4j.core.util.SharedResources;
 import org.pac4j.oidc.credentials.OidcCredentials;
 import org.pac4j.oidc.profile.OidcProfile;
 
@@ -56,6 +69,7 @@ import com.nimbusds.oauth2.sdk.auth.ClientAuthenticationMethod;
 import com.nimbusds.oauth2.sdk.auth.ClientSecretBasic;
 import com.nimbusds.oauth2.sdk.auth.ClientSecretPost;
 import com.nimbusds.oauth2.sdk.auth.Secret;
+import com.nimbusds.oauth2.sdk.http.HTTPRequest;
 import com.nimbusds.oauth2.sdk.http.HTTPResponse;
 import com.nimbusds.oauth2.sdk.id.ClientID;
 import com.nimbusds.oauth2.sdk.id.State;
@@ -171,25 +185,32 @@ public class OidcClient extends BaseClient<OidcCredentials, OidcProfile> {
         this._clientID = new ClientID(this.clientId);
         this._secret = new Secret(this.secret);
 
-        JWKSet jwkSet;
-        // Download OIDC metadata and Json Web Key Set
         try {
-            DefaultResourceRetriever resourceRetriever = new DefaultResourceRetriever();
-            this.oidcProvider = OIDCProviderMetadata.parse(resourceRetriever.retrieveResource(
-                    new URL(this.discoveryURI)).getContent());
-            jwkSet = JWKSet.parse(resourceRetriever.retrieveResource(this.oidcProvider.getJWKSetURI().toURL())
-                    .getContent());
-
             this.redirectURI = new URI(getCallbackUrl());
         } catch (Exception e) {
             throw new TechnicalException(e);
         }
-        // Get available client authentication method
-        ClientAuthenticationMethod method = getClientAuthenticationMethod();
-        this.clientAuthentication = getClientAuthentication(method);
-        // Init JWT decoder
-        this.jwtDecoder = new DefaultJWTDecoder();
-        initJwtDecoder(this.jwtDecoder, jwkSet);
+        // Download OIDC metadata and Json Web Key Set (once for all the clients with the same discovery URI)
+        final List<SharedResources.Lease<?>> leases = new ArrayList<SharedResources.Lease<?>>();
+        final ProviderResources providerResources = acquireSharedResource(leases,
+                Arrays.asList("oidc.provider", this.discoveryURI), new SharedResourceFactory<ProviderResources>() {
+                    public ProviderResources create() {
+                        return ProviderResources.retrieve(OidcClient.this.discoveryURI);
+                    }
+                });
+        try {
+            this.oidcProvider = providerResources.metadata;
+            // Get available client authentication method
+            ClientAuthenticationMethod method = getClientAuthenticationMethod();
+            this.clientAuthentication = getClientAuthentication(method);
+            // Init JWT decoder
+            this.jwtDecoder = new DefaultJWTDecoder();
+            initJwtDecoder(this.jwtDecoder, providerResources.jwkSet);
+        } catch (final RuntimeException e) {
+            SharedResources.releaseAll(leases);
+            throw e;
+        }
+        replaceSharedResources(leases);
 
     }
 
@@ -214,15 +235,28 @@ public class OidcClient extends BaseClient<OidcCredentials, OidcProfile> {
 
         Map<String, String> params = new HashMap<String, String>(this.authParams);
 
-        // Init state for CSRF mitigation
-        State state = new State();
-        params.put("state", state.getValue());
-        context.setSessionAttribute(STATE_ATTRIBUTE, state);
-        // Init nonce for replay attack mitigation
-        if (useNonce()) {
-            Nonce nonce = new Nonce();
-            params.put("nonce", nonce.getValue());
-            context.setSessionAttribute(NONCE_ATTRIBUTE, nonce.getValue());
+        final SignedStateCodec stateCodec = getStateCodec();
+        if (stateCodec != null) {
+            // the state and the nonce are carried by the signed token, nothing is saved in the session
+            final SignedState signedState = stateCodec.newState(context, getName(), SecureIdGenerator.generate(),
+                                                                useNonce());
+            params.put("state", stateCodec.encode(signedState));
+            if (signedState.getNonce() != null) {
+                params.put("nonce", signedState.getNonce());
+            }
+        } else {
+            // Init state for CSRF mitigation
+            final Pac4jSession session = Pac4jSession.get(context);
+            State state = new State(SecureIdGenerator.generate());
+            params.put("state", state.getValue());
+            session.set(STATE_ATTRIBUTE, state.getValue());
+            // Init nonce for replay attack mitigation
+            if (useNonce()) {
+                Nonce nonce = new Nonce(SecureIdGenerator.generate());
+                params.put("nonce", nonce.getValue());
+                session.set(NONCE_ATTRIBUTE, nonce.getValue());
+            }
+            session.save(context);
         }
 
         // Build authentication request query string
@@ -260,14 +294,42 @@ public class OidcClient extends BaseClient<OidcCredentials, OidcProfile> {
         AuthenticationSuccessResponse successResponse = (AuthenticationSuccessResponse) response;
 
         // state value must be equal
-        if (!successResponse.getState().equals(context.getSessionAttribute(STATE_ATTRIBUTE))) {
+        final State state = successResponse.getState();
+        final SignedStateCodec stateCodec = getStateCodec();
+        SignedState signedState = null;
+        if (stateCodec != null) {
+            try {
+                signedState = stateCodec.decode(state == null ? null : state.getValue(), getName(), context);
+            } catch (final CredentialsException e) {
+                throw new TechnicalException("Invalid state parameter: " + e.getMessage());
+            }
+        } else if (state == null || !state.getValue().equals(getSessionState(context))) {
             throw new TechnicalException("State parameter is different from the one sent in authentication request. "
                     + "Session expired or possible threat of cross-site request forgery");
         }
         // Get authorization code
         AuthorizationCode code = successResponse.getAuthorizationCode();
 
-        return new OidcCredentials(code);
+        final OidcCredentials credentials = new OidcCredentials(code);
+        if (signedState != null) {
+            credentials.setNonce(signedState.getNonce());
+            credentials.setRequestedUrl(signedState.getRequestedUrl());
+        }
+        return credentials;
+    }
+
+    private HTTPResponse sendToProvider(final HTTPRequest request, final Phase phase) throws IOException {
+        return measure(phase, new MeasuredCall<HTTPResponse, IOException>() {
+            @Override
+            public HTTPResponse call() throws IOException {
+                return request.send();
+            }
+
+            @Override
+            public boolean isError(final HTTPResponse response) {
+                return response.getStatusCode() != HTTPResponse.SC_OK;
+            }
+        });
     }
 
     @Override
@@ -279,7 +341,7 @@ public class OidcClient extends BaseClient<OidcCredentials, OidcProfile> {
         HTTPResponse httpResponse;
         try {
             // Token request
-            httpResponse = request.toHTTPRequest().send();
+            httpResponse = sendToProvider(request.toHTTPRequest(), Phase.TOKEN_EXCHANGE);
             logger.debug("Token response: status={}, content={}", httpResponse.getStatusCode(),
                     httpResponse.getContent());
 
@@ -297,7 +359,7 @@ public class OidcClient extends BaseClient<OidcCredentials, OidcProfile> {
             if (this.oidcProvider.getUserInfoEndpointURI() != null) {
                 UserInfoRequest userInfoRequest = new UserInfoRequest(this.oidcProvider.getUserInfoEndpointURI(),
                         accessToken);
-                httpResponse = userInfoRequest.toHTTPRequest().send();
+                httpResponse = sendToProvider(userInfoRequest.toHTTPRequest(), Phase.PROVIDER_CALL);
                 logger.debug("Token response: status={}, content={}", httpResponse.getStatusCode(),
                         httpResponse.getContent());
 
@@ -316,7 +378,9 @@ public class OidcClient extends BaseClient<OidcCredentials, OidcProfile> {
             ReadOnlyJWTClaimsSet claimsSet = this.jwtDecoder.decodeJWT(tokenSuccessResponse.getIDToken());
             if (useNonce()) {
                 String nonce = claimsSet.getStringClaim("nonce");
-                if (nonce == null || !nonce.equals(context.getSessionAttribute(NONCE_ATTRIBUTE))) {
+                final Object expectedNonce = getStateCodec() != null ? credentials.getNonce()
+                        : Pac4jSession.get(context).get(NONCE_ATTRIBUTE);
+                if (nonce == null || !nonce.equals(expectedNonce)) {
                     throw new TechnicalException(
                             "A nonce was sent in the authentication request but it is missing or different in the ID Token. "
                                     + "Session expired or possible threat of cross-site request forgery");
@@ -421,4 +485,38 @@ public class OidcClient extends BaseClient<OidcCredentials, OidcProfile> {
         this.authParams = authParams;
     }
 
+
+    /**
+     * The metadata and the Json Web Key Set of an OpenID Connect provider, shared by its clients.
+     */
+    private static final class ProviderResources {
+
+        private final OIDCProviderMetadata metadata;
+
+        private final JWKSet jwkSet;
+
+        private ProviderResources(final OIDCProviderMetadata metadata, final JWKSet jwkSet) {
+            this.metadata = metadata;
+            this.jwkSet = jwkSet;
+        }
+
+        private static ProviderResources retrieve(final String discoveryURI) {
+            try {
+                final DefaultResourceRetriever resourceRetriever = new DefaultResourceRetriever();
+                final OIDCProviderMetadata metadata = OIDCProviderMetadata.parse(resourceRetriever.retrieveResource(
+                        new URL(discoveryURI)).getContent());
+                final JWKSet jwkSet = JWKSet.parse(resourceRetriever.retrieveResource(
+                        metadata.getJWKSetURI().toURL()).getContent());
+                return new ProviderResources(metadata, jwkSet);
+            } catch (final Exception e) {
+                throw new TechnicalException(e);
+            }
+        }
+    }
+
+    // the state saved in session: its value or a State object for the sessions created by the former versions
+    private static String getSessionState(final WebContext context) {
+        final Object state = Pac4jSession.get(context).get(STATE_ATTRIBUTE);
+        return state instanceof State ? ((State) state).getValue() : (String) state;
+    }
 }
@@ -30,6 +30,8 @@ public class OidcCredentials extends Credentials {
 
     private final AuthorizationCode code;
 
+    private String nonce;
+
     public OidcCredentials(AuthorizationCode code) {
         this.code = code;
     }
@@ -40,4 +42,18 @@ public class OidcCredentials extends Credentials {
         return this.code;
     }
 
+    /**
+     * Return the nonce sent in the authentication request, when it is carried by the signed state instead of the web
+     * session.
+     * 
+     * @return the nonce
+     */
+    public String getNonce() {
+        return this.nonce;
+    }
+
+    public void setNonce(final String nonce) {
+        this.nonce = nonce;
+    }
+
 }
@@ -0,0 +1,38 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.oidc.profile;
+
+import java.util.Arrays;
+import java.util.List;
+
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+
+import org.pac4j.core.kryo.ProfileClassesProvider;
+
+/**
+ * This class provides the classes of the JSON claims of the OpenID Connect profiles (like the address) to the
+ * {@link org.pac4j.core.kryo.KryoProfileRegistrar}.
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class OidcProfileClassesProvider implements ProfileClassesProvider {
+
+    public List<Class<?>> getClasses() {
+        return Arrays.<Class<?>> asList(JSONArray.class, JSONObject.class);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.oidc.profile;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.pac4j.core.profile.ProfileFactory;
+import org.pac4j.core.profile.ProfileFactoryProvider;
+import org.pac4j.core.profile.UserProfile;
+
+/**
+ * This class provides the factories of the OpenID Connect profiles to the {@link org.pac4j.core.profile.ProfileFactoryRegistry}.
+ *
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class OidcProfileFactoryProvider implements ProfileFactoryProvider {
+
+    public Map<String, ProfileFactory<? extends UserProfile>> getProfileFactories() {
+        final Map<String, ProfileFactory<? extends UserProfile>> factories = new LinkedHashMap<String, ProfileFactory<? extends UserProfile>>();
+        factories.put("OidcProfile", new ProfileFactory<OidcProfile>() {
+            public OidcProfile newProfile() {
+                return new OidcProfile();
+            }
+        });
+        return factories;
+    }
+}
@@ -30,8 +30,11 @@ import org.openid4java.message.ax.FetchRequest;
 import org.pac4j.core.client.BaseClient;
 import org.pac4j.core.client.Mechanism;
 import org.pac4j.core.client.RedirectAction;
+import org.pac4j.core.context.Pac4jSession;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.metrics.MeasuredCall;
+import org.pac4j.core.metrics.Phase;
 import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.util.CommonHelper;
 import org.pac4j.openid.credentials.OpenIdCredentials;
@@ -69,9 +72,9 @@ public abstract class BaseOpenIdClient<U extends CommonProfile> extends BaseClie
     protected abstract String getUser(WebContext context);
 
     /**
-     * Return the name of the attribute storing in session the discovery information.
+     * Return the key storing the discovery information in the {@link Pac4jSession}.
      * 
-     * @return the name of the attribute storing in session the discovery information
+     * @return the key storing the discovery information in the pac4j session
      */
     protected String getDiscoveryInformationSessionAttributeName() {
         return getName() + "#" + DISCOVERY_INFORMATION;
@@ -100,7 +103,9 @@ public abstract class BaseOpenIdClient<U extends CommonProfile> extends BaseClie
             final DiscoveryInformation discoveryInformation = this.consumerManager.associate(discoveries);
 
             // save discovery information in session
-            context.setSessionAttribute(getDiscoveryInformationSessionAttributeName(), discoveryInformation);
+            final Pac4jSession session = Pac4jSession.get(context);
+            session.set(getDiscoveryInformationSessionAttributeName(), discoveryInformation);
+            session.save(context);
 
             final String contextualCallbackUrl = getContextualCallbackUrl(context);
             // create authentication request to be sent to the OpenID provider
@@ -140,8 +145,8 @@ public abstract class BaseOpenIdClient<U extends CommonProfile> extends BaseClie
         final ParameterList parameterList = new ParameterList(context.getRequestParameters());
 
         // retrieve the previously stored discovery information
-        final DiscoveryInformation discoveryInformation = (DiscoveryInformation) context
-                .getSessionAttribute(getDiscoveryInformationSessionAttributeName());
+        final DiscoveryInformation discoveryInformation = (DiscoveryInformation) Pac4jSession.get(context)
+                .get(getDiscoveryInformationSessionAttributeName());
 
         // create credentials
         final OpenIdCredentials credentials = new OpenIdCredentials(discoveryInformation, parameterList, getName());
@@ -168,8 +173,14 @@ public abstract class BaseOpenIdClient<U extends CommonProfile> extends BaseClie
         try {
             final String contextualCallbackUrl = getContextualCallbackUrl(context);
             // verify the response
-            final VerificationResult verification = this.consumerManager.verify(contextualCallbackUrl, parameterList,
-                    discoveryInformation);
+            final VerificationResult verification = measure(Phase.PROVIDER_CALL,
+                    new MeasuredCall<VerificationResult, OpenIDException>() {
+                        @Override
+                        public VerificationResult call() throws OpenIDException {
+                            return BaseOpenIdClient.this.consumerManager.verify(contextualCallbackUrl, parameterList,
+                                    discoveryInformation);
+                        }
+                    });
 
             // examine the verification result and extract the verified identifier
             final Identifier verified = verification.getVerifiedId();
@@ -19,6 +19,7 @@ package org.pac4j.saml.client;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Timer;
 
@@ -61,10 +62,14 @@ import org.opensaml.xml.signature.SignatureTrustEngine;
 import org.pac4j.core.client.BaseClient;
 import org.pac4j.core.client.Mechanism;
 import org.pac4j.core.client.RedirectAction;
+import org.pac4j.core.context.Pac4jSession;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.exception.RequiresHttpAction;
 import org.pac4j.core.exception.TechnicalException;
 import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.DestroyableSharedResourceFactory;
+import org.pac4j.core.util.SharedResourceFactory;
+import org.pac4j.core.util.SharedResources;
 import org.pac4j.saml.context.ExtendedSAMLMessageContext;
 import org.pac4j.saml.context.Saml2ContextProvider;
 import org.pac4j.saml.credentials.Saml2Credentials;
@@ -73,6 +78,7 @@ import org.pac4j.saml.crypto.EncryptionProvider;
 import org.pac4j.saml.crypto.SignatureTrustEngineProvider;
 import org.pac4j.saml.exceptions.SamlException;
 import org.pac4j.saml.metadata.Saml2MetadataGenerator;
+import org.pac4j.saml.metadata.SharedMetadataProvider;
 import org.pac4j.saml.profile.Saml2Profile;
 import org.pac4j.saml.sso.Saml2AuthnRequestBuilder;
 import org.pac4j.saml.sso.Saml2ResponseValidator;
@@ -145,6 +151,23 @@ public class Saml2Client extends BaseClient<Saml2Credentials, Saml2Profile> {
 
     @Override
     protected void internalInit() {
+        final List<SharedResources.Lease<?>> leases = new ArrayList<SharedResources.Lease<?>>();
+        try {
+            initialize(leases);
+        } catch (final RuntimeException e) {
+            SharedResources.releaseAll(leases);
+            throw e;
+        }
+        replaceSharedResources(leases);
+    }
+
+    /**
+     * Initialize the client: the parser pool, the velocity engine, the key material and the parsed IdP metadata are
+     * shared with the other clients having the same settings.
+     * 
+     * @param leases the leases on the shared resources, completed by this initialization
+     */
+    private void initialize(final List<SharedResources.Lease<?>> leases) {
 
         CommonHelper.assertTrue(
                 CommonHelper.isNotBlank(this.idpMetadata) || CommonHelper.isNotBlank(this.idpMetadataPath),
@@ -161,8 +184,14 @@ public class Saml2Client extends BaseClient<Saml2Credentials, Saml2Profile> {
             CommonHelper.assertNotBlank("privateKeyPassword", this.privateKeyPassword);
 
             // load private key from the keystore and provide it as OpenSAML credentials
-            this.credentialProvider = new CredentialProvider(this.keystorePath, this.keystorePassword,
-                    this.privateKeyPassword);
+            this.credentialProvider = acquireSharedResource(leases,
+                    Arrays.asList("saml2.credentials", this.keystorePath, this.keystorePassword,
+                            this.privateKeyPassword), new SharedResourceFactory<CredentialProvider>() {
+                        public CredentialProvider create() {
+                            return new CredentialProvider(Saml2Client.this.keystorePath,
+                                    Saml2Client.this.keystorePassword, Saml2Client.this.privateKeyPassword);
+                        }
+                    });
             this.decrypter = new EncryptionProvider(this.credentialProvider).buildDecrypter();
         }
 
@@ -180,8 +209,24 @@ public class Saml2Client extends BaseClient<Saml2Credentials, Saml2Profile> {
         }
 
         // required parserPool for XML processing
-        final StaticBasicParserPool parserPool = newStaticBasicParserPool();
-        final AbstractMetadataProvider idpMetadataProvider = idpMetadataProvider(parserPool);
+        final StaticBasicParserPool parserPool = acquireSharedResource(leases,
+                Arrays.asList("saml2.parserPool", getClass()), new SharedResourceFactory<StaticBasicParserPool>() {
+                    public StaticBasicParserPool create() {
+                        return newStaticBasicParserPool();
+                    }
+                });
+        // the metadata is parsed once for all the clients with the same metadata content or path
+        final AbstractMetadataProvider idpMetadataProvider = acquireSharedResource(leases,
+                Arrays.asList("saml2.idpMetadata", getClass(), this.idpMetadataPath, this.idpMetadata),
+                new DestroyableSharedResourceFactory<AbstractMetadataProvider>() {
+                    public AbstractMetadataProvider create() {
+                        return idpMetadataProvider(parserPool);
+                    }
+
+                    public void destroy(final AbstractMetadataProvider provider) {
+                        destroyIdpMetadataProvider(provider);
+                    }
+                });
 
         final XMLObject md;
         try {
@@ -225,7 +270,7 @@ public class Saml2Client extends BaseClient<Saml2Credentials, Saml2Profile> {
         // Put IDP and SP metadata together
         ChainingMetadataProvider metadataManager = new ChainingMetadataProvider();
         try {
-            metadataManager.addMetadataProvider(idpMetadataProvider);
+            metadataManager.addMetadataProvider(new SharedMetadataProvider(idpMetadataProvider));
             metadataManager.addMetadataProvider(spMetadataProvider);
         } catch (MetadataProviderException e) {
             throw new TechnicalException("Error adding idp or sp metadatas to manager", e);
@@ -242,7 +287,12 @@ public class Saml2Client extends BaseClient<Saml2Credentials, Saml2Profile> {
         MessageEncoder encoder = null;
         if (SAMLConstants.SAML2_POST_BINDING_URI.equals(destinationBindingType)) {
             // Get a velocity engine for the HTTP-POST binding (building of an HTML document)
-            VelocityEngine velocityEngine = VelocityEngineFactory.getEngine();
+            VelocityEngine velocityEngine = acquireSharedResource(leases, "saml2.velocityEngine",
+                    new SharedResourceFactory<VelocityEngine>() {
+                        public VelocityEngine create() {
+                            return VelocityEngineFactory.getEngine();
+                        }
+                    });
             encoder = new HTTPPostEncoder(velocityEngine, "/templates/saml2-post-binding.vm");
         } else if (SAMLConstants.SAML2_REDIRECT_BINDING_URI.equals(destinationBindingType)) {
             encoder = new HTTPRedirectDeflateEncoder();
@@ -338,7 +388,8 @@ public class Saml2Client extends BaseClient<Saml2Credentials, Saml2Profile> {
     }
 
     protected AbstractMetadataProvider idpMetadataProvider(ParserPool parserPool) {
-        AbstractMetadataProvider idpMetadataProvider;
+        AbstractMetadataProvider idpMetadataProvider = null;
+        boolean initialized = false;
         try {
             if (idpMetadataPath != null) {
                 Resource resource = null;
@@ -351,7 +402,7 @@ public class Saml2Client extends BaseClient<Saml2Credentials, Saml2Profile> {
                 } else {
                     resource = new FilesystemResource(this.idpMetadataPath);
                 }
-                idpMetadataProvider = new ResourceBackedMetadataProvider(new Timer(true), resource);
+                idpMetadataProvider = TimedResourceBackedMetadataProvider.create(resource);
             } else {
                 InputStream in = new ByteArrayInputStream(idpMetadata.getBytes());
                 Document inCommonMDDoc = parserPool.parse(in);
@@ -360,16 +411,61 @@ public class Saml2Client extends BaseClient<Saml2Credentials, Saml2Profile> {
             }
             idpMetadataProvider.setParserPool(parserPool);
             idpMetadataProvider.initialize();
+            initialized = true;
         } catch (MetadataProviderException e) {
             throw new SamlException("Error initializing idpMetadataProvider", e);
         } catch (XMLParserException e) {
             throw new TechnicalException("Error parsing idp Metadata", e);
         } catch (ResourceException e) {
             throw new TechnicalException("Error getting idp Metadata resource", e);
+        } finally {
+            if (!initialized) {
+                destroyIdpMetadataProvider(idpMetadataProvider);
+            }
         }
         return idpMetadataProvider;
     }
 
+    /**
+     * Stop the reloading of the idp metadata, when it is no longer used.
+     * 
+     * @param idpMetadataProvider the idp metadata provider
+     */
+    protected void destroyIdpMetadataProvider(final AbstractMetadataProvider idpMetadataProvider) {
+        if (idpMetadataProvider instanceof TimedResourceBackedMetadataProvider) {
+            ((TimedResourceBackedMetadataProvider) idpMetadataProvider).destroy();
+        }
+    }
+
+    /**
+     * A metadata provider backed by a resource and reloaded by its own timer, which is cancelled on destroy.
+     */
+    private static final class TimedResourceBackedMetadataProvider extends ResourceBackedMetadataProvider {
+
+        private final Timer timer;
+
+        private TimedResourceBackedMetadataProvider(final Timer timer, final Resource resource)
+                throws MetadataProviderException {
+            super(timer, resource);
+            this.timer = timer;
+        }
+
+        private static TimedResourceBackedMetadataProvider create(final Resource resource)
+                throws MetadataProviderException {
+            final Timer timer = new Timer(true);
+            try {
+                return new TimedResourceBackedMetadataProvider(timer, resource);
+            } catch (final MetadataProviderException e) {
+                timer.cancel();
+                throw e;
+            }
+        }
+
+        private void destroy() {
+            this.timer.cancel();
+        }
+    }
+
     protected XMLObject getXmlObject(AbstractMetadataProvider idpMetadataProvider) {
         try {
             return idpMetadataProvider.getMetadata();
@@ -435,9 +531,25 @@ public class Saml2Client extends BaseClient<Saml2Credentials, Saml2Profile> {
         return profile;
     }
 
+    /**
+     * Save in session the relay state to send in the next authentication request (the callback url by default).
+     *
+     * @param context the web context
+     * @param relayState the relay state (<code>null</code> to remove it)
+     */
+    public static void setRelayState(final WebContext context, final String relayState) {
+        final Pac4jSession session = Pac4jSession.get(context);
+        session.set(SAML_RELAY_STATE_ATTRIBUTE, relayState);
+        session.save(context);
+    }
+
     @Override
     protected String getStateParameter(WebContext webContext) {
-        String relayState = (String) webContext.getSessionAttribute(SAML_RELAY_STATE_ATTRIBUTE);
+        String relayState = (String) Pac4jSession.get(webContext).get(SAML_RELAY_STATE_ATTRIBUTE);
+        if (relayState == null) {
+            // relay state directly set in session by the application
+            relayState = (String) webContext.getSessionAttribute(SAML_RELAY_STATE_ATTRIBUTE);
+        }
         return (relayState == null) ? getContextualCallbackUrl(webContext) : relayState;
     }
 
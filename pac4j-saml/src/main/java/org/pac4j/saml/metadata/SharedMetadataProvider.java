@@ -0,0 +1,89 @@
+/*
+  Copyright 2012 - 2015 pac4j organization
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.pac4j.saml.metadata;
+
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.opensaml.saml2.metadata.EntitiesDescriptor;
+import org.opensaml.saml2.metadata.EntityDescriptor;
+import org.opensaml.saml2.metadata.RoleDescriptor;
+import org.opensaml.saml2.metadata.provider.MetadataFilter;
+import org.opensaml.saml2.metadata.provider.MetadataProvider;
+import org.opensaml.saml2.metadata.provider.MetadataProviderException;
+import org.opensaml.xml.XMLObject;
+
+/**
+ * This class is a read-only view of a metadata provider shared by several clients. It is added to the
+ * {@link org.opensaml.saml2.metadata.provider.ChainingMetadataProvider} of each client instead of the shared provider,
+ * so that the chaining providers neither register observers on the shared provider (which would keep the discarded
+ * clients in memory) nor change its settings.
+ * 
+ * @author Jerome Leleu
+ * @since 1.7.1
+ */
+public final class SharedMetadataProvider implements MetadataProvider {
+
+    private final MetadataProvider provider;
+
+    public SharedMetadataProvider(final MetadataProvider provider) {
+        this.provider = provider;
+    }
+
+    public boolean requireValidMetadata() {
+        return this.provider.requireValidMetadata();
+    }
+
+    /**
+     * Ignored: the settings of the shared provider are not changed.
+     */
+    public void setRequireValidMetadata(final boolean requireValidMetadata) {
+    }
+
+    public MetadataFilter getMetadataFilter() {
+        return this.provider.getMetadataFilter();
+    }
+
+    /**
+     * Not supported: the settings of the shared provider are not changed.
+     */
+    public void setMetadataFilter(final MetadataFilter metadataFilter) throws MetadataProviderException {
+        throw new UnsupportedOperationException("The shared metadata provider cannot be filtered");
+    }
+
+    public XMLObject getMetadata() throws MetadataProviderException {
+        return this.provider.getMetadata();
+    }
+
+    public EntitiesDescriptor getEntitiesDescriptor(final String name) throws MetadataProviderException {
+        return this.provider.getEntitiesDescriptor(name);
+    }
+
+    public EntityDescriptor getEntityDescriptor(final String entityID) throws MetadataProviderException {
+        return this.provider.getEntityDescriptor(entityID);
+    }
+
+    public List<RoleDescriptor> getRole(final String entityID, final QName roleName)
+        throws MetadataProviderException {
+        return this.provider.getRole(entityID, roleName);
+    }
+
+    public RoleDescriptor getRole(final String entityID, final QName roleName, final String supportedProtocol)
+        throws MetadataProviderException {
+        return this.provider.getRole(entityID, roleName, supportedProtocol);
+    }
+}
@@ -16,8 +16,6 @@
 
 package org.pac4j.saml.sso;
 
-import java.util.Random;
-
 import org.joda.time.DateTime;
 import org.opensaml.Configuration;
 import org.opensaml.common.SAMLObjectBuilder;
@@ -38,6 +36,7 @@ import org.opensaml.saml2.metadata.IDPSSODescriptor;
 import org.opensaml.saml2.metadata.SPSSODescriptor;
 import org.opensaml.saml2.metadata.SingleSignOnService;
 import org.opensaml.xml.XMLObjectBuilderFactory;
+import org.pac4j.core.util.SecureIdGenerator;
 import org.pac4j.saml.util.SamlUtils;
 
 /**
@@ -146,8 +145,7 @@ public class Saml2AuthnRequestBuilder {
     }
 
     protected String generateID() {
-        Random r = new Random();
-        return '_' + Long.toString(Math.abs(r.nextLong()), 16) + Long.toString(Math.abs(r.nextLong()), 16);
+        return '_' + SecureIdGenerator.generate();
     }
 
     protected AuthnContextComparisonTypeEnumeration getComparisonTypeEnumFromString(String comparisonType) {
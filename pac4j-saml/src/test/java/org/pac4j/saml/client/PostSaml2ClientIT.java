@@ -100,7 +100,7 @@ public final class PostSaml2ClientIT extends Saml2ClientIT implements TestsConst
     public void testRelayState() throws RequiresHttpAction {
         Saml2Client client = (Saml2Client) getClient();
         WebContext context = MockWebContext.create();
-        context.setSessionAttribute(Saml2Client.SAML_RELAY_STATE_ATTRIBUTE, "relayState");
+        Saml2Client.setRelayState(context, "relayState");
         RedirectAction action = client.getRedirectAction(context, true, false);
         assertTrue(action.getContent().contains("<input type=\"hidden\" name=\"RelayState\" value=\"relayState\"/>"));
     }
@@ -93,7 +93,7 @@ public final class RedirectSaml2ClientIT extends Saml2ClientIT implements TestsC
     public void testRelayState() throws Exception {
         Saml2Client client = getClient();
         WebContext context = MockWebContext.create();
-        context.setSessionAttribute(Saml2Client.SAML_RELAY_STATE_ATTRIBUTE, "relayState");
+        Saml2Client.setRelayState(context, "relayState");
         RedirectAction action = client.getRedirectAction(context, true, false);
         assertTrue(action.getLocation().contains("RelayState=relayState"));
     }
@@ -20,6 +20,7 @@ import static org.junit.Assert.assertEquals;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.Test;
@@ -28,6 +29,7 @@ import org.opensaml.saml2.metadata.provider.AbstractMetadataProvider;
 import org.opensaml.xml.ConfigurationException;
 import org.opensaml.xml.XMLObject;
 import org.opensaml.xml.parse.StaticBasicParserPool;
+import org.pac4j.core.util.SharedResources;
 
 /**
  * Unit tests for the Saml2Client.
@@ -66,4 +68,28 @@ public class Saml2ClientTest {
         assertEquals("https://idp.testshib.org/idp/shibboleth", id);
     }
 
+    @Test
+    public void testSharedResources() {
+        final String path = "resource:testshib-providers.xml";
+        final Object key = Arrays.asList("saml2.idpMetadata", Saml2Client.class, path, null);
+        Saml2Client client = new Saml2Client();
+        client.setIdpMetadataPath(path);
+        client.setCallbackUrl("http://localhost:8080/callback");
+        client.init();
+        Saml2Client client2 = (Saml2Client) client.clone();
+        client2.init();
+        assertEquals(2, SharedResources.INSTANCE.getReferences(key));
+        // the re-initialization reloads the metadata instead of sharing the current one
+        client2.reinit();
+        assertEquals(1, SharedResources.INSTANCE.getReferences(key));
+        Saml2Client client3 = (Saml2Client) client.clone();
+        client3.init();
+        assertEquals(2, SharedResources.INSTANCE.getReferences(key));
+        client2.releaseSharedResources();
+        client3.releaseSharedResources();
+        assertEquals(0, SharedResources.INSTANCE.getReferences(key));
+        client.releaseSharedResources();
+        assertEquals(0, SharedResources.INSTANCE.getReferences(key));
+        assertEquals(0, SharedResources.INSTANCE.size());
+    }
 }